@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.benchmarks;
+
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemChoco;
+
+/**
+ * Sets the static configuration of SymbolicInstructionFactory that solving
+ * depends on, without a JPF Config: the benchmarks call the solvers directly.
+ * The values are the defaults of the corresponding symbolic.* properties.
+ */
+final class BenchmarkConfig {
+
+  private BenchmarkConfig() {
+  }
+
+  static void configure(String dp, String stringDp) {
+    SymbolicInstructionFactory.dp = new String[] { dp };
+    SymbolicInstructionFactory.string_dp = new String[] { stringDp };
+    SymbolicInstructionFactory.debugMode = false;
+    SymbolicInstructionFactory.regressMode = false;
+    SymbolicInstructionFactory.maxPcLength = Integer.MAX_VALUE;
+    SymbolicInstructionFactory.maxPcMSec = 0;
+    SymbolicInstructionFactory.stringTimeout = 0;
+    SymbolicInstructionFactory.preprocesOnly = false;
+    ProblemChoco.timeBound = 30000;
+  }
+}
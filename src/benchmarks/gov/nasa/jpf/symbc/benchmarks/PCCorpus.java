@@ -0,0 +1,479 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.benchmarks;
+
+import gov.nasa.jpf.symbc.numeric.Comparator;
+import gov.nasa.jpf.symbc.numeric.Expression;
+import gov.nasa.jpf.symbc.numeric.IntegerConstant;
+import gov.nasa.jpf.symbc.numeric.IntegerExpression;
+import gov.nasa.jpf.symbc.numeric.MathFunction;
+import gov.nasa.jpf.symbc.numeric.MathRealExpression;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.RealConstant;
+import gov.nasa.jpf.symbc.numeric.RealExpression;
+import gov.nasa.jpf.symbc.numeric.SymbolicInteger;
+import gov.nasa.jpf.symbc.numeric.SymbolicReal;
+import gov.nasa.jpf.symbc.string.StringComparator;
+import gov.nasa.jpf.symbc.string.StringConstant;
+import gov.nasa.jpf.symbc.string.StringExpression;
+import gov.nasa.jpf.symbc.string.StringSymbolic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The path conditions the benchmarks run on, read from corpus/pcs.txt.
+ *
+ * The corpus is a list of blocks:
+ *
+ * <pre>
+ * pc name
+ * int x -100 100
+ * real r -1.0 1.0
+ * string s
+ * (&lt;= (+ x 1) 5)
+ * (startswith s "http")
+ * end
+ * </pre>
+ *
+ * Constraints are prefix expressions. Numeric comparisons are == != &lt;
+ * &lt;= &gt; &gt;=; arithmetic is + - * / % &amp; | ^ &lt;&lt; &gt;&gt;
+ * &gt;&gt;&gt;, the math functions are sin cos tan exp log sqrt asin acos atan
+ * pow atan2. On strings there are length, indexof, concat, trim and
+ * substring, and the predicates equals notequals startswith notstartswith
+ * endswith notendswith contains notcontains empty notempty, with the receiver
+ * of the Java method first. Lines starting with '#' are comments.
+ *
+ * The expressions are parsed once; {@link Entry#build()} creates fresh
+ * variables and constraints every time it is called, as the symbolic
+ * execution would.
+ */
+public final class PCCorpus {
+
+  public static final String RESOURCE = "corpus/pcs.txt";
+
+  private static List<Entry> corpus = null;
+
+  public static synchronized List<Entry> get() {
+    if (corpus == null) {
+      InputStream in = PCCorpus.class.getClassLoader().getResourceAsStream(RESOURCE);
+      if (in == null) {
+        throw new RuntimeException("## Error: benchmark corpus " + RESOURCE + " not found in the classpath");
+      }
+      try {
+        corpus = Collections.unmodifiableList(load(new InputStreamReader(in, "UTF-8")));
+      } catch (IOException e) {
+        throw new RuntimeException("## Error: cannot read the benchmark corpus " + RESOURCE, e);
+      }
+    }
+    return corpus;
+  }
+
+  /**
+   * The entries without string variables, or only those with.
+   */
+  public static List<Entry> get(boolean strings) {
+    List<Entry> result = new ArrayList<Entry>();
+    for (Entry e : get()) {
+      if (e.hasStrings() == strings) {
+        result.add(e);
+      }
+    }
+    return result;
+  }
+
+  public static Entry get(String name) {
+    for (Entry e : get()) {
+      if (e.name.equals(name)) {
+        return e;
+      }
+    }
+    throw new IllegalArgumentException("## Error: no path condition " + name + " in the benchmark corpus");
+  }
+
+  public static List<Entry> load(Reader reader) throws IOException {
+    List<Entry> entries = new ArrayList<Entry>();
+    BufferedReader in = new BufferedReader(reader);
+    Entry entry = null;
+    String line;
+    int lineNumber = 0;
+    while ((line = in.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      try {
+        if (entry == null) {
+          if (!line.startsWith("pc ")) {
+            throw new IllegalArgumentException("expected 'pc <name>'");
+          }
+          entry = new Entry(line.substring(3).trim());
+        } else if (line.equals("end")) {
+          entries.add(entry);
+          entry = null;
+        } else if (line.startsWith("(")) {
+          Tokenizer t = new Tokenizer(line);
+          entry.constraints.add(t.parse());
+          t.expectEnd();
+        } else {
+          entry.declare(line.split("\\s+"));
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IOException("corpus line " + lineNumber + ": " + e.getMessage(), e);
+      }
+    }
+    if (entry != null) {
+      throw new IOException("corpus: missing 'end' of " + entry.name);
+    }
+    return entries;
+  }
+
+  /**
+   * One path condition of the corpus.
+   */
+  public static final class Entry {
+    public final String name;
+    private final Map<String, String[]> variables = new LinkedHashMap<String, String[]>();
+    private final List<Node> constraints = new ArrayList<Node>();
+    private boolean strings = false;
+
+    Entry(String name) {
+      this.name = name;
+    }
+
+    void declare(String[] decl) {
+      if (decl.length == 2 && decl[0].equals("string")) {
+        strings = true;
+      } else if (decl.length != 4 || !(decl[0].equals("int") || decl[0].equals("real"))) {
+        throw new IllegalArgumentException("expected 'int|real <name> <min> <max>' or 'string <name>'");
+      }
+      variables.put(decl[1], decl);
+    }
+
+    public boolean hasStrings() {
+      return strings;
+    }
+
+    public int size() {
+      return constraints.size();
+    }
+
+    /**
+     * A new path condition with the constraints of this entry; string
+     * constraints go to its string path condition.
+     */
+    public PathCondition build() {
+      Map<String, Expression> vars = new HashMap<String, Expression>();
+      for (String[] decl : variables.values()) {
+        if (decl[0].equals("int")) {
+          vars.put(decl[1], new SymbolicInteger(decl[1], Long.parseLong(decl[2]), Long.parseLong(decl[3])));
+        } else if (decl[0].equals("real")) {
+          vars.put(decl[1], new SymbolicReal(decl[1], Double.parseDouble(decl[2]), Double.parseDouble(decl[3])));
+        } else {
+          vars.put(decl[1], new StringSymbolic(decl[1]));
+        }
+      }
+      PathCondition pc = new PathCondition();
+      for (Node c : constraints) {
+        addConstraint(pc, c, vars);
+      }
+      return pc;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /*
+   * an S-expression: an atom or an operator applied to arguments
+   */
+  static final class Node {
+    final String atom; // NULL for an application
+    final boolean quoted;
+    final String op;
+    final List<Node> args;
+
+    Node(String atom, boolean quoted) {
+      this.atom = atom;
+      this.quoted = quoted;
+      this.op = null;
+      this.args = null;
+    }
+
+    Node(String op, List<Node> args) {
+      this.atom = null;
+      this.quoted = false;
+      this.op = op;
+      this.args = args;
+    }
+
+    Node arg(int i) {
+      if (i >= args.size()) {
+        throw new IllegalArgumentException("missing argument " + (i + 1) + " of " + op);
+      }
+      return args.get(i);
+    }
+  }
+
+  private static final class Tokenizer {
+    private final String s;
+    private int pos = 0;
+
+    Tokenizer(String s) {
+      this.s = s;
+    }
+
+    private void skipSpace() {
+      while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    Node parse() {
+      skipSpace();
+      if (pos >= s.length()) {
+        throw new IllegalArgumentException("unexpected end of line");
+      }
+      char c = s.charAt(pos);
+      if (c == '(') {
+        pos++;
+        skipSpace();
+        String op = word();
+        List<Node> args = new ArrayList<Node>();
+        skipSpace();
+        while (pos < s.length() && s.charAt(pos) != ')') {
+          args.add(parse());
+          skipSpace();
+        }
+        if (pos >= s.length()) {
+          throw new IllegalArgumentException("missing ')'");
+        }
+        pos++;
+        return new Node(op, args);
+      } else if (c == '"') {
+        int end = s.indexOf('"', pos + 1);
+        if (end < 0) {
+          throw new IllegalArgumentException("unterminated string");
+        }
+        String text = s.substring(pos + 1, end);
+        pos = end + 1;
+        return new Node(text, true);
+      }
+      return new Node(word(), false);
+    }
+
+    private String word() {
+      int start = pos;
+      while (pos < s.length() && !Character.isWhitespace(s.charAt(pos)) && s.charAt(pos) != '('
+          && s.charAt(pos) != ')') {
+        pos++;
+      }
+      if (start == pos) {
+        throw new IllegalArgumentException("expected a name at column " + (pos + 1));
+      }
+      return s.substring(start, pos);
+    }
+
+    void expectEnd() {
+      skipSpace();
+      if (pos < s.length()) {
+        throw new IllegalArgumentException("unexpected text after the constraint at column " + (pos + 1));
+      }
+    }
+  }
+
+  private static final Map<String, Comparator> COMPARATORS = new HashMap<String, Comparator>();
+  private static final Map<String, StringComparator> STRING_PREDICATES = new HashMap<String, StringComparator>();
+  private static final Map<String, MathFunction> FUNCTIONS = new HashMap<String, MathFunction>();
+  static {
+    COMPARATORS.put("==", Comparator.EQ);
+    COMPARATORS.put("!=", Comparator.NE);
+    COMPARATORS.put("<", Comparator.LT);
+    COMPARATORS.put("<=", Comparator.LE);
+    COMPARATORS.put(">", Comparator.GT);
+    COMPARATORS.put(">=", Comparator.GE);
+    for (StringComparator c : new StringComparator[] { StringComparator.EQUALS, StringComparator.NOTEQUALS,
+        StringComparator.STARTSWITH, StringComparator.NOTSTARTSWITH, StringComparator.ENDSWITH,
+        StringComparator.NOTENDSWITH, StringComparator.CONTAINS, StringComparator.NOTCONTAINS,
+        StringComparator.EMPTY, StringComparator.NOTEMPTY }) {
+      STRING_PREDICATES.put(c.name().toLowerCase(), c);
+    }
+    for (MathFunction f : new MathFunction[] { MathFunction.SIN, MathFunction.COS, MathFunction.TAN,
+        MathFunction.EXP, MathFunction.LOG, MathFunction.SQRT, MathFunction.ASIN, MathFunction.ACOS,
+        MathFunction.ATAN, MathFunction.POW, MathFunction.ATAN2 }) {
+      FUNCTIONS.put(f.name().toLowerCase(), f);
+    }
+  }
+
+  private static void addConstraint(PathCondition pc, Node c, Map<String, Expression> vars) {
+    if (c.atom != null) {
+      throw new IllegalArgumentException("a constraint must be an application, not " + c.atom);
+    }
+    Comparator comparator = COMPARATORS.get(c.op);
+    if (comparator != null) {
+      pc._addDet(comparator, expression(c.arg(0), vars), expression(c.arg(1), vars));
+      return;
+    }
+    StringComparator predicate = STRING_PREDICATES.get(c.op);
+    if (predicate == null) {
+      throw new IllegalArgumentException("unknown comparison " + c.op);
+    }
+    StringExpression receiver = string(c.arg(0), vars);
+    if (predicate == StringComparator.EMPTY || predicate == StringComparator.NOTEMPTY) {
+      pc.spc._addDet(predicate, receiver);
+    } else {
+      // like SymbolicStringHandler: the argument first, then the receiver
+      pc.spc._addDet(predicate, string(c.arg(1), vars), receiver);
+    }
+  }
+
+  private static Expression expression(Node n, Map<String, Expression> vars) {
+    if (n.atom != null) {
+      if (n.quoted) {
+        return new StringConstant(n.atom);
+      }
+      Expression var = vars.get(n.atom);
+      if (var != null) {
+        return var;
+      }
+      try {
+        if (n.atom.indexOf('.') >= 0 || n.atom.indexOf('e') >= 0) {
+          return new RealConstant(Double.parseDouble(n.atom));
+        }
+        return new IntegerConstant(Long.parseLong(n.atom));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("undeclared variable " + n.atom);
+      }
+    }
+
+    MathFunction f = FUNCTIONS.get(n.op);
+    if (f != null) {
+      if (n.args.size() == 1) {
+        return new MathRealExpression(f, real(n.arg(0), vars));
+      }
+      return new MathRealExpression(f, real(n.arg(0), vars), real(n.arg(1), vars));
+    }
+    switch (n.op) {
+    case "length":
+      return string(n.arg(0), vars)._length();
+    case "indexof":
+      return string(n.arg(0), vars)._indexOf(string(n.arg(1), vars));
+    case "concat":
+      return string(n.arg(0), vars)._concat(string(n.arg(1), vars));
+    case "trim":
+      return string(n.arg(0), vars)._trim();
+    case "substring":
+      if (n.args.size() == 2) {
+        return string(n.arg(0), vars)._subString(integer(n.arg(1), vars));
+      }
+      return string(n.arg(0), vars)._subString(integer(n.arg(2), vars), integer(n.arg(1), vars));
+    default:
+      break;
+    }
+
+    Expression l = expression(n.arg(0), vars);
+    Expression r = expression(n.arg(1), vars);
+    if (l instanceof IntegerExpression && r instanceof IntegerExpression) {
+      IntegerExpression il = (IntegerExpression) l;
+      IntegerExpression ir = (IntegerExpression) r;
+      switch (n.op) {
+      case "+":
+        return il._plus(ir);
+      case "-":
+        return il._minus(ir);
+      case "*":
+        return il._mul(ir);
+      case "/":
+        return il._div(ir);
+      case "%":
+        return il._rem(ir);
+      case "&":
+        return il._and(ir);
+      case "|":
+        return il._or(ir);
+      case "^":
+        return il._xor(ir);
+      case "<<":
+        return il._shiftL(ir);
+      case ">>":
+        return il._shiftR(ir);
+      case ">>>":
+        return il._shiftUR(ir);
+      default:
+        throw new IllegalArgumentException("unknown integer operation " + n.op);
+      }
+    }
+    RealExpression rl = real(l);
+    RealExpression rr = real(r);
+    switch (n.op) {
+    case "+":
+      return rl._plus(rr);
+    case "-":
+      return rl._minus(rr);
+    case "*":
+      return rl._mul(rr);
+    case "/":
+      return rl._div(rr);
+    default:
+      throw new IllegalArgumentException("unknown real operation " + n.op);
+    }
+  }
+
+  private static IntegerExpression integer(Node n, Map<String, Expression> vars) {
+    Expression e = expression(n, vars);
+    if (!(e instanceof IntegerExpression)) {
+      throw new IllegalArgumentException("not an integer: " + e);
+    }
+    return (IntegerExpression) e;
+  }
+
+  private static RealExpression real(Node n, Map<String, Expression> vars) {
+    return real(expression(n, vars));
+  }
+
+  private static RealExpression real(Expression e) {
+    if (e instanceof IntegerConstant) {
+      return new RealConstant(((IntegerConstant) e).value());
+    }
+    if (!(e instanceof RealExpression)) {
+      throw new IllegalArgumentException("not a real: " + e);
+    }
+    return (RealExpression) e;
+  }
+
+  private static StringExpression string(Node n, Map<String, Expression> vars) {
+    Expression e = expression(n, vars);
+    if (!(e instanceof StringExpression)) {
+      throw new IllegalArgumentException("not a string: " + e);
+    }
+    return (StringExpression) e;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.benchmarks;
+
+import gov.nasa.jpf.symbc.numeric.PCParser;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.solvers.PortfolioSolver;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemGeneral;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Translating the path conditions of the corpus to the problem of a decision
+ * procedure, without solving it. Coral needs its configuration and is left
+ * out of the default list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({ "choco", "z3", "z3bitvector" })
+  public String dp;
+
+  @Param({ "branches_abs", "wbs_update", "bytetest", "div_rem", "bitwise_masks", "real_linear",
+      "real_nonlinear", "loop_chain" })
+  public String pc;
+
+  private PathCondition condition;
+
+  @Setup
+  public void setup() {
+    BenchmarkConfig.configure(dp, "none");
+    condition = PCCorpus.get(pc).build();
+  }
+
+  @Benchmark
+  public Object parse() {
+    ProblemGeneral pb = PortfolioSolver.createProblem(dp);
+    try {
+      return new PCParser(pb).parse(condition);
+    } finally {
+      PortfolioSolver.cleanup(pb);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.benchmarks;
+
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.string.SymbolicStringConstraintsGeneral;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building and preprocessing the string graph of the string path conditions
+ * of the corpus (symbolic.string_preprocess_only): the part of string
+ * solving that all string decision procedures share. The graph is built
+ * from a fresh path condition every time, since solving changes it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringPreprocessingBenchmark {
+
+  @Param({ "strings_pwcheck", "strings_passcheck", "strings_search", "strings_concat" })
+  public String pc;
+
+  private PCCorpus.Entry entry;
+  private PathCondition condition;
+
+  @Setup(Level.Trial)
+  public void configure() {
+    BenchmarkConfig.configure("choco", "automata");
+    SymbolicInstructionFactory.preprocesOnly = true;
+    entry = PCCorpus.get(pc);
+  }
+
+  @Setup(Level.Invocation)
+  public void build() {
+    condition = entry.build();
+  }
+
+  @Benchmark
+  public boolean preprocess() {
+    return new SymbolicStringConstraintsGeneral().isSatisfiable(condition.spc);
+  }
+}
@@ -38,13 +38,45 @@ public class Z3 {
 		return getProperties().getProperty("strings.keep_temp", "no").equalsIgnoreCase("yes");
 	}
 	
+	public static int getPoolSize() {
+		return Integer.parseInt(getProperties().getProperty("strings.pool_size", "0").trim());
+	}
+
+	public static long getTimeout() {
+		return Long.parseLong(getProperties().getProperty("strings.timeout_ms", "0").trim());
+	}
+
+	private static Z3Pool pool = null;
+
+	/**
+	 * The pool of interactive processes, or null if strings.pool_size is 0
+	 */
+	public static synchronized Z3Pool getPool() {
+		if (pool == null && getPoolSize() > 0) {
+			pool = new Z3Pool(getPoolSize(), Z3Interface::createInteractive);
+		}
+		return pool;
+	}
+
+	/**
+	 * Creates a processor, or takes one from the pool if there is one. Closing
+	 * the processor hands it back to the pool.
+	 */
 	public static Processor create() {
+		final Z3Pool pool = getPool();
+		if (pool != null) {
+			return pool.acquire();
+		}
 		return Z3Interface.create();
 	}
 
 	public static final int random = new Random(System.currentTimeMillis()).nextInt();
 
-	public static String getTempFile() {
-		return "./temp.z3str";
+	/**
+	 * The query file of a processor; processors of this and of concurrently
+	 * running JVMs do not share one.
+	 */
+	public static String getTempFile(final int worker) {
+		return "./temp-" + Integer.toHexString(random) + "-" + worker + ".z3str";
 	}
 }
@@ -21,9 +21,11 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.ucsb.cs.vlab.modelling.Output;
 import edu.ucsb.cs.vlab.modelling.Output.Model;
+import edu.ucsb.cs.vlab.versions.Z3InteractiveProcessor;
 import edu.ucsb.cs.vlab.versions.Z3StringProcessor;
 
 public class Z3Interface {
@@ -86,6 +88,16 @@ public class Z3Interface {
 		 * @return a model corresponding to the processed data
 		 */
 		Model assembleModel();
+
+		/**
+		 * Clears the state of the process before the processor goes back to
+		 * its pool; nothing to do for processes that answer one query only.
+		 * 
+		 * @param proc
+		 *            Processor the processor being released
+		 */
+		default void reset(Processor proc) throws IOException {
+		}
 	}
 
 	/**
@@ -108,10 +120,15 @@ public class Z3Interface {
 			}
 		}
 
+		private static final AtomicInteger ids = new AtomicInteger();
+
 		private final Processable processable;
 		private final ProcessLambda process;
+		private final int id = ids.getAndIncrement();
 
 		private Process startedProcess = null;
+		private Z3Pool pool = null;
+		private volatile boolean unhealthy = false;
 
 		public Process startProcess() throws IOException {
 			if (startedProcess == null)
@@ -134,14 +151,74 @@ public class Z3Interface {
 			this.process = process;
 		}
 
+		/**
+		 * The file the queries of this processor are written to
+		 * 
+		 * @return a path that no other processor uses
+		 */
+		public String getTempFile() {
+			return Z3.getTempFile(id);
+		}
+
+		/**
+		 * @return false if the process was started but is not running any
+		 *         more, or if it was marked unhealthy
+		 */
+		public boolean isHealthy() {
+			return !unhealthy && (startedProcess == null || startedProcess.isAlive());
+		}
+
+		/**
+		 * Keeps the processor from being handed out again, e.g. because its
+		 * process was killed: a destroyed process may still look alive for a
+		 * while.
+		 */
+		public void markUnhealthy() {
+			unhealthy = true;
+		}
+
+		void setPool(final Z3Pool pool) {
+			this.pool = pool;
+		}
+
+		/**
+		 * Hands a pooled processor back to its pool, after resetting its
+		 * process; stops the process of any other processor.
+		 */
 		@Override
 		public void close() throws IOException {
+			if (pool != null && isHealthy()) {
+				try {
+					processable.reset(this);
+				} catch (IOException e) {
+					markUnhealthy();
+				}
+			}
+			if (pool != null && isHealthy()) {
+				pool.release(this);
+				return;
+			}
+			destroy();
+		}
+
+		/**
+		 * Stops the process and removes the processor from its pool.
+		 */
+		public void destroy() {
 			if (startedProcess != null) {
 				startedProcess.destroy();
 			}
 
-			if (!Z3.saveTempFileAfterRun())
-				Files.deleteIfExists(Paths.get(Z3.getTempFile()));
+			try {
+				if (!Z3.saveTempFileAfterRun())
+					Files.deleteIfExists(Paths.get(getTempFile()));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+			if (pool != null) {
+				pool.discard(this);
+			}
 		}
 
 		/**
@@ -189,6 +266,15 @@ public class Z3Interface {
 		return Z3Interface.Processor.Factory.create(Z3StringProcessor.class);
 	}
 
+	/**
+	 * Creates a processor that keeps its process for several queries.
+	 * 
+	 * @return the processor to use
+	 */
+	public static Z3Interface.Processor createInteractive() {
+		return Z3Interface.Processor.Factory.create(Z3InteractiveProcessor.class);
+	}
+
 	public static class ExternalToolException extends RuntimeException {
 		public ExternalToolException(String message) {
 			super(message);
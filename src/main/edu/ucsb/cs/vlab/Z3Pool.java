@@ -0,0 +1,126 @@
+package edu.ucsb.cs.vlab;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.function.Supplier;
+
+import edu.ucsb.cs.vlab.Z3Interface.ExternalToolException;
+import edu.ucsb.cs.vlab.Z3Interface.Processor;
+
+/**
+ * A pool of long-lived Z3-str processes (strings.pool_size in
+ * site.properties).
+ *
+ * Closing a processor taken from the pool hands it back instead of stopping
+ * its process. Processors whose process died or was killed, e.g. after
+ * strings.timeout_ms, are marked unhealthy; they are dropped and replaced by
+ * a fresh one.
+ *
+ * @author miroslav
+ *
+ */
+public class Z3Pool {
+	private static final Timer watchdog = new Timer("z3-watchdog", true);
+
+	private final int size;
+	private final Supplier<Processor> factory;
+
+	private final Deque<Processor> idle = new ArrayDeque<Processor>();
+	private final List<Processor> all = new ArrayList<Processor>();
+
+	// statistics
+	private long acquired = 0;
+	private long started = 0;
+
+	public Z3Pool(final int size, final Supplier<Processor> factory) {
+		this.size = size;
+		this.factory = factory;
+		Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+	}
+
+	/**
+	 * Takes a processor from the pool, waits if all of them are in use.
+	 *
+	 * @return a processor with a live (or not yet started) process
+	 */
+	public synchronized Processor acquire() {
+		while (true) {
+			final Processor p = idle.poll();
+			if (p != null) {
+				if (p.isHealthy()) {
+					acquired++;
+					return p;
+				}
+				p.destroy();
+				continue;
+			}
+			if (all.size() < size) {
+				final Processor fresh = factory.get();
+				fresh.setPool(this);
+				all.add(fresh);
+				acquired++;
+				started++;
+				return fresh;
+			}
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ExternalToolException("interrupted while waiting for a Z3-str process");
+			}
+		}
+	}
+
+	synchronized void release(final Processor p) {
+		idle.push(p);
+		notifyAll();
+	}
+
+	synchronized void discard(final Processor p) {
+		idle.remove(p);
+		all.remove(p);
+		notifyAll();
+	}
+
+	/**
+	 * Stops all processes of the pool.
+	 */
+	public void shutdown() {
+		final List<Processor> processors;
+		synchronized (this) {
+			processors = new ArrayList<Processor>(all);
+		}
+		for (final Processor p : processors) {
+			p.destroy();
+		}
+	}
+
+	public synchronized String getStatistics() {
+		return "# Z3-str pool: " + all.size() + " processes, " + started + " started, " + acquired + " queries";
+	}
+
+	/**
+	 * Kills the process if it is still running after the given time.
+	 *
+	 * @return the task to cancel once the process answered, or null for no
+	 *         time limit; if cancel() returns false, the process was (or is
+	 *         being) killed
+	 */
+	public static TimerTask watch(final Process process, final long millis) {
+		if (millis <= 0) {
+			return null;
+		}
+		final TimerTask task = new TimerTask() {
+			@Override
+			public void run() {
+				process.destroy();
+			}
+		};
+		watchdog.schedule(task, millis);
+		return task;
+	}
+}
@@ -0,0 +1,143 @@
+package edu.ucsb.cs.vlab.versions;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.TimerTask;
+
+import edu.ucsb.cs.vlab.Z3;
+import edu.ucsb.cs.vlab.Z3Interface.ExternalToolException;
+import edu.ucsb.cs.vlab.Z3Interface.Processable;
+import edu.ucsb.cs.vlab.Z3Interface.Processor;
+import edu.ucsb.cs.vlab.Z3Pool;
+import edu.ucsb.cs.vlab.modelling.Output;
+import edu.ucsb.cs.vlab.modelling.Output.Model;
+
+/**
+ * Talks to a long-lived Z3-str process started with the interactive flags.
+ *
+ * Each query is sent inside a (push)/(pop) scope, so the declarations and
+ * assertions of one query do not leak into the next one, and is followed by an
+ * (echo) of a marker that tells where the answer ends. A processor that goes
+ * back to the pool sends (reset), so that nothing a query left in the solver
+ * carries over to the next user. The query is only
+ * written to the temp file with strings.keep_temp=yes. If the answer can not
+ * be read, or the watchdog of strings.timeout_ms fired, the process is killed
+ * and the processor is marked unhealthy, so that the pool starts a new
+ * process in its place.
+ *
+ * @author miroslav
+ *
+ */
+public class Z3InteractiveProcessor implements Processable {
+	private static final String END = "@@end-of-query@@";
+
+	Model model = new Model();
+	final StringBuilder currentQuery = new StringBuilder();
+
+	private BufferedWriter writer = null;
+	private BufferedReader reader = null;
+
+	@Override
+	public void send(String message, Processor proc) throws IOException {
+		currentQuery.append(message + "\n");
+	}
+
+	@Override
+	public void query(String message, Processor proc) throws IOException {
+		currentQuery.append(message + "\n");
+		final String query = currentQuery.toString();
+		currentQuery.setLength(0);
+
+		if (Z3.saveTempFileAfterRun())
+			Files.write(Paths.get(proc.getTempFile()), query.getBytes());
+
+		final Process process = proc.startProcess();
+		if (writer == null) {
+			writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+			reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+		}
+
+		try {
+			writer.write("(push)\n");
+			writer.write(query);
+			writer.write("(pop)\n");
+			writer.write("(echo \"" + END + "\")\n");
+			writer.flush();
+		} catch (IOException e) {
+			proc.markUnhealthy();
+			process.destroy();
+			throw e;
+		}
+	}
+
+	@Override
+	public Output getOutput(Processor proc) throws IOException, RuntimeException {
+		final Process process = proc.startProcess();
+		final TimerTask watchdog = Z3Pool.watch(process, Z3.getTimeout());
+		boolean sat = false;
+		model = new Model();
+		try {
+			String line = readLine();
+			sat = line.startsWith("sat");
+			if (sat) {
+				line = readLine(); // (model
+				assert(line.startsWith("(model"));
+				line = Z3StringProcessor.readModel(reader, model);
+			}
+			// skip the rest of the answer (e.g. the error of get-model after unsat)
+			while (line != null && !line.equals(END)) {
+				line = reader.readLine();
+			}
+			if (line == null) {
+				throw new ExternalToolException("Z3-str stopped before the end of the answer");
+			}
+		} catch (IOException | RuntimeException e) {
+			proc.markUnhealthy();
+			process.destroy();
+			throw e;
+		} finally {
+			// the watchdog may have fired after the answer was read, and killed the process
+			if (watchdog != null && !watchdog.cancel()) {
+				proc.markUnhealthy();
+			}
+		}
+
+		return new Output(sat, assembleModel());
+	}
+
+	@Override
+	public void reset(Processor proc) throws IOException {
+		if (writer == null) {
+			return;
+		}
+		writer.write("(reset)\n");
+		writer.flush();
+	}
+
+	private String readLine() throws IOException {
+		final String line = reader.readLine();
+		if (line == null) {
+			throw new ExternalToolException("Z3-str did not answer (timed out or terminated)");
+		}
+		return line;
+	}
+
+	public void process(String line) {
+		final String[] parts = line.split(" -> ");
+		final String[] typeAndName = parts[0].split(" : ");
+
+		final String name = typeAndName[0].trim();
+		final String value = parts[1].trim();
+
+		model.put(name, value);
+	}
+
+	public Model assembleModel() {
+		return model;
+	}
+}
@@ -38,7 +38,7 @@ public class Z3StringProcessor implements Processable {
 		
 		
 
-		Files.write(Paths.get(Z3.getTempFile()), currentQuery.toString().getBytes());
+		Files.write(Paths.get(proc.getTempFile()), currentQuery.toString().getBytes());
 	}
 
 	@Override
@@ -58,26 +58,7 @@ public class Z3StringProcessor implements Processable {
 					
 					assert(line.startsWith("(model"));
 					
-					line = reader.readLine(); // (define-fun name () String
-					
-					while(line != null && !line.startsWith(")")) {
-						String[] tokens = line.trim().split(" ");
-						
-						assert(tokens[0].equals("(define-fun"));
-						
-						String name = tokens[1];
-						
-						line = reader.readLine(); // value)
-						
-						String trimmed = line.trim();
-						
-						String value = trimmed.substring(0, trimmed.length() - 1); // remove the final ')'
-						
-						model.put(name, value);
-						
-						// next "(define-fun name () String"
-						line = reader.readLine();
-					}
+					readModel(reader, model);
 					
 				} else {
 					assert(line.startsWith("unsat"));
@@ -89,6 +70,39 @@ public class Z3StringProcessor implements Processable {
 		return new Output(sat, assembleModel());
 	}
 
+	/**
+	 * Reads the bindings of a model, up to and including its closing line
+	 * 
+	 * @param reader
+	 *            the output of the process, positioned after "(model"
+	 * @param model
+	 *            the model to put the bindings in
+	 * @return the closing line, or null at the end of the output
+	 */
+	static String readModel(final BufferedReader reader, final Model model) throws IOException {
+		String line = reader.readLine(); // (define-fun name () String
+		
+		while(line != null && !line.startsWith(")")) {
+			String[] tokens = line.trim().split(" ");
+			
+			assert(tokens[0].equals("(define-fun"));
+			
+			String name = tokens[1];
+			
+			line = reader.readLine(); // value)
+			
+			String trimmed = line.trim();
+			
+			String value = trimmed.substring(0, trimmed.length() - 1); // remove the final ')'
+			
+			model.put(name, value);
+			
+			// next "(define-fun name () String"
+			line = reader.readLine();
+		}
+		return line;
+	}
+
 	public void process(String line) {
 		final String[] parts = line.split(" -> ");
 		final String[] typeAndName = parts[0].split(" : ");
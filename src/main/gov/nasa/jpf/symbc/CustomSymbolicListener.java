@@ -539,7 +539,6 @@ public class CustomSymbolicListener extends PropertyListenerAdapter implements P
                 JVMInvokeInstruction md = (JVMInvokeInstruction) insn;
                 String methodName = md.getInvokedMethodName();
                 //System.out.println("method: " + methodName);
-                int numberOfArgs = md.getArgumentValues(ti).length;
 
                 
 
@@ -557,8 +556,7 @@ public class CustomSymbolicListener extends PropertyListenerAdapter implements P
                     return;
                 
                 
-                if ((BytecodeUtils.isClassSymbolic(conf, className, mi, methodName))
-                        || BytecodeUtils.isMethodSymbolic(conf, mi.getFullName(), numberOfArgs, null)) {
+                if (BytecodeUtils.isSymbolic(conf, mi)) {
                 	
                 	
                 	
@@ -640,12 +638,10 @@ public class CustomSymbolicListener extends PropertyListenerAdapter implements P
                     String className = ci.getName();
                     String methodName = mi.getName();
                     String longName = mi.getLongName();
-                    int numberOfArgs = mi.getNumberOfArguments();
                     
                     //System.out.println("METHOD: " + methodName);
                    
-                    if (((BytecodeUtils.isClassSymbolic(conf, className, mi, methodName))
-                            || BytecodeUtils.isMethodSymbolic(conf, mi.getFullName(), numberOfArgs, null))) {
+                    if (BytecodeUtils.isSymbolic(conf, mi)) {
                     	
                     	//System.out.println("RETURN METHOD: " + methodName);
                     	
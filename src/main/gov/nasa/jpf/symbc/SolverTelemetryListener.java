@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.JPF;
+import gov.nasa.jpf.ListenerAdapter;
+import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.symbc.abstraction.AbstractStateStore;
+import gov.nasa.jpf.symbc.numeric.ConstraintSlicer;
+import gov.nasa.jpf.symbc.numeric.ExpressionPool;
+import gov.nasa.jpf.symbc.numeric.ModelCache;
+import gov.nasa.jpf.symbc.numeric.SolverCache;
+import gov.nasa.jpf.symbc.numeric.SolverStatistics;
+import gov.nasa.jpf.symbc.numeric.solvers.PortfolioSolver;
+import gov.nasa.jpf.symbc.numeric.solvers.Z3ContextPool;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Collects the statistics of the solver queries (see {@link SolverStatistics})
+ * and writes them out while the search runs, without symbolic.debug.
+ *
+ * symbolic.telemetry.file names the file the totals are appended to every
+ * symbolic.telemetry.interval seconds (default 60) and at the end of the
+ * search; symbolic.telemetry.format is "csv" (one row per decision procedure
+ * and dump) or "json" (one object per line and dump). The default format is
+ * taken from the file extension. Without a file the totals are only printed
+ * at the end of the search, together with the statistics of the solver cache,
+ * the model cache, the slicer, the expression pool, the portfolio, the Z3
+ * contexts and the abstract states, whose store is closed then.
+ */
+public class SolverTelemetryListener extends ListenerAdapter {
+
+	private final String fileName;
+	private final boolean json;
+	private final long intervalMillis;
+	private final long startMillis;
+	private long nextDump;
+	private PrintWriter out = null;
+
+	public SolverTelemetryListener(Config conf, JPF jpf) {
+		fileName = conf.getString("symbolic.telemetry.file");
+		String format = conf.getString("symbolic.telemetry.format",
+				(fileName != null && fileName.endsWith(".json")) ? "json" : "csv");
+		if (!format.equalsIgnoreCase("csv") && !format.equalsIgnoreCase("json")) {
+			throw new RuntimeException("## Error: unknown symbolic.telemetry.format=" + format + " (use csv or json)");
+		}
+		json = format.equalsIgnoreCase("json");
+		int interval = conf.getInt("symbolic.telemetry.interval", 60);
+		if (interval <= 0) {
+			throw new IllegalArgumentException("symbolic.telemetry.interval must be positive (>0), but was " + interval);
+		}
+		intervalMillis = interval * 1000L;
+		startMillis = System.currentTimeMillis();
+		nextDump = startMillis + intervalMillis;
+
+		SolverStatistics.reset();
+		SolverStatistics.setEnabled(true);
+	}
+
+	@Override
+	public void stateAdvanced(Search search) {
+		long now = System.currentTimeMillis();
+		if (now >= nextDump) {
+			nextDump = now + intervalMillis;
+			dump(now);
+		}
+	}
+
+	@Override
+	public void searchFinished(Search search) {
+		dump(System.currentTimeMillis());
+		if (out != null) {
+			out.close();
+			out = null;
+		}
+		SolverStatistics.setEnabled(false);
+
+		System.out.println(SolverStatistics.getStatistics());
+		SolverCache cache = SolverCache.getInstance();
+		if (cache != null) {
+			cache.report(System.out);
+		}
+		if (ModelCache.getInstance() != null) {
+			System.out.println(ModelCache.getInstance().getStatistics());
+		}
+		if (ConstraintSlicer.isEnabled()) {
+			System.out.println(ConstraintSlicer.getStatistics());
+		}
+		if (PortfolioSolver.getInstance() != null) {
+			System.out.println(PortfolioSolver.getInstance().getStatistics());
+		}
+		if (Z3ContextPool.getSize() > 0) {
+			System.out.println(Z3ContextPool.getStatistics());
+		}
+		if (ExpressionPool.isEnabled()) {
+			System.out.println(ExpressionPool.getStatistics());
+		}
+		if (AbstractStateStore.isUsed()) {
+			System.out.println(AbstractStateStore.getInstance().getStatistics());
+		}
+		AbstractStateStore.close();
+	}
+
+	private void dump(long now) {
+		if (fileName == null) {
+			return;
+		}
+		try {
+			if (out == null) {
+				File file = new File(fileName);
+				boolean header = !json && (!file.exists() || file.length() == 0);
+				out = new PrintWriter(new FileWriter(file, true));
+				if (header) {
+					out.println(SolverStatistics.CSV_HEADER);
+				}
+			}
+			if (json) {
+				SolverStatistics.writeJSON(out, now - startMillis);
+			} else {
+				SolverStatistics.writeCSV(out, now - startMillis);
+			}
+		} catch (IOException e) {
+			System.out.println("## Warning: cannot write symbolic.telemetry.file=" + fileName + ": " + e.getMessage());
+		}
+	}
+}
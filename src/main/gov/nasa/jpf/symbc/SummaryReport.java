@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc;
+
+import gov.nasa.jpf.symbc.SymbolicListener.MethodSummary;
+import gov.nasa.jpf.util.Pair;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prints the method summaries of a file written with symbolic.summaries (see
+ * {@link SummarySink}) the way SymbolicListener publishes them at the end of a
+ * run: the test cases of every method, then the HTML tables.
+ *
+ *   java gov.nasa.jpf.symbc.SummaryReport [-text | -html] file
+ *
+ * A file cut short by a crash is read up to its last complete line.
+ */
+public class SummaryReport {
+
+    public static void main(String[] args) throws IOException {
+        boolean text = true;
+        boolean html = true;
+        String file = null;
+        for (String arg : args) {
+            if (arg.equals("-text")) {
+                html = false;
+            } else if (arg.equals("-html")) {
+                text = false;
+            } else if (file == null) {
+                file = arg;
+            } else {
+                usage();
+            }
+        }
+        if (file == null || (!text && !html)) {
+            usage();
+        }
+
+        Map<String, MethodSummary> summaries = read(new File(file));
+        PrintWriter pw = new PrintWriter(System.out);
+        if (text) {
+            pw.println("====================================================== Method Summaries");
+            for (MethodSummary methodSummary : summaries.values()) {
+                SymbolicListener.printMethodSummary(pw, methodSummary);
+            }
+        }
+        if (html) {
+            pw.println("====================================================== Method Summaries (HTML)");
+            for (MethodSummary methodSummary : summaries.values()) {
+                SymbolicListener.printMethodSummaryHTML(pw, methodSummary);
+            }
+        }
+        pw.flush();
+    }
+
+    /**
+     * The summaries of the file, by key, in the order the methods were first
+     * entered. A method entered again with other arguments gets the new ones,
+     * and a path condition found twice for a method is only kept once, as in
+     * SymbolicListener.
+     */
+    static Map<String, MethodSummary> read(File file) throws IOException {
+        Map<String, MethodSummary> summaries = new LinkedHashMap<String, MethodSummary>();
+        Map<String, Set<String>> seen = new LinkedHashMap<String, Set<String>>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                Map<String, String> fields;
+                try {
+                    fields = SummarySink.parse(line);
+                } catch (RuntimeException e) {
+                    // the last line of a run that did not finish
+                    System.err.println("## Warning: skipping incomplete line of " + file + ": " + e.getMessage());
+                    continue;
+                }
+                String key = fields.get("key");
+                MethodSummary methodSummary = summaries.get(key);
+                if (methodSummary == null) {
+                    methodSummary = new MethodSummary();
+                    summaries.put(key, methodSummary);
+                    seen.put(key, new HashSet<String>());
+                }
+                if ("method".equals(fields.get("type"))) {
+                    methodSummary.setMethodName(fields.get("name"));
+                    methodSummary.setArgTypes(fields.get("argTypes"));
+                    methodSummary.setArgValues(fields.get("argValues"));
+                    methodSummary.setSymValues(fields.get("symValues"));
+                } else if ("path".equals(fields.get("type"))) {
+                    String pc = fields.get("pc");
+                    String result = fields.get("result");
+                    if (seen.get(key).add(pc + '\n' + result)) {
+                        methodSummary.addPathCondition(new Pair<String, String>(pc, result));
+                    }
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return summaries;
+    }
+
+    private static void usage() {
+        System.err.println("usage: java gov.nasa.jpf.symbc.SummaryReport [-text | -html] file");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc;
+
+import gov.nasa.jpf.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Writes the method summaries of SymbolicListener to a file while the search
+ * runs, instead of keeping all the path conditions until publishFinished.
+ *
+ * symbolic.summaries names the file; it is written as JSON lines, one object
+ * per line:
+ *
+ *   {"type":"method","key":...,"name":...,"argTypes":...,"argValues":...,"symValues":...}
+ *   {"type":"path","key":...,"pc":...,"result":...}
+ *
+ * A "method" line is written when a symbolic method is entered with other
+ * arguments than the last time, a "path" line for every path condition found
+ * for the method with that key (its return value or the error); a value
+ * that is not known is written as null. The lines go through a buffer of
+ * symbolic.summaries.buffer KB (default 64), which is written to the file
+ * when it is full and, by a daemon timer, every symbolic.summaries.flush_ms
+ * milliseconds (default 1000; 0 writes every line at once), so that a run
+ * that crashes or hangs loses little. {@link SummaryReport} renders the
+ * summaries of a file the way SymbolicListener publishes them.
+ */
+public class SummarySink {
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long flushMillis;
+    private final Timer timer;
+    private long paths = 0;
+    private boolean closed = false;
+    private final Thread hook;
+
+    // the last "method" line written for each key
+    private final Map<String, String> methods = new HashMap<String, String>();
+
+    /**
+     * The sink configured by symbolic.summaries, or NULL.
+     */
+    public static SummarySink create(Config conf) {
+        String file = conf.getString("symbolic.summaries");
+        if (file == null) {
+            return null;
+        }
+        int size = conf.getInt("symbolic.summaries.buffer", 64);
+        if (size <= 0) {
+            throw new IllegalArgumentException("symbolic.summaries.buffer must be positive (>0), but was " + size);
+        }
+        long flushMillis = conf.getLong("symbolic.summaries.flush_ms", 1000);
+        if (flushMillis < 0) {
+            throw new IllegalArgumentException("symbolic.summaries.flush_ms must be non-negative (>=0), but was "
+                    + flushMillis);
+        }
+        try {
+            return new SummarySink(file, size * 1024, flushMillis);
+        } catch (IOException e) {
+            throw new RuntimeException("## Error: cannot open symbolic.summaries=" + file + ": " + e.getMessage());
+        }
+    }
+
+    public SummarySink(String fileName, int bufferSize, long flushMillis) throws IOException {
+        this.fileName = fileName;
+        this.flushMillis = flushMillis;
+        channel = FileChannel.open(new File(fileName).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocate(bufferSize);
+        if (flushMillis > 0) {
+            timer = new Timer("symbc-summaries", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    flushBuffered();
+                }
+            }, flushMillis, flushMillis);
+        } else {
+            timer = null;
+        }
+        hook = new Thread() {
+            @Override
+            public void run() {
+                close();
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(hook);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public synchronized long getPaths() {
+        return paths;
+    }
+
+    public synchronized void method(String key, String name, String argTypes, String argValues, String symValues) {
+        String line = toJson("type", "method", "key", key, "name", name, "argTypes", argTypes, "argValues",
+                argValues, "symValues", symValues);
+        if (!line.equals(methods.get(key))) {
+            methods.put(key, line);
+            write(line);
+        }
+    }
+
+    public synchronized void path(String key, String pc, String result) {
+        paths++;
+        write(toJson("type", "path", "key", key, "pc", pc, "result", result));
+    }
+
+    private void write(String line) {
+        if (closed) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        try {
+            if (bytes.remaining() > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.remaining() > buffer.capacity()) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } else {
+                buffer.put(bytes);
+            }
+            if (flushMillis == 0) {
+                flush();
+            }
+        } catch (IOException e) {
+            stop(e);
+        }
+    }
+
+    // called by the timer
+    private synchronized void flushBuffered() {
+        if (closed || buffer.position() == 0) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            stop(e);
+        }
+    }
+
+    private void stop(IOException e) {
+        System.out.println("## Warning: cannot write symbolic.summaries=" + fileName + ": " + e.getMessage()
+                + "; summaries stopped");
+        closed = true;
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes what is buffered and closes the file.
+     */
+    public synchronized void close() {
+        if (timer != null) {
+            timer.cancel();
+        }
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            if (!closed) {
+                flush();
+            }
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("## Warning: cannot write symbolic.summaries=" + fileName + ": " + e.getMessage());
+        }
+        closed = true;
+        try {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        } catch (IllegalStateException e) {
+            // called from the hook
+        }
+    }
+
+    static String toJson(String... keyValues) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < keyValues.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            quote(sb, keyValues[i]);
+            sb.append(':');
+            quote(sb, keyValues[i + 1]);
+        }
+        return sb.append('}').toString();
+    }
+
+    private static void quote(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Parses a line written by the sink: an object whose values are strings
+     * or null.
+     */
+    static Map<String, String> parse(String line) {
+        Map<String, String> fields = new LinkedHashMap<String, String>();
+        int[] pos = { skip(line, 0) };
+        expect(line, pos, '{');
+        if (line.charAt(skip(line, pos[0])) == '}') {
+            return fields;
+        }
+        while (true) {
+            String key = string(line, pos);
+            expect(line, pos, ':');
+            pos[0] = skip(line, pos[0]);
+            if (line.startsWith("null", pos[0])) {
+                pos[0] += 4;
+                fields.put(key, null);
+            } else {
+                fields.put(key, string(line, pos));
+            }
+            pos[0] = skip(line, pos[0]);
+            if (pos[0] < line.length() && line.charAt(pos[0]) == ',') {
+                pos[0]++;
+            } else {
+                expect(line, pos, '}');
+                return fields;
+            }
+        }
+    }
+
+    private static int skip(String line, int i) {
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void expect(String line, int[] pos, char c) {
+        pos[0] = skip(line, pos[0]);
+        if (pos[0] >= line.length() || line.charAt(pos[0]) != c) {
+            throw new IllegalArgumentException("expected '" + c + "' at " + pos[0] + " in " + line);
+        }
+        pos[0]++;
+    }
+
+    private static String string(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        int i = pos[0];
+        while (true) {
+            if (i >= line.length()) {
+                throw new IllegalArgumentException("unterminated string in " + line);
+            }
+            char c = line.charAt(i++);
+            if (c == '"') {
+                break;
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = line.charAt(i++);
+            switch (e) {
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'u':
+                sb.append((char) Integer.parseInt(line.substring(i, i + 4), 16));
+                i += 4;
+                break;
+            default: // '"', '\\' and '/'
+                sb.append(e);
+            }
+        }
+        pos[0] = i;
+        return sb.toString();
+    }
+}
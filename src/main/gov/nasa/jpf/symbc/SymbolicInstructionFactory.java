@@ -21,10 +21,22 @@ package gov.nasa.jpf.symbc;
 import za.ac.sun.cs.green.Green;
 import za.ac.sun.cs.green.util.Configuration;
 import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.abstraction.AbstractStateStore;
 import gov.nasa.jpf.symbc.bytecode.*;
+import gov.nasa.jpf.symbc.bytecode.optimization.util.ParallelPCSolver;
+import gov.nasa.jpf.symbc.concolic.FunctionExpression;
+import gov.nasa.jpf.symbc.numeric.ConstraintSlicer;
+import gov.nasa.jpf.symbc.numeric.ExpressionPool;
 import gov.nasa.jpf.symbc.numeric.MinMax;
+import gov.nasa.jpf.symbc.numeric.ModelCache;
+import gov.nasa.jpf.symbc.numeric.QueryLog;
+import gov.nasa.jpf.symbc.numeric.SolverCache;
+import gov.nasa.jpf.symbc.numeric.solvers.PortfolioSolver;
 import gov.nasa.jpf.symbc.numeric.solvers.ProblemChoco;
 import gov.nasa.jpf.symbc.numeric.solvers.ProblemCoral;
+import gov.nasa.jpf.symbc.numeric.solvers.Z3ContextPool;
+import gov.nasa.jpf.symbc.string.translate.TranslateToAutomata2;
+import gov.nasa.jpf.symbc.string.translate.TranslateToSAT;
 import gov.nasa.jpf.util.ClassInfoFilter;
 import gov.nasa.jpf.vm.ClassInfo;
 import gov.nasa.jpf.vm.Instruction;
@@ -694,12 +706,12 @@ public class SymbolicInstructionFactory extends gov.nasa.jpf.jvm.bytecode.Instru
 				heuristicPartitionMode = false;
 			}
 
-			if(dp[0].equalsIgnoreCase("choco") || dp[0].equalsIgnoreCase("debug") || dp[0].equalsIgnoreCase("compare") || dp == null) { // default is choco
+			if(dp[0].equalsIgnoreCase("choco") || dp[0].equalsIgnoreCase("debug") || dp[0].equalsIgnoreCase("compare") || dp[0].equalsIgnoreCase("portfolio") || dp == null) { // default is choco
 			  ProblemChoco.timeBound = conf.getInt("symbolic.choco_time_bound", 30000);
 			  if (debugMode) System.out.println("symbolic.choco_time_bound="+ProblemChoco.timeBound);
 			}
 			//load CORAL's parameters
-			if (dp[0].equalsIgnoreCase("coral") || dp[0].equalsIgnoreCase("debug") || dp[0].equalsIgnoreCase("compare")) {
+			if (dp[0].equalsIgnoreCase("coral") || dp[0].equalsIgnoreCase("debug") || dp[0].equalsIgnoreCase("compare") || dp[0].equalsIgnoreCase("portfolio")) {
 				ProblemCoral.configure(conf);
 			}
 
@@ -718,8 +730,21 @@ public class SymbolicInstructionFactory extends gov.nasa.jpf.jvm.bytecode.Instru
       }
       if (debugMode) System.out.println("symbolic.max_pc_msec=" + maxPcMSec);
       startSystemMillis = System.currentTimeMillis();
+
+      ParallelPCSolver.configure(conf);
+      SolverCache.configure(conf);
+      ConstraintSlicer.configure(conf);
+      Z3ContextPool.configure(conf);
+      PortfolioSolver.configure(conf);
 		}
 
+		ExpressionPool.configure(conf);
+		AbstractStateStore.configure(conf);
+		QueryLog.configure(conf);
+		TranslateToSAT.configure(conf);
+		TranslateToAutomata2.configure(conf);
+		FunctionExpression.configure(conf);
+
 		String regress = conf.getProperty("symbolic.regression_output");
 		if (regress != null && regress.equals("true")) {
 			regressMode = true;
@@ -739,6 +764,9 @@ public class SymbolicInstructionFactory extends gov.nasa.jpf.jvm.bytecode.Instru
 		fp = conf.getBoolean("symbolic.fp", false);
 		if (fp&&debugMode) System.out.println("Using floating point theory for reals in Z3.");
 
+		/* after symbolic.dp and symbolic.bvlength */
+		ModelCache.configure(conf);
+
 		MinMax.collectMinMaxInformation(conf);
 		/* no longer required here, now read in MinMax, see line above
 
@@ -65,7 +65,9 @@ import gov.nasa.jpf.util.Pair;
 import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.Vector;
 
@@ -79,9 +81,13 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
     private Map<String, MethodSummary> allSummaries;
     private String currentMethodName = "";
 
+    // if symbolic.summaries is set, the path conditions go there instead of allSummaries
+    private SummarySink sink;
+
     public SymbolicListener(Config conf, JPF jpf) {
         jpf.addPublisherExtension(ConsolePublisher.class, this);
         allSummaries = new HashMap<String, MethodSummary>();
+        sink = SummarySink.create(conf);
     }
 
     // Writes the method summaries to a file for use in another application
@@ -150,14 +156,18 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
             } else
                 pc.solve();
 
-            Pair<String, String> pcPair = new Pair<String, String>(pc.toString(), error);// (pc.toString(),error);
-
-            // String methodName = vm.getLastInstruction().getMethodInfo().getName();
-            MethodSummary methodSummary = allSummaries.get(currentMethodName);
-            if (methodSummary == null)
-                methodSummary = new MethodSummary();
-            methodSummary.addPathCondition(pcPair);
-            allSummaries.put(currentMethodName, methodSummary);
+            if (sink != null) {
+                sink.path(currentMethodName, pc.toString(), error);
+            } else {
+                Pair<String, String> pcPair = new Pair<String, String>(pc.toString(), error);// (pc.toString(),error);
+
+                // String methodName = vm.getLastInstruction().getMethodInfo().getName();
+                MethodSummary methodSummary = allSummaries.get(currentMethodName);
+                if (methodSummary == null)
+                    methodSummary = new MethodSummary();
+                methodSummary.addPathCondition(pcPair);
+                allSummaries.put(currentMethodName, methodSummary);
+            }
             System.out.println("Property Violated: PC is " + pc.toString());
             System.out.println("Property Violated: result is  " + error);
             System.out.println("****************************");
@@ -178,7 +188,6 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
             if (insn instanceof JVMInvokeInstruction) {
                 JVMInvokeInstruction md = (JVMInvokeInstruction) insn;
                 String methodName = md.getInvokedMethodName();
-                int numberOfArgs = md.getArgumentValues(ti).length;
 
                 MethodInfo mi = md.getInvokedMethod();
                 ClassInfo ci = mi.getClassInfo();
@@ -193,31 +202,31 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
                 if (!mi.equals(sf.getMethodInfo()))
                     return;
 
-                if ((BytecodeUtils.isClassSymbolic(conf, className, mi, methodName))
-                        || BytecodeUtils.isMethodSymbolic(conf, mi.getFullName(), numberOfArgs, null)) {
+                if (BytecodeUtils.isSymbolic(conf, mi)) {
 
                     MethodSummary methodSummary = new MethodSummary();
 
                     methodSummary.setMethodName(className + "." + shortName);
                     Object[] argValues = md.getArgumentValues(ti);
-                    String argValuesStr = "";
+                    int numberOfArgs = argValues.length;
+                    StringBuilder argValuesStr = new StringBuilder();
                     for (int i = 0; i < argValues.length; i++) {
-                        argValuesStr = argValuesStr + argValues[i];
+                        argValuesStr.append(argValues[i]);
                         if ((i + 1) < argValues.length)
-                            argValuesStr = argValuesStr + ",";
+                            argValuesStr.append(',');
                     }
-                    methodSummary.setArgValues(argValuesStr);
+                    methodSummary.setArgValues(argValuesStr.toString());
                     byte[] argTypes = mi.getArgumentTypes();
-                    String argTypesStr = "";
+                    StringBuilder argTypesStr = new StringBuilder();
                     for (int i = 0; i < argTypes.length; i++) {
-                        argTypesStr = argTypesStr + argTypes[i];
+                        argTypesStr.append(argTypes[i]);
                         if ((i + 1) < argTypes.length)
-                            argTypesStr = argTypesStr + ",";
+                            argTypesStr.append(',');
                     }
-                    methodSummary.setArgTypes(argTypesStr);
+                    methodSummary.setArgTypes(argTypesStr.toString());
 
                     // get the symbolic values (changed from constructing them here)
-                    String symValuesStr = "";
+                    StringBuilder symValuesStr = new StringBuilder();
                     String symVarNameStr = "";
 
                     LocalVarInfo[] argsInfo = mi.getArgumentLocalVars();
@@ -239,7 +248,7 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
                         else
                             symVarNameStr = argsInfo[namesIndex].getName() + "_CONCRETE" + ",";
                         // TODO: what happens if the argument is an array?
-                        symValuesStr = symValuesStr + symVarNameStr + ",";
+                        symValuesStr.append(symVarNameStr).append(',');
                         sfIndex++;
                         namesIndex++;
                         if (argTypes[i] == Types.T_LONG || argTypes[i] == Types.T_DOUBLE)
@@ -248,13 +257,17 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
                     }
 
                     // get rid of last ","
-                    if (symValuesStr.endsWith(",")) {
-                        symValuesStr = symValuesStr.substring(0, symValuesStr.length() - 1);
+                    if (symValuesStr.length() > 0 && symValuesStr.charAt(symValuesStr.length() - 1) == ',') {
+                        symValuesStr.setLength(symValuesStr.length() - 1);
                     }
-                    methodSummary.setSymValues(symValuesStr);
+                    methodSummary.setSymValues(symValuesStr.toString());
 
                     currentMethodName = longName;
                     allSummaries.put(longName, methodSummary);
+                    if (sink != null) {
+                        sink.method(longName, methodSummary.getMethodName(), methodSummary.getArgTypes(),
+                                methodSummary.getArgValues(), methodSummary.getSymValues());
+                    }
                 }
             } else if (insn instanceof JVMReturnInstruction) {
                 MethodInfo mi = insn.getMethodInfo();
@@ -263,10 +276,8 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
                     String className = ci.getName();
                     String methodName = mi.getName();
                     String longName = mi.getLongName();
-                    int numberOfArgs = mi.getNumberOfArguments();
 
-                    if (((BytecodeUtils.isClassSymbolic(conf, className, mi, methodName))
-                            || BytecodeUtils.isMethodSymbolic(conf, mi.getFullName(), numberOfArgs, null))) {
+                    if (BytecodeUtils.isSymbolic(conf, mi)) {
 
                         ChoiceGenerator<?> cg = vm.getChoiceGenerator();
                         if (!(cg instanceof PCChoiceGenerator)) {
@@ -371,14 +382,22 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
                              */
 
                             
-                              String pcString = pc.toString(); pcPair = new Pair<String,String>(pcString,returnString);
+                              String pcString = pc.toString();
+                              if (sink != null) {
+                                  if (pcString.contains("SYM")) {
+                                      sink.path(longName, pcString, returnString);
+                                  }
+                              } else {
+                              pcPair = new Pair<String,String>(pcString,returnString);
                               MethodSummary methodSummary = allSummaries.get(longName); Vector<Pair> pcs =
                               methodSummary.getPathConditions(); if ((!pcs.contains(pcPair)) &&
                               (pcString.contains("SYM"))) { methodSummary.addPathCondition(pcPair); }
                               
                               if(allSummaries.get(longName)!=null) // recursive call longName = longName +
                               methodSummary.hashCode(); // differentiate the key for recursive calls
-                              allSummaries.put(longName,methodSummary); if (SymbolicInstructionFactory.debugMode) {
+                              allSummaries.put(longName,methodSummary);
+                              }
+                              if (SymbolicInstructionFactory.debugMode) {
                               System.out.println("*************Summary***************");
                               System.out.println("PC is:"+pc.toString()); if(result!=null){
                               System.out.println("Return is:  "+result);
@@ -396,13 +415,13 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
      */
 
     // TODO: needs to be changed not to use String representations
-    private void printMethodSummary(PrintWriter pw, MethodSummary methodSummary) {
+    static void printMethodSummary(PrintWriter pw, MethodSummary methodSummary) {
 
         System.out.println("Inputs: " + methodSummary.getSymValues());
         Vector<Pair> pathConditions = methodSummary.getPathConditions();
         if (pathConditions.size() > 0) {
             Iterator it = pathConditions.iterator();
-            String allTestCases = "";
+            Set<String> allTestCases = new LinkedHashSet<String>();
             while (it.hasNext()) {
                 String testCase = methodSummary.getMethodName() + "(";
                 Pair pcPair = (Pair) it.next();
@@ -479,29 +498,32 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
                 if (!errorMessage.equalsIgnoreCase(""))
                     testCase = testCase + "  --> " + errorMessage;
                 // do not add duplicate test case
-                if (!allTestCases.contains(testCase))
-                    allTestCases = allTestCases + "\n" + testCase;
+                allTestCases.add(testCase);
             }
-            pw.println(allTestCases);
+            StringBuilder out = new StringBuilder();
+            for (String testCase : allTestCases)
+                out.append('\n').append(testCase);
+            pw.println(out);
         } else {
             pw.println("No path conditions for " + methodSummary.getMethodName() + "(" + methodSummary.getArgValues()
                     + ")");
         }
     }
 
-    private void printMethodSummaryHTML(PrintWriter pw, MethodSummary methodSummary) {
+    static void printMethodSummaryHTML(PrintWriter pw, MethodSummary methodSummary) {
         pw.println("<h1>Test Cases Generated by Symbolic JavaPath Finder for " + methodSummary.getMethodName()
                 + " (Path Coverage) </h1>");
 
         Vector<Pair> pathConditions = methodSummary.getPathConditions();
         if (pathConditions.size() > 0) {
             Iterator it = pathConditions.iterator();
-            String allTestCases = "";
+            Set<String> allTestCases = new LinkedHashSet<String>();
             String symValues = methodSummary.getSymValues();
             StringTokenizer st = new StringTokenizer(symValues, ",");
+            StringBuilder header = new StringBuilder("<tr>");
             while (st.hasMoreTokens())
-                allTestCases = allTestCases + "<td>" + st.nextToken() + "</td>";
-            allTestCases = "<tr>" + allTestCases + "<td>RETURN</td></tr>\n";
+                header.append("<td>").append(st.nextToken()).append("</td>");
+            header.append("<td>RETURN</td></tr>\n");
             while (it.hasNext()) {
                 String testCase = "<tr>";
                 Pair pcPair = (Pair) it.next();
@@ -560,11 +582,12 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
                 if (!errorMessage.equalsIgnoreCase(""))
                     testCase = testCase + "<td>" + errorMessage + "</td>";
                 // do not add duplicate test case
-                if (!allTestCases.contains(testCase))
-                    allTestCases = allTestCases + testCase + "</tr>\n";
+                allTestCases.add(testCase + "</tr>\n");
             }
             pw.println("<table border=1>");
-            pw.print(allTestCases);
+            pw.print(header);
+            for (String testCase : allTestCases)
+                pw.print(testCase);
             pw.println("</table>");
         } else {
             pw.println("No path conditions for " + methodSummary.getMethodName() + "(" + methodSummary.getArgValues()
@@ -582,6 +605,14 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
 
         PrintWriter pw = publisher.getOut();
 
+        if (sink != null) {
+            sink.close();
+            publisher.publishTopicStart("Method Summaries");
+            pw.println(sink.getPaths() + " path conditions written to " + sink.getFileName()
+                    + ", see gov.nasa.jpf.symbc.SummaryReport");
+            return;
+        }
+
         publisher.publishTopicStart("Method Summaries");
         Iterator it = allSummaries.entrySet().iterator();
         while (it.hasNext()) {
@@ -599,7 +630,7 @@ public class SymbolicListener extends PropertyListenerAdapter implements Publish
         }
     }
 
-    protected class MethodSummary {
+    protected static class MethodSummary {
         private String methodName = "";
         private String argTypes = "";
         private String argValues = "";
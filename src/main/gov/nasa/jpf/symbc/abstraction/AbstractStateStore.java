@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.abstraction;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The abstract states seen so far by Debug.matchAbstractState.
+ *
+ * symbolic.abstract_states selects how they are kept:
+ * <ul>
+ * <li>strings (default): the state strings themselves, as before;</li>
+ * <li>fingerprints: 128 bit fingerprints (MD5) of the strings in an open
+ * addressing table of longs. With symbolic.abstract_states.file set, the
+ * table is sorted and written to that file whenever it holds
+ * symbolic.abstract_states.capacity fingerprints, so the run is not bounded
+ * by the heap;</li>
+ * <li>bloom: a bloom filter of symbolic.abstract_states.bloom_bits bits and
+ * symbolic.abstract_states.bloom_hashes hash functions. It takes a fixed
+ * amount of memory but may take a new state for one seen before, and so
+ * prune a part of the search.</li>
+ * </ul>
+ */
+public abstract class AbstractStateStore {
+
+  private static AbstractStateStore instance = null;
+  private static boolean hookInstalled = false;
+
+  // statistics
+  protected long added = 0;
+  protected long matched = 0;
+
+  public static void configure(Config conf) {
+    close();
+    String kind = conf.getString("symbolic.abstract_states", "strings");
+    if (kind.equalsIgnoreCase("strings")) {
+      instance = new Strings();
+    } else if (kind.equalsIgnoreCase("fingerprints")) {
+      int capacity = conf.getInt("symbolic.abstract_states.capacity", 1 << 20);
+      if (capacity <= 0) {
+        throw new IllegalArgumentException("symbolic.abstract_states.capacity must be positive (>0), but was " + capacity);
+      }
+      String file = conf.getString("symbolic.abstract_states.file");
+      instance = new Fingerprints(capacity, file);
+      if (file != null && !hookInstalled) {
+        // deletes the file of a run that ends without searchFinished
+        hookInstalled = true;
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+          @Override
+          public void run() {
+            close();
+          }
+        });
+      }
+    } else if (kind.equalsIgnoreCase("bloom")) {
+      int bits = conf.getInt("symbolic.abstract_states.bloom_bits", 1 << 26);
+      int hashes = conf.getInt("symbolic.abstract_states.bloom_hashes", 4);
+      if (bits <= 0 || hashes <= 0) {
+        throw new IllegalArgumentException("symbolic.abstract_states.bloom_bits and bloom_hashes must be positive (>0)");
+      }
+      instance = new Bloom(bits, hashes);
+    } else {
+      throw new RuntimeException("## Error: unknown symbolic.abstract_states " + kind
+          + " (strings, fingerprints or bloom)");
+    }
+    if (SymbolicInstructionFactory.debugMode && instance.getClass() != Strings.class) {
+      System.out.println("symbolic.abstract_states=" + kind);
+    }
+  }
+
+  /**
+   * @return the configured store; a store of strings if none was configured
+   */
+  public static synchronized AbstractStateStore getInstance() {
+    if (instance == null) {
+      instance = new Strings();
+    }
+    return instance;
+  }
+
+  /**
+   * @return true if Debug.matchAbstractState added or matched a state since
+   *         the store was configured
+   */
+  public static synchronized boolean isUsed() {
+    return instance != null && instance.added + instance.matched > 0;
+  }
+
+  /**
+   * Releases the store, closing and deleting its file if it has one. Called at
+   * the end of the search (see SolverTelemetryListener) and by configure.
+   */
+  public static synchronized void close() {
+    if (instance != null) {
+      instance.release();
+      instance = null;
+    }
+  }
+
+  /**
+   * Adds the state.
+   *
+   * @return true if the state was not seen before
+   */
+  public synchronized boolean add(String state) {
+    boolean fresh = insert(String.valueOf(state));
+    if (fresh) {
+      added++;
+    } else {
+      matched++;
+    }
+    return fresh;
+  }
+
+  protected abstract boolean insert(String state);
+
+  protected void release() {
+  }
+
+  public synchronized String getStatistics() {
+    return "# abstract states: " + added + " new, " + matched + " matched" + details();
+  }
+
+  protected abstract String details();
+
+  // the 128 bit fingerprint of the state, as two longs
+  static long[] fingerprint(String state) {
+    byte[] md5;
+    try {
+      md5 = MessageDigest.getInstance("MD5").digest(state.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("## Error: MD5 not available", e);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(md5);
+    return new long[] { buffer.getLong(), buffer.getLong() };
+  }
+
+  private static String percent(double fraction) {
+    return String.format("%.1f%%", 100 * fraction);
+  }
+
+  private static String probability(double p) {
+    return String.format("%.1e", p);
+  }
+
+  /*
+   * The state strings.
+   */
+  static final class Strings extends AbstractStateStore {
+    private final Set<String> states = new HashSet<String>();
+
+    @Override
+    protected boolean insert(String state) {
+      return states.add(state);
+    }
+
+    @Override
+    protected String details() {
+      return "";
+    }
+  }
+
+  /*
+   * Fingerprints in a table of (high, low) pairs with linear probing; (0, 0)
+   * marks an empty slot. Full tables are written to the file as sorted runs,
+   * of which only every SPARSE-th fingerprint stays in memory.
+   */
+  static final class Fingerprints extends AbstractStateStore {
+    private static final int SPARSE = 256;
+    private static final int ENTRY_SIZE = 16;
+
+    private final int capacity;
+    private final File fileName;
+    private final FileChannel file;
+    private final List<Run> runs = new ArrayList<Run>();
+
+    private long[] table = new long[2 * 1024];
+    private int size = 0;
+    private long spilled = 0;
+
+    private static final class Run {
+      long offset;
+      int count;
+      long[] sparse; // every SPARSE-th fingerprint of the run, as pairs
+    }
+
+    Fingerprints(int capacity, String fileName) {
+      this.capacity = capacity;
+      if (fileName == null) {
+        this.fileName = null;
+        this.file = null;
+      } else {
+        this.fileName = new File(fileName);
+        try {
+          RandomAccessFile raf = new RandomAccessFile(this.fileName, "rw");
+          raf.setLength(0);
+          this.file = raf.getChannel();
+        } catch (IOException e) {
+          throw new RuntimeException("## Error: cannot open abstract state file " + fileName, e);
+        }
+      }
+    }
+
+    @Override
+    protected boolean insert(String state) {
+      long[] fp = fingerprint(state);
+      long high = fp[0];
+      long low = (fp[0] == 0 && fp[1] == 0) ? 1 : fp[1];
+      int mask = table.length / 2 - 1;
+      int slot = (int) (high ^ (high >>> 32)) & mask;
+      while (table[2 * slot] != 0 || table[2 * slot + 1] != 0) {
+        if (table[2 * slot] == high && table[2 * slot + 1] == low) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      for (Run run : runs) {
+        if (contains(run, high, low)) {
+          return false;
+        }
+      }
+      table[2 * slot] = high;
+      table[2 * slot + 1] = low;
+      size++;
+      if (file != null && size >= capacity) {
+        spill();
+      } else if (2 * size > table.length / 2) {
+        grow();
+      }
+      return true;
+    }
+
+    private void grow() {
+      long[] old = table;
+      table = new long[2 * old.length];
+      int mask = table.length / 2 - 1;
+      for (int i = 0; i < old.length; i += 2) {
+        if (old[i] != 0 || old[i + 1] != 0) {
+          int slot = (int) (old[i] ^ (old[i] >>> 32)) & mask;
+          while (table[2 * slot] != 0 || table[2 * slot + 1] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          table[2 * slot] = old[i];
+          table[2 * slot + 1] = old[i + 1];
+        }
+      }
+    }
+
+    private void spill() {
+      long[] entries = new long[2 * size];
+      int n = 0;
+      for (int i = 0; i < table.length; i += 2) {
+        if (table[i] != 0 || table[i + 1] != 0) {
+          entries[n++] = table[i];
+          entries[n++] = table[i + 1];
+        }
+      }
+      sort(entries, 0, size - 1);
+
+      Run run = new Run();
+      run.count = size;
+      run.sparse = new long[2 * ((size + SPARSE - 1) / SPARSE)];
+      for (int i = 0, j = 0; i < size; i += SPARSE, j += 2) {
+        run.sparse[j] = entries[2 * i];
+        run.sparse[j + 1] = entries[2 * i + 1];
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE * size);
+      buffer.asLongBuffer().put(entries);
+      try {
+        run.offset = file.size();
+        while (buffer.hasRemaining()) {
+          file.write(buffer, run.offset + buffer.position());
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("## Error: cannot write abstract state file " + fileName, e);
+      }
+      runs.add(run);
+      spilled += size;
+
+      table = new long[table.length];
+      size = 0;
+    }
+
+    private boolean contains(Run run, long high, long low) {
+      // the last block whose first fingerprint is not greater
+      int lo = 0;
+      int hi = run.sparse.length / 2 - 1;
+      if (compare(run.sparse[0], run.sparse[1], high, low) > 0) {
+        return false;
+      }
+      while (lo < hi) {
+        int mid = (lo + hi + 1) >>> 1;
+        if (compare(run.sparse[2 * mid], run.sparse[2 * mid + 1], high, low) <= 0) {
+          lo = mid;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      int first = lo * SPARSE;
+      int count = Math.min(SPARSE, run.count - first);
+      ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE * count);
+      long position = run.offset + (long) ENTRY_SIZE * first;
+      try {
+        while (buffer.hasRemaining()) {
+          if (file.read(buffer, position + buffer.position()) < 0) {
+            throw new IOException("unexpected end of file");
+          }
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("## Error: cannot read abstract state file " + fileName, e);
+      }
+      buffer.flip();
+      long[] block = new long[2 * count];
+      buffer.asLongBuffer().get(block);
+      int l = 0;
+      int h = count - 1;
+      while (l <= h) {
+        int mid = (l + h) >>> 1;
+        int c = compare(block[2 * mid], block[2 * mid + 1], high, low);
+        if (c == 0) {
+          return true;
+        } else if (c < 0) {
+          l = mid + 1;
+        } else {
+          h = mid - 1;
+        }
+      }
+      return false;
+    }
+
+    private static int compare(long high1, long low1, long high2, long low2) {
+      int c = Long.compare(high1, high2);
+      return (c != 0) ? c : Long.compare(low1, low2);
+    }
+
+    // sorts the pairs first..last of the array
+    private static void sort(long[] pairs, int first, int last) {
+      while (first < last) {
+        int mid = (first + last) >>> 1;
+        long pivotHigh = pairs[2 * mid];
+        long pivotLow = pairs[2 * mid + 1];
+        int i = first;
+        int j = last;
+        while (i <= j) {
+          while (compare(pairs[2 * i], pairs[2 * i + 1], pivotHigh, pivotLow) < 0) {
+            i++;
+          }
+          while (compare(pairs[2 * j], pairs[2 * j + 1], pivotHigh, pivotLow) > 0) {
+            j--;
+          }
+          if (i <= j) {
+            long high = pairs[2 * i];
+            long low = pairs[2 * i + 1];
+            pairs[2 * i] = pairs[2 * j];
+            pairs[2 * i + 1] = pairs[2 * j + 1];
+            pairs[2 * j] = high;
+            pairs[2 * j + 1] = low;
+            i++;
+            j--;
+          }
+        }
+        // recurse into the smaller part
+        if (j - first < last - i) {
+          sort(pairs, first, j);
+          first = i;
+        } else {
+          sort(pairs, i, last);
+          last = j;
+        }
+      }
+    }
+
+    @Override
+    protected void release() {
+      if (file != null) {
+        try {
+          file.close();
+        } catch (IOException e) {
+          // nothing to do
+        }
+        fileName.delete();
+      }
+    }
+
+    @Override
+    protected String details() {
+      double n = size + spilled;
+      // birthday bound for 128 bit fingerprints
+      double collision = n * n / Math.pow(2, 129);
+      String result = ", table occupancy " + percent((double) size / (table.length / 2));
+      if (file != null) {
+        result += ", " + spilled + " spilled in " + runs.size() + " runs";
+      }
+      return result + ", false positive probability " + probability(collision);
+    }
+  }
+
+  /*
+   * A bloom filter; the k bit positions are h1 + i * h2 for the two halves of
+   * the fingerprint.
+   */
+  static final class Bloom extends AbstractStateStore {
+    private final long[] bits;
+    private final long numBits;
+    private final int hashes;
+    private long bitsSet = 0;
+
+    Bloom(int numBits, int hashes) {
+      this.bits = new long[(numBits + 63) / 64];
+      this.numBits = 64L * bits.length;
+      this.hashes = hashes;
+    }
+
+    @Override
+    protected boolean insert(String state) {
+      long[] fp = fingerprint(state);
+      boolean fresh = false;
+      for (int i = 0; i < hashes; i++) {
+        long bit = Math.floorMod(fp[0] + i * fp[1], numBits);
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        if ((bits[word] & mask) == 0) {
+          bits[word] |= mask;
+          bitsSet++;
+          fresh = true;
+        }
+      }
+      return fresh;
+    }
+
+    @Override
+    protected String details() {
+      double fill = (double) bitsSet / numBits;
+      return ", " + (bits.length / 128) + " KB, bits set " + percent(fill)
+          + ", false positive probability " + probability(Math.pow(fill, hashes));
+    }
+  }
+}
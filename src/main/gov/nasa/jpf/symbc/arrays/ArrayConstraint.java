@@ -38,11 +38,17 @@ public class ArrayConstraint extends Constraint {
       super(ie, c, ae);
     }
 
+    public ArrayConstraint(SnapshotExpression se, Comparator c, ArrayExpression ae) {
+      super(se, c, ae);
+    }
+
     public Constraint copy() {
         if (this.getLeft() instanceof SelectExpression) {
             return new ArrayConstraint((SelectExpression)getLeft(), getComparator(), (IntegerExpression)getRight());
         } else if (this.getLeft() instanceof StoreExpression) {
             return new ArrayConstraint((StoreExpression)getLeft(), getComparator(), (ArrayExpression)getRight());
+        } else if (this.getLeft() instanceof SnapshotExpression) {
+            return new ArrayConstraint((SnapshotExpression)getLeft(), getComparator(), (ArrayExpression)getRight());
         } else {
             return new ArrayConstraint((InitExpression)getLeft(), getComparator(), (ArrayExpression)getRight());
         }
@@ -32,9 +32,15 @@ public class RealArrayConstraint extends Constraint {
         super(se, c, ae);
     }
 
+    public RealArrayConstraint(SnapshotExpression se, Comparator c, ArrayExpression ae) {
+        super(se, c, ae);
+    }
+
     public Constraint copy() {
         if (getLeft() instanceof SelectExpression) {
             return new RealArrayConstraint((SelectExpression)getLeft(), getComparator(), (RealExpression)getRight());
+        } else if (getLeft() instanceof SnapshotExpression) {
+            return new RealArrayConstraint((SnapshotExpression)getLeft(), getComparator(), (ArrayExpression)getRight());
         } else {
             return new RealArrayConstraint((RealStoreExpression)getLeft(), getComparator(), (ArrayExpression)getRight());
         }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.arrays;
+
+import gov.nasa.jpf.symbc.numeric.ConstraintExpressionVisitor;
+import gov.nasa.jpf.symbc.numeric.Expression;
+
+import java.util.Map;
+
+/**
+ * The contents of a concrete array at the moment it was first indexed with a
+ * symbolic index. The path condition gets a single constraint
+ * "snapshot = array" instead of one select constraint per element; the
+ * solver translation turns it into one chain of stores (see PCParser).
+ *
+ * Integral arrays keep their elements in {@link #values}, float and double
+ * arrays in {@link #realValues}.
+ */
+public class SnapshotExpression extends Expression {
+    public final ArrayExpression arrayExpression;
+    public final long[] values;
+    public final double[] realValues;
+
+    public SnapshotExpression(ArrayExpression ae, long[] values) {
+        this.arrayExpression = ae;
+        this.values = values;
+        this.realValues = null;
+    }
+
+    public SnapshotExpression(ArrayExpression ae, double[] realValues) {
+        this.arrayExpression = ae;
+        this.values = null;
+        this.realValues = realValues;
+    }
+
+    public boolean isReal() {
+        return realValues != null;
+    }
+
+    public int length() {
+        return isReal() ? realValues.length : values.length;
+    }
+
+    public void accept(ConstraintExpressionVisitor visitor) {
+        visitor.preVisit(this);
+        visitor.postVisit(this);
+    }
+
+    public void getVarsVals(Map<String, Object> varsVals) {
+        return;
+    }
+
+    public String stringPC() {
+        return arrayExpression.stringPC() + "_snapshot[" + length() + "]";
+    }
+
+    public int compareTo(Expression expr) {
+        if (!(expr instanceof SnapshotExpression)) {
+            return getClass().getCanonicalName().compareTo(expr.getClass().getCanonicalName());
+        }
+        SnapshotExpression e = (SnapshotExpression) expr;
+        int r = arrayExpression.stringPC().compareTo(e.arrayExpression.stringPC());
+        if (r == 0) {
+            r = Boolean.compare(isReal(), e.isReal());
+        }
+        if (r == 0) {
+            r = Integer.compare(length(), e.length());
+        }
+        for (int i = 0; r == 0 && i < length(); i++) {
+            r = isReal() ? Double.compare(realValues[i], e.realValues[i]) : Long.compare(values[i], e.values[i]);
+        }
+        return r;
+    }
+
+    public String toString() {
+        return this.stringPC();
+    }
+}
@@ -51,10 +51,8 @@ import gov.nasa.jpf.vm.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
 import java.util.Vector;
 
 public class BytecodeUtils {
@@ -66,50 +64,7 @@ public class BytecodeUtils {
      * all methods with this name will be treated as symbolic methods since we cannot distinguish between them;
      */
     public static boolean isMethodSymbolic(Config conf, String methodName, int numberOfArgs, Vector<String> args) {
-        // System.out.println("method name "+methodName);
-        String[] methods = conf.getStringArray("symbolic.method");
-        boolean misMatchedArgs = false;
-        String shortName = "";
-        if (methods != null) {
-            List<String> list = Arrays.asList(methods);
-            Iterator<String> it = list.iterator();
-
-            shortName = methodName;
-
-            if (methodName.contains("("))
-                shortName = methodName.substring(0, methodName.indexOf("("));
-            // System.out.println("short method name "+shortName);
-            while (it.hasNext()) {
-                String m1 = (String) it.next();
-                String configMethodName = m1.substring(0, m1.indexOf("("));
-                int argNum;
-                if (m1.equals(shortName + "()"))
-                    argNum = 0;
-                else
-                    argNum = m1.split("#").length; // number of args
-
-                if (configMethodName.equalsIgnoreCase(shortName)) {
-                    // System.out.println("config method name "+configMethodName + " "+argNum + " "+numberOfArgs);
-                    if (argNum == numberOfArgs) {
-                        if (args != null) {
-                            String argString = m1.substring(m1.indexOf("(") + 1, m1.indexOf(")"));
-                            StringTokenizer st = new StringTokenizer(argString, "#");
-                            while (st.hasMoreTokens())
-                                args.add(st.nextToken());
-                        }
-                        return true;
-                    } else
-                        misMatchedArgs = true;
-                }
-
-            }
-
-        }
-        if (misMatchedArgs) {
-            throw new RuntimeException(
-                    "ERROR: method arguments do not match with JPF's symbolic.method configuration: " + shortName);
-        }
-        return false;
+        return SymbolicTargets.get(conf).isMethodSymbolic(methodName, numberOfArgs, args);
     }
 
     /*
@@ -118,25 +73,15 @@ public class BytecodeUtils {
      */
 
     public static boolean isClassSymbolic(Config conf, String className, MethodInfo mi, String methodName) {
-        String shortName = "";
-        if (methodName.contains("init") && methodName.contains(">"))
-            shortName = methodName.substring(1, methodName.indexOf('>'));
-        String[] classes = conf.getStringArray("symbolic.class");
-        if (classes != null) {
-            List<String> list = Arrays.asList(classes);
-            Iterator<String> it = list.iterator();
-            while (it.hasNext()) {
-                String cName = (String) it.next();
-                if (className.equalsIgnoreCase(cName) && !shortName.equalsIgnoreCase("init") && !mi.isClinit()
-                        && !methodName.equalsIgnoreCase("[clinit]<clinit>")
-                        && !methodName.equalsIgnoreCase("main([Ljava/lang/String;)V")) {
-                    System.out.println("method name " + methodName);
-                    // symClass = true;
-                    return true;
-                }
-            }
-        }
-        return false;
+        return SymbolicTargets.get(conf).isClassSymbolic(className, mi, methodName);
+    }
+
+    /*
+     * Whether the method is symbolic, either by its class or by symbolic.method; the decision is kept on the
+     * MethodInfo, for the listeners that ask on every invoke and return
+     */
+    public static boolean isSymbolic(Config conf, MethodInfo mi) {
+        return SymbolicTargets.get(conf).isSymbolic(mi);
     }
 
     /**
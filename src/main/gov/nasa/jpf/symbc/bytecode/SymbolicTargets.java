@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.bytecode;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.vm.MethodInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Vector;
+import java.util.regex.Pattern;
+
+/**
+ * The symbolic.method and symbolic.class properties, compiled once per Config.
+ * Names are compared ignoring case, as BytecodeUtils always did. Besides exact
+ * names, both properties accept patterns where '*' stands for any sequence of
+ * characters:
+ *
+ *   symbolic.class=pkg.Foo,pkg.util.*
+ *   symbolic.method=pkg.Foo.bar(sym#con),pkg.Baz.*(sym)
+ *
+ * "pkg.util.*" covers the classes of pkg.util and its sub-packages. A method
+ * pattern only covers the methods with the number of arguments it lists;
+ * unlike an exact name, it is not an error if a method it matches has another
+ * number of arguments.
+ *
+ * The decision for a MethodInfo is kept as an attribute of the MethodInfo, so
+ * that the listeners, which ask on every invoke and return, only match once
+ * per method.
+ */
+public final class SymbolicTargets {
+
+    private static Config lastConf = null;
+    private static SymbolicTargets lastTargets = null;
+
+    private static final class MethodSpec {
+        final String[] args;
+
+        MethodSpec(String[] args) {
+            this.args = args;
+        }
+    }
+
+    /* the decision for a MethodInfo, valid for the targets it was made with */
+    private static final class Decision {
+        final SymbolicTargets targets;
+        final boolean symbolic;
+
+        Decision(SymbolicTargets targets, boolean symbolic) {
+            this.targets = targets;
+            this.symbolic = symbolic;
+        }
+    }
+
+    /**
+     * Exact names in a hash map, patterns that end with their only '*' in a
+     * trie of their prefixes, the other patterns as regular expressions.
+     */
+    static final class NameMatcher<T> {
+        private static final class Node<T> {
+            final Map<Character, Node<T>> children = new HashMap<Character, Node<T>>();
+            List<T> values = null;
+        }
+
+        private final Map<String, List<T>> exact = new HashMap<String, List<T>>();
+        private final Node<T> prefixes = new Node<T>();
+        private final List<Pattern> patterns = new ArrayList<Pattern>();
+        private final List<T> patternValues = new ArrayList<T>();
+
+        void add(String name, T value) {
+            String key = name.toLowerCase(Locale.ENGLISH);
+            int star = key.indexOf('*');
+            if (star < 0) {
+                add(exact, key, value);
+            } else if (star == key.length() - 1) {
+                Node<T> node = prefixes;
+                for (int i = 0; i < star; i++) {
+                    Character c = key.charAt(i);
+                    Node<T> child = node.children.get(c);
+                    if (child == null) {
+                        child = new Node<T>();
+                        node.children.put(c, child);
+                    }
+                    node = child;
+                }
+                if (node.values == null) {
+                    node.values = new ArrayList<T>(1);
+                }
+                node.values.add(value);
+            } else {
+                String[] parts = key.split("\\*", -1);
+                StringBuilder regex = new StringBuilder(Pattern.quote(parts[0]));
+                for (int i = 1; i < parts.length; i++) {
+                    regex.append(".*").append(Pattern.quote(parts[i]));
+                }
+                patterns.add(Pattern.compile(regex.toString()));
+                patternValues.add(value);
+            }
+        }
+
+        private static <T> void add(Map<String, List<T>> map, String key, T value) {
+            List<T> values = map.get(key);
+            if (values == null) {
+                values = new ArrayList<T>(1);
+                map.put(key, values);
+            }
+            values.add(value);
+        }
+
+        List<T> exact(String name) {
+            List<T> values = exact.get(name.toLowerCase(Locale.ENGLISH));
+            return (values == null) ? Collections.<T> emptyList() : values;
+        }
+
+        List<T> matching(String name) {
+            String key = name.toLowerCase(Locale.ENGLISH);
+            List<T> result = null;
+            Node<T> node = prefixes;
+            for (int i = 0; node != null; i++) {
+                if (node.values != null) {
+                    result = addAll(result, node.values);
+                }
+                node = (i < key.length()) ? node.children.get(key.charAt(i)) : null;
+            }
+            for (int i = 0; i < patterns.size(); i++) {
+                if (patterns.get(i).matcher(key).matches()) {
+                    result = addAll(result, Collections.singletonList(patternValues.get(i)));
+                }
+            }
+            return (result == null) ? Collections.<T> emptyList() : result;
+        }
+
+        private static <T> List<T> addAll(List<T> result, List<T> values) {
+            if (result == null) {
+                result = new ArrayList<T>();
+            }
+            result.addAll(values);
+            return result;
+        }
+
+        boolean matches(String name) {
+            return !exact(name).isEmpty() || !matching(name).isEmpty();
+        }
+    }
+
+    private final NameMatcher<MethodSpec> methods = new NameMatcher<MethodSpec>();
+    private final NameMatcher<String> classes = new NameMatcher<String>();
+
+    SymbolicTargets(String[] methodSpecs, String[] classNames) {
+        if (methodSpecs != null) {
+            for (String m : methodSpecs) {
+                int open = m.indexOf('(');
+                int close = m.indexOf(')');
+                if (open < 0 || close < open) {
+                    throw new RuntimeException("## Error: symbolic.method entry is not of the form name(args): " + m);
+                }
+                String argString = m.substring(open + 1, close);
+                String[] args = argString.isEmpty() ? new String[0] : argString.split("#");
+                methods.add(m.substring(0, open), new MethodSpec(args));
+            }
+        }
+        if (classNames != null) {
+            for (String c : classNames) {
+                classes.add(c, c);
+            }
+        }
+    }
+
+    /**
+     * The targets of this Config; they are compiled again only if another
+     * Config is passed.
+     */
+    public static synchronized SymbolicTargets get(Config conf) {
+        if (conf != lastConf) {
+            lastTargets = new SymbolicTargets(conf.getStringArray("symbolic.method"),
+                    conf.getStringArray("symbolic.class"));
+            lastConf = conf;
+        }
+        return lastTargets;
+    }
+
+    /**
+     * See BytecodeUtils.isMethodSymbolic: methodName is the full name of the
+     * method, with or without its signature. If args is not NULL, the sym/con
+     * values of the matching entry are added to it.
+     */
+    public boolean isMethodSymbolic(String methodName, int numberOfArgs, Vector<String> args) {
+        String shortName = methodName;
+        if (methodName.contains("("))
+            shortName = methodName.substring(0, methodName.indexOf("("));
+
+        boolean misMatchedArgs = false;
+        for (MethodSpec spec : methods.exact(shortName)) {
+            if (spec.args.length == numberOfArgs) {
+                addArgs(spec, args);
+                return true;
+            }
+            misMatchedArgs = true;
+        }
+        for (MethodSpec spec : methods.matching(shortName)) {
+            if (spec.args.length == numberOfArgs) {
+                addArgs(spec, args);
+                return true;
+            }
+        }
+        if (misMatchedArgs) {
+            throw new RuntimeException(
+                    "ERROR: method arguments do not match with JPF's symbolic.method configuration: " + shortName);
+        }
+        return false;
+    }
+
+    private static void addArgs(MethodSpec spec, Vector<String> args) {
+        if (args != null) {
+            args.addAll(Arrays.asList(spec.args));
+        }
+    }
+
+    /**
+     * See BytecodeUtils.isClassSymbolic: all the methods of the class, except
+     * the constructors, the static initializer and main.
+     */
+    public boolean isClassSymbolic(String className, MethodInfo mi, String methodName) {
+        String shortName = "";
+        if (methodName.contains("init") && methodName.contains(">"))
+            shortName = methodName.substring(1, methodName.indexOf('>'));
+        if (classes.matches(className) && !shortName.equalsIgnoreCase("init") && !mi.isClinit()
+                && !methodName.equalsIgnoreCase("[clinit]<clinit>")
+                && !methodName.equalsIgnoreCase("main([Ljava/lang/String;)V")) {
+            if (SymbolicInstructionFactory.debugMode) {
+                System.out.println("method name " + methodName);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the method is symbolic, by its class or by its name: the
+     * decision is made once and kept on the MethodInfo.
+     */
+    public boolean isSymbolic(MethodInfo mi) {
+        Decision d = mi.getAttr(Decision.class);
+        if (d != null && d.targets == this) {
+            return d.symbolic;
+        }
+        if (d != null) {
+            mi.removeAttr(d);
+        }
+        String className = (mi.getClassInfo() != null) ? mi.getClassInfo().getName() : mi.getClassName();
+        boolean symbolic = isClassSymbolic(className, mi, mi.getUniqueName())
+                || isMethodSymbolic(mi.getFullName(), mi.getNumberOfArguments(), null);
+        mi.addAttr(new Decision(this, symbolic));
+        return symbolic;
+    }
+}
@@ -81,9 +81,10 @@ public class IFInstrSymbHelper {
 				thirdPC._addDet(thirdComparator,sym_v2,v1);
 			}
 			
-			boolean firstSat = firstPC.simplify();
-			boolean secSat = secPC.simplify();
-			boolean thirdSat = thirdPC.simplify();
+			boolean[] sat = ParallelPCSolver.simplify(firstPC, secPC, thirdPC);
+			boolean firstSat = sat[0];
+			boolean secSat = sat[1];
+			boolean thirdSat = sat[2];
 			
 			if(firstSat) {
 				if(secSat) {
@@ -222,9 +223,10 @@ public class IFInstrSymbHelper {
 				thirdPC._addDet(thirdComparator,sym_v2,v1);
 			}
 			
-			boolean firstSat = firstPC.simplify();
-			boolean secSat = secPC.simplify();
-			boolean thirdSat = thirdPC.simplify(); 
+			boolean[] sat = ParallelPCSolver.simplify(firstPC, secPC, thirdPC);
+			boolean firstSat = sat[0];
+			boolean secSat = sat[1];
+			boolean thirdSat = sat[2];
 			
 			if(firstSat) {
 				if(secSat) {
@@ -364,9 +366,10 @@ public class IFInstrSymbHelper {
 				thirdPC._addDet(thirdComparator,sym_v2,v1);
 			}
 			
-			boolean firstSat = firstPC.simplify();
-			boolean secSat = secPC.simplify();
-			boolean thirdSat = thirdPC.simplify();
+			boolean[] sat = ParallelPCSolver.simplify(firstPC, secPC, thirdPC);
+			boolean firstSat = sat[0];
+			boolean secSat = sat[1];
+			boolean thirdSat = sat[2];
 			
 			if(firstSat) {
 				if(secSat) {
@@ -487,8 +490,9 @@ public class IFInstrSymbHelper {
 			eqPC._addDet(trueComparator, sym_v, 0);
 			nePC._addDet(falseComparator, sym_v, 0);
 			
-			boolean eqSat = eqPC.simplify();
-			boolean neSat = nePC.simplify();
+			boolean[] sat = ParallelPCSolver.simplify(eqPC, nePC);
+			boolean eqSat = sat[0];
+			boolean neSat = sat[1];
 			
 			if(eqSat) {
 				if(neSat) {
@@ -571,8 +575,9 @@ public class IFInstrSymbHelper {
 				nePC._addDet(falseComparator, v1, sym_v2);
 			}
 
-			boolean eqSat = eqPC.simplify();
-			boolean neSat = nePC.simplify();
+			boolean[] sat = ParallelPCSolver.simplify(eqPC, nePC);
+			boolean eqSat = sat[0];
+			boolean neSat = sat[1];
 			
 			if(eqSat) {
 				if(neSat) {
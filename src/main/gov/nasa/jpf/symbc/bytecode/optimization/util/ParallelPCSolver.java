@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.bytecode.optimization.util;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.solvers.IncrementalListener;
+import gov.nasa.jpf.symbc.numeric.solvers.Z3ContextPool;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks the feasibility of the outcomes of a branch concurrently.
+ *
+ * With symbolic.parallel_branches=true the path conditions of all outcomes are
+ * solved at the same time: all but the first are submitted to a bounded pool
+ * (symbolic.parallel_branches.threads), the first one is solved on the calling
+ * thread. A branch then costs the time of the slowest query instead of the
+ * sum of all of them.
+ *
+ * Only decision procedures that do not share state between problems are run
+ * in parallel (see {@link #isThreadSafe(String)}); for all others, and with
+ * Green, concolic mode or the IncrementalListener, the queries are solved
+ * one after another as before.
+ */
+public class ParallelPCSolver {
+
+  private static boolean enabled = false;
+  private static int threads = 1;
+  private static ExecutorService executor = null;
+
+  // statistics
+  private static final AtomicLong branches = new AtomicLong();
+  private static final AtomicLong busyNanos = new AtomicLong(); // sum of the individual queries
+  private static final AtomicLong wallNanos = new AtomicLong(); // time spent waiting for all of them
+
+  public static void configure(Config conf) {
+    shutdown();
+    enabled = conf.getBoolean("symbolic.parallel_branches", false);
+    int cpus = Runtime.getRuntime().availableProcessors();
+    threads = conf.getInt("symbolic.parallel_branches.threads", Math.max(1, Math.min(2, cpus - 1)));
+    if (threads < 1) {
+      throw new IllegalArgumentException("symbolic.parallel_branches.threads must be positive (>0), but was " + threads);
+    }
+    branches.set(0);
+    busyNanos.set(0);
+    wallNanos.set(0);
+    if (enabled && SymbolicInstructionFactory.debugMode) {
+      System.out.println("symbolic.parallel_branches.threads=" + threads);
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Decision procedures whose problems are independent objects and can
+   * therefore be solved on different threads at the same time. Z3 qualifies
+   * when there is a context for the search thread and each of the pool
+   * threads (symbolic.z3.contexts), since the threads keep their contexts.
+   */
+  public static boolean isThreadSafe(String dp) {
+    if (dp.equalsIgnoreCase("z3") || dp.equalsIgnoreCase("z3bitvector")) {
+      return Z3ContextPool.getSize() > threads;
+    }
+    return dp.equalsIgnoreCase("choco") || dp.equalsIgnoreCase("iasolver");
+  }
+
+  private static boolean canRunInParallel(int queries) {
+    if (!enabled || queries < 2) {
+      return false;
+    }
+    if (SymbolicInstructionFactory.greenSolver != null || SymbolicInstructionFactory.concolicMode
+        || IncrementalListener.solver != null) {
+      return false;
+    }
+    String[] dp = SymbolicInstructionFactory.dp;
+    return dp == null || isThreadSafe(dp[0]);
+  }
+
+  /**
+   * Calls {@link PathCondition#simplify()} on all the given path conditions.
+   *
+   * @return the results, in the order of the path conditions
+   */
+  public static boolean[] simplify(PathCondition... pcs) {
+    boolean[] results = new boolean[pcs.length];
+    if (!canRunInParallel(pcs.length)) {
+      for (int i = 0; i < pcs.length; i++) {
+        results[i] = pcs[i].simplify();
+      }
+      return results;
+    }
+
+    final long[] durations = new long[pcs.length];
+    long start = System.nanoTime();
+
+    List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(pcs.length - 1);
+    for (int i = 1; i < pcs.length; i++) {
+      final PathCondition pc = pcs[i];
+      final int index = i;
+      futures.add(getExecutor().submit(new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          long t = System.nanoTime();
+          boolean sat = pc.simplify();
+          durations[index] = System.nanoTime() - t;
+          return sat;
+        }
+      }));
+    }
+
+    results[0] = pcs[0].simplify();
+    durations[0] = System.nanoTime() - start;
+
+    for (int i = 1; i < pcs.length; i++) {
+      results[i] = join(futures.get(i - 1));
+    }
+
+    long wall = System.nanoTime() - start;
+    long busy = 0;
+    for (long d : durations) {
+      busy += d;
+    }
+    branches.incrementAndGet();
+    busyNanos.addAndGet(busy);
+    wallNanos.addAndGet(wall);
+    return results;
+  }
+
+  private static boolean join(Future<Boolean> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException("## Error: parallel branch check failed", cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("## Error: interrupted while checking branches in parallel", e);
+    }
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+        private int count = 0;
+
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "symbc-branch-solver-" + (count++));
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return executor;
+  }
+
+  public static synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Number of branches whose outcomes were checked in parallel.
+   */
+  public static long getParallelBranches() {
+    return branches.get();
+  }
+
+  /**
+   * Wall-clock time saved by the overlap: the time the queries would have
+   * taken one after another minus the time actually waited for them.
+   */
+  public static long getSavedMillis() {
+    return (busyNanos.get() - wallNanos.get()) / 1000000;
+  }
+
+  public static void report(PrintStream out) {
+    out.println("# parallel branch checks: " + branches.get() + ", solving time: "
+        + busyNanos.get() / 1000000 + " ms, wall-clock time: " + wallNanos.get() / 1000000
+        + " ms, saved: " + getSavedMillis() + " ms (" + threads + " worker thread(s))");
+  }
+}
@@ -23,6 +23,7 @@ package gov.nasa.jpf.symbc.bytecode.symarrays;
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
 import gov.nasa.jpf.symbc.arrays.ArrayExpression;
 import gov.nasa.jpf.symbc.arrays.SelectExpression;
+import gov.nasa.jpf.symbc.arrays.SnapshotExpression;
 import gov.nasa.jpf.symbc.numeric.Comparator;
 import gov.nasa.jpf.symbc.numeric.Expression;
 import gov.nasa.jpf.symbc.numeric.IntegerConstant;
@@ -120,10 +121,11 @@ public class BALOAD extends gov.nasa.jpf.jvm.bytecode.BALOAD {
               // We have a concrete array, but a symbolic index. We add all the constraints about the elements of the array, and perform the select
               ElementInfo arrayInfo = ti.getElementInfo(arrayRef);
               arrayAttr = ArrayExpression.create(arrayInfo.toString(), arrayInfo.arrayLength());
-              for (int i = 0; i < arrayInfo.arrayLength(); i++) {
-                byte arrValue = arrayInfo.getByteElement(i);
-                pc._addDet(Comparator.EQ, new SelectExpression(arrayAttr, new IntegerConstant(i)), new IntegerConstant(arrValue));
+              long[] values = new long[arrayInfo.arrayLength()];
+              for (int i = 0; i < values.length; i++) {
+                values[i] = arrayInfo.getByteElement(i);
               }
+              pc._addSnapshot(new SnapshotExpression(arrayAttr, values));
           } else {
               arrayAttr = (ArrayExpression)peekArrayAttr(ti); 
           }
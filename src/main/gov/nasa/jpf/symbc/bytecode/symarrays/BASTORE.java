@@ -22,7 +22,7 @@ package gov.nasa.jpf.symbc.bytecode.symarrays;
 
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
 import gov.nasa.jpf.symbc.arrays.ArrayExpression;
-import gov.nasa.jpf.symbc.arrays.SelectExpression;
+import gov.nasa.jpf.symbc.arrays.SnapshotExpression;
 import gov.nasa.jpf.symbc.arrays.StoreExpression;
 import gov.nasa.jpf.symbc.numeric.Comparator;
 import gov.nasa.jpf.symbc.numeric.Expression;
@@ -129,10 +129,11 @@ public class BASTORE extends gov.nasa.jpf.jvm.bytecode.BASTORE {
                 // We create a symbolic array out of the concrete array
                 arrayAttr = ArrayExpression.create(arrayInfo.toString(), arrayInfo.arrayLength());
                 // We add the constraints about all the elements of the array
-                for (int i = 0; i < arrayInfo.arrayLength(); i++) {
-                    byte arrValue = arrayInfo.getByteElement(i);
-                    pc._addDet(Comparator.EQ, new SelectExpression(arrayAttr, new IntegerConstant(i)), new IntegerConstant(arrValue));
+                long[] values = new long[arrayInfo.arrayLength()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = arrayInfo.getByteElement(i);
                 }
+                pc._addSnapshot(new SnapshotExpression(arrayAttr, values));
              }
           } else {
               arrayAttr = (ArrayExpression)peekArrayAttr(ti);
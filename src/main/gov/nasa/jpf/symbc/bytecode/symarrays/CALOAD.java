@@ -23,6 +23,7 @@ package gov.nasa.jpf.symbc.bytecode.symarrays;
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
 import gov.nasa.jpf.symbc.arrays.ArrayExpression;
 import gov.nasa.jpf.symbc.arrays.SelectExpression;
+import gov.nasa.jpf.symbc.arrays.SnapshotExpression;
 import gov.nasa.jpf.symbc.numeric.Comparator;
 import gov.nasa.jpf.symbc.numeric.Expression;
 import gov.nasa.jpf.symbc.numeric.IntegerConstant;
@@ -118,10 +119,11 @@ public class CALOAD extends gov.nasa.jpf.jvm.bytecode.CALOAD {
               // We have a concrete array, but a symbolic index. We add all the constraints and perform the select
               ElementInfo arrayInfo = ti.getElementInfo(arrayRef);
               arrayAttr = ArrayExpression.create(arrayInfo.toString(), arrayInfo.arrayLength());
-              for (int i = 0; i < arrayInfo.arrayLength(); i++) {
-                  char arrValue = (char)arrayInfo.getCharElement(i);
-                  pc._addDet(Comparator.EQ, new SelectExpression(arrayAttr, new IntegerConstant(i)), new IntegerConstant(arrValue));
+              long[] values = new long[arrayInfo.arrayLength()];
+              for (int i = 0; i < values.length; i++) {
+                  values[i] = (char)arrayInfo.getCharElement(i);
               }
+              pc._addSnapshot(new SnapshotExpression(arrayAttr, values));
           } else {
               arrayAttr = (ArrayExpression)peekArrayAttr(ti);
           }
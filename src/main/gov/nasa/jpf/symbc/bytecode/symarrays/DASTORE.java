@@ -21,7 +21,7 @@ package gov.nasa.jpf.symbc.bytecode.symarrays;
 
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
 import gov.nasa.jpf.symbc.arrays.ArrayExpression;
-import gov.nasa.jpf.symbc.arrays.SelectExpression;
+import gov.nasa.jpf.symbc.arrays.SnapshotExpression;
 import gov.nasa.jpf.symbc.arrays.RealStoreExpression;
 import gov.nasa.jpf.symbc.numeric.Comparator;
 import gov.nasa.jpf.symbc.numeric.Expression;
@@ -132,10 +132,11 @@ public class DASTORE extends gov.nasa.jpf.jvm.bytecode.DASTORE {
                  ElementInfo arrayInfo = ti.getElementInfo(arrayRef);   
                  arrayAttr = ArrayExpression.create(arrayInfo.toString(), arrayInfo.arrayLength());
                  // We add the constraints about all the elements of the array
-                 for (int i = 0; i < arrayInfo.arrayLength(); i++) {
-                     double arrValue = arrayInfo.getDoubleElement(i);
-                     pc._addDet(Comparator.EQ, new SelectExpression(arrayAttr,new IntegerConstant(i)), new RealConstant(arrValue));
+                 double[] values = new double[arrayInfo.arrayLength()];
+                 for (int i = 0; i < values.length; i++) {
+                     values[i] = arrayInfo.getDoubleElement(i);
                  }
+                 pc._addSnapshot(new SnapshotExpression(arrayAttr, values));
              }
           } else {
             arrayAttr = (ArrayExpression)peekArrayAttr(ti);
@@ -38,6 +38,7 @@
 package gov.nasa.jpf.symbc.concolic;
 // support for arbitrary external functions
 
+import gov.nasa.jpf.Config;
 import gov.nasa.jpf.symbc.numeric.ConstraintExpressionVisitor;
 import gov.nasa.jpf.symbc.numeric.Expression;
 import gov.nasa.jpf.symbc.numeric.IntegerExpression;
@@ -47,7 +48,15 @@ import gov.nasa.jpf.util.FileUtils;
 import gov.nasa.jpf.vm.ClassLoaderInfo;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.*;
 //import java.net.MalformedURLException;
 //import java.net.URI;
@@ -62,6 +71,7 @@ public class FunctionExpression extends RealExpression
 	public Expression [] sym_args;
 	static URLClassLoader clsLoader = null;
 	ArrayList<PathCondition> conditions;
+	private ConcreteFunction resolved = null;
 
 	// what happens when there are no arguments?
 	public FunctionExpression (String cls, String mth, Class<?>[] ast, 
@@ -76,6 +86,50 @@ public class FunctionExpression extends RealExpression
 		this.conditions = conditions;
 	}
 
+	/*
+	 * The concrete functions, resolved once per class, method and argument
+	 * types. symbolic.concolic.pure lists the functions (class.method) that
+	 * have no side effects: their results are kept, for the last
+	 * symbolic.concolic.memo_size (default 1024) arguments of each, since the
+	 * heuristics of PCAnalyzer evaluate them many times with the same values.
+	 */
+	static final class ConcreteFunction {
+		final MethodHandle handle; // (Object[])Object, NULL if it cannot be called
+		final Map<List<Object>, Double> memo;
+
+		ConcreteFunction (MethodHandle handle, final int memoSize) {
+			this.handle = handle;
+			if (memoSize > 0) {
+				memo = new LinkedHashMap<List<Object>, Double>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<List<Object>, Double> eldest) {
+						return size() > memoSize;
+					}
+				};
+			} else {
+				memo = null;
+			}
+		}
+	}
+
+	private static final Map<String, ConcreteFunction> functions = new ConcurrentHashMap<String, ConcreteFunction>();
+	private static Set<String> pure = new HashSet<String>();
+	private static int memoSize = 1024;
+
+	public static void configure (Config conf) {
+		functions.clear();
+		clsLoader = null;
+		pure = new HashSet<String>();
+		String[] names = conf.getStringArray("symbolic.concolic.pure");
+		if (names != null) {
+			pure.addAll(Arrays.asList(names));
+		}
+		memoSize = conf.getInt("symbolic.concolic.memo_size", 1024);
+		if (memoSize <= 0) {
+			throw new IllegalArgumentException("symbolic.concolic.memo_size must be positive (>0), but was " + memoSize);
+		}
+	}
+
 	// here we assume that the solution is always double; if it is not we can cast it later;
 	public double solution()
 	{
@@ -84,58 +138,127 @@ public class FunctionExpression extends RealExpression
 
 		assert(sym_args!=null && sym_args.length >0);
 
+		if (resolved == null) {
+			resolved = lookup();
+		}
+		ConcreteFunction function = resolved;
+		if (function.handle == null) {
+			return 0.0;
+		}
+
+		Object[] args = new Object[sym_args.length];
+		for (int i=0; i<args.length; i++)
+			if (sym_args[i] instanceof IntegerExpression) {
+				args[i] = box(((IntegerExpression)sym_args[i]).solution(), argTypes[i]);
+			}
+			else {// RealExpression
+				args[i] = box(((RealExpression)sym_args[i]).solution(), argTypes[i]);
+			}
+
+		List<Object> key = null;
+		if (function.memo != null) {
+			key = Arrays.asList(args);
+			synchronized (function.memo) {
+				Double result = function.memo.get(key);
+				if (result != null) {
+					return result;
+				}
+			}
+		}
+
+		double solution = 0.0;
 		try {
-			if(clsLoader == null) {
-				ArrayList<String> list = new ArrayList<String>();
-				String[] cp = ClassLoaderInfo.getCurrentClassLoader().getClassPathElements();
-				cp = FileUtils.expandWildcards(cp);
-				for (String e : cp) {
-					list.add(e);
+			Object result = function.handle.invokeExact(args); // here we need the type of the result
+			if (result instanceof Number) {
+				solution = ((Number) result).doubleValue();
+			}
+		} catch (Throwable e) {
+			e.printStackTrace();
+			System.err.println("exception :" + e.getMessage());
+			return 0.0;
+		}
+		if (key != null) {
+			synchronized (function.memo) {
+				function.memo.put(key, solution);
+			}
+		}
+		return solution;
+	}
+
+	private ConcreteFunction lookup() {
+		String signature = class_name + "." + method_name + Arrays.toString(argTypes);
+		ConcreteFunction function = functions.get(signature);
+		if (function == null) {
+			function = new ConcreteFunction(resolve(),
+					pure.contains(class_name + "." + method_name) ? memoSize : 0);
+			functions.put(signature, function);
+		}
+		return function;
+	}
+
+	// a public static method as a (Object[])Object handle, or NULL
+	private MethodHandle resolve() {
+		try {
+			synchronized (FunctionExpression.class) {
+				if(clsLoader == null) {
+					ArrayList<String> list = new ArrayList<String>();
+					String[] cp = ClassLoaderInfo.getCurrentClassLoader().getClassPathElements();
+					cp = FileUtils.expandWildcards(cp);
+					for (String e : cp) {
+						list.add(e);
+					}
+					URL[] urls = FileUtils.getURLs(list);
+					clsLoader = new URLClassLoader(urls);
 				}
-				URL[] urls = FileUtils.getURLs(list);
-				clsLoader = new URLClassLoader(urls);
 			}
-			
+
 			Class<?> cls = null;
 			try {
 				cls = Class.forName(class_name, true, clsLoader);
 			} catch (ClassNotFoundException c) {
 				c.printStackTrace();
 				System.err.println("Class not found:" + class_name);
+				return null;
 			} catch (UnsatisfiedLinkError e) {
 				e.printStackTrace();
 				System.out.println("unsatisfied link error");
-				
+				return null;
+			}
+
+			Method m = cls.getMethod(method_name, argTypes);
+			int modifiers = m.getModifiers();
+			if (Modifier.isStatic(modifiers) && Modifier.isPublic(modifiers)){
+				MethodHandle handle = MethodHandles.publicLookup().unreflect(m);
+				return handle.asType(handle.type().generic()).asSpreader(Object[].class, argTypes.length);
 			}
-			
-			  Object[] args = new Object[sym_args.length];
-		      for (int i=0; i<args.length; i++)
-		    	  if (sym_args[i] instanceof IntegerExpression) {
-			        args[i] = new Long(((IntegerExpression)sym_args[i]).solution());
-		    	  }
-			      else {// RealExpression
-			    	args[i] = new Double(((RealExpression)sym_args[i]).solution());
-			      }
-		      Method m = cls.getMethod(method_name, argTypes);
-		      int modifiers = m.getModifiers();
-		      if (Modifier.isStatic(modifiers) && Modifier.isPublic(modifiers)){
-		    	  Object result = null;
-		    	  try {
-		    		  result = m.invoke(null, args); // here we need the type of the result
-		    	  } catch(InvocationTargetException e) {
-		    		 e.printStackTrace();
-		    		 System.err.println("exception :" + e.getMessage());
-		    	  }
-		        if (result instanceof Number) {
-		        	return ((Number) result).doubleValue();
-		        }
-		      }
 		}
 
 		catch (Throwable e) {
 			System.err.println(e);
 		}
-		return 0.0;
+		return null;
+	}
+
+	// the argument as the wrapper of its parameter type
+	private static Object box(long value, Class<?> type) {
+		if (type == int.class) return (int) value;
+		if (type == short.class) return (short) value;
+		if (type == byte.class) return (byte) value;
+		if (type == char.class) return (char) value;
+		if (type == boolean.class) return value != 0;
+		if (type == float.class) return (float) value;
+		if (type == double.class) return (double) value;
+		return value;
+	}
+
+	private static Object box(double value, Class<?> type) {
+		if (type == float.class) return (float) value;
+		if (type == long.class) return (long) value;
+		if (type == int.class) return (int) value;
+		if (type == short.class) return (short) value;
+		if (type == byte.class) return (byte) value;
+		if (type == char.class) return (char) value;
+		return value;
 	}
 
     public void getVarsVals(Map<String,Object> varsVals) {
@@ -426,7 +426,6 @@ public class HeapSymbolicListener extends PropertyListenerAdapter implements Pub
 			if (insn instanceof JVMInvokeInstruction) {
 				JVMInvokeInstruction md = (JVMInvokeInstruction) insn;
 				String methodName = md.getInvokedMethodName();
-				int numberOfArgs = md.getArgumentValues(ti).length;
 
 				MethodInfo mi = md.getInvokedMethod();
 				ClassInfo ci = mi.getClassInfo();
@@ -441,13 +440,13 @@ public class HeapSymbolicListener extends PropertyListenerAdapter implements Pub
                  if(!mi.equals(sf.getMethodInfo()))
                          return;
 
-				if ((BytecodeUtils.isClassSymbolic(conf, className, mi, methodName))
-						|| BytecodeUtils.isMethodSymbolic(conf, mi.getFullName(), numberOfArgs, null)){
+				if (BytecodeUtils.isSymbolic(conf, mi)){
 
 
 					MethodSummary methodSummary = new MethodSummary();
 					methodSummary.setMethodName(shortName);
 					Object [] argValues = md.getArgumentValues(ti);
+					int numberOfArgs = argValues.length;
 
 					String argValuesStr = "";
 					for (int i=0; i<argValues.length; i++){
@@ -532,11 +531,8 @@ public class HeapSymbolicListener extends PropertyListenerAdapter implements Pub
 					String className = ci.getName();
 					String methodName = mi.getName();
 					String longName = mi.getLongName();
-					int numberOfArgs = mi.getNumberOfArguments();
-					//int numberOfArgs = mi.getArgumentsSize() - 1;
 					//neha: changed invoked method name to full name
-					if (((BytecodeUtils.isClassSymbolic(conf, className, mi, methodName))
-							|| BytecodeUtils.isMethodSymbolic(conf, mi.getFullName(), numberOfArgs, null))){
+					if (BytecodeUtils.isSymbolic(conf, mi)){
 
 
 
@@ -51,6 +51,26 @@ public class SymbolicInputHeap {
     HeapNode header;
     int count = 0;
 
+    // The nodes that are instances of a type, for the types that were asked
+    // for, and the array nodes per array. Each list is newest first, like
+    // the heap itself, and shares its tail with the list of the heap it was
+    // copied from; the maps are copied on the first write after make_copy.
+    private Map<ClassInfo, Candidates> byType = new HashMap<ClassInfo, Candidates>();
+    private Map<Integer, Candidates> byArrayRef = new HashMap<Integer, Candidates>();
+    private boolean shared = false;
+
+    private static final class Candidates {
+    	final HeapNode node;
+    	final Candidates next;
+    	final int size;
+
+    	Candidates(HeapNode node, Candidates next) {
+    		this.node = node;
+    		this.next = next;
+    		this.size = (next == null) ? 1 : next.size + 1;
+    	}
+    }
+
     public SymbolicInputHeap() {
     	header = null;
     }
@@ -59,6 +79,9 @@ public class SymbolicInputHeap {
 		SymbolicInputHeap sih_new = new SymbolicInputHeap();
 		sih_new.header = this.header;
 	    sih_new.count = this.count;
+	    sih_new.byType = this.byType;
+	    sih_new.byArrayRef = this.byArrayRef;
+	    sih_new.shared = this.shared = true;
 		return sih_new;
 	}
 
@@ -68,8 +91,53 @@ public class SymbolicInputHeap {
 			n.setNext(header);
 			header = n;
 			count++;
+			index(n);
+		}
+
+	}
+
+	private void unshare() {
+		if (shared) {
+			byType = new HashMap<ClassInfo, Candidates>(byType);
+			byArrayRef = new HashMap<Integer, Candidates>(byArrayRef);
+			shared = false;
+		}
+	}
+
+	// the type of a node must not change once it is on the heap
+	private void index(HeapNode n) {
+		unshare();
+		ClassInfo tClassInfo = n.getType();
+		for (Map.Entry<ClassInfo, Candidates> entry : byType.entrySet()) {
+			if (tClassInfo.isInstanceOf(entry.getKey())) {
+				entry.setValue(new Candidates(n, entry.getValue()));
+			}
+		}
+		if (n instanceof ArrayHeapNode) {
+			int ref = ((ArrayHeapNode) n).arrayRef;
+			byArrayRef.put(ref, new Candidates(n, byArrayRef.get(ref)));
 		}
+	}
 
+	// the nodes that are instances of the type; walks the heap only the
+	// first time a type is asked for
+	private Candidates candidates(ClassInfo type) {
+		if (byType.containsKey(type)) {
+			return byType.get(type);
+		}
+		Candidates reversed = null;
+		for (HeapNode n = header; n != null; n = n.getNext()) {
+			if (n.getType().isInstanceOf(type)) {
+				reversed = new Candidates(n, reversed);
+			}
+		}
+		Candidates result = null;
+		for (Candidates c = reversed; c != null; c = c.next) {
+			result = new Candidates(c.node, result);
+		}
+		unshare();
+		byType.put(type, result);
+		return result;
 	}
 
 	public int count() {
@@ -81,14 +149,10 @@ public class SymbolicInputHeap {
 	}
 
 	public boolean hasNode(HeapNode n) {
-		HeapNode t = header;
-
-		while (t != null) {
-			if (n.equals(t)) {
+		for (Candidates c = candidates(n.getType()); c != null; c = c.next) {
+			if (n.equals(c.node)) {
 				return true;
 			}
-
-			t = t.getNext();
 		}
 
 		return false;
@@ -150,86 +214,36 @@ public class SymbolicInputHeap {
 		  }
 		  
 		  
-		  int numSymRefs = 0;
-		  HeapNode n = header;
-		  while (null != n){
-			  //String t = (String)n.getType();
-			  ClassInfo tClassInfo = n.getType();
-			  //reference only objects of same class or super
-			  //if (fullType.equals(t)){
-			  //if (typeClassInfo.isInstanceOf(tClassInfo)) {		  
-			  
-			  if (tClassInfo.isInstanceOf(type)) {
-				  if(typeArgs != null && !typeArgs.isEmpty()) {
-					  if(checkTypeArgs(type, typeArgs, n)) {
-						  numSymRefs++;
-					  }
-				  } else {
-					  numSymRefs++;
-				  }
+		  Candidates candidates = candidates(type);
+		  if(typeArgs == null || typeArgs.isEmpty()) {
+			  HeapNode[] nodes = new HeapNode[(candidates == null) ? 0 : candidates.size];
+			  int i = 0;
+			  for (Candidates c = candidates; c != null; c = c.next) {
+				  nodes[i++] = c.node;
 			  }
-			  n = n.getNext();
+			  return nodes;
 		  }
-		  
-		  n = header;
-		  HeapNode[] nodes = new HeapNode[numSymRefs]; // estimate of size; should be changed
-		  int i = 0;
-		  while (null != n){
-			  //String t = (String)n.getType();
-			  ClassInfo tClassInfo = n.getType();
-			  //reference only objects of same class or super
-			  //if (fullType.equals(t)){
-			  //if (typeClassInfo.isInstanceOf(tClassInfo)) {
-			  if (tClassInfo.isInstanceOf(type)) {
-				  if(typeArgs != null && !typeArgs.isEmpty()) {
-					  if(checkTypeArgs(type, typeArgs, n)) {
-						  //numSymRefs++;
-						  nodes[i] = n;
-						  i++;
-					  }
-				  } else {
-					  nodes[i] = n;
-					  i++;
-				  }
+
+		  ArrayList<HeapNode> nodes = new ArrayList<HeapNode>();
+		  for (Candidates c = candidates; c != null; c = c.next) {
+			  if(checkTypeArgs(type, typeArgs, c.node)) {
+				  nodes.add(c.node);
 			  }
-			  n = n.getNext();
 		  }
-		  return nodes;
+		  return nodes.toArray(new HeapNode[nodes.size()]);
 	}
 
 	
 
 	
     public ArrayHeapNode[] getArrayNodesOfType(ClassInfo type, int ref) {
-        int numSymRefs = 0;
-        HeapNode n = header;
-        while (null != n) {
-            if (n instanceof ArrayHeapNode) {
-                ClassInfo tClassInfo = n.getType();
-                if (tClassInfo.isInstanceOf(type)) {
-                    if (((ArrayHeapNode)n).arrayRef == ref) {
-                        numSymRefs++;
-                    }
-                }
-            }
-            n = n.getNext();
-        }
-        n = header;
-        ArrayHeapNode[] nodes = new ArrayHeapNode[numSymRefs]; 
-        int i = 0;
-        while (null != n) {
-            if (n instanceof ArrayHeapNode) {
-                ClassInfo tClassInfo = n.getType();
-                if (tClassInfo.isInstanceOf(type)) {
-                    if (((ArrayHeapNode)n).arrayRef == ref) {
-                        nodes[i] = (ArrayHeapNode)n;
-                        i++;
-                    }
-                }
+        ArrayList<ArrayHeapNode> nodes = new ArrayList<ArrayHeapNode>();
+        for (Candidates c = byArrayRef.get(ref); c != null; c = c.next) {
+            if (c.node.getType().isInstanceOf(type)) {
+                nodes.add((ArrayHeapNode) c.node);
             }
-            n = n.getNext();
         }
-        return nodes;
+        return nodes.toArray(new ArrayHeapNode[nodes.size()]);
     }
 
 	
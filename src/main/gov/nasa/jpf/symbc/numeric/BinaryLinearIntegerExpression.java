@@ -44,6 +44,7 @@ public class BinaryLinearIntegerExpression extends LinearIntegerExpression
 	IntegerExpression left;
 	Operator   op;
 	IntegerExpression right;
+	private int hashCode = 0; // cached, the operands do not change
 
 	public BinaryLinearIntegerExpression (IntegerExpression l, Operator o, IntegerExpression r)
 	{
@@ -103,7 +104,10 @@ public class BinaryLinearIntegerExpression extends LinearIntegerExpression
 
 	@Override
 	public int hashCode() {
-		return 23232 ^ (left.hashCode() << 2) ^ (op.hashCode() << 4) ^ (right.hashCode() << 7);
+		if (hashCode == 0) {
+			hashCode = 23232 ^ (left.hashCode() << 2) ^ (op.hashCode() << 4) ^ (right.hashCode() << 7);
+		}
+		return hashCode;
 	}
 	
 	public String toString ()
@@ -135,7 +139,11 @@ public class BinaryLinearIntegerExpression extends LinearIntegerExpression
 
 	@Override
 	public boolean equals(Object o) {
+	    if (o == this) {
+	        return true; // always the case for equal interned expressions
+	    }
 	    return ((o instanceof BinaryLinearIntegerExpression) &&
+	            o.hashCode() == hashCode() &&
 	            ((BinaryLinearIntegerExpression) o).left.equals(this.left) &&
 	            ((BinaryLinearIntegerExpression) o).op.equals(this.op) &&
 	            ((BinaryLinearIntegerExpression) o).right.equals(this.right));
@@ -146,6 +154,6 @@ public class BinaryLinearIntegerExpression extends LinearIntegerExpression
     //}
 	
 	public BinaryRealExpression toRealExpr(PathCondition context) {
-		return new BinaryRealExpression(left.toRealExpr(context), op, right.toRealExpr(context));
+		return ExpressionPool.binaryReal(left.toRealExpr(context), op, right.toRealExpr(context));
 	}
 }
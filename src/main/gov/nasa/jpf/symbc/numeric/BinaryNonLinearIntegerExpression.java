@@ -120,6 +120,6 @@ public class BinaryNonLinearIntegerExpression extends NonLinearIntegerExpression
 
 	
 	public BinaryRealExpression toRealExpr(PathCondition context) {
-		return new BinaryRealExpression(left.toRealExpr(context), op, right.toRealExpr(context));
+		return ExpressionPool.binaryReal(left.toRealExpr(context), op, right.toRealExpr(context));
 	}
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.symbc.ParsableConstraint;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canonical, variable-renamed form of the numeric part of a path condition,
+ * used as the key of the {@link SolverCache}.
+ *
+ * The constraints are written in prefix notation, oldest constraint first.
+ * Variables are renamed in the order of their first occurrence (i0, r1, ...)
+ * and their bounds are written at that first occurrence, so two path
+ * conditions that only differ in the names of their variables have the same
+ * form. The decision procedure and its settings are part of the form as well,
+ * since e.g. bit-vector and integer arithmetic do not agree on overflows.
+ *
+ * A model is stored as one long per variable, in renaming order (reals as
+ * their raw bits).
+ */
+public class CanonicalPC {
+  private final String form;
+  private final List<Expression> variables;
+  private byte[] digest;
+
+  private CanonicalPC(String form, List<Expression> variables) {
+    this.form = form;
+    this.variables = variables;
+  }
+
+  /**
+   * @return the canonical form; NULL if the path condition contains
+   *         constraints or expressions that cannot be cached (arrays, function
+   *         expressions, logical groupings, ...)
+   */
+  public static CanonicalPC create(PathCondition pc) {
+    Builder builder = new Builder();
+    String[] dp = SymbolicInstructionFactory.dp;
+    builder.sb.append(dp == null ? "choco" : dp[0].toLowerCase()).append(':')
+        .append(SymbolicInstructionFactory.bvlength).append(':')
+        .append(SymbolicInstructionFactory.fp).append('\n');
+
+    // the PC is a list with the newest constraint first
+    ArrayList<ParsableConstraint> conjuncts = new ArrayList<ParsableConstraint>();
+    for (ParsableConstraint c = pc.header; c != null; c = c.and()) {
+      conjuncts.add(c);
+    }
+    for (int i = conjuncts.size() - 1; i >= 0; i--) {
+      if (!builder.constraint(conjuncts.get(i))) {
+        return null;
+      }
+      builder.sb.append('\n');
+    }
+    return new CanonicalPC(builder.sb.toString(), builder.variables);
+  }
+
+  public String getForm() {
+    return form;
+  }
+
+  /**
+   * SHA-256 of the canonical form.
+   */
+  public byte[] getDigest() {
+    if (digest == null) {
+      try {
+        digest = MessageDigest.getInstance("SHA-256").digest(form.getBytes(StandardCharsets.UTF_8));
+      } catch (NoSuchAlgorithmException e) {
+        throw new RuntimeException("## Error: SHA-256 not available", e);
+      }
+    }
+    return digest;
+  }
+
+  public int getVariableCount() {
+    return variables.size();
+  }
+
+  /**
+   * Reads the solutions of the variables (after they have been solved).
+   */
+  public long[] getModel() {
+    long[] model = new long[variables.size()];
+    for (int i = 0; i < model.length; i++) {
+      Expression var = variables.get(i);
+      if (var instanceof SymbolicInteger) {
+        model[i] = ((SymbolicInteger) var).solution;
+      } else {
+        model[i] = Double.doubleToRawLongBits(((SymbolicReal) var).solution);
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Sets the solutions of the variables of this path condition to a model
+   * taken from the cache.
+   *
+   * @return the solutions by variable name
+   */
+  public Map<String, Object> setModel(long[] model) {
+    assert model.length == variables.size();
+    Map<String, Object> valuation = new HashMap<String, Object>();
+    for (int i = 0; i < model.length; i++) {
+      Expression var = variables.get(i);
+      if (var instanceof SymbolicInteger) {
+        SymbolicInteger v = (SymbolicInteger) var;
+        v.solution = model[i];
+        valuation.put(v.getName(), v.solution);
+      } else {
+        SymbolicReal v = (SymbolicReal) var;
+        v.solution = Double.longBitsToDouble(model[i]);
+        valuation.put(v.getName(), v.solution);
+      }
+    }
+    return valuation;
+  }
+
+  @Override
+  public String toString() {
+    return form;
+  }
+
+  private static class Builder {
+    final StringBuilder sb = new StringBuilder();
+    final List<Expression> variables = new ArrayList<Expression>();
+    final Map<Expression, Integer> index = new HashMap<Expression, Integer>();
+
+    boolean constraint(ParsableConstraint pc) {
+      if (!(pc instanceof LinearIntegerConstraint || pc instanceof NonLinearIntegerConstraint
+          || pc instanceof RealConstraint || pc instanceof MixedConstraint)) {
+        return false;
+      }
+      Constraint c = (Constraint) pc;
+      sb.append('(').append(c.getClass().getSimpleName()).append(' ').append(c.getComparator().name()).append(' ');
+      if (!expression(c.getLeft())) {
+        return false;
+      }
+      sb.append(' ');
+      if (!expression(c.getRight())) {
+        return false;
+      }
+      sb.append(')');
+      return true;
+    }
+
+    boolean expression(Expression e) {
+      if (e instanceof IntegerConstant) {
+        sb.append('#').append(((IntegerConstant) e).value);
+      } else if (e instanceof RealConstant) {
+        sb.append("#r").append(Double.toHexString(((RealConstant) e).value));
+      } else if (e instanceof SymbolicInteger) {
+        SymbolicInteger v = (SymbolicInteger) e;
+        if (variable('i', v)) {
+          sb.append('{').append(v._min).append(',').append(v._max).append('}');
+        }
+      } else if (e instanceof SymbolicReal) {
+        SymbolicReal v = (SymbolicReal) e;
+        if (variable('r', v)) {
+          sb.append('{').append(Double.toHexString(v._min)).append(',').append(Double.toHexString(v._max)).append('}');
+        }
+      } else if (e instanceof BinaryLinearIntegerExpression) {
+        BinaryLinearIntegerExpression b = (BinaryLinearIntegerExpression) e;
+        return binary("li", b.getOp(), b.getLeft(), b.getRight());
+      } else if (e instanceof BinaryNonLinearIntegerExpression) {
+        BinaryNonLinearIntegerExpression b = (BinaryNonLinearIntegerExpression) e;
+        return binary("ni", b.op, b.left, b.right);
+      } else if (e instanceof BinaryRealExpression) {
+        BinaryRealExpression b = (BinaryRealExpression) e;
+        return binary("r", b.getOp(), b.getLeft(), b.getRight());
+      } else if (e instanceof MathRealExpression) {
+        MathRealExpression m = (MathRealExpression) e;
+        sb.append('(').append(m.getOp().name()).append(' ');
+        if (!expression(m.getArg1())) {
+          return false;
+        }
+        if (m.getArg2() != null) {
+          sb.append(' ');
+          if (!expression(m.getArg2())) {
+            return false;
+          }
+        }
+        sb.append(')');
+      } else {
+        return false;
+      }
+      return true;
+    }
+
+    private boolean binary(String kind, Operator op, Expression left, Expression right) {
+      sb.append('(').append(kind).append(op.name()).append(' ');
+      if (!expression(left)) {
+        return false;
+      }
+      sb.append(' ');
+      if (!expression(right)) {
+        return false;
+      }
+      sb.append(')');
+      return true;
+    }
+
+    // writes the new name of the variable; returns true on its first occurrence
+    private boolean variable(char type, Expression var) {
+      Integer i = index.get(var);
+      boolean first = (i == null);
+      if (first) {
+        i = variables.size();
+        index.put(var, i);
+        variables.add(var);
+      }
+      sb.append(type).append(i);
+      return first;
+    }
+  }
+}
@@ -113,6 +113,9 @@ public abstract class Constraint implements Comparable<Constraint>, ParsableCons
   }
 
   public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
     if (!(o instanceof Constraint)) {
       return false;
     }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.symbc.ParsableConstraint;
+
+/**
+ * Hash set of the constraints of a path condition, used by
+ * {@link PathCondition#hasConstraint} to find a repeated constraint without
+ * comparing it to every constraint of the path condition.
+ *
+ * The set is persistent (a hash array mapped trie keyed by the hash code of
+ * the constraints): adding a constraint creates a new index that shares all
+ * but one path of the trie with the old one. Copies of a path condition
+ * simply share their index, just like they share their constraint lists.
+ *
+ * An index belongs to the constraint list starting at {@link #header}, of
+ * length {@link #count}.
+ */
+final class ConstraintIndex {
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  static final ConstraintIndex EMPTY = new ConstraintIndex(null, 0, null);
+
+  final ParsableConstraint header;
+  final int count;
+  private final Object root; // NULL, a Node or a Bucket
+
+  // inner node: the bitmap tells which of the 32 children are present
+  private static final class Node {
+    final int bitmap;
+    final Object[] children;
+
+    Node(int bitmap, Object[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+    }
+  }
+
+  // constraints with the same hash code
+  private static final class Bucket {
+    final int hash;
+    final ParsableConstraint[] constraints;
+
+    Bucket(int hash, ParsableConstraint c) {
+      this(hash, new ParsableConstraint[] {c});
+    }
+
+    Bucket(int hash, ParsableConstraint[] constraints) {
+      this.hash = hash;
+      this.constraints = constraints;
+    }
+
+    Bucket with(ParsableConstraint c) {
+      ParsableConstraint[] cs = new ParsableConstraint[constraints.length + 1];
+      System.arraycopy(constraints, 0, cs, 0, constraints.length);
+      cs[constraints.length] = c;
+      return new Bucket(hash, cs);
+    }
+  }
+
+  private ConstraintIndex(ParsableConstraint header, int count, Object root) {
+    this.header = header;
+    this.count = count;
+    this.root = root;
+  }
+
+  /**
+   * Returns the index of the constraint list that starts with c, followed by
+   * the constraints of this index.
+   */
+  ConstraintIndex add(ParsableConstraint c) {
+    return new ConstraintIndex(c, count + 1, insert(root, c.hashCode(), c, 0));
+  }
+
+  /**
+   * Same as walking the constraint list and testing c.equals(t) for each of
+   * its constraints t; needs the hash codes of the constraints to be
+   * consistent with their equals methods.
+   */
+  boolean contains(ParsableConstraint c) {
+    int hash = c.hashCode();
+    Object n = root;
+    int shift = 0;
+    while (n instanceof Node) {
+      Node node = (Node) n;
+      int bit = 1 << ((hash >>> shift) & MASK);
+      if ((node.bitmap & bit) == 0) {
+        return false;
+      }
+      n = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+      shift += BITS;
+    }
+    if (n == null || ((Bucket) n).hash != hash) {
+      return false;
+    }
+    for (ParsableConstraint t : ((Bucket) n).constraints) {
+      if (c.equals(t)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Object insert(Object n, int hash, ParsableConstraint c, int shift) {
+    if (n == null) {
+      return new Bucket(hash, c);
+    }
+    if (n instanceof Bucket) {
+      Bucket b = (Bucket) n;
+      if (b.hash == hash) {
+        return b.with(c);
+      }
+      // different hash codes differ in one of the next levels: move the
+      // bucket one level down and try again
+      Node node = new Node(1 << ((b.hash >>> shift) & MASK), new Object[] {b});
+      return insert(node, hash, c, shift);
+    }
+    Node node = (Node) n;
+    int bit = 1 << ((hash >>> shift) & MASK);
+    int i = Integer.bitCount(node.bitmap & (bit - 1));
+    if ((node.bitmap & bit) == 0) {
+      Object[] children = new Object[node.children.length + 1];
+      System.arraycopy(node.children, 0, children, 0, i);
+      children[i] = new Bucket(hash, c);
+      System.arraycopy(node.children, i, children, i + 1, node.children.length - i);
+      return new Node(node.bitmap | bit, children);
+    }
+    Object[] children = node.children.clone();
+    children[i] = insert(children[i], hash, c, shift + BITS);
+    return new Node(node.bitmap, children);
+  }
+}
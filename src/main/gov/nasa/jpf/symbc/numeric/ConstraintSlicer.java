@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.ParsableConstraint;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.concolic.FunctionExpression;
+import gov.nasa.jpf.symbc.mixednumstrg.SpecialIntegerExpression;
+import gov.nasa.jpf.symbc.mixednumstrg.SpecialRealExpression;
+import gov.nasa.jpf.symbc.numeric.visitors.CollectVariableVisitor;
+import gov.nasa.jpf.symbc.string.StringExpression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Independent-constraint slicing (symbolic.slicing=true).
+ *
+ * A path condition only grows by a few constraints between two queries, and
+ * the part that was there before is known to be satisfiable. Constraints that
+ * share no variables, directly or transitively, with the new ones cannot make
+ * the path condition unsat, so it is enough to solve the new constraints
+ * together with their slice: the old constraints connected to them.
+ *
+ * Every path condition remembers the part of it that was found satisfiable
+ * last, and a partition of its variables into independent sets (a union-find,
+ * kept up to date incrementally and shared with copies of the path condition
+ * until one of them adds a constraint).
+ *
+ * Path conditions with constraints other than linear, non-linear, real and
+ * mixed ones (arrays, strings, function expressions, disjunctions) are not
+ * sliced.
+ */
+public class ConstraintSlicer {
+
+  private static boolean enabled = false;
+
+  // statistics
+  private static long slices = 0;
+  private static long constraints = 0;
+  private static long slicedConstraints = 0;
+
+  public static void configure(Config conf) {
+    enabled = conf.getBoolean("symbolic.slicing", false);
+    slices = 0;
+    constraints = 0;
+    slicedConstraints = 0;
+    if (enabled && SymbolicInstructionFactory.debugMode) {
+      System.out.println("symbolic.slicing=true");
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Remembers that the given path condition is satisfiable.
+   */
+  public static void markSatisfiable(PathCondition pc) {
+    pc.satHeader = pc.header;
+    pc.satCount = pc.count;
+  }
+
+  /**
+   * Returns the part of the path condition that needs to be solved: the
+   * constraints added since it was last found satisfiable, and all the
+   * constraints that depend on them.
+   *
+   * @return the slice (empty if nothing was added since); NULL if the path
+   *         condition cannot be sliced or the slice is the whole path condition
+   */
+  public static PathCondition slice(PathCondition pc) {
+    if (pc.satHeader == null) {
+      return null;
+    }
+    List<ParsableConstraint> fresh = newer(pc, pc.satHeader, pc.satCount);
+    if (fresh == null) {
+      return null;
+    }
+    Partition partition = update(pc);
+    if (partition.unsupported) {
+      return null;
+    }
+
+    Set<Expression> roots = new HashSet<Expression>();
+    Set<ParsableConstraint> freshSet = Collections.newSetFromMap(new IdentityHashMap<ParsableConstraint, Boolean>());
+    freshSet.addAll(fresh);
+    for (ParsableConstraint c : fresh) {
+      Expression var = partition.representative.get(c);
+      if (var != null) {
+        roots.add(partition.find(var));
+      }
+    }
+    ArrayList<ParsableConstraint> slice = new ArrayList<ParsableConstraint>();
+    for (ParsableConstraint c = pc.header; c != null; c = c.and()) {
+      Expression var = partition.representative.get(c);
+      if (freshSet.contains(c) || (var != null && roots.contains(partition.find(var)))) {
+        slice.add(c);
+      }
+    }
+    if (slice.size() == pc.count) {
+      return null;
+    }
+
+    synchronized (ConstraintSlicer.class) {
+      slices++;
+      constraints += pc.count;
+      slicedConstraints += slice.size();
+    }
+    PathCondition result = new PathCondition();
+    for (int i = slice.size() - 1; i >= 0; i--) {
+      result.prependUnlessRepeated(copy(slice.get(i)));
+    }
+    return result;
+  }
+
+  /*
+   * The constraints in front of the marker, newest first; NULL if the marker
+   * is not (or no longer) a suffix of the path condition.
+   */
+  private static List<ParsableConstraint> newer(PathCondition pc, ParsableConstraint marker, int markerCount) {
+    List<ParsableConstraint> fresh = new ArrayList<ParsableConstraint>();
+    ParsableConstraint c = pc.header;
+    while (c != marker) {
+      if (c == null) {
+        return null;
+      }
+      fresh.add(c);
+      c = c.and();
+    }
+    return (fresh.size() + markerCount == pc.count) ? fresh : null;
+  }
+
+  private static Partition update(PathCondition pc) {
+    Partition partition = pc.partition;
+    List<ParsableConstraint> fresh = (partition == null) ? null : newer(pc, partition.header, partition.count);
+    if (fresh == null) {
+      partition = new Partition();
+      fresh = newer(pc, null, 0);
+      if (fresh == null) { // count is out of date
+        partition.unsupported = true;
+        return partition;
+      }
+    } else if (fresh.isEmpty()) {
+      return partition;
+    } else if (partition.shared) {
+      partition = partition.copy();
+    }
+    for (int i = fresh.size() - 1; i >= 0 && !partition.unsupported; i--) {
+      partition.add(fresh.get(i));
+    }
+    partition.header = pc.header;
+    partition.count = pc.count;
+    pc.partition = partition;
+    return partition;
+  }
+
+  private static ParsableConstraint copy(ParsableConstraint c) {
+    if (c instanceof LinearIntegerConstraint) {
+      return new LinearIntegerConstraint((LinearIntegerConstraint) c);
+    } else if (c instanceof NonLinearIntegerConstraint) {
+      return new NonLinearIntegerConstraint((NonLinearIntegerConstraint) c);
+    } else if (c instanceof RealConstraint) {
+      return new RealConstraint((RealConstraint) c);
+    } else {
+      return new MixedConstraint((MixedConstraint) c);
+    }
+  }
+
+  /**
+   * Average number of constraints of the sliced path conditions, and of
+   * their slices.
+   */
+  public static synchronized String getStatistics() {
+    if (slices == 0) {
+      return "# constraint slicing: no path condition sliced";
+    }
+    return "# constraint slicing: " + slices + " path conditions sliced, average size "
+        + (constraints / slices) + " -> " + (slicedConstraints / slices);
+  }
+
+  /**
+   * Union-find over the variables of a path condition: two variables are in
+   * the same set if they are connected by constraints.
+   */
+  static final class Partition {
+    private final HashMap<Expression, Expression> parent;
+    // one variable of each constraint; constraints without variables have none
+    private final IdentityHashMap<ParsableConstraint, Expression> representative;
+
+    // the path condition this partition was built for
+    ParsableConstraint header = null;
+    int count = 0;
+
+    boolean shared = false;
+    boolean unsupported = false;
+
+    Partition() {
+      parent = new HashMap<Expression, Expression>();
+      representative = new IdentityHashMap<ParsableConstraint, Expression>();
+    }
+
+    private Partition(Partition p) {
+      parent = new HashMap<Expression, Expression>(p.parent);
+      representative = new IdentityHashMap<ParsableConstraint, Expression>(p.representative);
+      unsupported = p.unsupported;
+    }
+
+    Partition copy() {
+      return new Partition(this);
+    }
+
+    void add(ParsableConstraint c) {
+      if (!(c instanceof LinearIntegerConstraint || c instanceof NonLinearIntegerConstraint
+          || c instanceof RealConstraint || c instanceof MixedConstraint)) {
+        unsupported = true;
+        return;
+      }
+      VariableCollector collector = new VariableCollector();
+      ((Constraint) c).accept(collector);
+      if (!collector.complete) {
+        unsupported = true;
+        return;
+      }
+      Expression first = null;
+      for (Expression var : collector.getVariables()) {
+        if (!parent.containsKey(var)) {
+          parent.put(var, var);
+        }
+        if (first == null) {
+          first = var;
+        } else {
+          union(first, var);
+        }
+      }
+      if (first != null) {
+        representative.put(c, first);
+      }
+    }
+
+    Expression find(Expression var) {
+      Expression p = parent.get(var);
+      while (p != var) {
+        Expression grandParent = parent.get(p);
+        if (!shared) {
+          parent.put(var, grandParent); // path halving
+        }
+        var = grandParent;
+        p = parent.get(var);
+      }
+      return var;
+    }
+
+    private void union(Expression a, Expression b) {
+      Expression rootA = find(a);
+      Expression rootB = find(b);
+      if (rootA != rootB) {
+        parent.put(rootA, rootB);
+      }
+    }
+  }
+
+  /*
+   * Collects the variables of a numeric constraint and tells whether there
+   * were expressions whose variables cannot be collected.
+   */
+  private static class VariableCollector extends CollectVariableVisitor {
+    boolean complete = true;
+
+    @Override
+    public void preVisit(Expression expr) {
+      complete = false; // arrays and other expressions without their own visit methods
+    }
+
+    @Override
+    public void preVisit(FunctionExpression expr) {
+      complete = false;
+    }
+
+    @Override
+    public void preVisit(SpecialIntegerExpression expr) {
+      complete = false;
+    }
+
+    @Override
+    public void preVisit(SpecialRealExpression expr) {
+      complete = false;
+    }
+
+    @Override
+    public void preVisit(StringExpression expr) {
+      complete = false;
+    }
+  }
+}
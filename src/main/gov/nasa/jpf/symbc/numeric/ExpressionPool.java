@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+
+/**
+ * Hash-consing of numeric expressions (symbolic.intern_expressions=true).
+ *
+ * The arithmetic methods of the expressions (_plus, _mul, ...) create their
+ * results through this class. With interning on, an expression that is
+ * structurally equal to one that is still alive is not allocated again: the
+ * existing object is returned. Since the operands are interned already, two
+ * expressions are structurally equal if they have the same type, operator and
+ * operand objects, so looking one up takes constant time. Equal expressions
+ * are then also the same object, which makes equals and hashCode (and thus
+ * PathCondition.hasConstraint) cheap.
+ *
+ * The pool only holds its expressions weakly; an expression is dropped from
+ * it when nothing else refers to it any more.
+ *
+ * Symbolic variables are unique anyway and are not interned. Constraints are
+ * not interned either, since they are the (mutable) cells of the path
+ * condition lists.
+ */
+public final class ExpressionPool {
+
+  private static boolean enabled = false;
+
+  private static final HashMap<Key, Entry> pool = new HashMap<Key, Entry>();
+  private static final ReferenceQueue<Expression> collected = new ReferenceQueue<Expression>();
+
+  // statistics
+  private static long hits = 0;
+  private static long misses = 0;
+
+  private static final class Key {
+    final Class<?> type;
+    final Operator op;
+    final Expression left;
+    final Expression right;
+    final long value;
+    final int hash;
+
+    Key(Class<?> type, Operator op, Expression left, Expression right, long value) {
+      this.type = type;
+      this.op = op;
+      this.left = left;
+      this.right = right;
+      this.value = value;
+      int h = type.hashCode();
+      h = 31 * h + (op == null ? 0 : op.hashCode());
+      h = 31 * h + System.identityHashCode(left);
+      h = 31 * h + System.identityHashCode(right);
+      h = 31 * h + (int) (value ^ (value >>> 32));
+      this.hash = h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key k = (Key) o;
+      return type == k.type && op == k.op && left == k.left && right == k.right && value == k.value;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final class Entry extends WeakReference<Expression> {
+    final Key key;
+
+    Entry(Key key, Expression e) {
+      super(e, collected);
+      this.key = key;
+    }
+  }
+
+  public static void configure(Config conf) {
+    enabled = conf.getBoolean("symbolic.intern_expressions", false);
+    synchronized (ExpressionPool.class) {
+      pool.clear();
+      hits = 0;
+      misses = 0;
+    }
+    if (enabled && SymbolicInstructionFactory.debugMode) {
+      System.out.println("symbolic.intern_expressions=true");
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static IntegerConstant intConstant(long value) {
+    if (!enabled) {
+      return new IntegerConstant(value);
+    }
+    Key key = new Key(IntegerConstant.class, null, null, null, value);
+    synchronized (ExpressionPool.class) {
+      IntegerConstant e = (IntegerConstant) lookup(key);
+      return (e != null) ? e : (IntegerConstant) add(key, new IntegerConstant(value));
+    }
+  }
+
+  public static RealConstant realConstant(double value) {
+    if (!enabled) {
+      return new RealConstant(value);
+    }
+    // raw bits: 0.0 and -0.0 are equal, but behave differently
+    Key key = new Key(RealConstant.class, null, null, null, Double.doubleToRawLongBits(value));
+    synchronized (ExpressionPool.class) {
+      RealConstant e = (RealConstant) lookup(key);
+      return (e != null) ? e : (RealConstant) add(key, new RealConstant(value));
+    }
+  }
+
+  public static BinaryLinearIntegerExpression linear(IntegerExpression left, Operator op, IntegerExpression right) {
+    if (!enabled) {
+      return new BinaryLinearIntegerExpression(left, op, right);
+    }
+    Key key = new Key(BinaryLinearIntegerExpression.class, op, left, right, 0);
+    synchronized (ExpressionPool.class) {
+      BinaryLinearIntegerExpression e = (BinaryLinearIntegerExpression) lookup(key);
+      return (e != null) ? e : (BinaryLinearIntegerExpression) add(key, new BinaryLinearIntegerExpression(left, op, right));
+    }
+  }
+
+  public static BinaryNonLinearIntegerExpression nonLinear(IntegerExpression left, Operator op, IntegerExpression right) {
+    if (!enabled) {
+      return new BinaryNonLinearIntegerExpression(left, op, right);
+    }
+    Key key = new Key(BinaryNonLinearIntegerExpression.class, op, left, right, 0);
+    synchronized (ExpressionPool.class) {
+      BinaryNonLinearIntegerExpression e = (BinaryNonLinearIntegerExpression) lookup(key);
+      return (e != null) ? e
+          : (BinaryNonLinearIntegerExpression) add(key, new BinaryNonLinearIntegerExpression(left, op, right));
+    }
+  }
+
+  public static BinaryRealExpression binaryReal(RealExpression left, Operator op, RealExpression right) {
+    if (!enabled) {
+      return new BinaryRealExpression(left, op, right);
+    }
+    Key key = new Key(BinaryRealExpression.class, op, left, right, 0);
+    synchronized (ExpressionPool.class) {
+      BinaryRealExpression e = (BinaryRealExpression) lookup(key);
+      return (e != null) ? e : (BinaryRealExpression) add(key, new BinaryRealExpression(left, op, right));
+    }
+  }
+
+  private static Expression lookup(Key key) {
+    expunge();
+    Entry entry = pool.get(key);
+    Expression e = (entry == null) ? null : entry.get();
+    if (e != null) {
+      hits++;
+    }
+    return e;
+  }
+
+  private static Expression add(Key key, Expression e) {
+    misses++;
+    pool.put(key, new Entry(key, e));
+    return e;
+  }
+
+  // removes the entries of expressions that have been garbage collected
+  private static void expunge() {
+    Entry entry;
+    while ((entry = (Entry) collected.poll()) != null) {
+      if (pool.get(entry.key) == entry) {
+        pool.remove(entry.key);
+      }
+    }
+  }
+
+  public static synchronized int size() {
+    expunge();
+    return pool.size();
+  }
+
+  public static synchronized String getStatistics() {
+    return "# interned expressions: " + pool.size() + " live, " + hits + " reused, " + misses + " created";
+  }
+}
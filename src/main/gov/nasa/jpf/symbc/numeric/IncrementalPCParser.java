@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.symbc.ParsableConstraint;
+import gov.nasa.jpf.symbc.numeric.solvers.IncrementalSolver;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemGeneral;
+
+import gov.nasa.jpf.symbc.string.StringSymbolic;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses path conditions into a solver that supports push/pop, asserting only
+ * the constraints the solver has not seen yet.
+ *
+ * Every constraint of the path condition lives in its own solver scope. The
+ * parser remembers which constraint objects are currently asserted (oldest
+ * first). Since path conditions share their tails, the constraints of a new
+ * query that are identical to the asserted ones need not be parsed again:
+ * the parser pops the scopes that are not part of the new path condition and
+ * pushes one scope for each constraint that was prepended since. Along a
+ * path this means one assertion per branch instead of the whole PC.
+ *
+ * The parser of the solver lives as long as the solver: its variable maps
+ * hold the variables of the asserted constraints, so that the model of a
+ * query can be read without parsing the path condition again. A variable
+ * leaves the maps with the scope that declared it (and its bounds).
+ *
+ * The synchronization is done per query (and not on choice generator
+ * events), so it also works when both outcomes of a branch are checked before
+ * the choice generator advances (symbolic.optimizechoices).
+ */
+public class IncrementalPCParser {
+  private final ProblemGeneral pb;
+  private final IncrementalSolver solver;
+  private final PCParser parser;
+
+  // constraints asserted in the solver, oldest first; one scope per constraint
+  private final ArrayList<ParsableConstraint> asserted = new ArrayList<ParsableConstraint>();
+  // the variables each of those scopes declared
+  private final ArrayList<Set<Object>> declared = new ArrayList<Set<Object>>();
+
+  public IncrementalPCParser(IncrementalSolver solver) {
+    this.solver = solver;
+    this.pb = (ProblemGeneral) solver;
+    this.parser = new PCParser(pb);
+  }
+
+  public IncrementalSolver getSolver() {
+    return solver;
+  }
+
+  /**
+   * The parser whose variable maps hold the variables of the asserted
+   * constraints.
+   */
+  public PCParser getParser() {
+    return parser;
+  }
+
+  /**
+   * Brings the solver in sync with the given path condition.
+   *
+   * @return the solver; NULL if one of the new constraints is trivially unsat
+   */
+  public ProblemGeneral parse(PathCondition pc) {
+    ArrayList<ParsableConstraint> conjuncts = new ArrayList<ParsableConstraint>();
+    for (ParsableConstraint c = pc.header; c != null; c = c.and()) {
+      conjuncts.add(c);
+    }
+    int size = conjuncts.size();
+
+    // length of the common prefix (oldest constraints first)
+    int shared = 0;
+    while (shared < asserted.size() && shared < size
+        && asserted.get(shared) == conjuncts.get(size - 1 - shared)) {
+      shared++;
+    }
+
+    while (asserted.size() > shared) {
+      solver.pop();
+      asserted.remove(asserted.size() - 1);
+      forget(declared.remove(declared.size() - 1));
+    }
+
+    for (int i = size - 1 - shared; i >= 0; i--) {
+      ParsableConstraint c = conjuncts.get(i);
+      boolean posted = false;
+      Set<Object> before = variables();
+      solver.push();
+      try {
+        Object dpConstraint = parser.buildDPConstraint(c);
+        if (dpConstraint == null) {
+          throw new RuntimeException("## Error: cannot translate constraint " + c);
+        }
+        if (pb.isFalse(dpConstraint)) {
+          return null; // unsat
+        }
+        pb.post(dpConstraint);
+        asserted.add(c);
+        posted = true;
+      } finally {
+        Set<Object> added = variables();
+        added.removeAll(before);
+        if (posted) {
+          declared.add(added);
+        } else {
+          solver.pop();
+          forget(added);
+        }
+      }
+    }
+    return pb;
+  }
+
+  private Set<Object> variables() {
+    Set<Object> vars = new HashSet<Object>(parser.symIntegerVar.keySet());
+    vars.addAll(parser.symRealVar.keySet());
+    vars.addAll(parser.symStringVar.keySet());
+    return vars;
+  }
+
+  private void forget(Set<Object> vars) {
+    for (Object v : vars) {
+      if (v instanceof SymbolicInteger) {
+        parser.symIntegerVar.remove(v);
+      } else if (v instanceof SymbolicReal) {
+        parser.symRealVar.remove(v);
+      } else if (v instanceof StringSymbolic) {
+        parser.symStringVar.remove(v);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of constraints currently asserted in the solver.
+   */
+  public int depth() {
+    return asserted.size();
+  }
+
+  /**
+   * Drops all asserted constraints.
+   */
+  public void reset() {
+    solver.reset();
+    asserted.clear();
+    declared.clear();
+    parser.symIntegerVar.clear();
+    parser.symRealVar.clear();
+    parser.symStringVar.clear();
+  }
+}
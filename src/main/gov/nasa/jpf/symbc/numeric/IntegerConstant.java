@@ -51,11 +51,11 @@ public class IntegerConstant extends LinearIntegerExpression {
   public IntegerExpression _minus (long i) {
       if (i == 0)
           return this;
-	  return new IntegerConstant(value - i);
+	  return ExpressionPool.intConstant(value - i);
   }
 
   public IntegerExpression _minus_reverse (long i) {
-    return new IntegerConstant(i - value);
+    return ExpressionPool.intConstant(i - value);
   }
 
   public IntegerExpression _minus (IntegerExpression e) {
@@ -66,10 +66,10 @@ public class IntegerConstant extends LinearIntegerExpression {
               return this;
       }
       if (e == this)
-          return new IntegerConstant(0);
+          return ExpressionPool.intConstant(0);
 
     if (e instanceof IntegerConstant) {
-      return new IntegerConstant(value - ((IntegerConstant) e).value);
+      return ExpressionPool.intConstant(value - ((IntegerConstant) e).value);
     } else {
       return super._minus(e);
     }
@@ -80,13 +80,13 @@ public class IntegerConstant extends LinearIntegerExpression {
       if (i == 1)
           return this;
       assert (i != 0);
-    return new IntegerConstant(value / i);
+    return ExpressionPool.intConstant(value / i);
   }
 
   public IntegerExpression _div_reverse (long i) {
 	  //simplify
 	  assert  (value !=0);
-	  return new IntegerConstant(i / value);
+	  return ExpressionPool.intConstant(i / value);
   }
 
   public IntegerExpression _div (IntegerExpression e) {
@@ -97,10 +97,10 @@ public class IntegerConstant extends LinearIntegerExpression {
 		  if (ic.value == 1)
 			  return this;
 		  else
-			  return new IntegerConstant(value / ic.value);
+			  return ExpressionPool.intConstant(value / ic.value);
 	  }
 	  if (e == this)
-		  return new IntegerConstant(1);
+		  return ExpressionPool.intConstant(1);
 
 	 return super._div(e);
   }
@@ -110,9 +110,9 @@ public class IntegerConstant extends LinearIntegerExpression {
       if (i == 1)
           return this;
       if (i == 0)
-          return new IntegerConstant(0);
+          return ExpressionPool.intConstant(0);
 
-    return new IntegerConstant(value * i);
+    return ExpressionPool.intConstant(value * i);
   }
 
   public IntegerExpression _mul (IntegerExpression e) {
@@ -122,13 +122,13 @@ public class IntegerConstant extends LinearIntegerExpression {
           if (ic.value == 1)
               return this;
           if (ic.value == 0)
-              return new IntegerConstant(0);
+              return ExpressionPool.intConstant(0);
       }
 
     if (e instanceof IntegerConstant) {
-      return new IntegerConstant(value * ((IntegerConstant) e).value);
+      return ExpressionPool.intConstant(value * ((IntegerConstant) e).value);
     } else if (e instanceof LinearIntegerExpression) {
-      return new BinaryLinearIntegerExpression(this, MUL, e);
+      return ExpressionPool.linear(this, MUL, e);
     } else {
       return super._mul(e);
     }
@@ -140,7 +140,7 @@ public class IntegerConstant extends LinearIntegerExpression {
       if (i == 0)
           return this;
 
-    return new IntegerConstant(value + i);
+    return ExpressionPool.intConstant(value + i);
   }
 
   public IntegerExpression _plus (IntegerExpression e) {
@@ -152,7 +152,7 @@ public class IntegerConstant extends LinearIntegerExpression {
       }
 
     if (e instanceof IntegerConstant) {
-      return new IntegerConstant(value + ((IntegerConstant) e).value);
+      return ExpressionPool.intConstant(value + ((IntegerConstant) e).value);
     } else {
       return super._plus(e);
     }
@@ -168,26 +168,26 @@ public class IntegerConstant extends LinearIntegerExpression {
 
 	public IntegerExpression _and (long i) {
 		   if (i == 0) {
-			   return new IntegerConstant(0);
+			   return ExpressionPool.intConstant(0);
 		   }
-		    return new IntegerConstant(value & i);
+		    return ExpressionPool.intConstant(value & i);
 		}
 
 	public IntegerExpression _and (IntegerExpression e) {
 		if (e instanceof IntegerConstant) {
 			if(((IntegerConstant) e).value == 0) {
-				return new IntegerConstant(0);
+				return ExpressionPool.intConstant(0);
 			}
-			return new IntegerConstant(value & ((IntegerConstant) e).value);
+			return ExpressionPool.intConstant(value & ((IntegerConstant) e).value);
 		}
-		return new BinaryLinearIntegerExpression(this, AND, e);
+		return ExpressionPool.linear(this, AND, e);
 	}
 
 	public IntegerExpression _or (long i) {
 		if (i == 0) {
 			return this;
 		}
-		return new IntegerConstant(value | i);
+		return ExpressionPool.intConstant(value | i);
 	}
 
 	public IntegerExpression _or (IntegerExpression e) {
@@ -195,54 +195,54 @@ public class IntegerConstant extends LinearIntegerExpression {
 			if(((IntegerConstant) e).value == 0) {
 				return this;
 			}
-			return new IntegerConstant(value | ((IntegerConstant) e).value);
+			return ExpressionPool.intConstant(value | ((IntegerConstant) e).value);
 		}
-		return new BinaryLinearIntegerExpression(this, OR, e);
+		return ExpressionPool.linear(this, OR, e);
 	}
 
 	public IntegerExpression _xor (long i) {
-		    return new IntegerConstant(value ^ i);
+		    return ExpressionPool.intConstant(value ^ i);
 	}
 
 	public IntegerExpression _xor (IntegerExpression e) {
 		if (e instanceof IntegerConstant) {
-			return new IntegerConstant(value ^ ((IntegerConstant) e).value);
+			return ExpressionPool.intConstant(value ^ ((IntegerConstant) e).value);
 		}
-		return new BinaryLinearIntegerExpression(this, XOR, e);
+		return ExpressionPool.linear(this, XOR, e);
 	}
 
 
 	public IntegerExpression _shiftL (long i) {
-	    return new IntegerConstant(value << i);
+	    return ExpressionPool.intConstant(value << i);
 	}
 
 	public IntegerExpression _shiftL (IntegerExpression e) {
 		if (e instanceof IntegerConstant) {
-			return new IntegerConstant(value << ((IntegerConstant) e).value);
+			return ExpressionPool.intConstant(value << ((IntegerConstant) e).value);
 		}
-		return new BinaryLinearIntegerExpression(this, SHIFTL, e);
+		return ExpressionPool.linear(this, SHIFTL, e);
 	}
 
 	public IntegerExpression _shiftR (long i) {
-	    return new IntegerConstant(value >> i);
+	    return ExpressionPool.intConstant(value >> i);
 	}
 
 	public IntegerExpression _shiftR (IntegerExpression e) {
 		if (e instanceof IntegerConstant) {
-			return new IntegerConstant(value >> ((IntegerConstant) e).value);
+			return ExpressionPool.intConstant(value >> ((IntegerConstant) e).value);
 		}
-		return new BinaryLinearIntegerExpression(this, SHIFTR, e);
+		return ExpressionPool.linear(this, SHIFTR, e);
 	}
 
 	public IntegerExpression _shiftUR (long i) {
-	    return new IntegerConstant(value >>> i);
+	    return ExpressionPool.intConstant(value >>> i);
 	}
 
 	public IntegerExpression _shiftUR (IntegerExpression e) {
 		if (e instanceof IntegerConstant) {
-			return new IntegerConstant(value >>> ((IntegerConstant) e).value);
+			return ExpressionPool.intConstant(value >>> ((IntegerConstant) e).value);
 		}
-		return new BinaryLinearIntegerExpression(this, SHIFTUR, e);
+		return ExpressionPool.linear(this, SHIFTUR, e);
 	}
 
 	@Override
@@ -323,6 +323,6 @@ public class IntegerConstant extends LinearIntegerExpression {
 
 	
 	public RealConstant toRealExpr(PathCondition context) {
-		return new RealConstant(value);
+		return ExpressionPool.realConstant(value);
 	}
 }
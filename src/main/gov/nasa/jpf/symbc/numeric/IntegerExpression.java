@@ -45,24 +45,24 @@ public abstract class IntegerExpression extends Expression {
     //returns -1 if (this < i), 0 if equal and 1 otherwise
     public IntegerExpression _cmp (long i)
     {
-        return new BinaryNonLinearIntegerExpression(this, CMP, new IntegerConstant(i));
+        return ExpressionPool.nonLinear(this, CMP, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _cmp_reverse (long i)
     {
-        return new BinaryNonLinearIntegerExpression(new IntegerConstant(i), CMP, this);
+        return ExpressionPool.nonLinear(ExpressionPool.intConstant(i), CMP, this);
     }
 
     public IntegerExpression _cmp (IntegerExpression e)
     {
-        return new BinaryNonLinearIntegerExpression(this, CMP, e);
+        return ExpressionPool.nonLinear(this, CMP, e);
     }
 
 //------------------------------------------------------
 
 	public IntegerExpression _minus_reverse (long i)
 	{
-		return new BinaryNonLinearIntegerExpression(new IntegerConstant(i), MINUS, this);
+		return ExpressionPool.nonLinear(ExpressionPool.intConstant(i), MINUS, this);
 	}
 
 	public IntegerExpression _minus (long i)
@@ -70,7 +70,7 @@ public abstract class IntegerExpression extends Expression {
 		//simplify
 		if (i == 0)
 			return this;
-		return new BinaryNonLinearIntegerExpression(this, MINUS, new IntegerConstant(i));
+		return ExpressionPool.nonLinear(this, MINUS, ExpressionPool.intConstant(i));
 	}
 
 	public IntegerExpression _minus (IntegerExpression e)
@@ -82,9 +82,9 @@ public abstract class IntegerExpression extends Expression {
 				return this;
 		}
 		if (e == this)
-			return new IntegerConstant(0);
+			return ExpressionPool.intConstant(0);
 
-		return new BinaryNonLinearIntegerExpression(this, MINUS, e);
+		return ExpressionPool.nonLinear(this, MINUS, e);
 	}
 
 	public IntegerExpression _mul (long i)
@@ -93,9 +93,9 @@ public abstract class IntegerExpression extends Expression {
 		if (i == 1)
 			return this;
 		if (i == 0)
-			return new IntegerConstant(0);
+			return ExpressionPool.intConstant(0);
 
-		return new BinaryNonLinearIntegerExpression(this, MUL, new IntegerConstant(i));
+		return ExpressionPool.nonLinear(this, MUL, ExpressionPool.intConstant(i));
 	}
 
 	public IntegerExpression _mul (IntegerExpression e)
@@ -106,10 +106,10 @@ public abstract class IntegerExpression extends Expression {
 			if (ic.value == 1)
 				return this;
 			if (ic.value == 0)
-				return new IntegerConstant(0);
+				return ExpressionPool.intConstant(0);
 		}
 
-		return new BinaryNonLinearIntegerExpression(this, MUL, e);
+		return ExpressionPool.nonLinear(this, MUL, e);
 	}
 
 	public IntegerExpression _plus (long i)
@@ -117,7 +117,7 @@ public abstract class IntegerExpression extends Expression {
 		//simplify
 		if (i == 0)
 			return this;
-		return new BinaryNonLinearIntegerExpression(this, PLUS, new IntegerConstant(i));
+		return ExpressionPool.nonLinear(this, PLUS, ExpressionPool.intConstant(i));
 	}
 
 	public IntegerExpression _plus (IntegerExpression e)
@@ -129,7 +129,7 @@ public abstract class IntegerExpression extends Expression {
 				return this;
 		}
 
-		return new BinaryNonLinearIntegerExpression(this, PLUS, e);
+		return ExpressionPool.nonLinear(this, PLUS, e);
 	}
 
 	public IntegerExpression _shiftR(IntegerExpression i) {
@@ -140,7 +140,7 @@ public abstract class IntegerExpression extends Expression {
 				return this;
 		}
 
-		return new BinaryNonLinearIntegerExpression(this, SHIFTR, i);
+		return ExpressionPool.nonLinear(this, SHIFTR, i);
 	}
 
 	public IntegerExpression _shiftL(IntegerExpression i) {
@@ -150,7 +150,7 @@ public abstract class IntegerExpression extends Expression {
 				return this;
 		}
 
-		return new BinaryNonLinearIntegerExpression(this, SHIFTL, i);
+		return ExpressionPool.nonLinear(this, SHIFTL, i);
 	}
 
 	public IntegerExpression _shiftUR(IntegerExpression i) {
@@ -160,7 +160,7 @@ public abstract class IntegerExpression extends Expression {
 				return this;
 		}
 
-		return new BinaryNonLinearIntegerExpression(this, SHIFTUR, i);
+		return ExpressionPool.nonLinear(this, SHIFTUR, i);
 	}
 
 	public IntegerExpression _and(IntegerExpression e)
@@ -169,10 +169,10 @@ public abstract class IntegerExpression extends Expression {
 		if (e instanceof IntegerConstant) {
 			IntegerConstant ic = (IntegerConstant)e;
 			if (ic.value == 0)
-				return new IntegerConstant(0);
+				return ExpressionPool.intConstant(0);
 		}
 
-		return new BinaryNonLinearIntegerExpression(this, AND, e);
+		return ExpressionPool.nonLinear(this, AND, e);
 	}
 
 	public IntegerExpression _or(IntegerExpression e) {
@@ -182,74 +182,74 @@ public abstract class IntegerExpression extends Expression {
 				return this;
 			}
 		}
-		return new BinaryNonLinearIntegerExpression(this, OR, e);
+		return ExpressionPool.nonLinear(this, OR, e);
 	}
 
 	public IntegerExpression _xor(IntegerExpression e) {
-		return new BinaryNonLinearIntegerExpression(this, XOR, e);
+		return ExpressionPool.nonLinear(this, XOR, e);
 	}
 
 	public IntegerExpression _shiftR(long i)
 	{
 		if(i == 0)
 			return this;
-		return new BinaryNonLinearIntegerExpression(this, SHIFTR,
-											new IntegerConstant( i));
+		return ExpressionPool.nonLinear(this, SHIFTR,
+											ExpressionPool.intConstant( i));
 
 	}
 
 	public IntegerExpression _shiftL(long i) {
 		if(i == 0)
 			return this;
-		return new BinaryNonLinearIntegerExpression(this, SHIFTL,
-											new IntegerConstant( i));
+		return ExpressionPool.nonLinear(this, SHIFTL,
+											ExpressionPool.intConstant( i));
 	}
 
 	public IntegerExpression _shiftUR(long i) {
 		if(i == 0)
 			return this;
-		return new BinaryNonLinearIntegerExpression(this, SHIFTUR,
-											new IntegerConstant( i));
+		return ExpressionPool.nonLinear(this, SHIFTUR,
+											ExpressionPool.intConstant( i));
 	}
 
 	public IntegerExpression _and(long i)
 	{
 		if(i == 0)
-			return new IntegerConstant(0);
-		return new BinaryNonLinearIntegerExpression(this, AND, new IntegerConstant(i));
+			return ExpressionPool.intConstant(0);
+		return ExpressionPool.nonLinear(this, AND, ExpressionPool.intConstant(i));
 	}
 
 	public IntegerExpression _or(long i)
 	{
 		if(i == 0)
 			return this;
-		return new BinaryNonLinearIntegerExpression(this, OR, new IntegerConstant( i));
+		return ExpressionPool.nonLinear(this, OR, ExpressionPool.intConstant( i));
 	}
 
 	public IntegerExpression _xor(long i)
 	{
-		return new BinaryNonLinearIntegerExpression(this, XOR, new IntegerConstant( i));
+		return ExpressionPool.nonLinear(this, XOR, ExpressionPool.intConstant( i));
 	}
 
 	public IntegerExpression _rem(long i)
 	{
-		return new BinaryNonLinearIntegerExpression(this, REM, new IntegerConstant( i));
+		return ExpressionPool.nonLinear(this, REM, ExpressionPool.intConstant( i));
 	}
 	
 	public IntegerExpression _rem_reverse(long i)
 	{
 		//throw new RuntimeException( "## Error: Operation not supported!" );
-		return new BinaryNonLinearIntegerExpression(new IntegerConstant( i), REM, this);
+		return ExpressionPool.nonLinear(ExpressionPool.intConstant( i), REM, this);
 	}
 	
 	public IntegerExpression _rem(IntegerExpression i)
 	{
-		return new BinaryNonLinearIntegerExpression(this, REM, i);
+		return ExpressionPool.nonLinear(this, REM, i);
 	}
 
 	public IntegerExpression _neg()
 	{
-		return new BinaryNonLinearIntegerExpression(new IntegerConstant(0), MINUS, this);
+		return ExpressionPool.nonLinear(ExpressionPool.intConstant(0), MINUS, this);
 	}
 
 	public IntegerExpression _div (long i)
@@ -258,7 +258,7 @@ public abstract class IntegerExpression extends Expression {
 		assert (i != 0);
 		if (i == 1)
 			return this;
-		return new BinaryNonLinearIntegerExpression(this, DIV, new IntegerConstant(i));
+		return ExpressionPool.nonLinear(this, DIV, ExpressionPool.intConstant(i));
 	}
 
 	public IntegerExpression _div (IntegerExpression e)
@@ -271,16 +271,16 @@ public abstract class IntegerExpression extends Expression {
 				return this;
 		}
 		if (e == this)
-			return new IntegerConstant(1);
+			return ExpressionPool.intConstant(1);
 
-		return new BinaryNonLinearIntegerExpression(this, DIV, e);
+		return ExpressionPool.nonLinear(this, DIV, e);
 	}
 
 	public IntegerExpression _div_reverse (long i)
 	{
 		if (i == 0)
-			return new IntegerConstant(0);
-		return new BinaryNonLinearIntegerExpression(new IntegerConstant(i), DIV, this);
+			return ExpressionPool.intConstant(0);
+		return ExpressionPool.nonLinear(ExpressionPool.intConstant(i), DIV, this);
 	}
 
 	//TODO test this
@@ -43,7 +43,7 @@ abstract class LinearIntegerExpression extends IntegerExpression
 
    public IntegerExpression _minus_reverse (long i)
    {
-	return new BinaryLinearIntegerExpression(new IntegerConstant(i), MINUS, this);
+	return ExpressionPool.linear(ExpressionPool.intConstant(i), MINUS, this);
    }
 
     public IntegerExpression _minus (long i) {
@@ -51,7 +51,7 @@ abstract class LinearIntegerExpression extends IntegerExpression
 		if (i == 0)
 			return this;
 
-		return new BinaryLinearIntegerExpression(this, MINUS, new IntegerConstant(i));
+		return ExpressionPool.linear(this, MINUS, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _minus (IntegerExpression e) {
@@ -62,10 +62,10 @@ abstract class LinearIntegerExpression extends IntegerExpression
 				return this;
 		}
 		if (e == this)
-			return new IntegerConstant(0);
+			return ExpressionPool.intConstant(0);
 
 	if (e instanceof LinearIntegerExpression) {
-	    return new BinaryLinearIntegerExpression(this, MINUS, e);
+	    return ExpressionPool.linear(this, MINUS, e);
 	} else {
 	    return super._minus(e);
 	}
@@ -76,9 +76,9 @@ abstract class LinearIntegerExpression extends IntegerExpression
 		if (i == 1)
 			return this;
 		if (i == 0)
-			return new IntegerConstant(0);
+			return ExpressionPool.intConstant(0);
 
-	return new BinaryLinearIntegerExpression(this, MUL, new IntegerConstant(i));
+	return ExpressionPool.linear(this, MUL, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _mul (IntegerExpression e)
@@ -89,11 +89,11 @@ abstract class LinearIntegerExpression extends IntegerExpression
 			if (ic.value == 1)
 				return this;
 			if (ic.value == 0)
-				return new IntegerConstant(0);
+				return ExpressionPool.intConstant(0);
 		}
 
 	if (e instanceof IntegerConstant)
-	    return new BinaryLinearIntegerExpression(this, MUL, e);
+	    return ExpressionPool.linear(this, MUL, e);
 	else {
 	    return super._mul(e);
 	}
@@ -106,7 +106,7 @@ abstract class LinearIntegerExpression extends IntegerExpression
 		assert (i != 0);
 		if (i == 1)
 			return this;
-		return new BinaryLinearIntegerExpression(this, DIV, new IntegerConstant(i));
+		return ExpressionPool.linear(this, DIV, ExpressionPool.intConstant(i));
 	}
 
 	public IntegerExpression _div (IntegerExpression e)
@@ -118,10 +118,10 @@ abstract class LinearIntegerExpression extends IntegerExpression
 			if (ic.value == 1)
 				return this;
 			else
-				new BinaryLinearIntegerExpression(this, MUL, e);
+				ExpressionPool.linear(this, MUL, e);
 		}
 		if (e == this)
-			return new IntegerConstant(1);
+			return ExpressionPool.intConstant(1);
 
 		return super._div(e);
 	}
@@ -129,7 +129,7 @@ abstract class LinearIntegerExpression extends IntegerExpression
 	public IntegerExpression _div_reverse (long i)
 	{
 		if (i == 0)
-			return new IntegerConstant(0);
+			return ExpressionPool.intConstant(0);
 		return super._div(i);
 	}
 
@@ -138,7 +138,7 @@ abstract class LinearIntegerExpression extends IntegerExpression
 		if (i == 0)
 			return this;
 
-	return new BinaryLinearIntegerExpression(this, PLUS, new IntegerConstant(i));
+	return ExpressionPool.linear(this, PLUS, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _plus (IntegerExpression e) {
@@ -150,7 +150,7 @@ abstract class LinearIntegerExpression extends IntegerExpression
 		}
 
 	if (e instanceof LinearIntegerExpression) {
-	    return new BinaryLinearIntegerExpression(this, PLUS, e);
+	    return ExpressionPool.linear(this, PLUS, e);
 	} else {
 	    return super._plus(e);
 	}
@@ -158,35 +158,35 @@ abstract class LinearIntegerExpression extends IntegerExpression
 
     public IntegerExpression _neg()
     {
-	return new BinaryLinearIntegerExpression(new IntegerConstant(0), MINUS, this);
+	return ExpressionPool.linear(ExpressionPool.intConstant(0), MINUS, this);
     }
 
     public IntegerExpression _and(long i) {
     	if(i == 0) {
-    		return new IntegerConstant(0);
+    		return ExpressionPool.intConstant(0);
     	}
-    	return new BinaryLinearIntegerExpression(this, AND, new IntegerConstant(i));
+    	return ExpressionPool.linear(this, AND, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _and(IntegerExpression e) {
     	if(e instanceof IntegerConstant) {
     		IntegerConstant ic = (IntegerConstant) e;
     		if(ic.value == 0) {
-    			return new IntegerConstant(0);
+    			return ExpressionPool.intConstant(0);
     		}
-    		return new BinaryLinearIntegerExpression(this, AND, e);
+    		return ExpressionPool.linear(this, AND, e);
     	}
     	if(e instanceof LinearIntegerExpression) {
-    		return new BinaryLinearIntegerExpression(this, AND, e);
+    		return ExpressionPool.linear(this, AND, e);
     	}
-    	return new BinaryNonLinearIntegerExpression(this, AND, e);
+    	return ExpressionPool.nonLinear(this, AND, e);
     }
 
     public IntegerExpression _or(long i) {
     	if(i == 0) {
     		return this;
     	}
-    	return new BinaryLinearIntegerExpression(this, OR, new IntegerConstant(i));
+    	return ExpressionPool.linear(this, OR, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _or(IntegerExpression e) {
@@ -195,33 +195,33 @@ abstract class LinearIntegerExpression extends IntegerExpression
     		if(ic.value == 0) {
     			return this;
     		}
-    		return new BinaryLinearIntegerExpression(this, OR, e);
+    		return ExpressionPool.linear(this, OR, e);
     	}
     	if(e instanceof LinearIntegerExpression) {
-    		return new BinaryLinearIntegerExpression(this, OR, e);
+    		return ExpressionPool.linear(this, OR, e);
     	}
-    	return new BinaryNonLinearIntegerExpression(this, OR, e);
+    	return ExpressionPool.nonLinear(this, OR, e);
     }
 
     public IntegerExpression _xor(long i) {
-    	return new BinaryLinearIntegerExpression(this, XOR, new IntegerConstant(i));
+    	return ExpressionPool.linear(this, XOR, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _xor(IntegerExpression e) {
     	if(e instanceof IntegerConstant) {
-    		return new BinaryLinearIntegerExpression(this, XOR, e);
+    		return ExpressionPool.linear(this, XOR, e);
     	}
     	if(e instanceof LinearIntegerExpression) {
-    		return new BinaryLinearIntegerExpression(this, XOR, e);
+    		return ExpressionPool.linear(this, XOR, e);
     	}
-    	return new BinaryNonLinearIntegerExpression(this, XOR, e);
+    	return ExpressionPool.nonLinear(this, XOR, e);
     }
 
     public IntegerExpression _shiftR(long i) {
     	if(i == 0) {
     		return this;
     	}
-    	return new BinaryLinearIntegerExpression(this, SHIFTR, new IntegerConstant(i));
+    	return ExpressionPool.linear(this, SHIFTR, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _shiftR(IntegerExpression e) {
@@ -230,19 +230,19 @@ abstract class LinearIntegerExpression extends IntegerExpression
     		if(ic.value == 0) {
     			return this;
     		}
-    		return new BinaryLinearIntegerExpression(this, SHIFTR, e);
+    		return ExpressionPool.linear(this, SHIFTR, e);
     	}
     	if(e instanceof LinearIntegerExpression) {
-    		return new BinaryLinearIntegerExpression(this, SHIFTR, e);
+    		return ExpressionPool.linear(this, SHIFTR, e);
     	}
-    	return new BinaryNonLinearIntegerExpression(this, SHIFTR, e);
+    	return ExpressionPool.nonLinear(this, SHIFTR, e);
     }
 
     public IntegerExpression _shiftUR(long i) {
     	if(i == 0) {
     		return this;
     	}
-    	return new BinaryLinearIntegerExpression(this, SHIFTUR, new IntegerConstant(i));
+    	return ExpressionPool.linear(this, SHIFTUR, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _shiftUR(IntegerExpression e) {
@@ -251,19 +251,19 @@ abstract class LinearIntegerExpression extends IntegerExpression
     		if(ic.value == 0) {
     			return this;
     		}
-    		return new BinaryLinearIntegerExpression(this, SHIFTUR, e);
+    		return ExpressionPool.linear(this, SHIFTUR, e);
     	}
     	if(e instanceof LinearIntegerExpression) {
-    		return new BinaryLinearIntegerExpression(this, SHIFTUR, e);
+    		return ExpressionPool.linear(this, SHIFTUR, e);
     	}
-    	return new BinaryNonLinearIntegerExpression(this, SHIFTUR, e);
+    	return ExpressionPool.nonLinear(this, SHIFTUR, e);
     }
 
     public IntegerExpression _shiftL(long i) {
     	if(i == 0) {
     		return this;
     	}
-    	return new BinaryLinearIntegerExpression(this, SHIFTL, new IntegerConstant(i));
+    	return ExpressionPool.linear(this, SHIFTL, ExpressionPool.intConstant(i));
     }
 
     public IntegerExpression _shiftL(IntegerExpression e) {
@@ -272,12 +272,12 @@ abstract class LinearIntegerExpression extends IntegerExpression
     		if(ic.value == 0) {
     			return this;
     		}
-    		return new BinaryLinearIntegerExpression(this, SHIFTL, e);
+    		return ExpressionPool.linear(this, SHIFTL, e);
     	}
     	if(e instanceof LinearIntegerExpression) {
-    		return new BinaryLinearIntegerExpression(this, SHIFTL, e);
+    		return ExpressionPool.linear(this, SHIFTL, e);
     	}
-    	return new BinaryNonLinearIntegerExpression(this, SHIFTL, e);
+    	return ExpressionPool.nonLinear(this, SHIFTL, e);
     }
     
     //protected void finalize() throws Throwable {
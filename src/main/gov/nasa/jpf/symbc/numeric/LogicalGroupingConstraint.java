@@ -147,4 +147,9 @@ public class LogicalGroupingConstraint extends Constraint {
 		
 	}
 
+	@Override
+	public int hashCode() {
+		return list.hashCode() ^ (negated ? 1 : 0) ^ (operator == null ? 0 : operator.hashCode());
+	}
+
 }
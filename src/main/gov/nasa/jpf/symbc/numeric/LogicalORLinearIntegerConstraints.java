@@ -99,4 +99,9 @@ public class LogicalORLinearIntegerConstraints extends Constraint{
 		}
 		return true;
 	}
+
+	@Override
+	public int hashCode() {
+		return list.hashCode();
+	}
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.ParsableConstraint;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Keeps the last models found by the decision procedure, and answers a query
+ * without the solver if one of them satisfies the path condition (the
+ * "counterexample cache" of KLEE). A new branch constraint is most of the time
+ * satisfied by the model of the parent path condition, which, in a depth-first
+ * search, is the most recent one.
+ *
+ * symbolic.model_cache=true turns the cache on; symbolic.model_cache.size is
+ * the number of models kept (default 8). A model found for a sliced path
+ * condition (see ConstraintSlicer) only has values for the variables of the
+ * slice; the values of the other variables of the path condition are taken
+ * from the most recent model. The models are only candidates: a query is answered from the cache
+ * only if the {@link ModelEvaluator} finds that every constraint holds under
+ * the model.
+ */
+public class ModelCache {
+
+  private static ModelCache instance = null;
+
+  /**
+   * Values of variables, by identity of the SymbolicInteger (Long) or
+   * SymbolicReal (Double).
+   */
+  public static final class Model {
+    final Map<Expression, Number> values;
+
+    Model(Map<Expression, Number> values) {
+      this.values = values;
+    }
+
+    /**
+     * The solutions of the variables of a path condition that was just solved;
+     * the variables without a solution are left out.
+     */
+    public static Model of(PathCondition pc) {
+      Map<Expression, Number> variables = new IdentityHashMap<Expression, Number>();
+      collect(pc, variables);
+      Iterator<Map.Entry<Expression, Number>> i = variables.entrySet().iterator();
+      while (i.hasNext()) {
+        Map.Entry<Expression, Number> e = i.next();
+        if (e.getKey() instanceof SymbolicInteger) {
+          long solution = ((SymbolicInteger) e.getKey()).solution;
+          if (solution == SymbolicInteger.UNDEFINED) {
+            i.remove();
+          } else {
+            e.setValue(solution);
+          }
+        } else {
+          double solution = ((SymbolicReal) e.getKey()).solution;
+          if (solution == SymbolicReal.UNDEFINED) {
+            i.remove();
+          } else {
+            e.setValue(solution);
+          }
+        }
+      }
+      return new Model(variables);
+    }
+
+    /**
+     * Sets the solutions of the variables of the path condition, and adds them
+     * to the valuation if it is not NULL.
+     */
+    public void assign(PathCondition pc, Map<String, Object> valuation) {
+      Map<Expression, Number> variables = new IdentityHashMap<Expression, Number>();
+      collect(pc, variables);
+      for (Map.Entry<Expression, Number> e : variables.entrySet()) {
+        Number value = values.get(e.getKey());
+        if (value == null) {
+          continue;
+        }
+        if (e.getKey() instanceof SymbolicInteger) {
+          SymbolicInteger v = (SymbolicInteger) e.getKey();
+          v.solution = value.longValue();
+          if (valuation != null) {
+            valuation.put(v.getName(), v.solution);
+          }
+        } else {
+          SymbolicReal v = (SymbolicReal) e.getKey();
+          v.solution = value.doubleValue();
+          if (valuation != null) {
+            valuation.put(v.getName(), v.solution);
+          }
+        }
+      }
+    }
+
+    // the variables of the numeric constraints of the path condition
+    private static void collect(PathCondition pc, Map<Expression, Number> variables) {
+      for (ParsableConstraint c = pc.header; c != null; c = c.getTail()) {
+        if (c instanceof LogicalORLinearIntegerConstraints) {
+          for (LinearIntegerConstraint disjunct : ((LogicalORLinearIntegerConstraints) c).getList()) {
+            collect(disjunct.getLeft(), variables);
+            collect(disjunct.getRight(), variables);
+          }
+        } else if (c instanceof Constraint) {
+          collect(((Constraint) c).getLeft(), variables);
+          collect(((Constraint) c).getRight(), variables);
+        }
+      }
+    }
+
+    private static void collect(Expression e, Map<Expression, Number> variables) {
+      if (e instanceof SymbolicInteger || e instanceof SymbolicReal) {
+        variables.put(e, null);
+      } else if (e instanceof BinaryLinearIntegerExpression) {
+        collect(((BinaryLinearIntegerExpression) e).getLeft(), variables);
+        collect(((BinaryLinearIntegerExpression) e).getRight(), variables);
+      } else if (e instanceof BinaryNonLinearIntegerExpression) {
+        collect(((BinaryNonLinearIntegerExpression) e).left, variables);
+        collect(((BinaryNonLinearIntegerExpression) e).right, variables);
+      } else if (e instanceof BinaryRealExpression) {
+        collect(((BinaryRealExpression) e).getLeft(), variables);
+        collect(((BinaryRealExpression) e).getRight(), variables);
+      } else if (e instanceof MathRealExpression) {
+        collect(((MathRealExpression) e).getArg1(), variables);
+        if (((MathRealExpression) e).getArg2() != null) {
+          collect(((MathRealExpression) e).getArg2(), variables);
+        }
+      }
+    }
+  }
+
+  private final int size;
+  private final ModelEvaluator evaluator;
+  // the most recent model first
+  private final LinkedList<Model> models = new LinkedList<Model>();
+
+  private long hits = 0;
+  private long misses = 0;
+
+  /**
+   * @param bitVector whether integers are bit-vectors of the given length
+   */
+  public ModelCache(int size, boolean bitVector, int bvlength) {
+    this(size, new ModelEvaluator(bitVector, bvlength));
+  }
+
+  private ModelCache(int size, ModelEvaluator evaluator) {
+    this.size = size;
+    this.evaluator = evaluator;
+  }
+
+  public static void configure(Config conf) {
+    instance = null;
+    if (!conf.getBoolean("symbolic.model_cache", false)) {
+      return;
+    }
+    int size = conf.getInt("symbolic.model_cache.size", 8);
+    if (size <= 0) {
+      throw new IllegalArgumentException("symbolic.model_cache.size must be positive (>0), but was " + size);
+    }
+    instance = new ModelCache(size, ModelEvaluator.forDecisionProcedure());
+  }
+
+  /**
+   * The cache, or NULL if symbolic.model_cache is off.
+   */
+  public static ModelCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * A model that satisfies the path condition, or NULL if none of the cached
+   * ones does.
+   */
+  public synchronized Model find(PathCondition pc) {
+    Iterator<Model> i = models.iterator();
+    while (i.hasNext()) {
+      Model m = i.next();
+      // the newest constraints first: the older ones were satisfied before
+      if (evaluator.satisfies(m, pc.header, null)) {
+        i.remove();
+        models.addFirst(m);
+        hits++;
+        return m;
+      }
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * Adds the values the solver found for a (possibly sliced) query of the path
+   * condition; the other variables of the path condition keep the values of
+   * the most recent model. A model only has the variables of its path
+   * condition, so it does not grow with the number of queries.
+   */
+  public synchronized void add(PathCondition pc, Map<SymbolicInteger, Long> ints, Map<SymbolicReal, Double> reals) {
+    Map<Expression, Number> values = new IdentityHashMap<Expression, Number>();
+    Model.collect(pc, values);
+    Model recent = models.isEmpty() ? null : models.getFirst();
+    Iterator<Map.Entry<Expression, Number>> i = values.entrySet().iterator();
+    while (i.hasNext()) {
+      Map.Entry<Expression, Number> e = i.next();
+      Number value = (e.getKey() instanceof SymbolicInteger) ? ints.get(e.getKey()) : reals.get(e.getKey());
+      if (value == null && recent != null) {
+        value = recent.values.get(e.getKey());
+      }
+      if (value == null) {
+        i.remove();
+      } else {
+        e.setValue(value);
+      }
+    }
+    models.addFirst(new Model(values));
+    if (models.size() > size) {
+      models.removeLast();
+    }
+  }
+
+  public synchronized String getStatistics() {
+    return "# model cache: " + models.size() + " models, " + hits + " queries answered, " + misses + " misses";
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.symbc.ParsableConstraint;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.ModelCache.Model;
+
+/**
+ * Evaluates constraints under a {@link Model}, with the semantics of the
+ * decision procedures: exact integer arithmetic (bounded by symbolic.bvlength
+ * for the bit-vector procedures) and doubles for the reals. Anything that
+ * cannot be decided that way (a variable without a value or out of its range,
+ * an overflow, a division with a negative operand, bit operations outside of
+ * the bit-vector procedures, array or string constraints) counts as not
+ * satisfied, so that it goes to the solver.
+ */
+public class ModelEvaluator {
+
+  // thrown when a model does not decide a constraint
+  private static final class Undecided extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    Undecided() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final Undecided UNDECIDED = new Undecided();
+
+  private final boolean bitVector;
+  private final long minValue;
+  private final long maxValue;
+
+  /**
+   * @param bitVector whether integers are bit-vectors of the given length
+   */
+  public ModelEvaluator(boolean bitVector, int bvlength) {
+    this.bitVector = bitVector;
+    if (bitVector && bvlength < 64) {
+      minValue = -(1L << (bvlength - 1));
+      maxValue = (1L << (bvlength - 1)) - 1;
+    } else {
+      minValue = Long.MIN_VALUE;
+      maxValue = Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * An evaluator for the configured symbolic.dp and symbolic.bvlength.
+   */
+  public static ModelEvaluator forDecisionProcedure() {
+    String[] dp = SymbolicInstructionFactory.dp;
+    boolean bitVector = dp != null && dp[0].toLowerCase().contains("bitvec");
+    return new ModelEvaluator(bitVector, SymbolicInstructionFactory.bvlength);
+  }
+
+  /**
+   * Whether the model satisfies the constraints from first up to, but not
+   * including, last (NULL for all of them); false if it does not decide one.
+   */
+  public boolean satisfies(Model m, ParsableConstraint first, ParsableConstraint last) {
+    try {
+      for (ParsableConstraint c = first; c != last; c = c.getTail()) {
+        if (c == null) {
+          return false; // last is not a tail of first
+        }
+        if (!evaluate(m, c)) {
+          return false;
+        }
+      }
+      return true;
+    } catch (Undecided e) {
+      return false;
+    }
+  }
+
+  private boolean evaluate(Model m, ParsableConstraint c) throws Undecided {
+    Class<?> type = c.getClass();
+    if (type == LinearIntegerConstraint.class || type == NonLinearIntegerConstraint.class) {
+      Constraint constraint = (Constraint) c;
+      long l = evaluate(m, (IntegerExpression) constraint.getLeft());
+      long r = evaluate(m, (IntegerExpression) constraint.getRight());
+      return compare(constraint.getComparator(), Long.compare(l, r));
+    } else if (type == RealConstraint.class) {
+      Constraint constraint = (Constraint) c;
+      return constraint.getComparator().evaluate(evaluate(m, (RealExpression) constraint.getLeft()),
+          evaluate(m, (RealExpression) constraint.getRight()));
+    } else if (type == MixedConstraint.class) {
+      Constraint constraint = (Constraint) c;
+      return constraint.getComparator().evaluate(evaluate(m, (RealExpression) constraint.getLeft()),
+          evaluate(m, (IntegerExpression) constraint.getRight()));
+    } else if (type == LogicalORLinearIntegerConstraints.class) {
+      boolean undecided = false;
+      for (LinearIntegerConstraint disjunct : ((LogicalORLinearIntegerConstraints) c).getList()) {
+        try {
+          if (evaluate(m, disjunct)) {
+            return true;
+          }
+        } catch (Undecided e) {
+          undecided = true;
+        }
+      }
+      if (undecided) {
+        throw UNDECIDED;
+      }
+      return false;
+    } else {
+      throw UNDECIDED;
+    }
+  }
+
+  private static boolean compare(Comparator c, int order) {
+    switch (c) {
+    case EQ:
+      return order == 0;
+    case NE:
+      return order != 0;
+    case LT:
+      return order < 0;
+    case LE:
+      return order <= 0;
+    case GT:
+      return order > 0;
+    case GE:
+      return order >= 0;
+    default:
+      return false;
+    }
+  }
+
+  private long evaluate(Model m, IntegerExpression e) throws Undecided {
+    if (e instanceof IntegerConstant) {
+      return ((IntegerConstant) e).value;
+    } else if (e instanceof SymbolicInteger) {
+      SymbolicInteger v = (SymbolicInteger) e;
+      Number value = m.values.get(v);
+      if (value == null || value.longValue() < v._min || value.longValue() > v._max) {
+        throw UNDECIDED;
+      }
+      return value.longValue();
+    } else if (e instanceof BinaryLinearIntegerExpression) {
+      BinaryLinearIntegerExpression b = (BinaryLinearIntegerExpression) e;
+      return apply(b.getOp(), evaluate(m, b.getLeft()), evaluate(m, b.getRight()));
+    } else if (e instanceof BinaryNonLinearIntegerExpression) {
+      BinaryNonLinearIntegerExpression b = (BinaryNonLinearIntegerExpression) e;
+      return apply(b.op, evaluate(m, b.left), evaluate(m, b.right));
+    } else {
+      throw UNDECIDED;
+    }
+  }
+
+  private long apply(Operator op, long l, long r) throws Undecided {
+    long v;
+    try {
+      switch (op) {
+      case PLUS:
+        v = Math.addExact(l, r);
+        break;
+      case MINUS:
+        v = Math.subtractExact(l, r);
+        break;
+      case MUL:
+        v = Math.multiplyExact(l, r);
+        break;
+      case DIV:
+      case REM:
+        // the procedures do not agree with Java on negative operands
+        if (l < 0 || r <= 0) {
+          throw UNDECIDED;
+        }
+        v = (op == Operator.DIV) ? l / r : l % r;
+        break;
+      case AND:
+      case OR:
+      case XOR:
+        if (!bitVector) {
+          throw UNDECIDED;
+        }
+        v = (op == Operator.AND) ? l & r : (op == Operator.OR) ? l | r : l ^ r;
+        break;
+      default:
+        throw UNDECIDED;
+      }
+    } catch (ArithmeticException overflow) {
+      throw UNDECIDED;
+    }
+    if (v < minValue || v > maxValue) {
+      throw UNDECIDED;
+    }
+    return v;
+  }
+
+  private double evaluate(Model m, RealExpression e) throws Undecided {
+    double v;
+    if (e instanceof RealConstant) {
+      v = ((RealConstant) e).value;
+    } else if (e instanceof SymbolicReal) {
+      SymbolicReal r = (SymbolicReal) e;
+      Number value = m.values.get(r);
+      if (value == null || value.doubleValue() < r._min || value.doubleValue() > r._max) {
+        throw UNDECIDED;
+      }
+      v = value.doubleValue();
+    } else if (e instanceof BinaryRealExpression) {
+      BinaryRealExpression b = (BinaryRealExpression) e;
+      double l = evaluate(m, b.getLeft());
+      double r = evaluate(m, b.getRight());
+      switch (b.getOp()) {
+      case PLUS:
+        v = l + r;
+        break;
+      case MINUS:
+        v = l - r;
+        break;
+      case MUL:
+        v = l * r;
+        break;
+      case DIV:
+        v = l / r;
+        break;
+      default:
+        throw UNDECIDED;
+      }
+    } else if (e instanceof MathRealExpression) {
+      MathRealExpression f = (MathRealExpression) e;
+      double a1 = evaluate(m, f.getArg1());
+      double a2 = (f.getArg2() == null) ? 0 : evaluate(m, f.getArg2());
+      switch (f.getOp()) {
+      case SIN:
+        v = Math.sin(a1);
+        break;
+      case COS:
+        v = Math.cos(a1);
+        break;
+      case TAN:
+        v = Math.tan(a1);
+        break;
+      case ASIN:
+        v = Math.asin(a1);
+        break;
+      case ACOS:
+        v = Math.acos(a1);
+        break;
+      case ATAN:
+        v = Math.atan(a1);
+        break;
+      case ATAN2:
+        v = Math.atan2(a1, a2);
+        break;
+      case EXP:
+        v = Math.exp(a1);
+        break;
+      case LOG:
+        v = Math.log(a1);
+        break;
+      case SQRT:
+        v = Math.sqrt(a1);
+        break;
+      case POW:
+        v = Math.pow(a1, a2);
+        break;
+      default:
+        throw UNDECIDED;
+      }
+    } else {
+      throw UNDECIDED;
+    }
+    if (Double.isNaN(v) || Double.isInfinite(v)) {
+      throw UNDECIDED;
+    }
+    return v;
+  }
+
+}
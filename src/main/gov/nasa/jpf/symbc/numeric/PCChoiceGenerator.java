@@ -68,8 +68,6 @@ public class PCChoiceGenerator extends IntIntervalGenerator {
 	public PCChoiceGenerator(int size) {
 		super(0, size - 1);
 		PC = new HashMap<Integer, PathCondition>();
-		for(int i = 0; i < size; i++)
-			PC.put(i, new PathCondition());
 		isReverseOrder = false;
 	}
 	
@@ -81,8 +79,6 @@ public class PCChoiceGenerator extends IntIntervalGenerator {
 	public PCChoiceGenerator(int min, int max, int delta) {
 		super(min, max, delta);
 		PC = new HashMap<Integer, PathCondition>();
-		for(int i = min; i <= max; i += delta)
-			PC.put(i, new PathCondition());
 		isReverseOrder = false;
 	}
 	
@@ -96,8 +92,6 @@ public class PCChoiceGenerator extends IntIntervalGenerator {
 	public PCChoiceGenerator(int size, boolean reverseOrder) {
 		super(0, size - 1, reverseOrder ? -1 : 1);
 		PC = new HashMap<Integer, PathCondition>();
-		for(int i = 0; i < size; i++)
-			PC.put(i, new PathCondition());
 		isReverseOrder = reverseOrder;
 	}
 
@@ -116,7 +110,8 @@ public class PCChoiceGenerator extends IntIntervalGenerator {
 
 		}
 	
-	// returns the PC constraints for the current choice
+	// returns the PC constraints for the current choice; an empty PC if
+	// none was set for the choice
 	public PathCondition getCurrentPC() {
 		PathCondition pc;
 
@@ -124,12 +119,12 @@ public class PCChoiceGenerator extends IntIntervalGenerator {
 		if (pc != null) {
 			return pc.make_copy();
 		} else {
-			return null;
+			return new PathCondition();
 		}
 	}
 
 	public IntChoiceGenerator randomize() {
-		return new PCChoiceGenerator(PC.size(), random.nextBoolean());
+		return new PCChoiceGenerator(getTotalNumberOfChoices(), random.nextBoolean());
 	}
 
 	public void setNextChoice(int nextChoice){
@@ -45,6 +45,7 @@ import gov.nasa.jpf.symbc.arrays.InitExpression;
 import gov.nasa.jpf.symbc.arrays.RealArrayConstraint;
 import gov.nasa.jpf.symbc.arrays.RealStoreExpression;
 import gov.nasa.jpf.symbc.arrays.SelectExpression;
+import gov.nasa.jpf.symbc.arrays.SnapshotExpression;
 import gov.nasa.jpf.symbc.arrays.StoreExpression;
 import gov.nasa.jpf.symbc.arrays.StringByteArrayExpression;
 import gov.nasa.jpf.symbc.mixednumstrg.SpecialIntegerExpression;
@@ -92,18 +93,30 @@ import com.microsoft.z3.SeqSort;
 
 
 // parses PCs
+// a PCParser holds the state of one query (the solver and the mappings between
+// symbolic and DP variables), so different threads can parse PCs concurrently
+// as long as each uses its own parser and solver. The static methods are kept
+// for existing callers; they create a fresh parser for each call.
 
 public class PCParser {
-  static ProblemGeneral pb;
-  static public Map<SymbolicReal, Object>	symRealVar =new HashMap<SymbolicReal,Object>(); // a map between symbolic real variables and DP variables
-  static Map<SymbolicInteger,Object>	symIntegerVar = new HashMap<SymbolicInteger,Object>(); // a map between symbolic variables and DP variables
+  ProblemGeneral pb;
+  public Map<SymbolicReal, Object>	symRealVar =new HashMap<SymbolicReal,Object>(); // a map between symbolic real variables and DP variables
+  public Map<SymbolicInteger,Object>	symIntegerVar = new HashMap<SymbolicInteger,Object>(); // a map between symbolic variables and DP variables
   //static Boolean result; // tells whether result is satisfiable or not
-  static int tempVars = 0; //Used to construct "or" clauses
+  int tempVars = 0; //Used to construct "or" clauses
 
-  static public Map<StringSymbolic, Object> symStringVar = new HashMap<StringSymbolic,Object>();
+  public Map<StringSymbolic, Object> symStringVar = new HashMap<StringSymbolic,Object>();
   
+  public PCParser(ProblemGeneral pb) {
+    this.pb = pb;
+  }
+
+  public ProblemGeneral getProblem() {
+    return pb;
+  }
+
   //	 Converts IntegerExpression's into DP's IntExp's
-  static Object getExpression(IntegerExpression eRef) {
+  Object getExpression(IntegerExpression eRef) {
     assert eRef != null;
     
     if(eRef instanceof IntegerConstant) {
@@ -278,7 +291,7 @@ public class PCParser {
 
 
   // Converts RealExpression's into DP RealExp's
-  static Object getExpression(RealExpression eRef) {
+  Object getExpression(RealExpression eRef) {
     assert eRef != null;
     assert !(eRef instanceof RealConstant);
 
@@ -404,7 +417,7 @@ public class PCParser {
   //}
 
 
-  static public boolean createDPMixedConstraint(MixedConstraint cRef) { // TODO
+  public boolean createDPMixedConstraint(MixedConstraint cRef) { // TODO
 
     Comparator c_compRef = cRef.getComparator();
     RealExpression c_leftRef = (RealExpression)cRef.getLeft();
@@ -440,7 +453,7 @@ public class PCParser {
     return true;
   }
 
-  static public boolean createDPRealConstraint(RealConstraint cRef) {
+  public boolean createDPRealConstraint(RealConstraint cRef) {
 
     Comparator c_compRef = cRef.getComparator();
     RealExpression c_leftRef = (RealExpression)cRef.getLeft();
@@ -548,7 +561,7 @@ public class PCParser {
   }
 
   //Added by Gideon, to handle CNF style constraints???
-  static public boolean createDPLinearOrIntegerConstraint (LogicalORLinearIntegerConstraints c) {
+  public boolean createDPLinearOrIntegerConstraint (LogicalORLinearIntegerConstraints c) {
     List<Object> orList = new ArrayList<Object>();
 
     for (LinearIntegerConstraint cRef: c.getList()) {
@@ -738,7 +751,7 @@ public class PCParser {
 
   }
 
-  static public boolean createDPLinearIntegerConstraint(LinearIntegerConstraint cRef) {
+  public boolean createDPLinearIntegerConstraint(LinearIntegerConstraint cRef) {
 
     Comparator c_compRef = cRef.getComparator();
 
@@ -846,7 +859,7 @@ public class PCParser {
     return true;
   }
 
-  static public boolean createDPNonLinearIntegerConstraint(NonLinearIntegerConstraint cRef) {
+  public boolean createDPNonLinearIntegerConstraint(NonLinearIntegerConstraint cRef) {
 
     Comparator c_compRef = cRef.getComparator();
 
@@ -955,9 +968,33 @@ public class PCParser {
   }
   //static Map<String,Boolean> dpMap = new HashMap<String,Boolean>();
 
+  // The contents of a concrete array as one chain of stores into a fresh
+  // array, equated with the array; built only when the array is indexed
+  // symbolically, instead of one select constraint per element
+  Object getSnapshot(SnapshotExpression se) {
+    ArrayExpression ae = se.arrayExpression;
+    Object array;
+    if (se.isReal()) {
+      array = pb.makeRealArrayVar(ae.getName() + "_snapshot");
+      for (int i = 0; i < se.realValues.length; i++) {
+        array = pb.realStore(array, pb.makeIntConst(i), pb.makeRealConst(se.realValues[i]));
+      }
+      return pb.eq(array, pb.makeRealArrayVar(ae.getName()));
+    }
+    array = pb.makeArrayVar(ae.getName() + "_snapshot");
+    for (int i = 0; i < se.values.length; i++) {
+      array = pb.store(array, pb.makeIntConst(i), pb.makeIntConst(se.values[i]));
+    }
+    return pb.eq(array, pb.makeArrayVar(ae.getName()));
+  }
+
   // Added by Aymeric to support symbolic Arrays
-  public static boolean createArrayConstraint(ArrayConstraint cRef) {
+  public boolean createArrayConstraint(ArrayConstraint cRef) {
     Comparator c_compRef = cRef.getComparator();
+    if (cRef.getLeft() instanceof SnapshotExpression) {
+      pb.post(getSnapshot((SnapshotExpression) cRef.getLeft()));
+      return true;
+    }
 
     SelectExpression selex = null;
         StoreExpression stoex = null;
@@ -1032,8 +1069,12 @@ getExpression(stoex.value)), newae));
         return true;
     }
 
-public static boolean createRealArrayConstraint(final RealArrayConstraint cRef) {
+public boolean createRealArrayConstraint(final RealArrayConstraint cRef) {
         final Comparator c_compRef = cRef.getComparator();
+        if (cRef.getLeft() instanceof SnapshotExpression) {
+            pb.post(getSnapshot((SnapshotExpression) cRef.getLeft()));
+            return true;
+        }
 
 
         SelectExpression selex = null;
@@ -1109,14 +1150,10 @@ getExpression(stoex.value)), newae));
    * @return the merged ProblemGener al object; NULL if problem is unsat
    */
   public static ProblemGeneral parse_old(PathCondition pc, ProblemGeneral pbtosolve) {
-    pb=pbtosolve;
-
-
-    symRealVar = new HashMap<SymbolicReal,Object>();
-    symIntegerVar = new HashMap<SymbolicInteger,Object>();
-    //result = null;
-    tempVars = 0;
+    return new PCParser(pbtosolve).parse_old(pc);
+  }
 
+  public ProblemGeneral parse_old(PathCondition pc) {
     Constraint cRef = (Constraint) pc.header;
 
     if(pb instanceof IncrementalSolver) {
@@ -1144,7 +1181,7 @@ getExpression(stoex.value)), newae));
     return pb;
   }
 
-  private static boolean addConstraint(Constraint cRef) {
+  private boolean addConstraint(Constraint cRef) {
     boolean constraintResult = true;
 
     if (cRef instanceof RealConstraint)
@@ -1194,16 +1231,16 @@ getExpression(stoex.value)), newae));
   // =========================================================
   
   public static ProblemGeneral parse(PathCondition pc, ProblemGeneral pbtosolve) {
-	    pb=pbtosolve;
-	    
-
-	    symRealVar = new HashMap<SymbolicReal,Object>();
-	    symIntegerVar = new HashMap<SymbolicInteger,Object>();
-	    symStringVar = new HashMap<StringSymbolic,Object>();
-	    //result = null;
-	    tempVars = 0;
+	    return new PCParser(pbtosolve).parse(pc);
+  }
 
-	    Object dpConstraint = parseToDPConstraint(pc.header, pb);
+  /**
+   * Translates the whole path condition and posts it to the solver of this parser.
+   *
+   * @return the solver; NULL if the problem is trivially unsat
+   */
+  public ProblemGeneral parse(PathCondition pc) {
+	    Object dpConstraint = parseToDPConstraint(pc.header);
 	    
 	    
 	    if(pb.isFalse(dpConstraint)) {
@@ -1216,122 +1253,146 @@ getExpression(stoex.value)), newae));
 	  }
   
   public static Object parseToDPConstraint(ParsableConstraint constraint, ProblemGeneral pbtosolve) {
-	    pb=pbtosolve;
-	    
+	    return new PCParser(pbtosolve).parseToDPConstraint(constraint);
+  }
+
+  public Object parseToDPConstraint(ParsableConstraint constraint) {
 	    //Constraint constraint = pc.header;
 	    Object dpConstraint = null;
 	    
 	    while (constraint != null) {
-	    	Object newDPConstraint = null;
-	    	if(constraint instanceof RealConstraint) {	    		
-	    		newDPConstraint = buildDPRealConstraint((RealConstraint)constraint);
-	    	} else if(constraint instanceof LinearIntegerConstraint) {
-	    		newDPConstraint = buildDPLinearIntegerConstraint((LinearIntegerConstraint)constraint);
-	    	} else if(constraint instanceof MixedConstraint) {
-	    		newDPConstraint = buildDPMixedConstraint((MixedConstraint)constraint);
-	    	} else if(constraint instanceof ArrayConstraint) {
-	    		newDPConstraint = buildDPArrayConstraint((ArrayConstraint)constraint);
-	    	} else if(constraint instanceof RealArrayConstraint) {
-	    		newDPConstraint = buildDPRealArrayConstraint((RealArrayConstraint)constraint);
-	    	} else if(constraint instanceof NonLinearIntegerConstraint) {
-	    		newDPConstraint = buildDPNonLinearIntegerConstraint((NonLinearIntegerConstraint)constraint);
-	    	} else if(constraint instanceof LogicalGroupingConstraint) {
-	    		LogicalGroupingConstraint logicalGroupedConstraint = ((LogicalGroupingConstraint) constraint);
-	    		List<ParsableConstraint> groupedConstraints = logicalGroupedConstraint.getList();
-	    		
-	    		
-	    		Object groupedDPConstraints = parseToDPConstraint(groupedConstraints.get(0), pb);
-	    		
-	    		for(int i = 1; i < groupedConstraints.size(); i++) {
-	    			Object subDPConstraint = parseToDPConstraint(groupedConstraints.get(i), pb);
-	    			
-	    			
-	    			if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.AND) {
-	    				groupedDPConstraints = pb.and(groupedDPConstraints, subDPConstraint);
-	    				
-	    				if(pb.isFalse(groupedDPConstraints)) {
-	    					break;
-	    				}
-	    			} else if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.OR) { // OR operator case
-	    				
-	    				groupedDPConstraints = pb.or(groupedDPConstraints,  subDPConstraint);
-	    				
-	    				if(pb.isTrue(groupedDPConstraints)) {
-	    					break;
-	    				}
-	    			} else if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.IMPLIES) {
-	    				groupedDPConstraints = pb.implies(groupedDPConstraints, subDPConstraint);
-	    			} else if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.EQUIV) {
-	    				groupedDPConstraints = pb.equiv(groupedDPConstraints, subDPConstraint);
-	    			} else {
-	    				throw new RuntimeException("Parser: Invalid operator.");
-	    			}
-	    		}
-	    		
-	    		if(logicalGroupedConstraint.negated) {
-	    			groupedDPConstraints = pb.not(groupedDPConstraints);	
+	    	Object newDPConstraint = buildDPConstraint(constraint);
+	    	
+	    	if(pb.isFalse(newDPConstraint)) { // unsat
+	    		return newDPConstraint;
+	    	}
+	    	
+	    	if(dpConstraint == null) { // First iteration
+	    		dpConstraint = newDPConstraint;
+	    	} else {
+	    		dpConstraint = pb.and(dpConstraint, newDPConstraint);
+	    	}
+	    	
+	    	constraint = constraint.and();
+	    }
+	    
+	    return dpConstraint;
+	  }
+
+  /**
+   * Translates a single constraint into a DP constraint of the current solver,
+   * ignoring the constraints that follow it in the path condition.
+   */
+  Object buildDPConstraint(ParsableConstraint constraint) {
+	    Object newDPConstraint = null;
+	    if(constraint instanceof RealConstraint) {	    		
+	    	newDPConstraint = buildDPRealConstraint((RealConstraint)constraint);
+	    } else if(constraint instanceof LinearIntegerConstraint) {
+	    	newDPConstraint = buildDPLinearIntegerConstraint((LinearIntegerConstraint)constraint);
+	    } else if(constraint instanceof MixedConstraint) {
+	    	newDPConstraint = buildDPMixedConstraint((MixedConstraint)constraint);
+	    } else if(constraint instanceof ArrayConstraint) {
+	    	newDPConstraint = buildDPArrayConstraint((ArrayConstraint)constraint);
+	    } else if(constraint instanceof RealArrayConstraint) {
+	    	newDPConstraint = buildDPRealArrayConstraint((RealArrayConstraint)constraint);
+	    } else if(constraint instanceof NonLinearIntegerConstraint) {
+	    	newDPConstraint = buildDPNonLinearIntegerConstraint((NonLinearIntegerConstraint)constraint);
+	    } else if(constraint instanceof LogicalORLinearIntegerConstraints) {
+	    	// added by the string preprocessor
+	    	for(LinearIntegerConstraint c : ((LogicalORLinearIntegerConstraints) constraint).getList()) {
+	    		Object disjunct = buildDPLinearIntegerConstraint(c);
+	    		newDPConstraint = (newDPConstraint == null) ? disjunct : pb.or(newDPConstraint, disjunct);
+	    		if(pb.isTrue(newDPConstraint)) {
+	    			break;
 	    		}
+	    	}
+	    	if(newDPConstraint == null) { // no disjuncts
+	    		newDPConstraint = pb.makeFalse();
+	    	}
+	    } else if(constraint instanceof LogicalGroupingConstraint) {
+	    	LogicalGroupingConstraint logicalGroupedConstraint = ((LogicalGroupingConstraint) constraint);
+	    	List<ParsableConstraint> groupedConstraints = logicalGroupedConstraint.getList();
+	    	
+	    	
+	    	Object groupedDPConstraints = parseToDPConstraint(groupedConstraints.get(0));
+	    	
+	    	for(int i = 1; i < groupedConstraints.size(); i++) {
+	    		Object subDPConstraint = parseToDPConstraint(groupedConstraints.get(i));
 	    		
-	    		newDPConstraint = groupedDPConstraints;
-	    	} else if(constraint instanceof StringConstraint) {
-	    		newDPConstraint = buildDPStringConstraint((StringConstraint) constraint);
-	    	} else if(constraint instanceof NullConstraint) {
-	    		NullConstraint nullConstraint = (NullConstraint) constraint;
-	    		
-	    		Expression expression = nullConstraint.getExpression();
-	    		Object dpExpression = null;
 	    		
-	    		if(expression instanceof StringExpression) {
-	    			dpExpression = getExpression((StringExpression) expression);
-	    		} else if(expression instanceof SymbolicInteger) {
-	    			dpExpression = getExpression((SymbolicInteger) expression);
-	    		} else if(expression instanceof IntegerExpression) {
-	    			dpExpression = getExpression((IntegerExpression) expression);
-	    		} else if(expression instanceof RealExpression) {
-	    			dpExpression = getExpression((RealExpression) expression);
-	    		} else if(expression instanceof SelectExpression) {
-	    			SelectExpression selectExpr = (SelectExpression) expression;
+	    		if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.AND) {
+	    			groupedDPConstraints = pb.and(groupedDPConstraints, subDPConstraint);
 	    			
-	    			ArrayExpression arrrayExpr = selectExpr.arrayExpression;
+	    			if(pb.isFalse(groupedDPConstraints)) {
+	    				break;
+	    			}
+	    		} else if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.OR) { // OR operator case
 	    			
-	    			Object dpArrayExpr = pb.makeArrayVar(arrrayExpr.getName());
-	    			Object dpIndexExpr = getExpression(selectExpr.indexExpression);
+	    			groupedDPConstraints = pb.or(groupedDPConstraints,  subDPConstraint);
 	    			
-	    			dpExpression = pb.select(dpArrayExpr, dpIndexExpr);
-	    		}
-	    		
-	    		if(nullConstraint.getNullIndicator() == NullIndicator.NULL) {
-	    			newDPConstraint = pb.makeIsNull(dpExpression);
+	    			if(pb.isTrue(groupedDPConstraints)) {
+	    				break;
+	    			}
+	    		} else if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.IMPLIES) {
+	    			groupedDPConstraints = pb.implies(groupedDPConstraints, subDPConstraint);
+	    		} else if(logicalGroupedConstraint.getOperator() == LogicalGroupingConstraint.Operator.EQUIV) {
+	    			groupedDPConstraints = pb.equiv(groupedDPConstraints, subDPConstraint);
 	    		} else {
-	    			newDPConstraint = pb.not(pb.makeIsNull(dpExpression));
+	    			throw new RuntimeException("Parser: Invalid operator.");
 	    		}
 	    	}
 	    	
-	    	if(newDPConstraint == null) {
-	    		System.out.println("Constraint is null.");
-	    		
+	    	if(logicalGroupedConstraint.negated) {
+	    		groupedDPConstraints = pb.not(groupedDPConstraints);	
 	    	}
 	    	
-	    	if(pb.isFalse(newDPConstraint)) { // unsat
-	    		return newDPConstraint;
+	    	newDPConstraint = groupedDPConstraints;
+	    } else if(constraint instanceof StringConstraint) {
+	    	newDPConstraint = buildDPStringConstraint((StringConstraint) constraint);
+	    } else if(constraint instanceof NullConstraint) {
+	    	NullConstraint nullConstraint = (NullConstraint) constraint;
+	    	
+	    	Expression expression = nullConstraint.getExpression();
+	    	Object dpExpression = null;
+	    	
+	    	if(expression instanceof StringExpression) {
+	    		dpExpression = getExpression((StringExpression) expression);
+	    	} else if(expression instanceof SymbolicInteger) {
+	    		dpExpression = getExpression((SymbolicInteger) expression);
+	    	} else if(expression instanceof IntegerExpression) {
+	    		dpExpression = getExpression((IntegerExpression) expression);
+	    	} else if(expression instanceof RealExpression) {
+	    		dpExpression = getExpression((RealExpression) expression);
+	    	} else if(expression instanceof SelectExpression) {
+	    		SelectExpression selectExpr = (SelectExpression) expression;
+	    		
+	    		ArrayExpression arrrayExpr = selectExpr.arrayExpression;
+	    		
+	    		Object dpArrayExpr = pb.makeArrayVar(arrrayExpr.getName());
+	    		Object dpIndexExpr = getExpression(selectExpr.indexExpression);
+	    		
+	    		dpExpression = pb.select(dpArrayExpr, dpIndexExpr);
 	    	}
 	    	
-	    	if(dpConstraint == null) { // First iteration
-	    		dpConstraint = newDPConstraint;
+	    	if(nullConstraint.getNullIndicator() == NullIndicator.NULL) {
+	    		newDPConstraint = pb.makeIsNull(dpExpression);
 	    	} else {
-	    		dpConstraint = pb.and(dpConstraint, newDPConstraint);
+	    		newDPConstraint = pb.not(pb.makeIsNull(dpExpression));
 	    	}
+	    }
+	    
+	    if(newDPConstraint == null) {
+	    	System.out.println("Constraint is null.");
 	    	
-	    	constraint = constraint.and();
 	    }
 	    
-	    return dpConstraint;
-	  }
+	    return newDPConstraint;
+  }
   
   
   
   
-  static public Object getExpression(SymbolicInteger exp) {
+  public Object getExpression(SymbolicInteger exp) {
 	  Object dpExpr = null;
 	  
 	  if(exp instanceof SymbolicCharAtInteger) {
@@ -1423,7 +1484,7 @@ getExpression(stoex.value)), newae));
 	  return dpExpr;
   }
   
-  static public Object getExpression(StringExpression exp) {
+  public Object getExpression(StringExpression exp) {
 	  Object dpExpression = null;
 	  
 	  
@@ -1526,7 +1587,7 @@ getExpression(stoex.value)), newae));
 	  return dpExpression;
   }
   
-  static public Object buildDPStringConstraint(StringConstraint constraint) {
+  public Object buildDPStringConstraint(StringConstraint constraint) {
 	  
 	  StringExpression left = constraint.getLeft();
 	  Object leftDP = left == null? null : getExpression(left);
@@ -1610,7 +1671,7 @@ getExpression(stoex.value)), newae));
   }
   
   
-  static public Object buildDPMixedConstraint(MixedConstraint cRef) {
+  public Object buildDPMixedConstraint(MixedConstraint cRef) {
 	  Comparator c_compRef = cRef.getComparator();
 	    RealExpression c_leftRef = (RealExpression)cRef.getLeft();
 	    IntegerExpression c_rightRef = (IntegerExpression)cRef.getRight();
@@ -1646,7 +1707,7 @@ getExpression(stoex.value)), newae));
 	    return constraint;
   }
   
-  static public Object buildDPRealConstraint(RealConstraint cRef) {
+  public Object buildDPRealConstraint(RealConstraint cRef) {
 	  Comparator c_compRef = cRef.getComparator();
 	    RealExpression c_leftRef = (RealExpression)cRef.getLeft();
 	    RealExpression c_rightRef = (RealExpression)cRef.getRight();
@@ -1755,7 +1816,7 @@ getExpression(stoex.value)), newae));
   }
   
   // TODO: add getExpression()s to parse subclasses of SymbolicInteger (e.g., SymbolicCharAtInteger)
-  static public Object buildDPLinearIntegerConstraint(LinearIntegerConstraint cRef) {
+  public Object buildDPLinearIntegerConstraint(LinearIntegerConstraint cRef) {
 	  Comparator c_compRef = cRef.getComparator();
 
 	    IntegerExpression c_leftRef = (IntegerExpression)cRef.getLeft();
@@ -1863,7 +1924,7 @@ getExpression(stoex.value)), newae));
 	    return null;
   }
   
-  static public Object buildDPNonLinearIntegerConstraint(NonLinearIntegerConstraint cRef) {
+  public Object buildDPNonLinearIntegerConstraint(NonLinearIntegerConstraint cRef) {
 	  Comparator c_compRef = cRef.getComparator();
 
 	    IntegerExpression c_leftRef = (IntegerExpression)cRef.getLeft();
@@ -1970,8 +2031,11 @@ getExpression(stoex.value)), newae));
 	    return null;
   }
   
-  static public Object buildDPArrayConstraint(ArrayConstraint cRef) {
+  public Object buildDPArrayConstraint(ArrayConstraint cRef) {
 	  Comparator c_compRef = cRef.getComparator();
+	  if (cRef.getLeft() instanceof SnapshotExpression) {
+		  return getSnapshot((SnapshotExpression) cRef.getLeft());
+	  }
 
 	    SelectExpression selex = null;
 	        StoreExpression stoex = null;
@@ -2114,8 +2178,11 @@ getExpression(stoex.value)), newae));
 	        }
   }
   
-  static public Object buildDPRealArrayConstraint(RealArrayConstraint cRef) {
+  public Object buildDPRealArrayConstraint(RealArrayConstraint cRef) {
 	  final Comparator c_compRef = cRef.getComparator();
+	  if (cRef.getLeft() instanceof SnapshotExpression) {
+		  return getSnapshot((SnapshotExpression) cRef.getLeft());
+	  }
 
 
       SelectExpression selex = null;
@@ -39,7 +39,7 @@ package gov.nasa.jpf.symbc.numeric;
 
 import za.ac.sun.cs.green.Instance;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
 
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
@@ -50,6 +50,7 @@ import gov.nasa.jpf.symbc.arrays.RealArrayConstraint;
 import gov.nasa.jpf.symbc.arrays.RealStoreExpression;
 import gov.nasa.jpf.symbc.arrays.StoreExpression;
 import gov.nasa.jpf.symbc.arrays.SelectExpression;
+import gov.nasa.jpf.symbc.arrays.SnapshotExpression;
 import gov.nasa.jpf.symbc.concolic.PCAnalyzer;
 import gov.nasa.jpf.symbc.numeric.solvers.SolverTranslator;
 import gov.nasa.jpf.symbc.numeric.visitors.CollectVariableVisitor;
@@ -70,7 +71,8 @@ import gov.nasa.jpf.symbc.ParsableConstraint;
 public class PathCondition implements Comparable<PathCondition> {
     public static boolean flagSolved = false;
 
-    public HashMap<String, ArrayExpression> arrayExpressions;
+    // shared with copies until one of them puts an array
+    public SharedMap<String, ArrayExpression> arrayExpressions;
 
     public ParsableConstraint header;
     int count = 0;
@@ -79,10 +81,19 @@ public class PathCondition implements Comparable<PathCondition> {
     private Instance instance = null;
 
     // TODO: to review
-    public StringPathCondition spc = new StringPathCondition(this);
+    public StringPathCondition spc;
 
     private Integer hashCode = null;
 
+    // used by the ConstraintSlicer: the variable partition (shared with
+    // copies), and the suffix of the constraints found satisfiable last
+    ConstraintSlicer.Partition partition = null;
+    ParsableConstraint satHeader = null;
+    int satCount = 0;
+
+    // hash index of the constraints for hasConstraint(); shared with copies
+    private ConstraintIndex constraintIndex = ConstraintIndex.EMPTY;
+
     // added by guowei
     public static boolean isReplay = false;
 
@@ -92,7 +103,25 @@ public class PathCondition implements Comparable<PathCondition> {
 
     public PathCondition() {
         header = null;
-        arrayExpressions = new HashMap<String, ArrayExpression>();
+        arrayExpressions = new SharedMap<String, ArrayExpression>();
+        spc = new StringPathCondition(this);
+    }
+
+    // a copy that shares the constraints (a list that is only ever
+    // prepended to) and the array map with the original
+    private PathCondition(PathCondition pc) {
+        header = pc.header;
+        count = pc.count;
+        spc = pc.spc.make_copy(this); // TODO: to review
+        solverCalls = pc.solverCalls;
+        arrayExpressions = pc.arrayExpressions.fork();
+        if (pc.partition != null) {
+            pc.partition.shared = true;
+            partition = pc.partition;
+        }
+        satHeader = pc.satHeader;
+        satCount = pc.satCount;
+        constraintIndex = pc.constraintIndex;
     }
 
     public Instance getInstance() {
@@ -107,15 +136,7 @@ public class PathCondition implements Comparable<PathCondition> {
     }
 
     public PathCondition make_copy() {
-        PathCondition pc_new = new PathCondition();
-        pc_new.header = this.header;
-        pc_new.count = this.count;
-        pc_new.spc = this.spc.make_copy(pc_new); // TODO: to review
-        pc_new.solverCalls = this.solverCalls;
-        pc_new.arrayExpressions = new HashMap<>(this.arrayExpressions);
-        //pc_new.arrayExpressions = this.arrayExpressions;
-        //pc_new.arrayExpressions = new HashMap<String, ArrayExpression>(arrayExpressions);
-        return pc_new;
+        return new PathCondition(this);
     }
 
     //Added by Aymeric
@@ -158,6 +179,21 @@ public class PathCondition implements Comparable<PathCondition> {
       prependUnlessRepeated(t);
     }
 
+    /**
+     * Binds a concrete array that is indexed symbolically to its contents,
+     * with one constraint for the whole array.
+     */
+    public void _addSnapshot(SnapshotExpression se) {
+      Constraint t;
+      flagSolved = false;
+      if (se.isReal()) {
+        t = new RealArrayConstraint(se, Comparator.EQ, se.arrayExpression);
+      } else {
+        t = new ArrayConstraint(se, Comparator.EQ, se.arrayExpression);
+      }
+      prependUnlessRepeated(t);
+    }
+
     // Added by Gideon
     public void _addDet(LogicalORLinearIntegerConstraints loic) {
         // throw new RuntimeException ("Not being used right now");
@@ -327,6 +363,12 @@ public class PathCondition implements Comparable<PathCondition> {
      * Returns whether this path condition contains the constraint.
      */
     public boolean hasConstraint(ParsableConstraint c) {
+        ConstraintIndex index = updateIndex();
+        if (index != null) {
+            return index.contains(c);
+        }
+
+        // count does not match the constraint list: search the list
     	ParsableConstraint t = header;
 
         while (t != null) {
@@ -340,6 +382,41 @@ public class PathCondition implements Comparable<PathCondition> {
         return false;
     }
 
+    /*
+     * Brings the constraint index up to date: the constraints prepended since
+     * it was built are added to it. If the list was changed in any other way,
+     * all the constraints are indexed again. Returns NULL if the constraint
+     * list does not match count.
+     */
+    private ConstraintIndex updateIndex() {
+        ConstraintIndex index = constraintIndex;
+        ArrayList<ParsableConstraint> added = new ArrayList<ParsableConstraint>();
+        ParsableConstraint t = header;
+        while (t != index.header) {
+            if (t == null) {
+                // index.header is no longer in the list
+                index = ConstraintIndex.EMPTY;
+                added.clear();
+                t = header;
+                continue;
+            }
+            added.add(t);
+            t = t.and();
+        }
+        if (added.size() + index.count != count) {
+            if (index == ConstraintIndex.EMPTY) {
+                return null;
+            }
+            constraintIndex = ConstraintIndex.EMPTY;
+            return updateIndex();
+        }
+        for (int i = added.size() - 1; i >= 0; i--) {
+            index = index.add(added.get(i));
+        }
+        constraintIndex = index;
+        return index;
+    }
+
     public ParsableConstraint last() {
     	ParsableConstraint t = header;
     	ParsableConstraint last = null;
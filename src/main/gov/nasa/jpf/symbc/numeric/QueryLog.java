@@ -0,0 +1,574 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.ParsableConstraint;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the queries that go to a decision procedure, so that they can be
+ * replayed offline against other back-ends (see {@link QueryReplay}).
+ *
+ * symbolic.record names the file the queries are appended to; every record
+ * holds the decision procedure, the verdict, the time it took, and the query
+ * itself. Numeric path conditions are stored as their structure (variables
+ * with their ranges, constraints as expression trees) together with the model
+ * if the query asked for one. Path conditions with constraints that have no
+ * binary form (arrays, logical groupings, strings) and the queries of the
+ * string solvers are stored as text. symbolic.record.buffer is the size of the
+ * write buffer in KB (default 64); the buffer goes to the file when it is full
+ * and when the JVM exits.
+ *
+ * The file starts with the magic number "SPFQ" and the format version; a record
+ * is its length (int), kind (byte), time stamp (ms), duration (ns), decision
+ * procedure (UTF), verdict (byte) and the kind specific body. Operators,
+ * comparators and math functions are stored as the ordinals of their enums,
+ * so VERSION changes whenever one of them does.
+ */
+public class QueryLog {
+
+  public static final int MAGIC = 0x53504651;
+  public static final short VERSION = 1;
+
+  public static final byte NUMERIC = 0;
+  public static final byte TEXT = 1;
+  public static final byte STRING = 2;
+
+  private static final byte UNSAT = 0;
+  private static final byte SAT = 1;
+  private static final byte UNKNOWN = 2;
+
+  // constraints
+  private static final byte LINEAR = 0;
+  private static final byte NON_LINEAR = 1;
+  private static final byte REAL = 2;
+  private static final byte MIXED = 3;
+
+  // expressions
+  private static final byte INT_VAR = 0;
+  private static final byte REAL_VAR = 1;
+  private static final byte INT_CONST = 2;
+  private static final byte REAL_CONST = 3;
+  private static final byte BINARY_LINEAR = 4;
+  private static final byte BINARY_NON_LINEAR = 5;
+  private static final byte BINARY_REAL = 6;
+  private static final byte MATH = 7;
+
+  private static volatile QueryLog log = null;
+  private static boolean hookInstalled = false;
+
+  private final String fileName;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private long records = 0;
+
+  public static synchronized void configure(Config conf) {
+    close();
+    String file = conf.getString("symbolic.record");
+    if (file == null) {
+      return;
+    }
+    int size = conf.getInt("symbolic.record.buffer", 64);
+    if (size <= 0) {
+      throw new IllegalArgumentException("symbolic.record.buffer must be positive (>0), but was " + size);
+    }
+    try {
+      open(file, size * 1024);
+    } catch (IOException e) {
+      throw new RuntimeException("## Error: cannot open symbolic.record=" + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Starts recording to the given file, with a write buffer of the given size
+   * in bytes.
+   */
+  public static synchronized void open(String file, int bufferSize) throws IOException {
+    close();
+    log = new QueryLog(file, bufferSize);
+    if (!hookInstalled) {
+      hookInstalled = true;
+      Runtime.getRuntime().addShutdownHook(new Thread() {
+        @Override
+        public void run() {
+          close();
+        }
+      });
+    }
+  }
+
+  private QueryLog(String fileName, int size) throws IOException {
+    this.fileName = fileName;
+    channel = FileChannel.open(new File(fileName).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    buffer = ByteBuffer.allocate(size);
+    if (channel.size() == 0) {
+      buffer.putInt(MAGIC);
+      buffer.putShort(VERSION);
+    }
+  }
+
+  public static boolean isEnabled() {
+    return log != null;
+  }
+
+  /**
+   * Writes what is buffered and closes the file.
+   */
+  public static synchronized void close() {
+    if (log != null) {
+      try {
+        log.flush();
+        log.channel.close();
+      } catch (IOException e) {
+        System.out.println("## Warning: cannot write symbolic.record=" + log.fileName + ": " + e.getMessage());
+      }
+      log = null;
+    }
+  }
+
+  /**
+   * One query of a numeric path condition.
+   *
+   * @param result TRUE, FALSE, or NULL if the procedure gave no answer
+   * @param withModel whether the solutions of the variables hold the model
+   */
+  public static void record(String dp, PathCondition pc, long nanos, Boolean result, boolean withModel) {
+    if (log == null) {
+      return;
+    }
+    byte[] body = encode(pc, withModel && result == Boolean.TRUE);
+    byte kind = NUMERIC;
+    if (body == null) {
+      kind = TEXT;
+      body = pc.stringPC().getBytes(StandardCharsets.UTF_8);
+    }
+    write(kind, dp, nanos, result, body);
+  }
+
+  /**
+   * One query of a string path condition.
+   */
+  public static void recordString(String dp, String pc, long nanos, Boolean result) {
+    if (log != null) {
+      write(STRING, dp, nanos, result, pc.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void write(byte kind, String dp, long nanos, Boolean result, byte[] body) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 64);
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(0); // length, patched below
+      out.writeByte(kind);
+      out.writeLong(System.currentTimeMillis());
+      out.writeLong(nanos);
+      out.writeUTF(dp);
+      out.writeByte(result == null ? UNKNOWN : result ? SAT : UNSAT);
+      out.write(body);
+    } catch (IOException e) {
+      throw new RuntimeException(e); // not thrown by a ByteArrayOutputStream
+    }
+    ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+    record.putInt(0, record.capacity() - 4);
+
+    synchronized (QueryLog.class) {
+      if (log == null) {
+        return;
+      }
+      try {
+        log.append(record);
+      } catch (IOException e) {
+        System.out.println("## Warning: cannot write symbolic.record=" + log.fileName + ": " + e.getMessage()
+            + "; recording stopped");
+        log = null;
+      }
+    }
+  }
+
+  private void append(ByteBuffer record) throws IOException {
+    if (record.remaining() > buffer.remaining()) {
+      flush();
+    }
+    if (record.remaining() > buffer.capacity()) {
+      while (record.hasRemaining()) {
+        channel.write(record);
+      }
+    } else {
+      buffer.put(record);
+    }
+    records++;
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  public static synchronized long getRecords() {
+    return (log == null) ? 0 : log.records;
+  }
+
+  /*
+   * the body of a numeric record: the variables, the constraints from the
+   * oldest to the newest one, and the model; NULL if the path condition has
+   * parts the format does not know
+   */
+  private static byte[] encode(PathCondition pc, boolean withModel) {
+    List<Constraint> constraints = new ArrayList<Constraint>();
+    for (ParsableConstraint c = pc.header; c != null; c = c.getTail()) {
+      if (!(c instanceof Constraint)) {
+        return null;
+      }
+      constraints.add((Constraint) c);
+    }
+
+    Map<Expression, Integer> index = new IdentityHashMap<Expression, Integer>();
+    List<Expression> variables = new ArrayList<Expression>();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(constraints.size());
+      for (int i = constraints.size() - 1; i >= 0; i--) {
+        Constraint c = constraints.get(i);
+        Class<?> type = c.getClass();
+        if (type == LinearIntegerConstraint.class) {
+          out.writeByte(LINEAR);
+        } else if (type == NonLinearIntegerConstraint.class) {
+          out.writeByte(NON_LINEAR);
+        } else if (type == RealConstraint.class) {
+          out.writeByte(REAL);
+        } else if (type == MixedConstraint.class) {
+          out.writeByte(MIXED);
+        } else {
+          return null;
+        }
+        out.writeByte(c.getComparator().ordinal());
+        if (!encode(c.getLeft(), out, index, variables) || !encode(c.getRight(), out, index, variables)) {
+          return null;
+        }
+      }
+      out.writeBoolean(withModel);
+      if (withModel) {
+        for (Expression v : variables) {
+          if (v instanceof SymbolicInteger) {
+            out.writeLong(((SymbolicInteger) v).solution);
+          } else {
+            out.writeDouble(((SymbolicReal) v).solution);
+          }
+        }
+      }
+      out.flush();
+
+      ByteArrayOutputStream header = new ByteArrayOutputStream(bytes.size() + 16 * variables.size());
+      DataOutputStream vars = new DataOutputStream(header);
+      vars.writeInt(variables.size());
+      for (Expression v : variables) {
+        if (v instanceof SymbolicInteger) {
+          SymbolicInteger i = (SymbolicInteger) v;
+          vars.writeByte(INT_VAR);
+          vars.writeUTF(i.getName());
+          vars.writeLong(i._min);
+          vars.writeLong(i._max);
+        } else {
+          SymbolicReal r = (SymbolicReal) v;
+          vars.writeByte(REAL_VAR);
+          vars.writeUTF(r.getName());
+          vars.writeDouble(r._min);
+          vars.writeDouble(r._max);
+        }
+      }
+      bytes.writeTo(vars);
+      vars.flush();
+      return header.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException(e); // not thrown by a ByteArrayOutputStream
+    }
+  }
+
+  private static boolean encode(Expression e, DataOutputStream out, Map<Expression, Integer> index,
+      List<Expression> variables) throws IOException {
+    Class<?> type = (e == null) ? null : e.getClass();
+    if (type == SymbolicInteger.class || type == SymbolicReal.class) {
+      Integer i = index.get(e);
+      if (i == null) {
+        i = variables.size();
+        index.put(e, i);
+        variables.add(e);
+      }
+      out.writeByte(type == SymbolicInteger.class ? INT_VAR : REAL_VAR);
+      out.writeInt(i);
+    } else if (type == IntegerConstant.class) {
+      out.writeByte(INT_CONST);
+      out.writeLong(((IntegerConstant) e).value);
+    } else if (type == RealConstant.class) {
+      out.writeByte(REAL_CONST);
+      out.writeDouble(((RealConstant) e).value);
+    } else if (type == BinaryLinearIntegerExpression.class) {
+      BinaryLinearIntegerExpression b = (BinaryLinearIntegerExpression) e;
+      out.writeByte(BINARY_LINEAR);
+      out.writeByte(b.getOp().ordinal());
+      return encode(b.getLeft(), out, index, variables) && encode(b.getRight(), out, index, variables);
+    } else if (type == BinaryNonLinearIntegerExpression.class) {
+      BinaryNonLinearIntegerExpression b = (BinaryNonLinearIntegerExpression) e;
+      out.writeByte(BINARY_NON_LINEAR);
+      out.writeByte(b.op.ordinal());
+      return encode(b.left, out, index, variables) && encode(b.right, out, index, variables);
+    } else if (type == BinaryRealExpression.class) {
+      BinaryRealExpression b = (BinaryRealExpression) e;
+      out.writeByte(BINARY_REAL);
+      out.writeByte(b.getOp().ordinal());
+      return encode(b.getLeft(), out, index, variables) && encode(b.getRight(), out, index, variables);
+    } else if (type == MathRealExpression.class) {
+      MathRealExpression m = (MathRealExpression) e;
+      out.writeByte(MATH);
+      out.writeByte(m.getOp().ordinal());
+      out.writeBoolean(m.getArg2() != null);
+      return encode(m.getArg1(), out, index, variables)
+          && (m.getArg2() == null || encode(m.getArg2(), out, index, variables));
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Reads the records of a file written by symbolic.record.
+   */
+  public static class Reader implements Closeable {
+
+    private final DataInputStream in;
+
+    public Reader(File file) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+      int magic;
+      short version;
+      try {
+        magic = in.readInt();
+        version = in.readShort();
+      } catch (EOFException e) {
+        in.close();
+        throw new IOException(file + " is not a query log");
+      }
+      if (magic != MAGIC) {
+        in.close();
+        throw new IOException(file + " is not a query log");
+      }
+      if (version != VERSION) {
+        in.close();
+        throw new IOException(file + " has version " + version + " of the query log format, expected " + VERSION);
+      }
+    }
+
+    /**
+     * The next record; NULL at the end of the file, or if the last record was
+     * cut off (by a run that did not exit normally).
+     */
+    public Record next() throws IOException {
+      byte[] record;
+      try {
+        int length = in.readInt();
+        record = new byte[length];
+        in.readFully(record);
+      } catch (EOFException e) {
+        return null;
+      }
+      return new Record(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   * A recorded query.
+   */
+  public static class Record {
+    public final byte kind;
+    public final long timeMillis;
+    public final long nanos;
+    public final String dp;
+    public final Boolean result;
+
+    private final byte[] body;
+    private PathCondition pc = null;
+    private Map<String, Object> model = null;
+
+    private Record(byte[] record) throws IOException {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+      kind = in.readByte();
+      timeMillis = in.readLong();
+      nanos = in.readLong();
+      dp = in.readUTF();
+      byte verdict = in.readByte();
+      result = (verdict == UNKNOWN) ? null : Boolean.valueOf(verdict == SAT);
+      body = new byte[in.available()];
+      in.readFully(body);
+    }
+
+    /**
+     * The path condition of a TEXT or STRING record, as it was printed.
+     */
+    public String getText() {
+      if (kind == NUMERIC) {
+        throw new IllegalStateException("## Error: numeric query records have no text");
+      }
+      return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The path condition of a NUMERIC record, over new variables that have the
+     * names and ranges of the recorded ones.
+     */
+    public PathCondition getPathCondition() throws IOException {
+      if (kind != NUMERIC) {
+        throw new IllegalStateException("## Error: only numeric query records have a path condition");
+      }
+      if (pc == null) {
+        decode();
+      }
+      return pc;
+    }
+
+    /**
+     * The values of the variables if the query asked for a model and was
+     * satisfiable, NULL otherwise.
+     */
+    public Map<String, Object> getModel() throws IOException {
+      getPathCondition();
+      return model;
+    }
+
+    private void decode() throws IOException {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+      Expression[] variables = new Expression[in.readInt()];
+      for (int i = 0; i < variables.length; i++) {
+        byte type = in.readByte();
+        String name = in.readUTF();
+        if (type == INT_VAR) {
+          variables[i] = new SymbolicInteger(name, in.readLong(), in.readLong());
+        } else {
+          variables[i] = new SymbolicReal(name, in.readDouble(), in.readDouble());
+        }
+      }
+
+      PathCondition pc = new PathCondition();
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        byte type = in.readByte();
+        Comparator c = Comparator.values()[in.readByte()];
+        Expression l = decode(in, variables);
+        Expression r = decode(in, variables);
+        switch (type) {
+        case LINEAR:
+          pc.prependUnlessRepeated(new LinearIntegerConstraint((IntegerExpression) l, c, (IntegerExpression) r));
+          break;
+        case NON_LINEAR:
+          pc.prependUnlessRepeated(new NonLinearIntegerConstraint((IntegerExpression) l, c, (IntegerExpression) r));
+          break;
+        case REAL:
+          pc.prependUnlessRepeated(new RealConstraint((RealExpression) l, c, (RealExpression) r));
+          break;
+        case MIXED:
+          pc.prependUnlessRepeated(new MixedConstraint((RealExpression) l, c, (IntegerExpression) r));
+          break;
+        default:
+          throw new IOException("unknown constraint " + type + " in a query record");
+        }
+      }
+
+      if (in.readBoolean()) {
+        Map<String, Object> model = new HashMap<String, Object>();
+        for (Expression v : variables) {
+          if (v instanceof SymbolicInteger) {
+            model.put(((SymbolicInteger) v).getName(), in.readLong());
+          } else {
+            model.put(((SymbolicReal) v).getName(), in.readDouble());
+          }
+        }
+        this.model = model;
+      }
+      this.pc = pc;
+    }
+
+    private static Expression decode(DataInputStream in, Expression[] variables) throws IOException {
+      byte tag = in.readByte();
+      switch (tag) {
+      case INT_VAR:
+      case REAL_VAR:
+        return variables[in.readInt()];
+      case INT_CONST:
+        return new IntegerConstant(in.readLong());
+      case REAL_CONST:
+        return new RealConstant(in.readDouble());
+      case BINARY_LINEAR: {
+        Operator op = Operator.values()[in.readByte()];
+        IntegerExpression l = (IntegerExpression) decode(in, variables);
+        return new BinaryLinearIntegerExpression(l, op, (IntegerExpression) decode(in, variables));
+      }
+      case BINARY_NON_LINEAR: {
+        Operator op = Operator.values()[in.readByte()];
+        IntegerExpression l = (IntegerExpression) decode(in, variables);
+        return new BinaryNonLinearIntegerExpression(l, op, (IntegerExpression) decode(in, variables));
+      }
+      case BINARY_REAL: {
+        Operator op = Operator.values()[in.readByte()];
+        RealExpression l = (RealExpression) decode(in, variables);
+        return new BinaryRealExpression(l, op, (RealExpression) decode(in, variables));
+      }
+      case MATH: {
+        MathFunction f = MathFunction.values()[in.readByte()];
+        boolean binary = in.readBoolean();
+        RealExpression a1 = (RealExpression) decode(in, variables);
+        if (binary) {
+          return new MathRealExpression(f, a1, (RealExpression) decode(in, variables));
+        }
+        return new MathRealExpression(f, a1);
+      }
+      default:
+        throw new IOException("unknown expression " + tag + " in a query record");
+      }
+    }
+  }
+}
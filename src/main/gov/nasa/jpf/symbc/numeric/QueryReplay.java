@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.solvers.PortfolioSolver;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemChoco;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemGeneral;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Replays the numeric queries of a file written with symbolic.record against a
+ * decision procedure, without running JPF:
+ *
+ *   java gov.nasa.jpf.symbc.numeric.QueryReplay [-v] file [dp]
+ *
+ * Without a dp, every query goes to the decision procedure it was recorded
+ * with (choco if that one cannot be used on its own, see
+ * PortfolioSolver.createProblem). Prints the time the recorded and the replayed
+ * queries took and the queries whose verdicts differ; with -v, every query.
+ * Queries recorded as text (string path conditions, and numeric ones with
+ * arrays or logical groupings) are counted but not replayed.
+ */
+public class QueryReplay {
+
+  public static void main(String[] args) throws IOException {
+    boolean verbose = false;
+    String file = null;
+    String dp = null;
+    for (String arg : args) {
+      if (arg.equals("-v")) {
+        verbose = true;
+      } else if (file == null) {
+        file = arg;
+      } else if (dp == null) {
+        dp = arg.toLowerCase();
+      } else {
+        usage();
+      }
+    }
+    if (file == null) {
+      usage();
+    }
+    if (dp != null && !PortfolioSolver.isSupported(dp)) {
+      throw new RuntimeException("## Error: cannot replay with decision procedure " + dp);
+    }
+
+    // the defaults of the symbolic.* properties the back-ends read
+    SymbolicInstructionFactory.debugMode = false;
+    SymbolicInstructionFactory.bvlength = 32;
+    SymbolicInstructionFactory.fp = false;
+    ProblemChoco.timeBound = 30000;
+
+    long records = 0;
+    long skipped = 0;
+    long replayed = 0;
+    long differ = 0;
+    long recordedNanos = 0;
+    long replayNanos = 0;
+    QueryLog.Reader reader = new QueryLog.Reader(new File(file));
+    try {
+      QueryLog.Record r;
+      while ((r = reader.next()) != null) {
+        records++;
+        if (r.kind != QueryLog.NUMERIC) {
+          skipped++;
+          continue;
+        }
+        String target = (dp != null) ? dp : PortfolioSolver.isSupported(r.dp) ? r.dp : "choco";
+        long start = System.nanoTime();
+        Boolean result = solve(r.getPathCondition(), target);
+        long nanos = System.nanoTime() - start;
+        replayed++;
+        recordedNanos += r.nanos;
+        replayNanos += nanos;
+
+        boolean same = (result == null) ? r.result == null : result.equals(r.result);
+        if (!same) {
+          differ++;
+        }
+        if (verbose || !same) {
+          System.out.println("query " + records + ": " + r.dp + " " + verdict(r.result) + " in " + r.nanos / 1000
+              + " us, " + target + " " + verdict(result) + " in " + nanos / 1000 + " us"
+              + (same ? "" : "  <- differs"));
+          if (!same) {
+            System.out.println(r.getPathCondition());
+          }
+        }
+      }
+    } finally {
+      reader.close();
+    }
+
+    System.out.println("# " + records + " queries, " + replayed + " replayed, " + skipped + " not numeric, "
+        + differ + " with a different verdict");
+    System.out.println("# recorded " + recordedNanos / 1000000 + " ms, replayed " + replayNanos / 1000000 + " ms");
+  }
+
+  private static Boolean solve(PathCondition pc, String dp) {
+    ProblemGeneral pb = PortfolioSolver.createProblem(dp);
+    try {
+      ProblemGeneral parsed = new PCParser(pb).parse(pc);
+      return (parsed == null) ? Boolean.FALSE : parsed.solve();
+    } finally {
+      PortfolioSolver.cleanup(pb);
+    }
+  }
+
+  private static String verdict(Boolean result) {
+    return (result == null) ? "unknown" : result ? "sat" : "unsat";
+  }
+
+  private static void usage() {
+    System.err.println("usage: java gov.nasa.jpf.symbc.numeric.QueryReplay [-v] file [dp]");
+    System.exit(1);
+  }
+}
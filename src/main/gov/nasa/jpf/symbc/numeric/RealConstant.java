@@ -52,7 +52,7 @@ public class RealConstant extends RealExpression {
 	  if (i == 0)
 		  return this;
 
-    return new RealConstant(value - i);
+    return ExpressionPool.realConstant(value - i);
   }
 
   public RealExpression _minus (RealExpression e) {
@@ -63,10 +63,10 @@ public class RealConstant extends RealExpression {
 				return this;
 		}
 		if (e == this)
-			return new RealConstant(0);
+			return ExpressionPool.realConstant(0);
 
     if (e instanceof RealConstant) {
-      return new RealConstant(value - ((RealConstant) e).value);
+      return ExpressionPool.realConstant(value - ((RealConstant) e).value);
     } else {
       return super._minus(e);
     }
@@ -77,9 +77,9 @@ public class RealConstant extends RealExpression {
 	  if (i == 1)
 		  return this;
 	  if (i == 0)
-		  return new RealConstant(0);
+		  return ExpressionPool.realConstant(0);
 
-    return new RealConstant(value * i);
+    return ExpressionPool.realConstant(value * i);
   }
 
   public RealExpression _mul (RealExpression e) {
@@ -89,11 +89,11 @@ public class RealConstant extends RealExpression {
 			if (rc.value == 1)
 				return this;
 			if (rc.value == 0)
-				return new RealConstant(0);
+				return ExpressionPool.realConstant(0);
 		}
 
     if (e instanceof RealConstant) {
-      return new RealConstant(value * ((RealConstant) e).value);
+      return ExpressionPool.realConstant(value * ((RealConstant) e).value);
     } else {
       return super._mul(e);
     }
@@ -104,7 +104,7 @@ public class RealConstant extends RealExpression {
 	  if (i == 0)
 		  return this;
 
-	  return new RealConstant(value + i);
+	  return ExpressionPool.realConstant(value + i);
   }
 
   public RealExpression _plus (RealExpression e) {
@@ -116,7 +116,7 @@ public class RealConstant extends RealExpression {
 		}
 
     if (e instanceof RealConstant) {
-      return new RealConstant(value + ((RealConstant) e).value);
+      return ExpressionPool.realConstant(value + ((RealConstant) e).value);
     } else {
       return super._plus(e);
     }
@@ -127,7 +127,7 @@ public class RealConstant extends RealExpression {
 		//simplify
 	    if (i == 1)
 	    	return this;
-	    return new RealConstant(value / i);
+	    return ExpressionPool.realConstant(value / i);
 	  }
 
   public RealExpression _div (RealExpression e) {
@@ -140,7 +140,7 @@ public class RealConstant extends RealExpression {
 
 		if (e instanceof RealConstant) {
 	      assert(((RealConstant) e).value!=0);
-	      return new RealConstant(value / ((RealConstant) e).value);
+	      return ExpressionPool.realConstant(value / ((RealConstant) e).value);
 	    } else {
 	      return super._div(e);
 	    }
@@ -162,6 +162,11 @@ public class RealConstant extends RealExpression {
     return value == ((RealConstant) o).value;
   }
 
+  @Override
+  public int hashCode() { // consistent with equals: 0.0 == -0.0
+    return (value == 0) ? 0 : Double.valueOf(value).hashCode();
+  }
+
   public String toString () {
     return "CONST_" + value + "";
   }
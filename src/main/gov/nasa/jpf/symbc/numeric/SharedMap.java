@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map that is shared with its forks until one of them writes to it.
+ *
+ * {@link #fork()} costs one small object; the first write to a map that was
+ * forked copies the entries. An empty map has no table at all. Used for the
+ * maps a path condition carries, which most branches only read.
+ */
+public final class SharedMap<K, V> extends AbstractMap<K, V> {
+
+  private HashMap<K, V> map; // NULL while nothing was put
+  private boolean owned;
+
+  public SharedMap() {
+    this.map = null;
+    this.owned = true;
+  }
+
+  private SharedMap(HashMap<K, V> map) {
+    this.map = map;
+    this.owned = false;
+  }
+
+  /**
+   * A map with the same entries; writes to either one are not seen by the
+   * other.
+   */
+  public SharedMap<K, V> fork() {
+    owned = false;
+    return new SharedMap<K, V>(map);
+  }
+
+  private HashMap<K, V> writable() {
+    if (map == null) {
+      map = new HashMap<K, V>();
+      owned = true;
+    } else if (!owned) {
+      map = new HashMap<K, V>(map);
+      owned = true;
+    }
+    return map;
+  }
+
+  @Override
+  public V get(Object key) {
+    return (map == null) ? null : map.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map != null && map.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return (map == null) ? 0 : map.size();
+  }
+
+  @Override
+  public V put(K key, V value) {
+    return writable().put(key, value);
+  }
+
+  @Override
+  public V remove(Object key) {
+    return (map == null) ? null : writable().remove(key);
+  }
+
+  @Override
+  public void clear() {
+    map = null;
+    owned = true;
+  }
+
+  /**
+   * A read-only view.
+   */
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    if (map == null) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableMap(map).entrySet();
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the results of numeric path condition queries, keyed by the
+ * SHA-256 of their {@link CanonicalPC canonical form}.
+ *
+ * symbolic.solver_cache=true turns the cache on. It keeps the last
+ * symbolic.solver_cache.size results in memory (LRU). If
+ * symbolic.solver_cache.file is set, all results are also appended to that
+ * file and are read back by the next run, so repeated runs over (mostly) the
+ * same code only need to solve the path conditions that changed.
+ *
+ * The file is a log of records (digest, sat, model); a later record for the
+ * same digest replaces the earlier one. Only an index from digest to file
+ * offset is kept in memory. A record cut off by a crash is dropped when the
+ * file is opened again.
+ */
+public class SolverCache {
+
+  private static final int MAGIC = 0x53504643; // "SPFC"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final int DIGEST_SIZE = 32;
+  private static final int NO_MODEL = -1;
+
+  private static SolverCache instance = null;
+
+  /**
+   * A cached result. The model is NULL if the PC is unsat or if only its
+   * satisfiability was asked for.
+   */
+  public static class Entry {
+    public final boolean sat;
+    public final long[] model;
+
+    Entry(boolean sat, long[] model) {
+      this.sat = sat;
+      this.model = model;
+    }
+  }
+
+  // content-equal wrapper of a digest
+  private static final class Key {
+    final byte[] digest;
+    final int hash;
+
+    Key(byte[] digest) {
+      this.digest = digest;
+      this.hash = Arrays.hashCode(digest);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && Arrays.equals(digest, ((Key) o).digest);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private final LinkedHashMap<Key, Entry> memory;
+  private final FileChannel file;
+  private final Map<Key, Long> diskIndex = new HashMap<Key, Long>();
+
+  private long hits = 0;
+  private long diskHits = 0;
+  private long misses = 0;
+
+  public SolverCache(final int size, String fileName) {
+    memory = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > size;
+      }
+    };
+    if (fileName == null) {
+      file = null;
+    } else {
+      try {
+        file = new RandomAccessFile(new File(fileName), "rw").getChannel();
+        load();
+      } catch (IOException e) {
+        throw new RuntimeException("## Error: cannot open solver cache " + fileName, e);
+      }
+    }
+  }
+
+  public static void configure(Config conf) {
+    close();
+    if (!conf.getBoolean("symbolic.solver_cache", false)) {
+      return;
+    }
+    String[] dp = SymbolicInstructionFactory.dp;
+    if (dp != null && !isCacheable(dp[0])) {
+      System.out.println("## Warning: symbolic.solver_cache is not supported for symbolic.dp=" + dp[0]);
+      return;
+    }
+    int size = conf.getInt("symbolic.solver_cache.size", 10000);
+    if (size <= 0) {
+      throw new IllegalArgumentException("symbolic.solver_cache.size must be positive (>0), but was " + size);
+    }
+    String fileName = conf.getString("symbolic.solver_cache.file");
+    instance = new SolverCache(size, fileName);
+    if (SymbolicInstructionFactory.debugMode) {
+      System.out.println("symbolic.solver_cache.size=" + size);
+      if (fileName != null) {
+        System.out.println("symbolic.solver_cache.file=" + fileName + " (" + instance.diskIndex.size() + " entries)");
+      }
+    }
+  }
+
+  /*
+   * no_solver does not solve, the results of debug and compare are only of
+   * interest when actually solving, and the models of z3optimize depend on
+   * the last observed expression
+   */
+  private static boolean isCacheable(String dp) {
+    return !(dp.equalsIgnoreCase("no_solver") || dp.equalsIgnoreCase("debug") || dp.equalsIgnoreCase("compare")
+        || dp.equalsIgnoreCase("z3optimize"));
+  }
+
+  /**
+   * @return the configured cache; NULL if caching is off
+   */
+  public static SolverCache getInstance() {
+    return instance;
+  }
+
+  public static synchronized void close() {
+    if (instance != null) {
+      if (SymbolicInstructionFactory.debugMode) {
+        instance.report(System.out);
+      }
+      instance.closeFile();
+      instance = null;
+    }
+  }
+
+  public synchronized Entry get(CanonicalPC key) {
+    Key k = new Key(key.getDigest());
+    Entry e = memory.get(k);
+    if (e != null) {
+      hits++;
+      return e;
+    }
+    Long offset = diskIndex.get(k);
+    if (offset != null) {
+      e = read(offset);
+      memory.put(k, e);
+      diskHits++;
+      return e;
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * Stores a result. A result without model does not replace a cached one
+   * with model.
+   */
+  public synchronized void put(CanonicalPC key, boolean sat, long[] model) {
+    Key k = new Key(key.getDigest());
+    Entry old = memory.get(k);
+    if (old != null && old.sat == sat && (model == null || old.model != null)) {
+      return;
+    }
+    Entry e = new Entry(sat, model);
+    memory.put(k, e);
+    if (file != null) {
+      write(k, e);
+    }
+  }
+
+  public synchronized int size() {
+    return memory.size();
+  }
+
+  private void load() throws IOException {
+    long length = file.size();
+    if (length < HEADER_SIZE) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION).flip();
+      file.truncate(0);
+      file.write(header, 0);
+      return;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    file.read(header, 0);
+    header.flip();
+    if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+      throw new IOException("not a solver cache file (or of an older version)");
+    }
+
+    long pos = HEADER_SIZE;
+    ByteBuffer fixed = ByteBuffer.allocate(DIGEST_SIZE + 1 + 4);
+    while (pos + fixed.capacity() <= length) {
+      fixed.clear();
+      file.read(fixed, pos);
+      fixed.flip();
+      byte[] digest = new byte[DIGEST_SIZE];
+      fixed.get(digest);
+      fixed.get();
+      int n = fixed.getInt();
+      long next = pos + fixed.capacity() + 8L * Math.max(n, 0);
+      if (next > length) {
+        break;
+      }
+      diskIndex.put(new Key(digest), pos);
+      pos = next;
+    }
+    if (pos < length) {
+      file.truncate(pos); // incomplete last record
+    }
+  }
+
+  private Entry read(long offset) {
+    try {
+      ByteBuffer fixed = ByteBuffer.allocate(DIGEST_SIZE + 1 + 4);
+      file.read(fixed, offset);
+      fixed.flip();
+      fixed.position(DIGEST_SIZE);
+      boolean sat = fixed.get() != 0;
+      int n = fixed.getInt();
+      long[] model = null;
+      if (n != NO_MODEL) {
+        ByteBuffer values = ByteBuffer.allocate(8 * n);
+        file.read(values, offset + fixed.capacity());
+        values.flip();
+        model = new long[n];
+        values.asLongBuffer().get(model);
+      }
+      return new Entry(sat, model);
+    } catch (IOException e) {
+      throw new RuntimeException("## Error: cannot read solver cache", e);
+    }
+  }
+
+  private void write(Key k, Entry e) {
+    int n = (e.model == null) ? 0 : e.model.length;
+    ByteBuffer record = ByteBuffer.allocate(DIGEST_SIZE + 1 + 4 + 8 * n);
+    record.put(k.digest);
+    record.put((byte) (e.sat ? 1 : 0));
+    record.putInt(e.model == null ? NO_MODEL : n);
+    for (int i = 0; i < n; i++) {
+      record.putLong(e.model[i]);
+    }
+    record.flip();
+    try {
+      long pos = file.size();
+      while (record.hasRemaining()) {
+        file.write(record, pos + record.position());
+      }
+      diskIndex.put(k, pos);
+    } catch (IOException ex) {
+      throw new RuntimeException("## Error: cannot write solver cache", ex);
+    }
+  }
+
+  private void closeFile() {
+    if (file != null) {
+      try {
+        file.force(false);
+        file.close();
+      } catch (IOException e) {
+        System.out.println("## Warning: cannot close solver cache: " + e.getMessage());
+      }
+    }
+  }
+
+  public synchronized void report(PrintStream out) {
+    out.println("# solver cache: " + hits + " hits in memory, " + diskHits + " hits on disk, " + misses
+        + " misses, " + memory.size() + " entries in memory" + (file == null ? "" : ", " + diskIndex.size() + " on disk"));
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per decision procedure statistics of the solver queries: outcomes,
+ * translation (PCParser) and solving time, a latency histogram, and the size
+ * of the path conditions. Also counts the queries that were answered without
+ * a solver.
+ *
+ * Nothing is recorded unless a listener enables the statistics (see
+ * gov.nasa.jpf.symbc.SolverTelemetryListener). The latency histogram has
+ * power-of-two buckets: bucket i counts the queries that took less than 2^i
+ * microseconds (and at least 2^(i-1)), the last one all the slower ones.
+ */
+public class SolverStatistics {
+
+  public static final int BUCKETS = 32;
+
+  private static volatile boolean enabled = false;
+
+  private static final Map<String, Procedure> procedures = new TreeMap<String, Procedure>();
+  private static long cacheHits = 0;
+  private static long sliceHits = 0;
+  private static long limits = 0;
+
+  private static final class Procedure {
+    long queries;
+    long sat;
+    long unsat;
+    long timeouts;
+    long parseNanos;
+    long solveNanos;
+    long maxNanos;
+    long pcLength;
+    int maxPcLength;
+    long variables;
+    final long[] histogram = new long[BUCKETS];
+  }
+
+  public static void setEnabled(boolean on) {
+    enabled = on;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  public static synchronized void reset() {
+    procedures.clear();
+    cacheHits = 0;
+    sliceHits = 0;
+    limits = 0;
+  }
+
+  private static Procedure get(String dp) {
+    String name = dp.toLowerCase();
+    Procedure p = procedures.get(name);
+    if (p == null) {
+      p = new Procedure();
+      procedures.put(name, p);
+    }
+    return p;
+  }
+
+  static int bucket(long nanos) {
+    long micros = nanos / 1000;
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  /**
+   * One query that went to a decision procedure.
+   *
+   * @param result TRUE, FALSE, or NULL if the procedure gave no answer (timeout)
+   */
+  public static void recordQuery(String dp, int pcLength, int variables, long parseNanos, long solveNanos,
+      Boolean result) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (SolverStatistics.class) {
+      Procedure p = get(dp);
+      p.queries++;
+      if (result == null) {
+        p.timeouts++;
+      } else if (result) {
+        p.sat++;
+      } else {
+        p.unsat++;
+      }
+      p.parseNanos += parseNanos;
+      p.solveNanos += solveNanos;
+      long total = parseNanos + solveNanos;
+      p.maxNanos = Math.max(p.maxNanos, total);
+      p.histogram[bucket(total)]++;
+      p.pcLength += pcLength;
+      p.maxPcLength = Math.max(p.maxPcLength, pcLength);
+      p.variables += variables;
+    }
+  }
+
+  /**
+   * A query that was cut off by a time limit before it was answered.
+   */
+  public static void recordTimeout(String dp, long nanos) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (SolverStatistics.class) {
+      Procedure p = get(dp);
+      p.queries++;
+      p.timeouts++;
+      p.solveNanos += nanos;
+      p.maxNanos = Math.max(p.maxNanos, nanos);
+      p.histogram[bucket(nanos)]++;
+    }
+  }
+
+  /**
+   * A query answered by the SolverCache.
+   */
+  public static void recordCacheHit() {
+    if (enabled) {
+      synchronized (SolverStatistics.class) {
+        cacheHits++;
+      }
+    }
+  }
+
+  /**
+   * A query whose slice was empty (see ConstraintSlicer).
+   */
+  public static void recordSliceHit() {
+    if (enabled) {
+      synchronized (SolverStatistics.class) {
+        sliceHits++;
+      }
+    }
+  }
+
+  /**
+   * A path condition that was not solved because of symbolic.max_pc_length
+   * or symbolic.max_pc_msec.
+   */
+  public static void recordLimit() {
+    if (enabled) {
+      synchronized (SolverStatistics.class) {
+        limits++;
+      }
+    }
+  }
+
+  /*
+   * upper bound of the bucket holding the given fraction of the queries, in
+   * microseconds
+   */
+  private static long percentile(Procedure p, double fraction) {
+    long rank = (long) Math.ceil(p.queries * fraction);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += p.histogram[i];
+      if (seen >= rank) {
+        return 1L << i;
+      }
+    }
+    return 1L << (BUCKETS - 1);
+  }
+
+  public static final String CSV_HEADER;
+  static {
+    StringBuilder sb = new StringBuilder("time_ms,dp,queries,sat,unsat,timeouts,parse_ms,solve_ms,max_ms,"
+        + "p50_us,p90_us,p99_us,avg_pc_length,max_pc_length,avg_variables,cache_hits,slice_hits,limits");
+    for (int i = 0; i < BUCKETS; i++) {
+      sb.append(",lt_").append(1L << i).append("_us");
+    }
+    CSV_HEADER = sb.toString();
+  }
+
+  /**
+   * Appends one row per decision procedure, with the totals since the last
+   * reset, stamped with the given time.
+   */
+  public static synchronized void writeCSV(PrintWriter out, long timeMillis) {
+    for (Map.Entry<String, Procedure> e : procedures.entrySet()) {
+      Procedure p = e.getValue();
+      out.print(timeMillis + "," + e.getKey() + "," + p.queries + "," + p.sat + "," + p.unsat + "," + p.timeouts
+          + "," + p.parseNanos / 1000000 + "," + p.solveNanos / 1000000 + "," + p.maxNanos / 1000000 + ","
+          + percentile(p, 0.5) + "," + percentile(p, 0.9) + "," + percentile(p, 0.99) + ","
+          + average(p.pcLength, p.queries) + "," + p.maxPcLength + "," + average(p.variables, p.queries) + ","
+          + cacheHits + "," + sliceHits + "," + limits);
+      for (long n : p.histogram) {
+        out.print("," + n);
+      }
+      out.println();
+    }
+    out.flush();
+  }
+
+  /**
+   * Appends the totals since the last reset as one JSON object on a line of
+   * its own.
+   */
+  public static synchronized void writeJSON(PrintWriter out, long timeMillis) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\"time_ms\":").append(timeMillis);
+    sb.append(",\"cache_hits\":").append(cacheHits);
+    sb.append(",\"slice_hits\":").append(sliceHits);
+    sb.append(",\"limits\":").append(limits);
+    sb.append(",\"procedures\":{");
+    boolean first = true;
+    for (Map.Entry<String, Procedure> e : procedures.entrySet()) {
+      Procedure p = e.getValue();
+      if (!first) {
+        sb.append(',');
+      }
+      first = false;
+      sb.append('"').append(e.getKey()).append("\":{");
+      sb.append("\"queries\":").append(p.queries);
+      sb.append(",\"sat\":").append(p.sat);
+      sb.append(",\"unsat\":").append(p.unsat);
+      sb.append(",\"timeouts\":").append(p.timeouts);
+      sb.append(",\"parse_ms\":").append(p.parseNanos / 1000000);
+      sb.append(",\"solve_ms\":").append(p.solveNanos / 1000000);
+      sb.append(",\"max_ms\":").append(p.maxNanos / 1000000);
+      sb.append(",\"p50_us\":").append(percentile(p, 0.5));
+      sb.append(",\"p90_us\":").append(percentile(p, 0.9));
+      sb.append(",\"p99_us\":").append(percentile(p, 0.99));
+      sb.append(",\"avg_pc_length\":").append(average(p.pcLength, p.queries));
+      sb.append(",\"max_pc_length\":").append(p.maxPcLength);
+      sb.append(",\"avg_variables\":").append(average(p.variables, p.queries));
+      sb.append(",\"histogram_us\":[");
+      for (int i = 0; i < BUCKETS; i++) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        sb.append(p.histogram[i]);
+      }
+      sb.append("]}");
+    }
+    sb.append("}}");
+    out.println(sb);
+    out.flush();
+  }
+
+  private static long average(long sum, long n) {
+    return (n == 0) ? 0 : sum / n;
+  }
+
+  public static synchronized String getStatistics() {
+    StringBuilder sb = new StringBuilder("# solver queries: " + cacheHits + " cache hits, " + sliceHits
+        + " empty slices, " + limits + " cut off by limits");
+    for (Map.Entry<String, Procedure> e : procedures.entrySet()) {
+      Procedure p = e.getValue();
+      sb.append("\n#   ").append(e.getKey()).append(": ").append(p.queries).append(" queries (").append(p.sat)
+          .append(" sat, ").append(p.unsat).append(" unsat, ").append(p.timeouts).append(" timeouts), parsing ")
+          .append(p.parseNanos / 1000000).append(" ms, solving ").append(p.solveNanos / 1000000)
+          .append(" ms, p50/p90/p99 < ").append(percentile(p, 0.5)).append('/').append(percentile(p, 0.9))
+          .append('/').append(percentile(p, 0.99)).append(" us, max ").append(p.maxNanos / 1000000)
+          .append(" ms, average PC length ").append(average(p.pcLength, p.queries)).append(", average variables ")
+          .append(average(p.variables, p.queries));
+    }
+    return sb.toString();
+  }
+}
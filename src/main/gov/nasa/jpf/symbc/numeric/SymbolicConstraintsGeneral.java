@@ -38,6 +38,7 @@
 package gov.nasa.jpf.symbc.numeric;
 
 import gov.nasa.jpf.symbc.Observations;
+import gov.nasa.jpf.symbc.ParsableConstraint;
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
 import gov.nasa.jpf.symbc.numeric.solvers.*;
 
@@ -53,11 +54,44 @@ import java.util.Map.Entry;
 
 public class SymbolicConstraintsGeneral {
     protected ProblemGeneral pb;
+    protected PCParser parser; // maps the variables of the last query to pb
     protected Boolean result; // tells whether result is satisfiable or not
 
+    // shared by all instances: keeps track of what is asserted in the
+    // solver of the IncrementalListener
+    private static IncrementalPCParser incrementalParser;
+
+    // key of the last query in the SolverCache; NULL if not cached
+    private CanonicalPC canonicalPC;
+    // set if the last query was answered by the SolverCache with a model
+    private long[] cachedModel;
+    // set if the last query was answered by the portfolio with a model
+    private PortfolioSolver.Answer portfolioModel;
+    // set if the last query was answered by the ModelCache and needs a model
+    private ModelCache.Model modelHit;
+    // the whole PC of the last query, whose variables the ModelCache keeps
+    private PathCondition modelPC;
+    // a satisfiable query for the QueryLog that waits for its model
+    private PathCondition pendingLog;
+    private String pendingDp;
+    private long pendingNanos;
+
+    // the last PC found satisfiable by solveExtension, and its model
+    private ParsableConstraint solvedHeader;
+    private ModelCache.Model solvedModel;
+    private ModelEvaluator evaluator;
+
     public boolean isSatisfiable(PathCondition pc) {
-    	
-    	
+        return isSatisfiable(pc, false);
+    }
+
+    /*
+     * With an IncrementalListener, only the constraints that are new since the
+     * last query get asserted. If a model is needed, the complete PC is parsed
+     * on top of the asserted ones in an extra scope (popped in cleanup()), so
+     * that PCParser knows about all the variables of the PC.
+     */
+    private boolean isSatisfiable(PathCondition pc, boolean needsModel) {
         if (pc == null || pc.count == 0) {
             if (SymbolicInstructionFactory.debugMode)
                 System.out.println("## Warning: empty path condition");
@@ -65,12 +99,14 @@ public class SymbolicConstraintsGeneral {
         }
 
         if (pc.count() > SymbolicInstructionFactory.maxPcLength) {
+            SolverStatistics.recordLimit();
             System.out.println("## Warning: Path condition exceeds symbolic.max_pc_length="
                     + SymbolicInstructionFactory.maxPcLength + ".  Pretending it is unsatisfiable.");
             return false;
         }
         if (SymbolicInstructionFactory.maxPcMSec > 0 && System.currentTimeMillis()
                 - SymbolicInstructionFactory.startSystemMillis > SymbolicInstructionFactory.maxPcMSec) {
+            SolverStatistics.recordLimit();
             System.out.println("## Warning: Exploration time exceeds symbolic.max_pc_msec="
                     + SymbolicInstructionFactory.maxPcMSec + ".  Pretending all paths are unsatisfiable.");
             return false;
@@ -79,7 +115,93 @@ public class SymbolicConstraintsGeneral {
         // if (SymbolicInstructionFactory.debugMode)
         // System.out.println("checking: PC "+pc);
 
+        modelHit = null;
+        modelPC = pc;
+        ModelCache models = ModelCache.getInstance();
+        if (models != null && IncrementalListener.solver == null) {
+            ModelCache.Model model = models.find(pc);
+            if (model != null) {
+                pb = null;
+                parser = null;
+                canonicalPC = null;
+                cachedModel = null;
+                portfolioModel = null;
+                pendingLog = null;
+                if (needsModel) {
+                    modelHit = model;
+                }
+                if (ConstraintSlicer.isEnabled()) {
+                    ConstraintSlicer.markSatisfiable(pc);
+                }
+                result = Boolean.TRUE;
+                return reportResult(pc);
+            }
+        }
+
+        if (!ConstraintSlicer.isEnabled()) {
+            return isSatisfiableCached(pc, needsModel);
+        }
+
+        // a model needs all the variables, and the IncrementalListener relies
+        // on the identity of the constraints: both get the whole PC
+        PathCondition query = pc;
+        if (!needsModel && IncrementalListener.solver == null) {
+            PathCondition slice = ConstraintSlicer.slice(pc);
+            if (slice != null && slice.count == 0) {
+                SolverStatistics.recordSliceHit();
+                pb = null;
+                parser = null;
+                result = Boolean.TRUE;
+                return reportResult(pc);
+            } else if (slice != null) {
+                query = slice;
+            }
+        }
+        boolean sat = isSatisfiableCached(query, needsModel);
+        if (sat) {
+            ConstraintSlicer.markSatisfiable(pc);
+        }
+        return sat;
+    }
+
+    private boolean isSatisfiableCached(PathCondition pc, boolean needsModel) {
+        canonicalPC = null;
+        cachedModel = null;
+        portfolioModel = null;
+        pendingLog = null;
+        SolverCache cache = SolverCache.getInstance();
+        if (cache != null) {
+            canonicalPC = CanonicalPC.create(pc);
+            if (canonicalPC != null) {
+                SolverCache.Entry entry = cache.get(canonicalPC);
+                if (entry != null && (!needsModel || !entry.sat || entry.model != null)) {
+                    SolverStatistics.recordCacheHit();
+                    pb = null;
+                    parser = null;
+                    result = entry.sat;
+                    if (needsModel && entry.sat) {
+                        cachedModel = entry.model;
+                    }
+                    return reportResult(pc);
+                }
+            }
+        }
+
+        boolean sat = check(pc, needsModel);
+        // satisfiable queries that need a model are cached when the model is known
+        if (canonicalPC != null && result != null && !(needsModel && sat)) {
+            cache.put(canonicalPC, result, null);
+        }
+        return sat;
+    }
+
+    private boolean check(PathCondition pc, boolean needsModel) {
         String[] dp = SymbolicInstructionFactory.dp;
+        IncrementalSolver incSolver = IncrementalListener.solver;
+        if (incSolver != null && dp != null && !dp[0].equalsIgnoreCase("no_solver")) {
+            return isSatisfiableIncremental(pc, incSolver, needsModel);
+        }
+
         if (dp == null) { // default: use choco
             pb = new ProblemChoco();
         } else if (dp[0].equalsIgnoreCase("choco")) {
@@ -110,6 +232,19 @@ public class SymbolicConstraintsGeneral {
             pb = new ProblemZ3BitVector();
         } else if (dp[0].equalsIgnoreCase("z3optimize")) {
             pb = new ProblemZ3Optimize();
+        } else if (dp[0].equalsIgnoreCase("portfolio")) {
+            // the back-ends parse, solve and clean up on threads of their own
+            pb = null;
+            parser = null;
+            long start = System.nanoTime();
+            PortfolioSolver.Answer answer = PortfolioSolver.getInstance().solve(pc, needsModel);
+            result = answer.result;
+            SolverStatistics.recordQuery(dp[0], pc.count(), 0, 0, System.nanoTime() - start, result);
+            logQuery(dp[0], pc, start, needsModel);
+            if (answer.hasModel()) {
+                portfolioModel = answer;
+            }
+            return reportResult(pc);
         }
         // added option to have no-solving
         // as a result symbolic execution will explore an over-approximation of the
@@ -128,7 +263,10 @@ public class SymbolicConstraintsGeneral {
          * e.g. with Z3.
          */
         
-        ProblemGeneral tempPb = PCParser.parse(pc, pb);
+        long start = System.nanoTime();
+        parser = new PCParser(pb);
+        ProblemGeneral tempPb = parser.parse(pc);
+        long parsed = System.nanoTime();
 
         if (tempPb == null)
             result = Boolean.FALSE;
@@ -139,13 +277,105 @@ public class SymbolicConstraintsGeneral {
             if (Observations.lastObservedSymbolicExpression != null) {
                 if (pb instanceof ProblemZ3Optimize) {
                     ((ProblemZ3Optimize) pb).maximize(
-                            PCParser.getExpression((IntegerExpression) Observations.lastObservedSymbolicExpression));
+                            parser.getExpression((IntegerExpression) Observations.lastObservedSymbolicExpression));
                 }
             }
 
             result = pb.solve();
+            if (result == Boolean.TRUE && !needsModel) {
+                addModel(true);
+            }
+        }
+        recordQuery(dp[0], pc, start, parsed);
+        logQuery(dp[0], pc, start, needsModel);
+
+        return reportResult(pc);
+    }
+
+    private void recordQuery(String dp, PathCondition pc, long start, long parsed) {
+        if (SolverStatistics.isEnabled()) {
+            int variables = parser.symIntegerVar.size() + parser.symRealVar.size();
+            SolverStatistics.recordQuery(dp, pc.count(), variables, parsed - start, System.nanoTime() - parsed,
+                    result);
+        }
+    }
+
+    private boolean isSatisfiableIncremental(PathCondition pc, IncrementalSolver incSolver, boolean needsModel) {
+        if (incrementalParser == null || incrementalParser.getSolver() != incSolver) {
+            incrementalParser = new IncrementalPCParser(incSolver);
+        }
+        pb = (ProblemGeneral) incSolver;
+
+        long start = System.nanoTime();
+        ProblemGeneral tempPb = incrementalParser.parse(pc);
+        // the variables of the asserted constraints are those of pc
+        parser = incrementalParser.getParser();
+        long parsed = System.nanoTime();
+
+        if (tempPb == null)
+            result = Boolean.FALSE;
+        else
+            result = pb.solve();
+        SolverStatistics.recordQuery(SymbolicInstructionFactory.dp[0], pc.count(), 0, parsed - start,
+                System.nanoTime() - parsed, result);
+        logQuery(SymbolicInstructionFactory.dp[0], pc, start, needsModel);
+
+        return reportResult(pc);
+    }
+
+    /*
+     * satisfiable queries that need a model are logged once the model is read
+     * (see logModel)
+     */
+    private void logQuery(String dp, PathCondition pc, long start, boolean needsModel) {
+        if (QueryLog.isEnabled()) {
+            long nanos = System.nanoTime() - start;
+            if (needsModel && result == Boolean.TRUE) {
+                pendingLog = pc;
+                pendingDp = dp;
+                pendingNanos = nanos;
+            } else {
+                QueryLog.record(dp, pc, nanos, result, false);
+            }
+        }
+    }
+
+    private void logModel() {
+        if (pendingLog != null) {
+            QueryLog.record(pendingDp, pendingLog, pendingNanos, Boolean.TRUE, true);
+            pendingLog = null;
+        }
+    }
+
+    /*
+     * gives the values of the variables of the last query to the ModelCache:
+     * read from the solver, or from the solutions set by solve
+     */
+    private void addModel(boolean read) {
+        ModelCache models = ModelCache.getInstance();
+        if (models == null) {
+            return;
+        }
+        Map<SymbolicInteger, Long> ints = new HashMap<SymbolicInteger, Long>();
+        try {
+            for (Entry<SymbolicInteger, Object> e : parser.symIntegerVar.entrySet()) {
+                ints.put(e.getKey(), read ? pb.getIntValue(e.getValue()) : e.getKey().solution);
+            }
+        } catch (Exception e) {
+            return; // no model to read, e.g. from IAsolver
         }
+        Map<SymbolicReal, Double> reals = new HashMap<SymbolicReal, Double>();
+        try {
+            for (Entry<SymbolicReal, Object> e : parser.symRealVar.entrySet()) {
+                reals.put(e.getKey(), read ? pb.getRealValue(e.getValue()) : e.getKey().solution);
+            }
+        } catch (Exception e) {
+            reals.clear(); // undefined: the reals are left to the solver
+        }
+        models.add(modelPC, ints, reals);
+    }
 
+    private boolean reportResult(PathCondition pc) {
         if (SymbolicInstructionFactory.debugMode)
             System.out.println("numeric PC: " + pc + " -> " + result + "\n");
 
@@ -189,7 +419,15 @@ public class SymbolicConstraintsGeneral {
 
     }
 
+    public PCParser getParser() {
+        return parser;
+    }
+
     public void cleanup() {
+        if (incrementalParser != null && pb == incrementalParser.getSolver()) {
+            // the asserted constraints are reused by the next query
+            return;
+        }
         if (pb instanceof ProblemCVC3) {
             ((ProblemCVC3) pb).cleanup();
         } else if (pb instanceof ProblemCoral) {
@@ -214,10 +452,24 @@ public class SymbolicConstraintsGeneral {
         if (dp[0].equalsIgnoreCase("no_solver"))
             return true;
         
-        if (isSatisfiable(pc)) {
+        if (isSatisfiable(pc, true)) {
+            if (modelHit != null) {
+                modelHit.assign(pc, null);
+                return true;
+            }
+            if (cachedModel != null) {
+                canonicalPC.setModel(cachedModel);
+                return true;
+            }
+            if (portfolioModel != null) {
+                portfolioModel.assign(null);
+                cacheModel();
+                logModel();
+                return true;
+            }
 
             // compute solutions for real variables:
-            Set<Entry<SymbolicReal, Object>> sym_realvar_mappings = PCParser.symRealVar.entrySet();
+            Set<Entry<SymbolicReal, Object>> sym_realvar_mappings = parser.symRealVar.entrySet();
             Iterator<Entry<SymbolicReal, Object>> i_real = sym_realvar_mappings.iterator();
             // first set inf / sup values
             // while(i_real.hasNext()) {
@@ -229,7 +481,7 @@ public class SymbolicConstraintsGeneral {
             // }
 
             try {
-                sym_realvar_mappings = PCParser.symRealVar.entrySet();
+                sym_realvar_mappings = parser.symRealVar.entrySet();
                 i_real = sym_realvar_mappings.iterator();
                 while (i_real.hasNext()) {
                     Entry<SymbolicReal, Object> e = i_real.next();
@@ -238,11 +490,11 @@ public class SymbolicConstraintsGeneral {
                     pcVar.solution = pb.getRealValue(dpVar); // may be undefined: throws an exception
                 }
             } catch (Exception exp) {
-                this.catchBody(PCParser.symRealVar, pb, pc);
+                this.catchBody(parser.symRealVar, pb, pc);
             } // end catch
 
             // compute solutions for integer variables
-            Set<Entry<SymbolicInteger, Object>> sym_intvar_mappings = PCParser.symIntegerVar.entrySet();
+            Set<Entry<SymbolicInteger, Object>> sym_intvar_mappings = parser.symIntegerVar.entrySet();
             Iterator<Entry<SymbolicInteger, Object>> i_int = sym_intvar_mappings.iterator();
             // try {
             while (i_int.hasNext()) {
@@ -263,12 +515,50 @@ public class SymbolicConstraintsGeneral {
              * Boolean.FALSE; } if(!isSolvable) System.err.println("# Warning: PC "+pc.stringPC()
              * +" is solvable but could not find the solution!"); } // end catch
              */
+            cacheModel();
+            logModel();
+            addModel(false);
             cleanup();
             return true;
         } else
             return false;
     }
 
+    /**
+     * Like solve, for a path condition that may extend the one this instance
+     * solved last with solveExtension (e.g. with the constraints the string
+     * preprocessor adds): if the model of that one satisfies the constraints
+     * added on top of it, the model is kept and the solver is not called. The
+     * constraints of the older path condition must not have changed since.
+     */
+    public boolean solveExtension(PathCondition pc) {
+        if (solvedModel != null && pc != null) {
+            if (evaluator == null) {
+                evaluator = ModelEvaluator.forDecisionProcedure();
+            }
+            if (evaluator.satisfies(solvedModel, pc.header, solvedHeader)) {
+                solvedModel.assign(pc, null);
+                solvedHeader = pc.header;
+                return true;
+            }
+        }
+        boolean sat = solve(pc);
+        if (sat && pc != null) {
+            solvedModel = ModelCache.Model.of(pc);
+            solvedHeader = pc.header;
+        } else {
+            solvedModel = null;
+            solvedHeader = null;
+        }
+        return sat;
+    }
+
+    private void cacheModel() {
+        if (canonicalPC != null) {
+            SolverCache.getInstance().put(canonicalPC, true, canonicalPC.getModel());
+        }
+    }
+
     /**
      * The "ProblemCompare" solver calls this to deal with yices and choco refinements of solution ranges.
      */
@@ -327,14 +617,27 @@ public class SymbolicConstraintsGeneral {
             return result;
         }
 
-        if (isSatisfiable(pc)) {
+        if (isSatisfiable(pc, true)) {
+            if (modelHit != null) {
+                modelHit.assign(pc, result);
+                return result;
+            }
+            if (cachedModel != null) {
+                return canonicalPC.setModel(cachedModel);
+            }
+            if (portfolioModel != null) {
+                portfolioModel.assign(result);
+                cacheModel();
+                logModel();
+                return result;
+            }
 
             // compute solutions for real variables:
-            Set<Entry<SymbolicReal, Object>> sym_realvar_mappings = PCParser.symRealVar.entrySet();
+            Set<Entry<SymbolicReal, Object>> sym_realvar_mappings = parser.symRealVar.entrySet();
             Iterator<Entry<SymbolicReal, Object>> i_real = sym_realvar_mappings.iterator();
 
             try {
-                sym_realvar_mappings = PCParser.symRealVar.entrySet();
+                sym_realvar_mappings = parser.symRealVar.entrySet();
                 i_real = sym_realvar_mappings.iterator();
                 while (i_real.hasNext()) {
                     Entry<SymbolicReal, Object> e = i_real.next();
@@ -345,11 +648,11 @@ public class SymbolicConstraintsGeneral {
                     result.put(pcVar.getName(), e_value);
                 }
             } catch (Exception exp) {
-                this.catchBody(PCParser.symRealVar, pb, pc);
+                this.catchBody(parser.symRealVar, pb, pc);
             }
 
             // compute solutions for integer variables
-            Set<Entry<SymbolicInteger, Object>> sym_intvar_mappings = PCParser.symIntegerVar.entrySet();
+            Set<Entry<SymbolicInteger, Object>> sym_intvar_mappings = parser.symIntegerVar.entrySet();
             Iterator<Entry<SymbolicInteger, Object>> i_int = sym_intvar_mappings.iterator();
             // try {
             while (i_int.hasNext()) {
@@ -359,6 +662,9 @@ public class SymbolicConstraintsGeneral {
                 result.put(e.getKey().getName(), e_value);
 
             }
+            cacheModel();
+            logModel();
+            addModel(false);
             cleanup();
             return result;
         } else {
@@ -23,10 +23,16 @@ import gov.nasa.jpf.JPF;
 import gov.nasa.jpf.PropertyListenerAdapter;
 import gov.nasa.jpf.search.Search;
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
-import gov.nasa.jpf.symbc.numeric.PCChoiceGenerator;
-import gov.nasa.jpf.vm.ChoiceGenerator;
-import gov.nasa.jpf.vm.VM;
 
+/**
+ * Turns on incremental solving: all numeric queries of SymbolicConstraintsGeneral
+ * go to one solver instance that keeps the constraints of the previous query
+ * asserted, so that only the constraints added since are parsed
+ * (see IncrementalPCParser).
+ *
+ * Works with every decision procedure that implements IncrementalSolver:
+ * z3, z3bitvector, z3inc and z3bitvectorinc.
+ */
 public class IncrementalListener extends PropertyListenerAdapter {
   
   public static IncrementalSolver solver;
@@ -37,24 +43,25 @@ public class IncrementalListener extends PropertyListenerAdapter {
       solver = new ProblemZ3Incremental();
     }  else if(stringDp.equalsIgnoreCase("z3bitvectorinc")){
       solver = new ProblemZ3BitVectorIncremental();
+    } else if(stringDp.equalsIgnoreCase("z3")){
+      solver = new ProblemZ3();
+    } else if(stringDp.equalsIgnoreCase("z3bitvector")){
+      solver = new ProblemZ3BitVector();
     } else {
-      System.err.println("Trying to use incremental listener, but solver " + stringDp + " does not support incremental solving (try z3inc or z3bitvectorinc)");
+      System.err.println("Trying to use incremental listener, but solver " + stringDp + " does not support incremental solving (try z3, z3bitvector, z3inc or z3bitvectorinc)");
+      solver = null;
       jpf.removeListener(this);
     }
 
   }
-  
-  @Override
-  public void choiceGeneratorAdvanced (VM vm, ChoiceGenerator<?> currentCG) {
-    if(currentCG instanceof PCChoiceGenerator) {
-      solver.push();
-    }
-  }
-  
+
+  // the constraints are popped lazily by the next query, this only
+  // releases them once the search is over
   @Override
-  public void stateBacktracked(Search search) {
-    if(search.getVM().getSystemState().getChoiceGenerator() instanceof PCChoiceGenerator) {
-      solver.pop();
+  public void searchFinished(Search search) {
+    if(solver != null) {
+      solver.reset();
+      solver = null;
     }
   }
 }
@@ -0,0 +1,529 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric.solvers;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.ParsableConstraint;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.concolic.FunctionExpression;
+import gov.nasa.jpf.symbc.numeric.BinaryLinearIntegerExpression;
+import gov.nasa.jpf.symbc.numeric.BinaryNonLinearIntegerExpression;
+import gov.nasa.jpf.symbc.numeric.BinaryRealExpression;
+import gov.nasa.jpf.symbc.numeric.ConstraintExpressionVisitor;
+import gov.nasa.jpf.symbc.numeric.MathRealExpression;
+import gov.nasa.jpf.symbc.numeric.MixedConstraint;
+import gov.nasa.jpf.symbc.numeric.Operator;
+import gov.nasa.jpf.symbc.numeric.PCParser;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.RealConstant;
+import gov.nasa.jpf.symbc.numeric.RealConstraint;
+import gov.nasa.jpf.symbc.numeric.SymbolicInteger;
+import gov.nasa.jpf.symbc.numeric.SymbolicReal;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Races several decision procedures on the same query (symbolic.dp=portfolio).
+ *
+ * The back-ends are listed in symbolic.portfolio (default "choco,z3"). Each
+ * one solves on a thread of its own, so no decision procedure is ever used by
+ * two threads and Z3 keeps its single context. The first definitive answer
+ * (SAT or UNSAT) is taken and the other back-ends are cancelled; a back-end
+ * that fails, times out or does not support the query gives no answer (the
+ * first failure of each back-end is reported as a warning).
+ *
+ * The path conditions are classified by shape (linear, non-linear, real or
+ * bitwise), and for each shape the portfolio counts which back-end answered
+ * first. After symbolic.portfolio.learn races of a shape (default 16) only
+ * the symbolic.portfolio.keep back-ends (default 2) with the most wins are
+ * launched for it; every learn-th race after that runs the whole portfolio
+ * again so that the counts keep up with the queries.
+ *
+ * A cancelled back-end that does not react to the interrupt keeps its thread
+ * busy until it is done; a race that needs it meanwhile waits for it only if
+ * no other back-end answers first.
+ */
+public class PortfolioSolver {
+
+  public enum Shape {
+    LINEAR, NON_LINEAR, REAL, BITWISE
+  }
+
+  private static final String[] SUPPORTED = { "choco", "coral", "iasolver", "cvc3", "cvc3bitvec", "yices", "z3",
+      "z3bitvector" };
+
+  private static PortfolioSolver instance = null;
+
+  private final String[] backEnds;
+  private final ExecutorService[] executors;
+  private final int learn;
+  private final int keep;
+
+  // per shape and back-end: races launched on it and races it won
+  private final long[][] launched;
+  private final long[][] wins;
+  private final long[] races;
+  private long undecided = 0;
+  private final boolean[] warned;
+
+  private PortfolioSolver(String[] backEnds, int learn, int keep) {
+    this.backEnds = backEnds;
+    this.learn = learn;
+    this.keep = keep;
+    this.executors = new ExecutorService[backEnds.length];
+    for (int i = 0; i < backEnds.length; i++) {
+      final String name = "symbc-portfolio-" + backEnds[i];
+      executors[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, name);
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    int shapes = Shape.values().length;
+    launched = new long[shapes][backEnds.length];
+    wins = new long[shapes][backEnds.length];
+    races = new long[shapes];
+    warned = new boolean[backEnds.length];
+  }
+
+  public static void configure(Config conf) {
+    shutdown();
+    String[] dp = SymbolicInstructionFactory.dp;
+    if (dp == null || !dp[0].equalsIgnoreCase("portfolio")) {
+      return;
+    }
+    String[] backEnds = conf.getStringArray("symbolic.portfolio", new String[] { "choco", "z3" });
+    if (backEnds.length == 0) {
+      throw new IllegalArgumentException("symbolic.portfolio must list at least one decision procedure");
+    }
+    for (int i = 0; i < backEnds.length; i++) {
+      backEnds[i] = backEnds[i].toLowerCase();
+      if (!isSupported(backEnds[i])) {
+        throw new RuntimeException("## Error: unsupported decision procedure in symbolic.portfolio: " + backEnds[i]);
+      }
+    }
+    int learn = conf.getInt("symbolic.portfolio.learn", 16);
+    if (learn < 0) {
+      throw new IllegalArgumentException("symbolic.portfolio.learn must be non-negative (>=0), but was " + learn);
+    }
+    int keep = conf.getInt("symbolic.portfolio.keep", 2);
+    if (keep <= 0) {
+      throw new IllegalArgumentException("symbolic.portfolio.keep must be positive (>0), but was " + keep);
+    }
+    instance = new PortfolioSolver(backEnds, learn, keep);
+    if (SymbolicInstructionFactory.debugMode) {
+      System.out.println("symbolic.portfolio=" + String.join(",", backEnds) + " (learn=" + learn + ", keep=" + keep
+          + ")");
+    }
+  }
+
+  /**
+   * The incremental variants keep state between queries and the comparing
+   * ones solve sequentially anyway.
+   */
+  public static boolean isSupported(String dp) {
+    for (String s : SUPPORTED) {
+      if (s.equals(dp)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the configured portfolio; NULL unless symbolic.dp=portfolio
+   */
+  public static PortfolioSolver getInstance() {
+    return instance;
+  }
+
+  public static synchronized void shutdown() {
+    if (instance != null) {
+      if (SymbolicInstructionFactory.debugMode) {
+        instance.report(System.out);
+      }
+      for (ExecutorService executor : instance.executors) {
+        executor.shutdownNow();
+      }
+      instance = null;
+    }
+  }
+
+  /**
+   * The answer of the back-end that won a race.
+   */
+  public static final class Answer {
+    /** TRUE or FALSE; NULL if no back-end could decide the query */
+    public final Boolean result;
+    final int backEnd;
+    final Map<SymbolicInteger, Long> intValues;
+    final Map<SymbolicReal, Double> realValues;
+
+    Answer(int backEnd, Boolean result, Map<SymbolicInteger, Long> intValues, Map<SymbolicReal, Double> realValues) {
+      this.backEnd = backEnd;
+      this.result = result;
+      this.intValues = intValues;
+      this.realValues = realValues;
+    }
+
+    public boolean hasModel() {
+      return intValues != null;
+    }
+
+    /**
+     * Sets the solutions of the variables of the query to the model of the
+     * winner and, if valuation is not NULL, adds them to it by name.
+     */
+    public void assign(Map<String, Object> valuation) {
+      for (Entry<SymbolicReal, Double> e : realValues.entrySet()) {
+        e.getKey().solution = e.getValue();
+        if (valuation != null) {
+          valuation.put(e.getKey().getName(), e.getValue());
+        }
+      }
+      for (Entry<SymbolicInteger, Long> e : intValues.entrySet()) {
+        e.getKey().solution = e.getValue();
+        if (valuation != null) {
+          valuation.put(e.getKey().getName(), e.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Races the back-ends chosen for the shape of pc.
+   *
+   * @param needsModel whether the winner has to read back a model
+   */
+  public Answer solve(PathCondition pc, boolean needsModel) {
+    Shape shape = classify(pc);
+    boolean[] chosen = choose(shape);
+
+    BlockingQueue<Answer> answers = new LinkedBlockingQueue<Answer>();
+    List<Future<?>> futures = new ArrayList<Future<?>>(backEnds.length);
+    int running = 0;
+    for (int i = 0; i < backEnds.length; i++) {
+      if (chosen[i]) {
+        futures.add(executors[i].submit(new Race(i, pc, needsModel, answers)));
+        running++;
+      }
+    }
+
+    Answer winner = null;
+    try {
+      while (winner == null && running > 0) {
+        Answer answer = answers.take();
+        running--;
+        if (answer.result != null) {
+          winner = answer;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("## Error: interrupted while racing the decision procedures", e);
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+
+    record(shape, winner);
+    return (winner != null) ? winner : new Answer(-1, null, null, null);
+  }
+
+  private synchronized boolean[] choose(Shape shape) {
+    int s = shape.ordinal();
+    boolean[] chosen = new boolean[backEnds.length];
+    long n = races[s];
+    if (n < learn || keep >= backEnds.length || (learn > 0 && n % learn == 0)) {
+      Arrays.fill(chosen, true);
+    } else {
+      // the keep back-ends with the most wins, the ones listed first on a tie
+      for (int k = 0; k < keep; k++) {
+        int best = -1;
+        for (int i = 0; i < backEnds.length; i++) {
+          if (!chosen[i] && (best < 0 || wins[s][i] > wins[s][best])) {
+            best = i;
+          }
+        }
+        chosen[best] = true;
+      }
+    }
+    for (int i = 0; i < backEnds.length; i++) {
+      if (chosen[i]) {
+        launched[s][i]++;
+      }
+    }
+    races[s]++;
+    return chosen;
+  }
+
+  // without symbolic.debug, only the first failure of a back-end is reported
+  private synchronized boolean firstFailure(int backEnd) {
+    boolean first = !warned[backEnd];
+    warned[backEnd] = true;
+    return first;
+  }
+
+  private synchronized void record(Shape shape, Answer winner) {
+    if (winner == null) {
+      undecided++;
+    } else {
+      wins[shape.ordinal()][winner.backEnd]++;
+    }
+  }
+
+  /*
+   * Parses and solves the query with one back-end, on the thread of that
+   * back-end. The model is read there as well, before the problem is cleaned
+   * up, so that the search thread never touches the problem.
+   */
+  private final class Race implements Runnable {
+    private final int backEnd;
+    private final PathCondition pc;
+    private final boolean needsModel;
+    private final BlockingQueue<Answer> answers;
+
+    Race(int backEnd, PathCondition pc, boolean needsModel, BlockingQueue<Answer> answers) {
+      this.backEnd = backEnd;
+      this.pc = pc;
+      this.needsModel = needsModel;
+      this.answers = answers;
+    }
+
+    @Override
+    public void run() {
+      Answer answer = new Answer(backEnd, null, null, null);
+      ProblemGeneral pb = null;
+      try {
+        pb = createProblem(backEnds[backEnd]);
+        PCParser parser = new PCParser(pb);
+        if (parser.parse(pc) == null) {
+          answer = new Answer(backEnd, Boolean.FALSE, null, null);
+        } else {
+          Boolean result = pb.solve();
+          if (result == Boolean.TRUE && needsModel) {
+            answer = new Answer(backEnd, result, getIntValues(parser, pb), getRealValues(parser, pb));
+          } else {
+            answer = new Answer(backEnd, result, null, null);
+          }
+        }
+      } catch (Throwable t) {
+        // a cancelled back-end may fail on the interrupt, that is no failure
+        boolean cancelled = Thread.currentThread().isInterrupted();
+        if (!cancelled && (firstFailure(backEnd) || SymbolicInstructionFactory.debugMode)) {
+          System.out.println("## Warning: " + backEnds[backEnd] + " failed in the portfolio: " + t);
+        }
+      } finally {
+        if (pb != null) {
+          cleanup(pb);
+        }
+        answers.add(answer);
+      }
+    }
+  }
+
+  /**
+   * A new problem of one of the decision procedures that can be raced.
+   */
+  public static ProblemGeneral createProblem(String dp) {
+    switch (dp) {
+    case "choco":
+      return new ProblemChoco();
+    case "coral":
+      return new ProblemCoral();
+    case "iasolver":
+      return new ProblemIAsolver();
+    case "cvc3":
+      return new ProblemCVC3();
+    case "cvc3bitvec":
+      return new ProblemCVC3BitVector();
+    case "yices":
+      return new ProblemYices();
+    case "z3":
+      return new ProblemZ3();
+    case "z3bitvector":
+      return new ProblemZ3BitVector();
+    default:
+      throw new RuntimeException("## Error: unsupported decision procedure in symbolic.portfolio: " + dp);
+    }
+  }
+
+  /**
+   * Releases what a problem made by {@link #createProblem(String)} holds on to.
+   */
+  public static void cleanup(ProblemGeneral pb) {
+    if (pb instanceof ProblemCVC3) {
+      ((ProblemCVC3) pb).cleanup();
+    } else if (pb instanceof ProblemCoral) {
+      ((ProblemCoral) pb).cleanup();
+    } else if (pb instanceof ProblemZ3) {
+      ((ProblemZ3) pb).cleanup();
+    } else if (pb instanceof ProblemZ3BitVector) {
+      ((ProblemZ3BitVector) pb).cleanup();
+    }
+  }
+
+  private static Map<SymbolicInteger, Long> getIntValues(PCParser parser, ProblemGeneral pb) {
+    Map<SymbolicInteger, Long> values = new HashMap<SymbolicInteger, Long>();
+    for (Entry<SymbolicInteger, Object> e : parser.symIntegerVar.entrySet()) {
+      values.put(e.getKey(), pb.getIntValue(e.getValue()));
+    }
+    return values;
+  }
+
+  /*
+   * as in SymbolicConstraintsGeneral.solve: if a value is undefined, all the
+   * variables get the lower bound of their range
+   */
+  private static Map<SymbolicReal, Double> getRealValues(PCParser parser, ProblemGeneral pb) {
+    Map<SymbolicReal, Double> values = new HashMap<SymbolicReal, Double>();
+    try {
+      for (Entry<SymbolicReal, Object> e : parser.symRealVar.entrySet()) {
+        values.put(e.getKey(), pb.getRealValue(e.getValue()));
+      }
+    } catch (Exception exp) {
+      for (Entry<SymbolicReal, Object> e : parser.symRealVar.entrySet()) {
+        values.put(e.getKey(), pb.getRealValueInf(e.getValue()));
+      }
+    }
+    return values;
+  }
+
+  /**
+   * The shape of a path condition: bitwise if it has a bitwise operation,
+   * otherwise non-linear if it has a non-linear operation or a function,
+   * otherwise real if it has a real constraint, otherwise linear.
+   */
+  public static Shape classify(PathCondition pc) {
+    ShapeVisitor visitor = new ShapeVisitor();
+    for (ParsableConstraint c = pc.header; c != null; c = c.getTail()) {
+      c.accept(visitor);
+    }
+    if (visitor.bitwise) {
+      return Shape.BITWISE;
+    } else if (visitor.nonLinear) {
+      return Shape.NON_LINEAR;
+    } else if (visitor.real) {
+      return Shape.REAL;
+    }
+    return Shape.LINEAR;
+  }
+
+  private static class ShapeVisitor extends ConstraintExpressionVisitor {
+    boolean bitwise = false;
+    boolean nonLinear = false;
+    boolean real = false;
+
+    private void visit(Operator op) {
+      switch (op) {
+      case AND:
+      case OR:
+      case XOR:
+      case SHIFTL:
+      case SHIFTR:
+      case SHIFTUR:
+        bitwise = true;
+        break;
+      default:
+        break;
+      }
+    }
+
+    @Override
+    public void preVisit(RealConstraint constraint) {
+      real = true;
+    }
+
+    @Override
+    public void preVisit(MixedConstraint constraint) {
+      real = true;
+    }
+
+    @Override
+    public void preVisit(BinaryLinearIntegerExpression expr) {
+      visit(expr.getOp());
+    }
+
+    @Override
+    public void preVisit(BinaryNonLinearIntegerExpression expr) {
+      nonLinear = true;
+      visit(expr.op);
+    }
+
+    @Override
+    public void preVisit(BinaryRealExpression expr) {
+      real = true;
+      Operator op = expr.getOp();
+      if ((op == Operator.MUL || op == Operator.DIV) && !(expr.getLeft() instanceof RealConstant)
+          && !(expr.getRight() instanceof RealConstant)) {
+        nonLinear = true;
+      }
+    }
+
+    @Override
+    public void preVisit(MathRealExpression expr) {
+      real = true;
+      nonLinear = true;
+    }
+
+    @Override
+    public void preVisit(FunctionExpression expr) {
+      nonLinear = true;
+    }
+  }
+
+  public synchronized String getStatistics() {
+    StringBuilder sb = new StringBuilder("# portfolio:");
+    long total = 0;
+    for (Shape shape : Shape.values()) {
+      int s = shape.ordinal();
+      total += races[s];
+      if (races[s] == 0) {
+        continue;
+      }
+      sb.append("\n#   ").append(shape.name().toLowerCase()).append(": ").append(races[s]).append(" races");
+      for (int i = 0; i < backEnds.length; i++) {
+        sb.append(", ").append(backEnds[i]).append(' ').append(wins[s][i]).append('/').append(launched[s][i]);
+      }
+    }
+    sb.insert("# portfolio:".length(), " " + total + " races (wins/launched per back-end), " + undecided
+        + " undecided");
+    return sb.toString();
+  }
+
+  public void report(PrintStream out) {
+    out.println(getStatistics());
+  }
+}
@@ -49,7 +49,7 @@ import com.microsoft.z3.*;
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
 import symlib.Util;
 
-public class ProblemZ3 extends ProblemGeneral {
+public class ProblemZ3 extends ProblemGeneral implements IncrementalSolver {
 
   //This class acts as a safeguard to prevent
   //issues when referencing ProblemZ3 in case the z3 libs are
@@ -60,13 +60,11 @@ public class ProblemZ3 extends ProblemGeneral {
 		private Context ctx;
 		private Solver solver;
 
-		private static Z3Wrapper instance = null;
+		private static final Z3ContextPool<Z3Wrapper> pool =
+				new Z3ContextPool<Z3Wrapper>("z3", Z3Wrapper::new, z3 -> z3.solver.reset());
 
 		public static Z3Wrapper getInstance() {
-			if (instance != null) {
-				return instance;
-			}
-			return instance = new Z3Wrapper();
+			return pool.get();
 		}
 
 		private Z3Wrapper() {
@@ -102,11 +100,27 @@ public class ProblemZ3 extends ProblemGeneral {
 
 	public void cleanup() {
 		int scopes = solver.getNumScopes();
+		Z3Wrapper.pool.recordScopes(scopes);
 		if (scopes > 0) {
 			solver.pop(scopes);
 		}
 	}
 
+	@Override
+	public void push() {
+		solver.push();
+	}
+
+	@Override
+	public void pop() {
+		solver.pop();
+	}
+
+	@Override
+	public void reset() {
+		solver.reset();
+	}
+
 	public Object makeIntVar(String name, long min, long max) {
 		try {
 			IntExpr intConst = ctx.mkIntConst(name);
@@ -45,7 +45,7 @@ import com.microsoft.z3.*;
 
 import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
 
-public class ProblemZ3BitVector extends ProblemGeneral {
+public class ProblemZ3BitVector extends ProblemGeneral implements IncrementalSolver {
 
     // This class acts as a safeguard to prevent
     // issues when referencing ProblemZ3 in case the z3 libs are
@@ -56,14 +56,11 @@ public class ProblemZ3BitVector extends ProblemGeneral {
         private Context ctx;
         private Solver solver;
 
-        private static Z3Wrapper instance = null;
+        private static final Z3ContextPool<Z3Wrapper> pool =
+                new Z3ContextPool<Z3Wrapper>("z3bitvector", Z3Wrapper::new, z3 -> z3.solver.reset());
 
         public static Z3Wrapper getInstance() {
-            if (instance != null) {
-                return instance;
-            }
-
-            return instance = new Z3Wrapper();
+            return pool.get();
         }
 
         private Z3Wrapper() {
@@ -114,11 +111,27 @@ public class ProblemZ3BitVector extends ProblemGeneral {
 
     public void cleanup() {
         int scopes = solver.getNumScopes();
+        Z3Wrapper.pool.recordScopes(scopes);
         if (scopes > 0) {
             solver.pop(scopes);
         }
     }
 
+    @Override
+    public void push() {
+        solver.push();
+    }
+
+    @Override
+    public void pop() {
+        solver.pop();
+    }
+
+    @Override
+    public void reset() {
+        solver.reset();
+    }
+
     // public ProblemZ3BitVector() {
     // HashMap<String, String> cfg = new HashMap<String, String>();
     // cfg.put("model", "true");
@@ -38,14 +38,11 @@ public class ProblemZ3BitVectorIncremental extends ProblemGeneral implements Inc
     private Context ctx;
     private Solver solver;
 
-    private static Z3Wrapper instance = null;
+    private static final Z3ContextPool<Z3Wrapper> pool =
+        new Z3ContextPool<Z3Wrapper>("z3bitvectorinc", Z3Wrapper::new, z3 -> z3.solver.reset());
 
     public static Z3Wrapper getInstance() {
-      if (instance != null) {
-        return instance;
-      }
-
-      return instance = new Z3Wrapper();
+      return pool.get();
     }
 
     private Z3Wrapper() {
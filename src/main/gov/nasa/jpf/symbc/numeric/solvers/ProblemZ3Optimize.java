@@ -59,14 +59,13 @@ public class ProblemZ3Optimize extends ProblemGeneral {
     private static class Z3Wrapper {
         private Context ctx;
         private Optimize solver;
+        private int scopes = 0;
 
-        private static Z3Wrapper instance = null;
+        private static final Z3ContextPool<Z3Wrapper> pool =
+                new Z3ContextPool<Z3Wrapper>("z3optimize", Z3Wrapper::new, Z3Wrapper::popAll);
 
         public static Z3Wrapper getInstance() {
-            if (instance != null) {
-                return instance;
-            }
-            return instance = new Z3Wrapper();
+            return pool.get();
         }
 
         private Z3Wrapper() {
@@ -83,6 +82,13 @@ public class ProblemZ3Optimize extends ProblemGeneral {
         public Context getCtx() {
             return this.ctx;
         }
+
+        private void popAll() {
+            for (int i = 0; i < scopes; i++) {
+                solver.Pop();
+            }
+            scopes = 0;
+        }
     }
 
     private Optimize solver;
@@ -91,22 +97,20 @@ public class ProblemZ3Optimize extends ProblemGeneral {
     // Do we use the floating point theory or linear arithmetic over reals
     private boolean useFpForReals = false;
 
-    private static int scopes = 0;
+    private Z3Wrapper z3;
 
     public ProblemZ3Optimize() {
-        Z3Wrapper z3 = Z3Wrapper.getInstance();
+        z3 = Z3Wrapper.getInstance();
         solver = z3.getSolver();
         ctx = z3.getCtx();
         solver.Push();
-        scopes++;
+        z3.scopes++;
         useFpForReals = SymbolicInstructionFactory.fp;
     }
 
     public void cleanup() {
-        for (int i = 0; i < scopes; i++) {
-            solver.Pop();
-        }
-        scopes = 0;
+        Z3Wrapper.pool.recordScopes(z3.scopes);
+        z3.popAll();
     }
 
     public Object makeIntVar(String name, long min, long max) {
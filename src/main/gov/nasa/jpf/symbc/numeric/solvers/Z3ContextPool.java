@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric.solvers;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The Z3 contexts (and solvers) of one of the Z3 decision procedures.
+ *
+ * With symbolic.z3.contexts=0 (the default) there is a single context that
+ * all threads share, as there always was. With symbolic.z3.contexts=n > 0
+ * every thread that solves gets a context of its own, up to n of them, and
+ * keeps it: all the problems a thread creates use the same context, so the
+ * incremental solvers still see their earlier assertions. A thread that needs
+ * a context while all n are taken waits until a thread that owns one calls
+ * {@link #release()} or dies; the context is reset before it is handed on.
+ *
+ * The type parameter is the wrapper class of the decision procedure, which
+ * keeps the Z3 classes out of this one (see the Z3Wrapper classes).
+ */
+public class Z3ContextPool<T> {
+
+  private static int size = 0;
+
+  private static final List<Z3ContextPool<?>> pools = new ArrayList<Z3ContextPool<?>>();
+
+  private final String name;
+  private final Supplier<T> factory;
+  private final Consumer<T> reset;
+
+  private T shared = null;
+  private final Map<Thread, T> owners = new WeakHashMap<Thread, T>();
+  private final List<T> all = new ArrayList<T>();
+  private final Deque<T> idle = new ArrayDeque<T>();
+
+  // statistics
+  private long waits = 0;
+  private long waitNanos = 0;
+  private int maxInUse = 0;
+  private int maxScopes = 0;
+
+  public static void configure(Config conf) {
+    size = conf.getInt("symbolic.z3.contexts", 0);
+    if (size < 0) {
+      throw new IllegalArgumentException("symbolic.z3.contexts must be non-negative (>=0), but was " + size);
+    }
+    if (SymbolicInstructionFactory.debugMode && size > 0) {
+      System.out.println("symbolic.z3.contexts=" + size);
+    }
+    synchronized (pools) {
+      for (Z3ContextPool<?> pool : pools) {
+        pool.clearStatistics();
+      }
+    }
+  }
+
+  /**
+   * the number of threads that can hold a context at the same time, 0 if
+   * there is one shared context
+   */
+  public static int getSize() {
+    return size;
+  }
+
+  /**
+   * @param name the decision procedure, for the statistics
+   * @param factory creates a context with its solver
+   * @param reset empties the solver of a context that changes its thread
+   */
+  public Z3ContextPool(String name, Supplier<T> factory, Consumer<T> reset) {
+    this.name = name;
+    this.factory = factory;
+    this.reset = reset;
+    synchronized (pools) {
+      pools.add(this);
+    }
+  }
+
+  /**
+   * The context of the current thread.
+   */
+  public synchronized T get() {
+    if (size <= 0) {
+      if (shared == null) {
+        shared = factory.get();
+        all.add(shared);
+        maxInUse = 1;
+      }
+      return shared;
+    }
+
+    Thread thread = Thread.currentThread();
+    T context = owners.get(thread);
+    if (context != null) {
+      return context;
+    }
+    long start = 0;
+    while (true) {
+      reclaim();
+      context = idle.poll();
+      if (context != null) {
+        reset.accept(context);
+        break;
+      }
+      if (all.size() < size) {
+        context = factory.get();
+        all.add(context);
+        break;
+      }
+      if (start == 0) {
+        start = System.nanoTime();
+        waits++;
+      }
+      try {
+        wait(100); // wakes up to look for contexts of threads that died
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("## Error: interrupted while waiting for a Z3 context");
+      }
+    }
+    if (start != 0) {
+      waitNanos += System.nanoTime() - start;
+    }
+    owners.put(thread, context);
+    maxInUse = Math.max(maxInUse, owners.size());
+    return context;
+  }
+
+  /**
+   * Hands the context of the current thread back to the pool.
+   */
+  public synchronized void release() {
+    T context = owners.remove(Thread.currentThread());
+    if (context != null) {
+      idle.push(context);
+      notifyAll();
+    }
+  }
+
+  // takes back the contexts of threads that are gone
+  private void reclaim() {
+    Iterator<Map.Entry<Thread, T>> it = owners.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Thread, T> entry = it.next();
+      if (!entry.getKey().isAlive()) {
+        idle.push(entry.getValue());
+        it.remove();
+      }
+    }
+    // threads that were garbage collected dropped out of the map
+    if (owners.size() + idle.size() < all.size()) {
+      for (T context : all) {
+        if (!owners.containsValue(context) && !idle.contains(context)) {
+          idle.push(context);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the number of scopes a problem left on its solver.
+   */
+  public synchronized void recordScopes(int scopes) {
+    maxScopes = Math.max(maxScopes, scopes);
+  }
+
+  private synchronized void clearStatistics() {
+    waits = 0;
+    waitNanos = 0;
+    maxInUse = owners.size();
+    maxScopes = 0;
+  }
+
+  public synchronized String getPoolStatistics() {
+    int inUse = (size <= 0) ? all.size() : owners.size();
+    return "# " + name + " contexts: " + all.size() + " created, " + inUse + " in use (max " + maxInUse + "), "
+        + waits + " waits (" + (waitNanos / 1000000) + " ms), max scope depth " + maxScopes;
+  }
+
+  /**
+   * The statistics of all the pools that were used.
+   */
+  public static String getStatistics() {
+    StringBuilder sb = new StringBuilder();
+    synchronized (pools) {
+      for (Z3ContextPool<?> pool : pools) {
+        if (sb.length() > 0) {
+          sb.append('\n');
+        }
+        sb.append(pool.getPoolStatistics());
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -91,6 +91,11 @@ public class StringConstant extends StringExpression {
 	    return value.equals(((StringConstant) o).value);
 	  }
 
+	  @Override
+	  public int hashCode() {
+	    return value.hashCode();
+	  }
+
 	  public String toString() {
 	    return "CONST_" + value ;
 	  }
@@ -34,6 +34,8 @@ import gov.nasa.jpf.symbc.numeric.IntegerExpression;
 import gov.nasa.jpf.symbc.numeric.LinearIntegerConstraint;
 import gov.nasa.jpf.symbc.numeric.LogicalORLinearIntegerConstraints;
 import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.QueryLog;
+import gov.nasa.jpf.symbc.numeric.SolverStatistics;
 import gov.nasa.jpf.symbc.numeric.SymbolicConstraintsGeneral;
 import gov.nasa.jpf.symbc.string.graph.Edge;
 import gov.nasa.jpf.symbc.string.graph.EdgeCharAt;
@@ -104,6 +106,10 @@ public class SymbolicStringConstraintsGeneral {
 	/*The current constraints */
 	private StringPathCondition global_spc;
 	
+	/*Solves the numeric constraints of the current query, and keeps the
+	 * model for the constraints the preprocessor adds */
+	private SymbolicConstraintsGeneral numericSolver;
+	
 	/*Used to generate unique symbolic integers */
 	private static SymbolicIntegerGenerator symbolicIntegerGenerator;
 	
@@ -443,6 +449,7 @@ public class SymbolicStringConstraintsGeneral {
 			timer = new Timer();
 			timer.schedule(new SymbolicStringTimeOut(), TIMEOUT);
 		}
+		long startNanos = System.nanoTime();
 		try {
 			if (EJECT_TEXT) { /* For research into other solving techniques */
 				SymbolicStringConstraintsGeneralToText temp = new SymbolicStringConstraintsGeneralToText();
@@ -464,6 +471,7 @@ public class SymbolicStringConstraintsGeneral {
 				symbolicIntegerGenerator = new SymbolicIntegerGenerator();
 			
 			global_graph = new StringGraph();
+			numericSolver = new SymbolicConstraintsGeneral();
 			
 			/* Convert each clause in the path condition to a subgraph,
 			 * and add it to the global_graph
@@ -499,13 +507,13 @@ public class SymbolicStringConstraintsGeneral {
 			}
 			
 			
-			//First solve any previous integer constriants
-			SymbolicConstraintsGeneral scg = new SymbolicConstraintsGeneral();
-			scg.solve(pc.getNpc());
+			//First solve any previous integer constriants (a no-op if
+			//processIntegerConstraint solved them and nothing changed since)
+			numericSolver.solveExtension(pc.getNpc());
 			PathCondition.flagSolved = true;
 
 			
-			boolean resultOfPp = PreProcessGraph.preprocess(global_graph, pc.getNpc());
+			boolean resultOfPp = PreProcessGraph.preprocess(global_graph, pc.getNpc(), numericSolver);
 			if (!resultOfPp) {
 				System.out.println("Preprocessor found unsat");
 			}
@@ -533,6 +541,7 @@ public class SymbolicStringConstraintsGeneral {
 			 * options are exhuasted or a satisfiable solution has turned up
 			 */
 			boolean decisionProcedure = false;
+			long solveNanos = System.nanoTime();
 			try {
 				if (solver.equals(SAT)) {
 					//println ("[isSatisfiable] Using SAT Solver");
@@ -608,6 +617,9 @@ public class SymbolicStringConstraintsGeneral {
 				e.printStackTrace();
 				System.err.println(global_graph.toDot());
 			}
+			SolverStatistics.recordQuery("string:" + solver, pc.count(), global_graph.getVertices().size(),
+					solveNanos - startNanos, System.nanoTime() - solveNanos, decisionProcedure);
+			QueryLog.recordString("string:" + solver, pc.toString(), System.nanoTime() - startNanos, decisionProcedure);
 			//println ("Done with solvers");
 			if (!decisionProcedure) {
 				//println ("[isSatisfiable] Decision procedure gave unsat");
@@ -726,6 +738,8 @@ public class SymbolicStringConstraintsGeneral {
 		} catch (SymbolicStringTimedOutException e) {
 			System.err.println("Symbolic String Executioner timed out");
 			timedOut = false;
+			SolverStatistics.recordTimeout("string:" + solver, System.nanoTime() - startNanos);
+			QueryLog.recordString("string:" + solver, pc.toString(), System.nanoTime() - startNanos, null);
 			
 			if (SymbolicInstructionFactory.regressMode) {
 				String output = "##STRING PC: (TIMEOUT) " + pc;
@@ -755,8 +769,7 @@ public class SymbolicStringConstraintsGeneral {
 	 */
 	private void processIntegerConstraint (Expression e, Comparator comp, Expression other, Constraint origConstraint) {
 		if (PathCondition.flagSolved == false) {
-			SymbolicConstraintsGeneral scg = new SymbolicConstraintsGeneral();
-			scg.solve(global_spc.getNpc());
+			numericSolver.solveExtension(global_spc.getNpc());
 			PathCondition.flagSolved = true;
 		}
 		if (e instanceof SymbolicCharAtInteger) {
@@ -781,6 +794,8 @@ public class SymbolicStringConstraintsGeneral {
 				//TODO MAB: what is the function of this hack? it makes the preprocessor return UNSAT on some valid constraints!
 				origConstraint.setComparator(Comparator.EQ);
 				global_spc.getNpc().flagSolved = false;
+				// the constraint changed in place: the model no longer holds
+				numericSolver = new SymbolicConstraintsGeneral();
 			}
 			else {
 				Vertex v1 = new Vertex ("CharAt_" + scai.index.solution() + "_" + scai.solution(), String.valueOf((char) scai.solution()), true);
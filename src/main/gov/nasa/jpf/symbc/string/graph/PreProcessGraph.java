@@ -57,10 +57,19 @@ public class PreProcessGraph {
 	 * @return
 	 */
 	public static boolean preprocess (StringGraph stringGraph, PathCondition pathCondition) {
+		return preprocess(stringGraph, pathCondition, new SymbolicConstraintsGeneral());
+	}
+	
+	/**
+	 * Preprocess given graph with a solver that may have solved the
+	 * pathcondition already: only the integer constraints added here are
+	 * checked against its model, and the pathcondition is solved again
+	 * only if the model does not satisfy them (see
+	 * SymbolicConstraintsGeneral.solveExtension).
+	 */
+	public static boolean preprocess (StringGraph stringGraph, PathCondition pathCondition, SymbolicConstraintsGeneral solver) {
 		
-		scg = new SymbolicConstraintsGeneral();
-		
-		if(!scg.isSatisfiable(pathCondition)) {logger.info("unsat here");};
+		scg = solver;
 		
 		if (!handleEquality(stringGraph, pathCondition)) {
 			//println ("handleEquality returned false");
@@ -102,8 +111,7 @@ public class PreProcessGraph {
 			//println ("handleTrim returned false");
 			return false;
 		}
-		if (scg.isSatisfiable(pathCondition)) {
-			scg.solve(pathCondition);
+		if (scg.solveExtension(pathCondition)) {
 			PathCondition.flagSolved = true;
 			//println (pathCondition.toString());
 			return true;
@@ -2132,8 +2140,7 @@ public class PreProcessGraph {
 				pc._addDet(loic);
 				
 				//TODO: Remove
-				if (scg.isSatisfiable(pc)) {
-					scg.solve(pc);
+				if (scg.solveExtension(pc)) {
 					PathCondition.flagSolved = true;
 				} else {
 					return false;
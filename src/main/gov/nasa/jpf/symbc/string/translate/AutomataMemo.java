@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.string.translate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dk.brics.automaton.Automaton;
+
+import gov.nasa.jpf.symbc.numeric.IntegerExpression;
+import gov.nasa.jpf.symbc.string.SymbolicIndexOf2Integer;
+import gov.nasa.jpf.symbc.string.SymbolicIndexOfChar2Integer;
+import gov.nasa.jpf.symbc.string.SymbolicIndexOfCharInteger;
+import gov.nasa.jpf.symbc.string.SymbolicIndexOfInteger;
+import gov.nasa.jpf.symbc.string.SymbolicLastIndexOfChar2Integer;
+import gov.nasa.jpf.symbc.string.SymbolicLastIndexOfCharInteger;
+import gov.nasa.jpf.symbc.string.SymbolicLastIndexOfInteger;
+import gov.nasa.jpf.symbc.string.graph.Edge;
+import gov.nasa.jpf.symbc.string.graph.EdgeCharAt;
+import gov.nasa.jpf.symbc.string.graph.EdgeConcat;
+import gov.nasa.jpf.symbc.string.graph.EdgeContains;
+import gov.nasa.jpf.symbc.string.graph.EdgeEndsWith;
+import gov.nasa.jpf.symbc.string.graph.EdgeIndexOf;
+import gov.nasa.jpf.symbc.string.graph.EdgeIndexOf2;
+import gov.nasa.jpf.symbc.string.graph.EdgeIndexOfChar;
+import gov.nasa.jpf.symbc.string.graph.EdgeIndexOfChar2;
+import gov.nasa.jpf.symbc.string.graph.EdgeLastIndexOf;
+import gov.nasa.jpf.symbc.string.graph.EdgeLastIndexOfChar;
+import gov.nasa.jpf.symbc.string.graph.EdgeLastIndexOfChar2;
+import gov.nasa.jpf.symbc.string.graph.EdgeNotCharAt;
+import gov.nasa.jpf.symbc.string.graph.EdgeNotContains;
+import gov.nasa.jpf.symbc.string.graph.EdgeNotEndsWith;
+import gov.nasa.jpf.symbc.string.graph.EdgeNotEqual;
+import gov.nasa.jpf.symbc.string.graph.EdgeNotStartsWith;
+import gov.nasa.jpf.symbc.string.graph.EdgeReplaceCharChar;
+import gov.nasa.jpf.symbc.string.graph.EdgeStartsWith;
+import gov.nasa.jpf.symbc.string.graph.EdgeSubstring1Equal;
+import gov.nasa.jpf.symbc.string.graph.EdgeSubstring2Equal;
+import gov.nasa.jpf.symbc.string.graph.EdgeTrimEqual;
+import gov.nasa.jpf.symbc.string.graph.StringGraph;
+import gov.nasa.jpf.symbc.string.graph.Vertex;
+
+/**
+ * Remembers the automata that TranslateToAutomata2 computed for the connected
+ * components of earlier string graphs.
+ *
+ * Propagating the automata over a component only depends on the shape of the
+ * component, the lengths of its vertices (taken from the solved path
+ * condition), the values of the constant vertices and the integer values the
+ * edges use (indices, characters, substring arguments). The key of a
+ * component lists all of these, with the vertices numbered in the order of
+ * the graph, and the edges in the order of the graph. Components with the
+ * same key are therefore solved by exactly the same sequence of edge
+ * handlers, and the automata (and solutions) that came out for one of them
+ * can be used for the other. This is mostly useful for sibling paths, which
+ * share most of their string constraints.
+ *
+ * Only components that were solved successfully, without changing the path
+ * condition, are remembered: the constraints a handler adds to the path
+ * condition are not repeated by a lookup.
+ */
+class AutomataMemo {
+
+	private static final int MAX_ENTRIES = 1024;
+
+	public static long hits = 0;
+	public static long misses = 0;
+
+	private static final Map<String, Entry> memo = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private static class Entry {
+		final Automaton[] automata;
+		final String[] solutions;
+
+		Entry (Automaton[] automata, String[] solutions) {
+			this.automata = automata;
+			this.solutions = solutions;
+		}
+	}
+
+	static class Component {
+		final List<Vertex> vertices = new ArrayList<Vertex>();
+		final List<Edge> edges = new ArrayList<Edge>();
+		String key; // null if the component can not be remembered
+	}
+
+	/**
+	 * Splits the graph into its connected components; the integer values in
+	 * the keys need a solved path condition.
+	 */
+	static List<Component> components (StringGraph g) {
+		Map<Vertex, Vertex> parent = new HashMap<Vertex, Vertex>();
+		for (Vertex v: g.getVertices()) {
+			parent.put(v, v);
+		}
+		for (Edge e: g.getEdges()) {
+			if (e instanceof EdgeConcat) {
+				union(parent, e.getSources().get(0), e.getDest());
+				union(parent, e.getSources().get(1), e.getDest());
+			}
+			else {
+				union(parent, e.getSource(), e.getDest());
+			}
+		}
+
+		Map<Vertex, Component> components = new HashMap<Vertex, Component>();
+		List<Component> result = new ArrayList<Component>();
+		for (Vertex v: g.getVertices()) {
+			Vertex root = find(parent, v);
+			Component c = components.get(root);
+			if (c == null) {
+				c = new Component();
+				components.put(root, c);
+				result.add(c);
+			}
+			c.vertices.add(v);
+		}
+		for (Edge e: g.getEdges()) {
+			Vertex v = (e instanceof EdgeConcat) ? e.getDest() : e.getSource();
+			components.get(find(parent, v)).edges.add(e);
+		}
+		for (Component c: result) {
+			c.key = key(c);
+		}
+		return result;
+	}
+
+	private static Vertex find (Map<Vertex, Vertex> parent, Vertex v) {
+		Vertex p = parent.get(v);
+		while (!p.equals(v)) {
+			Vertex gp = parent.get(p);
+			parent.put(v, gp);
+			v = p;
+			p = gp;
+		}
+		return v;
+	}
+
+	private static void union (Map<Vertex, Vertex> parent, Vertex v1, Vertex v2) {
+		Vertex r1 = find(parent, v1);
+		Vertex r2 = find(parent, v2);
+		if (!r1.equals(r2)) {
+			parent.put(r1, r2);
+		}
+	}
+
+	private static String key (Component c) {
+		if (c.edges.isEmpty()) {
+			return null;
+		}
+		Map<Vertex, Integer> number = new HashMap<Vertex, Integer>();
+		StringBuilder sb = new StringBuilder();
+		for (Vertex v: c.vertices) {
+			number.put(v, number.size());
+			if (v.isConstant()) {
+				String s = v.getSolution();
+				sb.append('c').append(s.length()).append(':').append(s);
+			}
+			else {
+				sb.append('v').append(v.getLength());
+			}
+			sb.append(';');
+		}
+		for (Edge e: c.edges) {
+			sb.append(e.getClass().getSimpleName());
+			if (e instanceof EdgeConcat) {
+				sb.append(' ').append(number.get(e.getSources().get(0)));
+				sb.append(' ').append(number.get(e.getSources().get(1)));
+			}
+			else {
+				sb.append(' ').append(number.get(e.getSource()));
+			}
+			sb.append(' ').append(number.get(e.getDest()));
+			if (!appendValues(sb, e)) {
+				return null;
+			}
+			sb.append(';');
+		}
+		return sb.toString();
+	}
+
+	/*
+	 * Appends the integer values the handlers of the edge look at, returns
+	 * false for edges that are not handled by TranslateToAutomata2.
+	 */
+	private static boolean appendValues (StringBuilder sb, Edge e) {
+		if (e instanceof EdgeStartsWith || e instanceof EdgeNotStartsWith ||
+			e instanceof EdgeEndsWith || e instanceof EdgeNotEndsWith ||
+			e instanceof EdgeContains || e instanceof EdgeNotContains ||
+			e instanceof EdgeConcat || e instanceof EdgeNotEqual ||
+			e instanceof EdgeTrimEqual) {
+			return true;
+		}
+		else if (e instanceof EdgeCharAt) {
+			EdgeCharAt eca = (EdgeCharAt) e;
+			appendValue(sb, eca.getIndex());
+			appendValue(sb, eca.getValue());
+			return true;
+		}
+		else if (e instanceof EdgeNotCharAt) {
+			EdgeNotCharAt enca = (EdgeNotCharAt) e;
+			appendValue(sb, enca.getIndex());
+			appendValue(sb, enca.getValue());
+			return true;
+		}
+		else if (e instanceof EdgeReplaceCharChar) {
+			EdgeReplaceCharChar erc = (EdgeReplaceCharChar) e;
+			sb.append(' ').append((int) erc.getC1()).append(' ').append((int) erc.getC2());
+			return true;
+		}
+		else if (e instanceof EdgeSubstring1Equal) {
+			sb.append(' ').append(((EdgeSubstring1Equal) e).getArgument1());
+			return true;
+		}
+		else if (e instanceof EdgeSubstring2Equal) {
+			EdgeSubstring2Equal es = (EdgeSubstring2Equal) e;
+			if (es.getSymbolicArgument1() != null) {
+				return false;
+			}
+			sb.append(' ').append(es.getArgument1());
+			if (es.getSymbolicArgument2() != null) {
+				appendValue(sb, es.getSymbolicArgument2());
+			}
+			else {
+				sb.append(' ').append(es.getArgument2());
+			}
+			return true;
+		}
+		else if (e instanceof EdgeIndexOf) {
+			SymbolicIndexOfInteger index = ((EdgeIndexOf) e).getIndex();
+			appendValue(sb, index);
+			return true;
+		}
+		else if (e instanceof EdgeIndexOf2) {
+			SymbolicIndexOf2Integer index = ((EdgeIndexOf2) e).getIndex();
+			appendValue(sb, index);
+			appendValue(sb, index.getMinIndex());
+			return true;
+		}
+		else if (e instanceof EdgeIndexOfChar) {
+			SymbolicIndexOfCharInteger index = ((EdgeIndexOfChar) e).getIndex();
+			appendValue(sb, index);
+			appendValue(sb, index.getExpression());
+			return true;
+		}
+		else if (e instanceof EdgeIndexOfChar2) {
+			SymbolicIndexOfChar2Integer index = ((EdgeIndexOfChar2) e).getIndex();
+			appendValue(sb, index);
+			appendValue(sb, index.getExpression());
+			appendValue(sb, index.getMinDist());
+			return true;
+		}
+		else if (e instanceof EdgeLastIndexOf) {
+			SymbolicLastIndexOfInteger index = ((EdgeLastIndexOf) e).getIndex();
+			appendValue(sb, index);
+			return true;
+		}
+		else if (e instanceof EdgeLastIndexOfChar) {
+			SymbolicLastIndexOfCharInteger index = ((EdgeLastIndexOfChar) e).getIndex();
+			appendValue(sb, index);
+			appendValue(sb, index.getExpression());
+			return true;
+		}
+		else if (e instanceof EdgeLastIndexOfChar2) {
+			SymbolicLastIndexOfChar2Integer index = ((EdgeLastIndexOfChar2) e).getIndex();
+			appendValue(sb, index);
+			appendValue(sb, index.getExpression());
+			appendValue(sb, index.getMinDist());
+			return true;
+		}
+		return false;
+	}
+
+	private static void appendValue (StringBuilder sb, IntegerExpression ie) {
+		sb.append(' ');
+		if (ie != null) {
+			sb.append(ie.solution());
+		}
+	}
+
+	/**
+	 * Puts the remembered automata and solutions of the component in place,
+	 * returns false if there are none.
+	 */
+	static boolean restore (Component c, Map<Vertex, Automaton> mapAutomaton) {
+		if (c.key == null) {
+			return false;
+		}
+		Entry entry = memo.get(c.key);
+		if (entry == null) {
+			misses++;
+			return false;
+		}
+		hits++;
+		for (int i = 0; i < c.vertices.size(); i++) {
+			Vertex v = c.vertices.get(i);
+			// the string operations may determinize and minimize their arguments in place
+			mapAutomaton.put(v, entry.automata[i].clone());
+			if (!v.isConstant()) v.setSolution(entry.solutions[i]);
+		}
+		return true;
+	}
+
+	static void store (Component c, Map<Vertex, Automaton> mapAutomaton) {
+		if (c.key == null) {
+			return;
+		}
+		Automaton[] automata = new Automaton[c.vertices.size()];
+		String[] solutions = new String[c.vertices.size()];
+		for (int i = 0; i < automata.length; i++) {
+			Vertex v = c.vertices.get(i);
+			automata[i] = mapAutomaton.get(v).clone();
+			solutions[i] = v.getSolution();
+		}
+		memo.put(c.key, new Entry(automata, solutions));
+	}
+
+	static void clear () {
+		memo.clear();
+		hits = 0;
+		misses = 0;
+	}
+}
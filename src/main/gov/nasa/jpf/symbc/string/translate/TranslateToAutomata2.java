@@ -20,8 +20,10 @@ package gov.nasa.jpf.symbc.string.translate;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.Map.Entry;
 
@@ -29,6 +31,8 @@ import java.util.Map.Entry;
 import dk.brics.automaton.Automaton;
 import dk.brics.string.stringoperations.Substring;
 import dk.brics.string.stringoperations.Trim;
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.ParsableConstraint;
 import gov.nasa.jpf.symbc.numeric.Comparator;
 import gov.nasa.jpf.symbc.numeric.IntegerConstant;
 import gov.nasa.jpf.symbc.numeric.LinearIntegerConstraint;
@@ -37,6 +41,7 @@ import gov.nasa.jpf.symbc.numeric.PathCondition;
 import gov.nasa.jpf.symbc.numeric.SymbolicConstraintsGeneral;
 import gov.nasa.jpf.symbc.string.AutomatonExtra;
 import gov.nasa.jpf.symbc.string.SymbolicStringConstraintsGeneral;
+import gov.nasa.jpf.symbc.string.SymbolicStringTimedOutException;
 import gov.nasa.jpf.symbc.string.graph.Edge;
 import gov.nasa.jpf.symbc.string.graph.EdgeCharAt;
 import gov.nasa.jpf.symbc.string.graph.EdgeConcat;
@@ -82,12 +87,21 @@ public class TranslateToAutomata2 {
 	private static Map<Vertex, List<String>> concreteMap;
 	private static Map<Vertex, Integer> mapVertexInteger;
 	
+	/* Partial assignments the search of the var-var nots may try */
+	private static int notsBudget = 100000;
+	private static boolean budgetWarned = false;
+	
 	/* Debugging */
 	private static String debug_unsat_reason;
 	
 	/* For integer solving */
 	private static SymbolicConstraintsGeneral scg;
 	
+	public static void configure (Config conf) {
+		notsBudget = conf.getInt("symbolic.string_nots_budget", 100000);
+		budgetWarned = false;
+	}
+	
 	public static boolean isSat (StringGraph g, PathCondition pc) {
 		//println ("Running with the new Automata solvers");
 		long starttime = System.currentTimeMillis();
@@ -107,6 +121,19 @@ public class TranslateToAutomata2 {
 		
 		resetAutomata();
 		
+		//Components that were solved before get their automata back
+		List<AutomataMemo.Component> components = null;
+		Set<Vertex> remembered = new HashSet<Vertex>();
+		ParsableConstraint header = pc.header;
+		if (PathCondition.flagSolved) {
+			components = AutomataMemo.components(g);
+			for (AutomataMemo.Component c: components) {
+				if (AutomataMemo.restore(c, mapAutomaton)) {
+					remembered.addAll(c.vertices);
+				}
+			}
+		}
+		
 		while (restart) {
 			//println ("[restart]: " + pc.toString());
 			//println ("restart");
@@ -128,6 +155,7 @@ public class TranslateToAutomata2 {
 			//println("Iterate through graph (excluding nots) until convergence");
 			boolean result;
 			for (Edge e: g.getEdges()) {
+				if (remembered.contains(e.getDest())) continue;
 				//println ("Edge: " + e);
 				result = handleEdge(e);
 				if (result == false) {
@@ -158,6 +186,7 @@ public class TranslateToAutomata2 {
 				/* Easy nots */
 				//println ("Easy nots");
 				for (Edge e: g.getEdges()) {
+					if (remembered.contains(e.getDest())) continue;
 					result = handleNotEdge (e);
 					if (result == false) {
 						interchangeNeeded = true;
@@ -248,6 +277,14 @@ public class TranslateToAutomata2 {
 				}
 			}
 		}
+		//A not edge that changed the path condition changed the solutions the keys were made of
+		if (components != null && pc.header == header) {
+			for (AutomataMemo.Component c: components) {
+				if (!remembered.contains(c.vertices.get(0))) {
+					AutomataMemo.store(c, mapAutomaton);
+				}
+			}
+		}
 		return true;
 	}
 	
@@ -2018,15 +2055,18 @@ public class TranslateToAutomata2 {
 			iteration.add(new Integer(0));
 		}
 		
-		//Run through iterations
-		boolean result = false;
-		boolean overflow = false;
-		while (result == false && overflow == false) {
-			//println ("iteration: " + iteration);
-			result = run(iteration, base);
-			if (result == true) {break;}
-			overflow = increment(iteration, base);
+		//Search the iterations; a search that runs out of budget is reported as a timeout
+		int found = search(iteration, base, notsBudget);
+		if (found == 2) {
+			if (!budgetWarned) {
+				budgetWarned = true;
+				System.out.println("## Warning: symbolic.string_nots_budget=" + notsBudget
+						+ " exhausted, giving up on the string disequalities");
+			}
+			throw new SymbolicStringTimedOutException();
 		}
+		boolean result = (found == 1);
+		boolean overflow = (found == 0);
 		
 		if (overflow == true) {
 			//println ("overflow");
@@ -2293,8 +2333,54 @@ public class TranslateToAutomata2 {
 	}
 
 	
-	private static boolean run(List<Integer> iteration, int base) {
+	/*
+	 * Finds the first iteration, in the order of increment, for which run
+	 * holds. The vertices are assigned one at a time and each not edge is
+	 * checked as soon as both of its vertices have been assigned, so
+	 * assignments that already violate an edge are not extended. Returns 1
+	 * if an iteration was found, 0 if there is none and 2 if more than
+	 * budget partial assignments were needed.
+	 */
+	private static int search (List<Integer> iteration, int base, int budget) {
+		List<List<Edge>> edgesAt = new ArrayList<List<Edge>>(base);
+		for (int i = 0; i < base; i++) {
+			edgesAt.add(new ArrayList<Edge>());
+		}
 		for (Edge e: notEdges) {
+			int last = Math.max(mapVertexInteger.get(e.getSource()), mapVertexInteger.get(e.getDest()));
+			edgesAt.get(last).add(e);
+		}
+		
+		//the entries after depth are 0
+		int depth = 0;
+		while (depth < base) {
+			SymbolicStringConstraintsGeneral.checkTimeOut();
+			if (budget-- <= 0) {
+				return 2;
+			}
+			if (run(edgesAt.get(depth), iteration, base)) {
+				depth++;
+				continue;
+			}
+			//next value at this depth, backtracking over the exhausted ones
+			while (iteration.get(depth) == base - 1) {
+				iteration.set(depth, 0);
+				depth--;
+				if (depth < 0) {
+					return 0;
+				}
+			}
+			iteration.set(depth, iteration.get(depth) + 1);
+		}
+		return 1;
+	}
+	
+	private static boolean run(List<Integer> iteration, int base) {
+		return run(notEdges, iteration, base);
+	}
+	
+	private static boolean run(List<Edge> edges, List<Integer> iteration, int base) {
+		for (Edge e: edges) {
 			boolean result = true;
 			if (e instanceof EdgeNotEqual) {
 				result = handleEdgeNotEqual((EdgeNotEqual) e, iteration, base);
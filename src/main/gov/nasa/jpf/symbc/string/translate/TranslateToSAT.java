@@ -19,6 +19,7 @@
 package gov.nasa.jpf.symbc.string.translate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,7 @@ import aima.core.logic.propositional.parsing.ast.UnarySentence;
 import aima.core.logic.propositional.visitors.CNFClauseGatherer;
 import aima.core.logic.propositional.visitors.CNFTransformer;
 
+import gov.nasa.jpf.Config;
 import gov.nasa.jpf.symbc.numeric.Comparator;
 import gov.nasa.jpf.symbc.numeric.IntegerConstant;
 import gov.nasa.jpf.symbc.numeric.LinearIntegerConstraint;
@@ -79,16 +81,49 @@ public class TranslateToSAT {
 	
 	private static SymbolicConstraintsGeneral scg;
 	
+	/*
+	 * Incremental mode (symbolic.string_sat.incremental=true): the solver is
+	 * kept from one query to the next, so that the clauses it learned on the
+	 * parent path are still there for the child. A vertex keeps its vector of
+	 * variables as long as its length does not change, and the clauses of an
+	 * edge are guarded by a selector variable: a query adds the clauses of the
+	 * edges it has not seen before, and solves under the assumption that the
+	 * selectors of its own edges are true. The clauses that block a model
+	 * rejected by the lazy checks only hold for one query, and are guarded by
+	 * a selector of the query. The solver starts over when it runs out of
+	 * variables.
+	 */
+	private static boolean incremental = false;
+	/* vertex name and length -> first variable of its vector */
+	private static Map<String, Integer> vectors;
+	private static Map<EdgeClauses, Integer> selectors;
+	private static List<int[]> pending;
+	private static VecInt assumptions;
+	private static int query;
+	
+	public static void configure (Config conf) {
+		incremental = conf.getBoolean("symbolic.string_sat.incremental", false);
+		solver = null;
+		vectors = null;
+		selectors = null;
+		query = 0;
+	}
+	
 	public static boolean isSat (StringGraph g, PathCondition pc) {
 		if (scg == null)
 			scg = new SymbolicConstraintsGeneral();
 		//println ("[isSat] PC passed on: " + pc.header);
-		solver = SolverFactory.newDefault();
-		solver.newVar(MAXVAR);
+		if (incremental) {
+			startQuery(g);
+		}
+		else {
+			solver = SolverFactory.newDefault();
+			solver.newVar(MAXVAR);
+			vectorOffset = 1;
+		}
 		
 		//solver.setDBSimplificationAllowed(true);
 		map = new HashMap<Vertex, Integer>();
-		vectorOffset = 1;
 		
 		//println ("[isSat] Details: ");
 		for (Vertex v: g.getVertices()) {
@@ -175,6 +210,7 @@ public class TranslateToSAT {
 					//println ("Not handled yet: " + e.getClass());
 					return true;
 				}
+				guardEdge();
 			}
 		} catch (ContradictionException e) {
 			//e.printStackTrace();
@@ -187,7 +223,7 @@ public class TranslateToSAT {
 		boolean nonEqualitySatisfied = false;
 		boolean sat = false;
 		try {
-			while (!contradiction && solver.isSatisfiable() && !nonEqualitySatisfied) {
+			while (!contradiction && isSatisfiable() && !nonEqualitySatisfied) {
 				nonEqualitySatisfied = true;
 				//println ("Sat!");
 				sat = true;
@@ -197,11 +233,11 @@ public class TranslateToSAT {
 					if (e.getKey().isConstant()) {
 						//println ("[isSat] Solution at this moment: " + e.getKey().getSolution());
 					}
-					int offset = e.getValue() - 1;
+					int offset = e.getValue();
 					int length = e.getKey().getLength();
 					for (int i = 0; i < length; i++) {
 						for (int k = 0; k < SymbolicStringConstraintsGeneral.DIFF_CHAR; k++) {
-							if (solution[offset + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + k] > 0) {
+							if (holds(solution, offset + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + k)) {
 								e.getKey().setCharSolution((char) (SymbolicStringConstraintsGeneral.MIN_CHAR + k), i);
 							}
 						}
@@ -225,7 +261,7 @@ public class TranslateToSAT {
 							}
 							//println ("[isSat] Adding back inequality, becuase '" +e.getSource().getSolution() + "' (" +e.getSource().getName() +") == '" + e.getDest().getSolution() + "' ("+e.getDest().getName()+")");
 							//printClause (solution);
-							solver.addClause(new VecInt(solution));
+							block(solution);
 							sat = false;
 							break; /* First resolve this issue before going on */
 						}
@@ -238,7 +274,7 @@ public class TranslateToSAT {
 							}
 							//println ("[isSat] Adding back inequality, becuase '" +e.getSource().getSolution() + "' (" +e.getSource().getName() +") startswith '" + e.getDest().getSolution() + "' ("+e.getDest().getName()+")");
 							//printClause (solution);
-							solver.addClause(new VecInt(solution));
+							block(solution);
 							sat = false;
 							break; /* First resolve this issue before going on */
 						}
@@ -251,7 +287,7 @@ public class TranslateToSAT {
 							}
 							//println ("[isSat] Adding back inequality, becuase '" +e.getSource().getSolution() + "' (" +e.getSource().getName() +") endswith '" + e.getDest().getSolution() + "' ("+e.getDest().getName()+")");
 							//printClause (solution);
-							solver.addClause(new VecInt(solution));
+							block(solution);
 							sat = false;
 							break; /* First resolve this issue before going on */
 						}
@@ -266,7 +302,7 @@ public class TranslateToSAT {
 							}
 							//println ("[isSat] Adding back inequality, becuase '" +e.getSource().getSolution() + "' (" +e.getSource().getName() +") indexOf '" + e.getDest().getSolution() + "' ("+e.getDest().getName()+") != " + eio.getIndex().solution());
 							//printClause (solution);
-							solver.addClause(new VecInt(solution));
+							block(solution);
 							sat = false;
 							if (indexOfValue > -1) {
 								//It has already been found earlier, thus the eio.getIndex(), must be equaled to it or less
@@ -291,7 +327,7 @@ public class TranslateToSAT {
 							}
 							//println ("[isSat] Adding back inequality, becuase '" +e.getSource().getSolution() + "' (" +e.getSource().getName() +") contains '" + e.getDest().getSolution() + "' ("+e.getDest().getName()+")");
 							//printClause (solution);
-							solver.addClause(new VecInt(solution));
+							block(solution);
 							sat = false;
 							break; /* First resolve this issue before going on */
 						}
@@ -305,7 +341,7 @@ public class TranslateToSAT {
 								}
 								//println ("[isSat] Adding back inequality, becuase '" +e.getSource().getSolution() + "' (" +e.getSource().getName() +") does not contain '" + e.getDest().getSolution() + "' ("+e.getDest().getName()+")");
 								//printClause (solution);
-								solver.addClause(new VecInt(solution));
+								block(solution);
 								sat = false;
 								break; /* First resolve this issue before going on */
 							}
@@ -405,7 +441,7 @@ public class TranslateToSAT {
 			int clause[] = new int [1];
 			clause[0] = vector1 + index * SymbolicStringConstraintsGeneral.DIFF_CHAR + character;
 			//printClause(clause);
-			solver.addClause(new VecInt(clause));
+			addClause(clause);
 			return true;
 		}
 		else {
@@ -423,6 +459,12 @@ public class TranslateToSAT {
 	private static int retrieveInt (Vertex v) throws ContradictionException{
 		Integer i = map.get(v);
 		
+		if (i == null && incremental) {
+			i = vectors.get(v.getName() + "#" + v.getLength());
+			if (i != null) {
+				map.put(v, i);
+			}
+		}
 		if (i == null) {
 			//println (v.getName() + " start ...");
 			map.put (v, new Integer(vectorOffset));
@@ -434,7 +476,7 @@ public class TranslateToSAT {
 					clause[j] = vectorOffset + k * SymbolicStringConstraintsGeneral.DIFF_CHAR + j; 
 				}
 				//printClause(clause);
-				//solver.addClause(new VecInt(clause));
+				//addClause(clause);
 				solver.addAtLeast(new VecInt(clause), 1);
 				solver.addAtMost(new VecInt(clause), 1);
 				
@@ -445,7 +487,7 @@ public class TranslateToSAT {
 					clause[j] = (vectorOffset + k * v.getLength() + j) * -1; 
 				}
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			
 			for (int k = 0; k < v.getLength(); k++) { 
@@ -456,10 +498,13 @@ public class TranslateToSAT {
 					if (l > 0) clause[l-1] = clause[l-1] * -1;
 					clause [l] = clause[l] * -1;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 				}
 			}*/
 			//println (v.getName() + " end");
+			if (incremental) {
+				vectors.put(v.getName() + "#" + v.getLength(), vectorOffset);
+			}
 			vectorOffset += v.getLength() * SymbolicStringConstraintsGeneral.DIFF_CHAR;
 			return vectorOffset - v.getLength() * SymbolicStringConstraintsGeneral.DIFF_CHAR;
 		}
@@ -467,6 +512,117 @@ public class TranslateToSAT {
 		return i;
 	}
 	
+	private static void startQuery (StringGraph g) {
+		/* the clauses that blocked models of the previous query are not needed anymore */
+		if (solver != null && query != 0) {
+			try {
+				solver.addClause(new VecInt(new int[] {-query}));
+			} catch (ContradictionException e) {
+				solver = null;
+			}
+		}
+		int needed = g.getEdges().size() + 1;
+		for (Vertex v: g.getVertices()) {
+			needed += v.getLength() * SymbolicStringConstraintsGeneral.DIFF_CHAR;
+		}
+		if (solver == null || vectorOffset + needed > MAXVAR) {
+			solver = SolverFactory.newDefault();
+			solver.newVar(MAXVAR);
+			vectorOffset = 1;
+			vectors = new HashMap<String, Integer>();
+			selectors = new HashMap<EdgeClauses, Integer>();
+		}
+		pending = new ArrayList<int[]>();
+		assumptions = new VecInt();
+		query = vectorOffset++;
+		assumptions.push(query);
+	}
+	
+	private static void addClause (int[] clause) throws ContradictionException {
+		if (incremental) {
+			/* the handlers reuse their arrays */
+			pending.add(clause.clone());
+		}
+		else {
+			solver.addClause(new VecInt(clause));
+		}
+	}
+	
+	/* Adds the clauses of the edge just translated, unless they were added before */
+	private static void guardEdge () throws ContradictionException {
+		if (!incremental || pending.isEmpty()) {
+			return;
+		}
+		EdgeClauses key = new EdgeClauses(pending);
+		Integer selector = selectors.get(key);
+		if (selector == null) {
+			selector = vectorOffset++;
+			for (int[] clause: pending) {
+				int[] guarded = Arrays.copyOf(clause, clause.length + 1);
+				guarded[clause.length] = -selector;
+				solver.addClause(new VecInt(guarded));
+			}
+			selectors.put(key, selector);
+		}
+		if (!assumptions.contains(selector)) {
+			assumptions.push(selector);
+		}
+		pending = new ArrayList<int[]>();
+	}
+	
+	private static boolean isSatisfiable () throws TimeoutException {
+		if (incremental) {
+			return solver.isSatisfiable(assumptions);
+		}
+		return solver.isSatisfiable();
+	}
+	
+	private static boolean holds (int[] solution, int var) {
+		if (incremental) {
+			return solver.model(var);
+		}
+		return solution[var - 1] > 0;
+	}
+	
+	/* Blocks the model the lazy checks rejected (solution holds its negation) */
+	private static void block (int[] solution) throws ContradictionException {
+		if (!incremental) {
+			solver.addClause(new VecInt(solution));
+			return;
+		}
+		/* only the vectors of this query: the solver has variables of other queries */
+		VecInt clause = new VecInt();
+		for (Entry<Vertex, Integer> e: map.entrySet()) {
+			int vector = e.getValue();
+			int vectorLength = e.getKey().getLength() * SymbolicStringConstraintsGeneral.DIFF_CHAR;
+			for (int i = vector; i < vector + vectorLength; i++) {
+				clause.push(solver.model(i) ? -i : i);
+			}
+		}
+		clause.push(-query);
+		solver.addClause(clause);
+	}
+	
+	private static final class EdgeClauses {
+		private final int[][] clauses;
+		private final int hash;
+		
+		EdgeClauses (List<int[]> clauses) {
+			this.clauses = clauses.toArray(new int[clauses.size()][]);
+			this.hash = Arrays.deepHashCode(this.clauses);
+		}
+		
+		@Override
+		public int hashCode () {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals (Object o) {
+			return o instanceof EdgeClauses && Arrays.deepEquals(clauses, ((EdgeClauses) o).clauses);
+		}
+	}
+	
 	private static void println (String s) {
 		System.out.println("[TranslateToSAT] " + s);
 	}
@@ -553,7 +709,7 @@ public class TranslateToSAT {
 					clause[i] = Integer.parseInt(c.get(i).getValue());
 				}
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			//println ("[handleEdgeContains] cons end");
 			
@@ -602,7 +758,7 @@ public class TranslateToSAT {
 					clause[i] = Integer.parseInt(c.get(i).getValue());
 				}
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			//println ("[handleEdgeContains] cons end");
 			
@@ -629,14 +785,14 @@ public class TranslateToSAT {
 					int offset = character - SymbolicStringConstraintsGeneral.MIN_CHAR;
 					clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 				}
 				for (int i = 0; i < lengthOfRight; i++) {
 					char character = e.getDest().getSolution().charAt(i + lengthOfLeft);
 					int offset = character - SymbolicStringConstraintsGeneral.MIN_CHAR;
 					clause[0] = vector2 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 				}
 				
 			}
@@ -654,7 +810,7 @@ public class TranslateToSAT {
 						int offset = character - SymbolicStringConstraintsGeneral.MIN_CHAR;
 						clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 					}
 				}
 				else {
@@ -670,7 +826,7 @@ public class TranslateToSAT {
 						int offset = character - SymbolicStringConstraintsGeneral.MIN_CHAR;
 						clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 					}
 				}
 				
@@ -699,21 +855,21 @@ public class TranslateToSAT {
 					clause[0] = (vector1 + i) * -1;
 					clause[1] = vector3 + i;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 					clause[0] = vector1 + i;
 					clause[1] = (vector3 + i) * -1;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 				}
 				for (int i = 0; i < vectorLengthOfRight; i++) {
 					clause[0] = (vector2 + i) * -1;
 					clause[1] = vector3 + vectorLengthOfLeft + i;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 					clause[0] = vector2 + i;
 					clause[1] = (vector3 + vectorLengthOfLeft + i) * -1;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 				}
 				//println ("Concat end");
 			}
@@ -740,18 +896,18 @@ public class TranslateToSAT {
 						int offset = character - SymbolicStringConstraintsGeneral.MIN_CHAR;
 						clause[0] = vector3 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 					}
 					clause = new int[2];
 					for (int i = 0; i < vectorLengthOfRight; i++) {
 						clause[0] = (vector2 + i) * -1;
 						clause[1] = vector3 + vectorLengthOfLeft + i;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 						clause[0] = vector2 + i;
 						clause[1] = (vector3 + vectorLengthOfLeft + i) * -1;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 					}
 				}
 				else {
@@ -774,11 +930,11 @@ public class TranslateToSAT {
 						clause[0] = (vector1 + i) * -1;
 						clause[1] = vector3 + i;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 						clause[0] = vector1 + i;
 						clause[1] = (vector3 + i) * -1;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 					}
 					clause = new int [1];
 					for (int i = 0; i < lengthOfRight; i++) {
@@ -786,7 +942,7 @@ public class TranslateToSAT {
 						int offset = character - SymbolicStringConstraintsGeneral.MIN_CHAR;
 						clause[0] = vector3 + (i + lengthOfLeft)* SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 						//printClause(clause);
-						solver.addClause(new VecInt(clause));
+						addClause(clause);
 					}
 					
 				}
@@ -816,11 +972,11 @@ public class TranslateToSAT {
 				clause[0] = (vector1 + i) * -1;
 				clause[1] = vector2 + i;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 				clause[0] = vector1 + i;
 				clause[1] = (vector2 + i) * -1;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			//println ("Equal end");
 		}
@@ -841,7 +997,7 @@ public class TranslateToSAT {
 				offset = c - SymbolicStringConstraintsGeneral.MIN_CHAR;
 				clause[0] = vector2 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 		}
 		else if (e.getDest().isConstant()) {
@@ -861,7 +1017,7 @@ public class TranslateToSAT {
 				offset = c - SymbolicStringConstraintsGeneral.MIN_CHAR;
 				clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 		}
 		else {
@@ -895,11 +1051,11 @@ public class TranslateToSAT {
 				clause[1] = vector2 + i;
 				
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 				clause[0] = vector1 + offsetInSource + i;
 				clause[1] = (vector2 + i) * -1;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			//println ("Substring end");
 		}
@@ -917,7 +1073,7 @@ public class TranslateToSAT {
 				offset = c - SymbolicStringConstraintsSAT.MIN_CHAR;
 				clause[0] = vector2 + i * SymbolicStringConstraintsSAT.DIFF_CHAR + offset;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}*/
 		}
 		else if (e.getDest().isConstant()) {
@@ -933,7 +1089,7 @@ public class TranslateToSAT {
 				offset = c - SymbolicStringConstraintsGeneral.MIN_CHAR;
 				clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 				//printClause (clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 		}
 		else {
@@ -969,11 +1125,11 @@ public class TranslateToSAT {
 				clause[1] = vector2 + i;
 				
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 				clause[0] = vector1 + offsetInSource + i;
 				clause[1] = (vector2 + i) * -1;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			//println ("Substring end");
 		}
@@ -991,7 +1147,7 @@ public class TranslateToSAT {
 				offset = c - SymbolicStringConstraintsSAT.MIN_CHAR;
 				clause[0] = vector2 + i * SymbolicStringConstraintsSAT.DIFF_CHAR + offset;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}*/
 		}
 		else if (e.getDest().isConstant()) {
@@ -1008,7 +1164,7 @@ public class TranslateToSAT {
 				offset = c - SymbolicStringConstraintsGeneral.MIN_CHAR;
 				clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 				//printClause (clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 
 		}
@@ -1059,11 +1215,11 @@ public class TranslateToSAT {
 					clause[index] = (vector1 + j + positionOfDest * SymbolicStringConstraintsGeneral.DIFF_CHAR) * -1; index++;
 					clause[index] = vector2 + j; index = index - 1;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 					clause[index] = vector1 + j + positionOfDest * SymbolicStringConstraintsGeneral.DIFF_CHAR; index++;
 					clause[index] = (vector2 + j) * -1;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 				}
 			}
 		}
@@ -1078,7 +1234,7 @@ public class TranslateToSAT {
 				int character = c - SymbolicStringConstraintsGeneral.MIN_CHAR;
 				clause[0] = vector2 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + character;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 		}
 		else if (e.getDest().isConstant()) {
@@ -1125,7 +1281,7 @@ public class TranslateToSAT {
 					clause[i] = Integer.parseInt(c.get(i).getValue());
 				}
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			//println ("Trim cons end");
 			
@@ -1219,7 +1375,7 @@ public class TranslateToSAT {
 
 			}
 			//printClause(clause);
-			solver.addClause(new VecInt(clause));
+			addClause(clause);
 		}
 		else {
 			//Should be handled before this level
@@ -1261,7 +1417,7 @@ public class TranslateToSAT {
 				int val = e.getDest().getSolution().charAt(i) - SymbolicStringConstraintsGeneral.MIN_CHAR;
 				clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + val;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 		}
 		else {
@@ -1276,11 +1432,11 @@ public class TranslateToSAT {
 				clause[0] = (vector1 + i) * -1;
 				clause[1] = vector2 + i;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 				clause[0] = vector1 + i;
 				clause[1] = (vector2 + i) * -1;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 			//println ("Startswith end");
 			////println ("[handleStartsWith] " + e.getDest() + " should be constant");
@@ -1306,7 +1462,7 @@ public class TranslateToSAT {
 				int val = e.getDest().getSolution().charAt(i) - SymbolicStringConstraintsGeneral.MIN_CHAR;
 				clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + val;
 				//printClause(clause);
-				solver.addClause(new VecInt(clause));
+				addClause(clause);
 			}
 		}
 		else {
@@ -1356,11 +1512,11 @@ public class TranslateToSAT {
 					clause[0] = vector1 + i;
 					clause[1] = (vector2 + (i - vectorPos)) * -1;
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 					clause[0] = (vector1 + i) * -1;
 					clause[1] = vector2 + (i - vectorPos);
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 					
 				}
 				//println ("[handleEdgeIndexOf] end");
@@ -1384,7 +1540,7 @@ public class TranslateToSAT {
 					offset = c - SymbolicStringConstraintsGeneral.MIN_CHAR;
 					clause[0] = vector1 + i * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 					//printClause (clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 				}
 			}
 			else {
@@ -1399,7 +1555,7 @@ public class TranslateToSAT {
 						clause[j-i] = (vector1 + j * SymbolicStringConstraintsGeneral.DIFF_CHAR + offset) * -1;
 					}
 					//printClause(clause);
-					solver.addClause(new VecInt(clause));
+					addClause(clause);
 
 				}
 			}
@@ -1421,7 +1577,7 @@ public class TranslateToSAT {
 					offset = c - SymbolicStringConstraintsGeneral.MIN_CHAR;
 					tempClause[0] = vector2 + (j - pos)* SymbolicStringConstraintsGeneral.DIFF_CHAR + offset;
 					//printClause(tempClause);
-					solver.addClause(new VecInt(tempClause));
+					addClause(tempClause);
 				}
 			}
 			else {
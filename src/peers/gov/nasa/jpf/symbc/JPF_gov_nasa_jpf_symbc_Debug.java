@@ -19,9 +19,9 @@
 package gov.nasa.jpf.symbc;
 
 import java.util.HashSet;
-import java.util.Set;
 
 import gov.nasa.jpf.annotation.MJI;
+import gov.nasa.jpf.symbc.abstraction.AbstractStateStore;
 import gov.nasa.jpf.symbc.heap.HeapChoiceGenerator;
 import gov.nasa.jpf.symbc.heap.HeapNode;
 import gov.nasa.jpf.symbc.heap.Helper;
@@ -773,8 +773,7 @@ public class JPF_gov_nasa_jpf_symbc_Debug extends NativePeer {
         return abstractedState;
     }
 
-    // stores abstract states seen so far
-    private static Set<String> abstracStatesSeenSoFar = new HashSet<String>();
+    // abstract states seen so far are kept in the AbstractStateStore (symbolic.abstract_states)
     public static final int NEW_STATE = 1;
     public static final int OLD_STATE = 2;
 
@@ -782,9 +781,7 @@ public class JPF_gov_nasa_jpf_symbc_Debug extends NativePeer {
      * Is the state seen before? Update AND return NEW_STATE if state is new. if state is old, return OLD_STATE
      */
     public static int checkAndUpdateAbstractStatesSeenSoFar(String state) {
-        // the contains check is redundant. retained for clarity.
-        if (!abstracStatesSeenSoFar.contains(state)) {
-            abstracStatesSeenSoFar.add(state);
+        if (AbstractStateStore.getInstance().add(state)) {
             return NEW_STATE; // new state
         }
         return OLD_STATE; // state seen before.
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.ucsb.cs.vlab;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import edu.ucsb.cs.vlab.Z3Interface.ExternalToolException;
+import edu.ucsb.cs.vlab.Z3Interface.Processor;
+import edu.ucsb.cs.vlab.modelling.Output;
+import edu.ucsb.cs.vlab.versions.Z3InteractiveProcessor;
+import gov.nasa.jpf.util.test.TestJPF;
+
+/**
+ * Runs the interactive protocol against a shell script standing in for
+ * Z3-str: it answers every query with a model that numbers the queries, so
+ * a reused process counts on.
+ */
+public class TestZ3Pool extends TestJPF {
+	private static final String FAKE_Z3 = "n=0; while IFS= read -r l; do case \"$l\" in *@@end-of-query@@*) "
+			+ "n=$((n+1)); echo sat; echo '(model'; echo '  (define-fun x () String'; echo \"    \\\"$n\\\")\"; "
+			+ "echo ')'; echo '@@end-of-query@@';; esac; done";
+
+	// answers with the number of (reset)s seen so far
+	private static final String RESET_Z3 = "r=0; while IFS= read -r l; do case \"$l\" in '(reset)') r=$((r+1));; "
+			+ "*@@end-of-query@@*) echo sat; echo '(model'; echo '  (define-fun x () String'; echo \"    \\\"$r\\\")\"; "
+			+ "echo ')'; echo '@@end-of-query@@';; esac; done";
+
+	private static final String SILENT_Z3 = "exec cat > /dev/null";
+
+	private static Processor processor(final String script) {
+		return new Processor(new Z3InteractiveProcessor(), () -> new ProcessBuilder("sh", "-c", script).start());
+	}
+
+	private static void configure(final String timeout, final String keepTemp) {
+		Z3.getProperties().setProperty("strings.timeout_ms", timeout);
+		Z3.getProperties().setProperty("strings.keep_temp", keepTemp);
+	}
+
+	@Test
+	public void testInteractiveProtocol() throws IOException {
+		configure("0", "no");
+		final Processor p = processor(FAKE_Z3);
+		try {
+			for (int i = 1; i <= 3; i++) {
+				p.send("(declare-fun x () String)");
+				final Output out = p.finish("(check-sat)\n(get-model)");
+				assertTrue(out.isSAT());
+				assertEquals("\"" + i + "\"", out.getValue("x"));
+				// the query file is gone after the answer
+				assertFalse(Files.exists(Paths.get(p.getTempFile())));
+			}
+			assertTrue(p.isHealthy());
+		} finally {
+			p.destroy();
+		}
+	}
+
+	@Test
+	public void testKeepTempFile() throws IOException {
+		configure("0", "yes");
+		final Processor p = processor(FAKE_Z3);
+		try {
+			p.finish("(check-sat)\n(get-model)");
+			assertTrue(new String(Files.readAllBytes(Paths.get(p.getTempFile()))).contains("(check-sat)"));
+		} finally {
+			configure("0", "no");
+			p.destroy();
+		}
+		assertFalse(Files.exists(Paths.get(p.getTempFile())));
+	}
+
+	@Test
+	public void testPoolReusesProcesses() throws IOException {
+		configure("0", "no");
+		final Z3Pool pool = new Z3Pool(2, () -> processor(FAKE_Z3));
+		try {
+			final Processor p = pool.acquire();
+			assertEquals("\"1\"", p.finish("(check-sat)\n(get-model)").getValue("x"));
+			p.close();
+			final Processor q = pool.acquire();
+			assertSame(p, q);
+			assertEquals("\"2\"", q.finish("(check-sat)\n(get-model)").getValue("x"));
+
+			// a second processor only while the first one is in use
+			final Processor r = pool.acquire();
+			assertNotSame(q, r);
+			q.close();
+			r.close();
+			assertEquals("# Z3-str pool: 2 processes, 2 started, 3 queries", pool.getStatistics());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testResetOnRelease() throws IOException {
+		configure("0", "no");
+		final Z3Pool pool = new Z3Pool(1, () -> processor(RESET_Z3));
+		try {
+			final Processor p = pool.acquire();
+			assertEquals("\"0\"", p.finish("(check-sat)\n(get-model)").getValue("x"));
+			p.close();
+			final Processor q = pool.acquire();
+			assertSame(p, q);
+			assertEquals("\"1\"", q.finish("(check-sat)\n(get-model)").getValue("x"));
+			q.close();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testTimedOutProcessIsReplaced() throws IOException {
+		configure("200", "no");
+		final Z3Pool pool = new Z3Pool(1, () -> processor(SILENT_Z3));
+		try {
+			final Processor p = pool.acquire();
+			try {
+				p.finish("(check-sat)");
+				fail("the silent process should have been killed");
+			} catch (ExternalToolException expected) {
+			}
+			assertFalse(p.isHealthy());
+			p.close();
+			assertFalse(Files.exists(Paths.get(p.getTempFile())));
+
+			final Processor q = pool.acquire();
+			assertNotSame(p, q);
+			assertEquals("# Z3-str pool: 1 processes, 2 started, 2 queries", pool.getStatistics());
+			q.close();
+		} finally {
+			configure("0", "no");
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnhealthyProcessorIsDiscarded() throws IOException {
+		configure("0", "no");
+		final Z3Pool pool = new Z3Pool(1, () -> processor(FAKE_Z3));
+		try {
+			final Processor p = pool.acquire();
+			p.finish("(check-sat)\n(get-model)");
+			// as when the watchdog fires after the answer was read: the process may still be alive
+			p.markUnhealthy();
+			p.close();
+			assertNotSame(p, pool.acquire());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc;
+
+import gov.nasa.jpf.symbc.arrays.ArrayExpression;
+import gov.nasa.jpf.symbc.arrays.SnapshotExpression;
+
+import org.junit.Test;
+
+public class TestConcreteArraySnapshot extends InvokeTest {
+
+  private static final String ARRAYS = "+symbolic.arrays=true";
+  private static final String DP = "+symbolic.dp=z3";
+
+  // the elements stored before the symbolic load must be in the snapshot
+  private void testInt(int i) {
+    int[] a = new int[4];
+    a[1] = 7;
+    a[3] = -2;
+    if (i >= 0 && i < a.length) {
+      int v = a[i];
+      if (v == 7 && i != 1) {
+        assert false : "only a[1] is 7";
+      }
+      if (v == -2 && i != 3) {
+        assert false : "only a[3] is -2";
+      }
+      if (v == 5) {
+        assert false : "no element is 5";
+      }
+    }
+  }
+
+  private void testDouble(int i) {
+    double[] a = new double[3];
+    a[0] = 1.5;
+    a[2] = -0.5;
+    if (i >= 0 && i < a.length) {
+      double v = a[i];
+      if (v == 1.5 && i != 0) {
+        assert false : "only a[0] is 1.5";
+      }
+      if (v > 2.0) {
+        assert false : "no element is greater than 2.0";
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    runTestsOfThisClass(args);
+  }
+
+  @Test
+  public void testIntArray() {
+    if (verifyNoPropertyViolation(INSN_FACTORY, ARRAYS, DP,
+        "+symbolic.method=gov.nasa.jpf.symbc.TestConcreteArraySnapshot.testInt(sym)")) {
+      testInt(0);
+    }
+  }
+
+  @Test
+  public void testDoubleArray() {
+    if (verifyNoPropertyViolation(INSN_FACTORY, ARRAYS, DP,
+        "+symbolic.method=gov.nasa.jpf.symbc.TestConcreteArraySnapshot.testDouble(sym)")) {
+      testDouble(0);
+    }
+  }
+
+  @Test
+  public void testOrdering() {
+    ArrayExpression a = ArrayExpression.create("a", 3);
+    ArrayExpression b = ArrayExpression.create("b", 3);
+    SnapshotExpression s1 = new SnapshotExpression(a, new long[] { 0, 7, 0 });
+    SnapshotExpression s2 = new SnapshotExpression(a, new long[] { 0, 7, 1 });
+    SnapshotExpression s3 = new SnapshotExpression(a, new long[] { 0, 7 });
+    SnapshotExpression s4 = new SnapshotExpression(b, new long[] { 0, 7, 0 });
+    SnapshotExpression r1 = new SnapshotExpression(a, new double[] { 0.0, 7.0, 0.0 });
+
+    assertEquals(0, s1.compareTo(new SnapshotExpression(a, new long[] { 0, 7, 0 })));
+    assertTrue(s1.compareTo(s2) < 0 && s2.compareTo(s1) > 0);
+    assertTrue(s3.compareTo(s1) < 0 && s1.compareTo(s3) > 0);
+    assertTrue(s1.compareTo(s4) < 0 && s4.compareTo(s1) > 0);
+    assertTrue(s1.compareTo(r1) != 0 && Integer.signum(s1.compareTo(r1)) == -Integer.signum(r1.compareTo(s1)));
+    assertTrue(s1.compareTo(a) != 0);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc;
+
+import org.junit.Test;
+
+public class TestIncrementalSolving extends InvokeTest {
+
+  private static final String SYM_METHOD = "+symbolic.method=gov.nasa.jpf.symbc.TestIncrementalSolving.test(sym#sym)";
+  private static final String LISTENER = "+listener=gov.nasa.jpf.symbc.numeric.solvers.IncrementalListener";
+
+  // infeasible branches must not be explored, no matter in which order
+  // the solver sees the path conditions
+  private void test(int x, int y) {
+    if (x > 10) {
+      if (x < 5) {
+        assert false : "infeasible: x > 10 && x < 5";
+      }
+      if (y == x) {
+        if (y <= 10) {
+          assert false : "infeasible: x > 10 && y == x && y <= 10";
+        }
+      }
+    } else {
+      if (x > 10) {
+        assert false : "infeasible: x <= 10 && x > 10";
+      }
+      for (int i = 0; i < 3; i++) {
+        if (y > x + i) {
+          y--;
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    runTestsOfThisClass(args);
+  }
+
+  @Test
+  public void testZ3() {
+    if (verifyNoPropertyViolation(INSN_FACTORY, SYM_METHOD, LISTENER, "+symbolic.dp=z3")) {
+      test(0, 0);
+    }
+  }
+
+  @Test
+  public void testZ3WithoutChoiceOptimization() {
+    if (verifyNoPropertyViolation(INSN_FACTORY, SYM_METHOD, LISTENER, "+symbolic.dp=z3",
+        "+symbolic.optimizechoices=false")) {
+      test(0, 0);
+    }
+  }
+
+  @Test
+  public void testZ3BitVector() {
+    if (verifyNoPropertyViolation(INSN_FACTORY, SYM_METHOD, LISTENER, "+symbolic.dp=z3bitvector")) {
+      test(0, 0);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc;
+
+import org.junit.Test;
+
+public class TestParallelBranches extends InvokeTest {
+
+  private static final String SYM_METHOD = "+symbolic.method=gov.nasa.jpf.symbc.TestParallelBranches.test(sym#sym#sym)";
+  private static final String PARALLEL = "+symbolic.parallel_branches=true";
+  private static final String LISTENER = "+listener=gov.nasa.jpf.symbc.ParallelBranchListener";
+
+  private void test(int x, int y, long z) {
+    if (x > y) {
+      if (y > x) {
+        assert false : "infeasible: x > y && y > x";
+      }
+    } else if (x == y) {
+      if (z < x) {
+        if (z >= y) {
+          assert false : "infeasible: x == y && z < x && z >= y";
+        }
+      }
+    }
+    if (z > 0L) {
+      if (z < 1L) {
+        assert false : "infeasible: z > 0 && z < 1";
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    runTestsOfThisClass(args);
+  }
+
+  @Test
+  public void testChoco() {
+    if (verifyNoPropertyViolation(INSN_FACTORY, SYM_METHOD, PARALLEL, LISTENER, "+symbolic.dp=choco")) {
+      test(0, 0, 0L);
+    }
+  }
+
+  @Test
+  public void testTwoThreads() {
+    if (verifyNoPropertyViolation(INSN_FACTORY, SYM_METHOD, PARALLEL, LISTENER, "+symbolic.dp=choco",
+        "+symbolic.parallel_branches.threads=2")) {
+      test(0, 0, 0L);
+    }
+  }
+}
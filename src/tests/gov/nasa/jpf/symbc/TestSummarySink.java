@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc;
+
+import gov.nasa.jpf.symbc.SymbolicListener.MethodSummary;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestSummarySink extends TestJPF {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = File.createTempFile("summaries", ".jsonl");
+        file.deleteOnExit();
+
+        // a small buffer, so that the lines do not all fit
+        SummarySink sink = new SummarySink(file.getPath(), 64, 1000);
+        sink.method("Ex.foo(II)I", "Ex.foo", "5,5", "1,2", "x_1_SYM,y_2_SYM");
+        sink.path("Ex.foo(II)I", "x_1_SYM[3] > CONST_0", "Return Value: 1");
+        sink.path("Ex.foo(II)I", "x_1_SYM[3] > CONST_0", "Return Value: 1");
+        // the same arguments again: no new "method" line
+        sink.method("Ex.foo(II)I", "Ex.foo", "5,5", "1,2", "x_1_SYM,y_2_SYM");
+        sink.path("Ex.foo(II)I", "x_1_SYM[-1] <= CONST_0", "\"java.lang.AssertionError\n...\"");
+        sink.close();
+        assertEquals(3, sink.getPaths());
+
+        Map<String, MethodSummary> summaries = SummaryReport.read(file);
+        assertEquals(1, summaries.size());
+        MethodSummary summary = summaries.get("Ex.foo(II)I");
+        assertEquals("Ex.foo", summary.getMethodName());
+        assertEquals("x_1_SYM,y_2_SYM", summary.getSymValues());
+        assertEquals(2, summary.getPathConditions().size());
+        assertEquals("\"java.lang.AssertionError\n...\"", summary.getPathConditions().get(1)._2);
+    }
+
+    @Test
+    public void testIncompleteLastLine() throws IOException {
+        File file = File.createTempFile("summaries", ".jsonl");
+        file.deleteOnExit();
+
+        SummarySink sink = new SummarySink(file.getPath(), 1024, 0);
+        sink.method("Ex.bar(I)V", "Ex.bar", "5", "0", "x_1_SYM");
+        sink.path("Ex.bar(I)V", "x_1_SYM[0] == CONST_0", "Return Value: --");
+        sink.close();
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write("{\"type\":\"path\",\"key\":\"Ex.b".getBytes("UTF-8"));
+        out.close();
+
+        Map<String, MethodSummary> summaries = SummaryReport.read(file);
+        assertEquals(1, summaries.get("Ex.bar(I)V").getPathConditions().size());
+    }
+
+    @Test
+    public void testNullValues() throws IOException {
+        File file = File.createTempFile("summaries", ".jsonl");
+        file.deleteOnExit();
+
+        SummarySink sink = new SummarySink(file.getPath(), 1024, 0);
+        sink.method("Ex.baz()V", "Ex.baz", "", "", null);
+        sink.path("Ex.baz()V", "x_1_SYM[0] == CONST_0", null);
+        sink.close();
+
+        MethodSummary summary = SummaryReport.read(file).get("Ex.baz()V");
+        assertNull(summary.getSymValues());
+        assertEquals(1, summary.getPathConditions().size());
+        assertNull(summary.getPathConditions().get(0)._2);
+    }
+
+    @Test
+    public void testTimedFlush() throws IOException, InterruptedException {
+        File file = File.createTempFile("summaries", ".jsonl");
+        file.deleteOnExit();
+
+        // the line fits into the buffer and nothing else is written: only the
+        // timer gets it to the file before close
+        SummarySink sink = new SummarySink(file.getPath(), 1024, 20);
+        sink.path("Ex.foo(II)I", "x_1_SYM[3] > CONST_0", "Return Value: 1");
+        for (int i = 0; i < 100 && file.length() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(file.length() > 0);
+        sink.close();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.abstraction;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TestAbstractStateStore extends TestJPF {
+
+  private static void checkExact(AbstractStateStore store) {
+    for (int i = 0; i < 5000; i++) {
+      assertTrue(store.add("[node" + i + "[null][null]]"));
+    }
+    for (int i = 0; i < 5000; i++) {
+      assertFalse(store.add("[node" + i + "[null][null]]"));
+    }
+    assertTrue(store.add("[node5000[null][null]]"));
+  }
+
+  @Test
+  public void testStrings() {
+    checkExact(new AbstractStateStore.Strings());
+  }
+
+  @Test
+  public void testFingerprints() {
+    checkExact(new AbstractStateStore.Fingerprints(1 << 20, null));
+  }
+
+  @Test
+  public void testFingerprintsSpilled() throws IOException {
+    File file = File.createTempFile("states", ".bin");
+    AbstractStateStore store = new AbstractStateStore.Fingerprints(700, file.getPath());
+    try {
+      checkExact(store);
+      assertTrue(store.getStatistics().contains(" runs"));
+    } finally {
+      store.release();
+    }
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void testCloseAtSearchFinished() throws IOException {
+    File file = File.createTempFile("states", ".bin");
+    AbstractStateStore.configure(new Config(new String[] { "+symbolic.abstract_states=fingerprints",
+        "+symbolic.abstract_states.file=" + file.getPath() }));
+    assertFalse(AbstractStateStore.isUsed());
+    assertTrue(AbstractStateStore.getInstance().add("state"));
+    assertTrue(AbstractStateStore.isUsed());
+    AbstractStateStore.close();
+    assertFalse(AbstractStateStore.isUsed());
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void testBloomHasNoFalseNegatives() {
+    AbstractStateStore store = new AbstractStateStore.Bloom(1 << 20, 4);
+    for (int i = 0; i < 1000; i++) {
+      store.add("state" + i);
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertFalse(store.add("state" + i));
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.bytecode;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.Vector;
+
+import org.junit.Test;
+
+public class TestSymbolicTargets extends TestJPF {
+
+    @Test
+    public void testMethods() {
+        SymbolicTargets targets = new SymbolicTargets(
+                new String[] { "pkg.Foo.bar(sym#con)", "pkg.Foo.run()", "pkg.Baz.*(sym)" }, null);
+
+        Vector<String> args = new Vector<String>();
+        assertTrue(targets.isMethodSymbolic("pkg.Foo.bar(IZ)V", 2, args));
+        assertEquals(2, args.size());
+        assertEquals("sym", args.get(0));
+        assertEquals("con", args.get(1));
+        assertTrue(targets.isMethodSymbolic("PKG.foo.BAR", 2, null));
+        assertTrue(targets.isMethodSymbolic("pkg.Foo.run()V", 0, null));
+        assertFalse(targets.isMethodSymbolic("pkg.Foo.other(I)V", 1, null));
+
+        // a pattern only matches its number of arguments
+        assertTrue(targets.isMethodSymbolic("pkg.Baz.get(I)I", 1, null));
+        assertFalse(targets.isMethodSymbolic("pkg.Baz.get(II)I", 2, null));
+
+        try {
+            targets.isMethodSymbolic("pkg.Foo.bar(I)V", 1, null);
+            fail("the number of arguments does not match symbolic.method");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testClassPatterns() {
+        SymbolicTargets.NameMatcher<String> classes = new SymbolicTargets.NameMatcher<String>();
+        classes.add("pkg.Foo", "pkg.Foo");
+        classes.add("pkg.util.*", "pkg.util.*");
+        classes.add("*.Test*Case", "*.Test*Case");
+
+        assertTrue(classes.matches("pkg.foo"));
+        assertFalse(classes.matches("pkg.Foo2"));
+        assertTrue(classes.matches("pkg.util.List"));
+        assertTrue(classes.matches("pkg.util.concurrent.Queue"));
+        assertFalse(classes.matches("pkg.utils.List"));
+        assertTrue(classes.matches("a.b.TestFooCase"));
+        assertFalse(classes.matches("a.b.TestFoo"));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.concolic;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.numeric.Expression;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.SymbolicInteger;
+import gov.nasa.jpf.symbc.numeric.SymbolicReal;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class TestFunctionExpression extends TestJPF {
+
+	static int calls = 0;
+
+	public static double scale (int x, double y) {
+		calls++;
+		return x * y;
+	}
+
+	private FunctionExpression scale (SymbolicInteger x, SymbolicReal y) {
+		return new FunctionExpression(TestFunctionExpression.class.getName(), "scale",
+				new Class<?>[] { int.class, double.class }, new Expression[] { x, y },
+				new ArrayList<PathCondition>());
+	}
+
+	private void configure (String... options) {
+		FunctionExpression.configure(new Config(options));
+		// outside of JPF: load the functions from the test class path
+		FunctionExpression.clsLoader = new URLClassLoader(new URL[0], TestFunctionExpression.class.getClassLoader());
+		calls = 0;
+	}
+
+	@Test
+	public void testInvocation () {
+		configure();
+		SymbolicInteger x = new SymbolicInteger("x");
+		SymbolicReal y = new SymbolicReal("y");
+		x.solution = 3;
+		y.solution = 2.5;
+		FunctionExpression f = scale(x, y);
+		assertEquals(7.5, f.solution(), 0.0);
+		assertEquals(7.5, f.solution(), 0.0);
+		// not declared pure: called every time
+		assertEquals(2, calls);
+	}
+
+	@Test
+	public void testPureFunctions () {
+		configure("+symbolic.concolic.pure=" + TestFunctionExpression.class.getName() + ".scale",
+				"+symbolic.concolic.memo_size=2");
+		SymbolicInteger x = new SymbolicInteger("x");
+		SymbolicReal y = new SymbolicReal("y");
+		FunctionExpression f = scale(x, y);
+		y.solution = 1.0;
+		for (int i = 0; i < 3; i++) {
+			x.solution = 1;
+			assertEquals(1.0, f.solution(), 0.0);
+			x.solution = 2;
+			assertEquals(2.0, f.solution(), 0.0);
+		}
+		assertEquals(2, calls);
+
+		// (1, 1.0) falls out of the memo
+		x.solution = 3;
+		assertEquals(3.0, scale(x, y).solution(), 0.0);
+		x.solution = 1;
+		assertEquals(1.0, f.solution(), 0.0);
+		assertEquals(4, calls);
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.heap;
+
+import gov.nasa.jpf.ListenerAdapter;
+import gov.nasa.jpf.search.Search;
+import gov.nasa.jpf.symbc.arrays.ArrayHeapNode;
+import gov.nasa.jpf.symbc.numeric.IntegerConstant;
+import gov.nasa.jpf.symbc.numeric.SymbolicInteger;
+import gov.nasa.jpf.util.test.TestJPF;
+import gov.nasa.jpf.vm.ClassInfo;
+import gov.nasa.jpf.vm.ClassLoaderInfo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSymbolicInputHeap extends TestJPF {
+
+    /**
+     * Runs the checks once the VM is up, so that there are ClassInfos for the
+     * heap nodes; a failed check ends the JPF run with its AssertionError.
+     */
+    public static class ForkCheck extends ListenerAdapter {
+        @Override
+        public void searchStarted(Search search) {
+            checkForkIsolation();
+        }
+    }
+
+    private static HeapNode node(int idx, ClassInfo type) {
+        return new HeapNode(idx, type, new SymbolicInteger("n" + idx));
+    }
+
+    private static ArrayHeapNode arrayNode(int idx, ClassInfo type, int ref) {
+        return new ArrayHeapNode(idx, type, new SymbolicInteger("a" + idx), new IntegerConstant(0), ref);
+    }
+
+    static void checkForkIsolation() {
+        ClassInfo object = ClassLoaderInfo.getCurrentResolvedClassInfo("java.lang.Object");
+        ClassInfo number = ClassLoaderInfo.getCurrentResolvedClassInfo("java.lang.Number");
+        ClassInfo integer = ClassLoaderInfo.getCurrentResolvedClassInfo("java.lang.Integer");
+        ClassInfo string = ClassLoaderInfo.getCurrentResolvedClassInfo("java.lang.String");
+
+        SymbolicInputHeap heap = new SymbolicInputHeap();
+        HeapNode i1 = node(0, integer);
+        HeapNode s1 = node(1, string);
+        heap._add(i1);
+        heap._add(s1);
+        // Object and Number are indexed before the fork, String only after it
+        Assert.assertArrayEquals(new HeapNode[] { s1, i1 }, heap.getNodesOfType(object));
+        Assert.assertArrayEquals(new HeapNode[] { i1 }, heap.getNodesOfType(number));
+
+        SymbolicInputHeap fork = heap.make_copy();
+        HeapNode i2 = node(2, integer);
+        HeapNode s2 = node(3, string);
+        ArrayHeapNode a1 = arrayNode(4, integer, 7);
+        ArrayHeapNode a2 = arrayNode(5, integer, 7);
+        ArrayHeapNode a3 = arrayNode(6, integer, 8);
+        heap._add(i2);
+        fork._add(s2);
+        heap._add(a1);
+        fork._add(a2);
+        heap._add(a3);
+        heap._add(i1); // already there
+
+        Assert.assertEquals(5, heap.count());
+        Assert.assertEquals(4, fork.count());
+
+        Assert.assertTrue(heap.hasNode(i1) && heap.hasNode(s1) && fork.hasNode(i1) && fork.hasNode(s1));
+        Assert.assertTrue(heap.hasNode(i2) && heap.hasNode(a1));
+        Assert.assertFalse(fork.hasNode(i2) || fork.hasNode(a1) || fork.hasNode(a3));
+        Assert.assertTrue(fork.hasNode(s2) && fork.hasNode(a2));
+        Assert.assertFalse(heap.hasNode(s2) || heap.hasNode(a2));
+
+        Assert.assertArrayEquals(new HeapNode[] { a3, a1, i2, s1, i1 }, heap.getNodesOfType(object));
+        Assert.assertArrayEquals(new HeapNode[] { a2, s2, s1, i1 }, fork.getNodesOfType(object));
+        Assert.assertArrayEquals(new HeapNode[] { a3, a1, i2, i1 }, heap.getNodesOfType(number));
+        Assert.assertArrayEquals(new HeapNode[] { a2, i1 }, fork.getNodesOfType(number));
+        Assert.assertArrayEquals(new HeapNode[] { s1 }, heap.getNodesOfType(string));
+        Assert.assertArrayEquals(new HeapNode[] { s2, s1 }, fork.getNodesOfType(string));
+
+        Assert.assertArrayEquals(new ArrayHeapNode[] { a1 }, heap.getArrayNodesOfType(object, 7));
+        Assert.assertArrayEquals(new ArrayHeapNode[] { a2 }, fork.getArrayNodesOfType(object, 7));
+        Assert.assertArrayEquals(new ArrayHeapNode[] { a3 }, heap.getArrayNodesOfType(number, 8));
+        Assert.assertArrayEquals(new ArrayHeapNode[0], fork.getArrayNodesOfType(object, 8));
+        Assert.assertArrayEquals(new ArrayHeapNode[0], heap.getArrayNodesOfType(string, 7));
+
+        // a copy of a copy: neither side sees the other's nodes either
+        SymbolicInputHeap fork2 = fork.make_copy();
+        HeapNode i3 = node(7, integer);
+        ArrayHeapNode a4 = arrayNode(8, integer, 7);
+        fork2._add(i3);
+        fork2._add(a4);
+        fork._add(node(9, string));
+        Assert.assertArrayEquals(new HeapNode[] { a4, i3, a2, i1 }, fork2.getNodesOfType(number));
+        Assert.assertArrayEquals(new HeapNode[] { a2, i1 }, fork.getNodesOfType(number));
+        Assert.assertArrayEquals(new HeapNode[] { s2, s1 }, fork2.getNodesOfType(string));
+        Assert.assertArrayEquals(new ArrayHeapNode[] { a4, a2 }, fork2.getArrayNodesOfType(object, 7));
+        Assert.assertArrayEquals(new ArrayHeapNode[] { a2 }, fork.getArrayNodesOfType(object, 7));
+        Assert.assertArrayEquals(new ArrayHeapNode[] { a1 }, heap.getArrayNodesOfType(object, 7));
+    }
+
+    @Test
+    public void testForkIsolation() {
+        if (verifyNoPropertyViolation("+listener=" + ForkCheck.class.getName())) {
+            // the checks run in the listener
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+public class TestConstraintSlicer extends TestJPF {
+
+  private static void setUp() {
+    String[] options = {"+symbolic.dp=choco", "+symbolic.slicing=true"};
+    new SymbolicInstructionFactory(new Config(options));
+  }
+
+  @Test
+  public void testSliceOfNewConstraint() {
+    setUp();
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    SymbolicInteger z = new SymbolicInteger("z", -100, 100);
+
+    // x > 0 && y > x && z > 0
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, 0);
+    pc._addDet(Comparator.GT, y, x);
+    pc._addDet(Comparator.GT, z, 0);
+    assertNull(ConstraintSlicer.slice(pc)); // nothing known yet
+    assertTrue(pc.simplify());
+
+    PathCondition onZ = pc.make_copy();
+    onZ._addDet(Comparator.LT, z, 10);
+    assertEquals(2, ConstraintSlicer.slice(onZ).count());
+    assertTrue(onZ.simplify());
+
+    PathCondition onY = pc.make_copy();
+    onY._addDet(Comparator.LT, y, 1);
+    assertEquals(3, ConstraintSlicer.slice(onY).count());
+    assertFalse(onY.simplify());
+
+    // nothing new
+    assertEquals(0, ConstraintSlicer.slice(pc).count());
+  }
+
+  @Test
+  public void testUnsupportedConstraints() {
+    setUp();
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, 0);
+    pc._addDet(new LogicalORLinearIntegerConstraints());
+    ConstraintSlicer.markSatisfiable(pc);
+
+    PathCondition next = pc.make_copy();
+    next._addDet(Comparator.GT, y, 0);
+    assertNull(ConstraintSlicer.slice(next));
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+public class TestExpressionPool extends TestJPF {
+
+  private static void setUp(boolean intern) {
+    String[] options = {"+symbolic.dp=choco", "+symbolic.intern_expressions=" + intern};
+    new SymbolicInstructionFactory(new Config(options));
+  }
+
+  @Test
+  public void testEqualExpressionsAreShared() {
+    setUp(true);
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    SymbolicReal r = new SymbolicReal("r", -100, 100);
+
+    assertSame(x._plus(1)._mul(3), x._plus(1)._mul(3));
+    assertSame(x._mul(y)._minus(2), x._mul(y)._minus(2));
+    assertSame(r._plus(0.5)._div(r), r._plus(0.5)._div(r));
+    assertNotSame(x._plus(1), y._plus(1));
+    assertNotSame(r._plus(0.0), r._plus(-0.0));
+  }
+
+  @Test
+  public void testDisabled() {
+    setUp(false);
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    IntegerExpression e1 = x._plus(1);
+    IntegerExpression e2 = x._plus(1);
+    assertNotSame(e1, e2);
+    assertEquals(e1, e2);
+    assertEquals(0, ExpressionPool.size());
+  }
+}
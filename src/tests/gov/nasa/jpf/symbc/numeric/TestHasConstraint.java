@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+public class TestHasConstraint extends TestJPF {
+
+  @Test
+  public void testRepeatedConstraints() {
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicReal r = new SymbolicReal("r", -100, 100);
+    PathCondition pc = new PathCondition();
+    for (int i = 0; i < 1000; i++) {
+      pc._addDet(Comparator.GT, x._plus(i), 0);
+    }
+    pc._addDet(Comparator.LT, r, 0.0);
+    assertEquals(1001, pc.count());
+
+    // structurally equal, but different objects
+    pc._addDet(Comparator.GT, x._plus(500), 0);
+    pc._addDet(Comparator.LT, r, -0.0);
+    assertEquals(1001, pc.count());
+
+    PathCondition copy = pc.make_copy();
+    copy._addDet(Comparator.EQ, x, 7);
+    assertEquals(1002, copy.count());
+    assertEquals(1001, pc.count());
+    assertTrue(copy.hasConstraint(new LinearIntegerConstraint(x, Comparator.EQ, new IntegerConstant(7))));
+    assertFalse(pc.hasConstraint(new LinearIntegerConstraint(x, Comparator.EQ, new IntegerConstant(7))));
+  }
+
+  @Test
+  public void testModifiedConstraintList() {
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, 0);
+    pc._addDet(Comparator.LT, x, 10);
+    assertTrue(pc.hasConstraint(new LinearIntegerConstraint(x, Comparator.LT, new IntegerConstant(10))));
+
+    pc.removeHeader();
+    assertFalse(pc.hasConstraint(new LinearIntegerConstraint(x, Comparator.LT, new IntegerConstant(10))));
+    assertTrue(pc.hasConstraint(new LinearIntegerConstraint(x, Comparator.GT, new IntegerConstant(0))));
+
+    PathCondition other = new PathCondition();
+    other._addDet(Comparator.NE, x, 5);
+    pc.appendAllConjuncts(other.header);
+    assertTrue(pc.hasConstraint(new LinearIntegerConstraint(x, Comparator.NE, new IntegerConstant(5))));
+  }
+}
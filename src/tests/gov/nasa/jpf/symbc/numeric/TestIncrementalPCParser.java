@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.solvers.IncrementalListener;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemGeneral;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemZ3;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+public class TestIncrementalPCParser extends TestJPF {
+
+  private static void setUp() {
+    String[] options = {"+symbolic.dp=z3"};
+    new SymbolicInstructionFactory(new Config(options));
+  }
+
+  // x > 0 && (x == 5 || x == 7), the way the string preprocessor adds it
+  private static PathCondition orPC(SymbolicInteger x) {
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, 0);
+    LogicalORLinearIntegerConstraints loic = new LogicalORLinearIntegerConstraints();
+    loic.addToList(new LinearIntegerConstraint(x, Comparator.EQ, new IntegerConstant(5)));
+    loic.addToList(new LinearIntegerConstraint(x, Comparator.EQ, new IntegerConstant(7)));
+    pc._addDet(loic);
+    return pc;
+  }
+
+  private static long solve(IncrementalPCParser parser, PathCondition pc, SymbolicInteger x) {
+    ProblemGeneral pb = parser.parse(pc);
+    assertNotNull(pb);
+    assertTrue(pb.solve());
+    return pb.getIntValue(parser.getParser().symIntegerVar.get(x));
+  }
+
+  @Test
+  public void testLogicalOrGroup() {
+    setUp();
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    PathCondition pc = orPC(x);
+    IncrementalPCParser parser = new IncrementalPCParser(new ProblemZ3());
+
+    long v = solve(parser, pc, x);
+    assertTrue(v == 5 || v == 7);
+
+    PathCondition above = pc.make_copy();
+    above._addDet(Comparator.GT, x, 6);
+    assertEquals(7, solve(parser, above, x));
+    assertEquals(3, parser.depth());
+
+    // the sibling: only the x > 6 scope is popped
+    PathCondition below = pc.make_copy();
+    below._addDet(Comparator.LT, x, 6);
+    assertEquals(5, solve(parser, below, x));
+    assertEquals(3, parser.depth());
+
+    PathCondition unsat = pc.make_copy();
+    unsat._addDet(Comparator.GT, x, 7);
+    ProblemGeneral pb = parser.parse(unsat);
+    assertTrue(pb == null || !pb.solve());
+  }
+
+  @Test
+  public void testModelFromTheAssertedVariables() {
+    setUp();
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    PathCondition pc = orPC(x);
+    IncrementalListener.solver = new ProblemZ3();
+    try {
+      PathCondition child = pc.make_copy();
+      child._addDet(Comparator.EQ, y, x._plus(1));
+      assertTrue(new SymbolicConstraintsGeneral().solve(child));
+      assertTrue(x.solution == 5 || x.solution == 7);
+      assertEquals(x.solution + 1, y.solution);
+
+      // y's scope is gone on the sibling, and so is y from the model
+      PathCondition sibling = pc.make_copy();
+      sibling._addDet(Comparator.NE, x, 5);
+      SymbolicConstraintsGeneral scg = new SymbolicConstraintsGeneral();
+      assertTrue(scg.solve(sibling));
+      assertEquals(7, x.solution);
+      assertFalse(scg.getParser().symIntegerVar.containsKey(y));
+    } finally {
+      IncrementalListener.solver = null;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.symbc.ParsableConstraint;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestModelCache extends TestJPF {
+
+  private static Map<SymbolicInteger, Long> ints(SymbolicInteger x, long vx, SymbolicInteger y, long vy) {
+    Map<SymbolicInteger, Long> values = new HashMap<SymbolicInteger, Long>();
+    values.put(x, vx);
+    values.put(y, vy);
+    return values;
+  }
+
+  @Test
+  public void testBranchesOfTheParentModel() {
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    ModelCache cache = new ModelCache(2, false, 32);
+    PathCondition parent = new PathCondition();
+    parent._addDet(Comparator.GT, x, 0);
+    parent._addDet(Comparator.GT, y, -5);
+    cache.add(parent, ints(x, 5, y, -3), Collections.<SymbolicReal, Double> emptyMap());
+
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, 0);
+    pc._addDet(Comparator.LT, x._plus(y), 10);
+    ModelCache.Model model = cache.find(pc);
+    assertNotNull(model);
+
+    model.assign(pc, null);
+    assertEquals(5, x.solution);
+    assertEquals(-3, y.solution);
+
+    PathCondition other = pc.make_copy();
+    other._addDet(Comparator.GE, x._mul(y), 0);
+    assertNull(cache.find(other));
+  }
+
+  @Test
+  public void testRecentModelsAndSlices() {
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    SymbolicInteger z = new SymbolicInteger("z", -100, 100);
+    ModelCache cache = new ModelCache(2, false, 32);
+    PathCondition parent = new PathCondition();
+    parent._addDet(Comparator.EQ, x, y);
+    cache.add(parent, ints(x, 1, y, 1), Collections.<SymbolicReal, Double> emptyMap());
+    // a slice over z only: x and y keep their values
+    PathCondition pc = parent.make_copy();
+    pc._addDet(Comparator.GT, z, x);
+    Map<SymbolicInteger, Long> slice = new HashMap<SymbolicInteger, Long>();
+    slice.put(z, 7L);
+    cache.add(pc, slice, Collections.<SymbolicReal, Double> emptyMap());
+    assertNotNull(cache.find(pc));
+
+    cache.add(pc, ints(x, -1, y, 2), Collections.<SymbolicReal, Double> emptyMap());
+    cache.add(pc, ints(x, -2, y, 2), Collections.<SymbolicReal, Double> emptyMap());
+    // the model with x == y fell out of the cache
+    assertNull(cache.find(pc));
+  }
+
+  @Test
+  public void testOnlyTheVariablesOfThePathCondition() {
+    ModelCache cache = new ModelCache(2, false, 32);
+    for (int i = 0; i < 100; i++) {
+      SymbolicInteger v = new SymbolicInteger("v" + i, 0, 10);
+      PathCondition pc = new PathCondition();
+      pc._addDet(Comparator.GE, v, 0);
+      cache.add(pc, Collections.singletonMap(v, 1L), Collections.<SymbolicReal, Double> emptyMap());
+      // the variables of the earlier models are not carried along
+      assertEquals(1, cache.find(pc).values.size());
+    }
+  }
+
+  @Test
+  public void testUndecided() {
+    SymbolicInteger x = new SymbolicInteger("x", Long.MIN_VALUE, Long.MAX_VALUE);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    ModelCache cache = new ModelCache(4, false, 32);
+    PathCondition parent = new PathCondition();
+    parent._addDet(Comparator.GE, x, y);
+    cache.add(parent, ints(x, Long.MAX_VALUE, y, -7), Collections.<SymbolicReal, Double> emptyMap());
+
+    PathCondition overflow = new PathCondition();
+    overflow._addDet(Comparator.LT, x._plus(1), 0);
+    assertNull(cache.find(overflow));
+
+    PathCondition division = new PathCondition();
+    division._addDet(Comparator.EQ, y._div(2), -3);
+    assertNull(cache.find(division));
+
+    PathCondition unknown = new PathCondition();
+    unknown._addDet(Comparator.EQ, new SymbolicInteger("u", 0, 10), 0);
+    assertNull(cache.find(unknown));
+  }
+
+  @Test
+  public void testExtensionOfASolvedPathCondition() {
+    SymbolicInteger x = new SymbolicInteger("x", 0, 30);
+    SymbolicInteger y = new SymbolicInteger("y", 0, 30);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, y);
+    x.solution = 3;
+    y.solution = 1;
+    ModelCache.Model model = ModelCache.Model.of(pc);
+    ParsableConstraint solved = pc.header;
+
+    LogicalORLinearIntegerConstraints loic = new LogicalORLinearIntegerConstraints();
+    loic.addToList(new LinearIntegerConstraint(x, Comparator.EQ, new IntegerConstant(5)));
+    loic.addToList(new LinearIntegerConstraint(y, Comparator.LE, new IntegerConstant(1)));
+    pc._addDet(loic);
+    pc._addDet(Comparator.LE, x, 30);
+    ModelEvaluator evaluator = new ModelEvaluator(false, 32);
+    assertTrue(evaluator.satisfies(model, pc.header, solved));
+
+    // a new variable is not in the model
+    pc._addDet(Comparator.GE, new SymbolicInteger("z", 0, 30), 0);
+    assertFalse(evaluator.satisfies(model, pc.header, solved));
+  }
+}
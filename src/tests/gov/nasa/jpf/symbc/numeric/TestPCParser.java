@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemChoco;
+import gov.nasa.jpf.symbc.numeric.solvers.ProblemGeneral;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TestPCParser extends TestJPF {
+
+  private static void setUp() {
+    String[] options = {"+symbolic.dp=choco"};
+    new SymbolicInstructionFactory(new Config(options));
+  }
+
+  // x > 5 && x < 10 && y == x + 1
+  private static PathCondition satPC(String x, String y) {
+    SymbolicInteger vx = new SymbolicInteger(x, -100, 100);
+    SymbolicInteger vy = new SymbolicInteger(y, -100, 100);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, vx, 5);
+    pc._addDet(Comparator.LT, vx, 10);
+    pc._addDet(Comparator.EQ, vy, vx._plus(1));
+    return pc;
+  }
+
+  // x > 5 && x < 3
+  private static PathCondition unsatPC(String x) {
+    SymbolicInteger vx = new SymbolicInteger(x, -100, 100);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, vx, 5);
+    pc._addDet(Comparator.LT, vx, 3);
+    return pc;
+  }
+
+  @Test
+  public void testParserKeepsItsOwnVariables() {
+    setUp();
+    PathCondition pc1 = satPC("a", "b");
+    PathCondition pc2 = unsatPC("c");
+
+    PCParser p1 = new PCParser(new ProblemChoco());
+    PCParser p2 = new PCParser(new ProblemChoco());
+    ProblemGeneral pb1 = p1.parse(pc1);
+    ProblemGeneral pb2 = p2.parse(pc2);
+
+    assertEquals(2, p1.symIntegerVar.size());
+    assertEquals(1, p2.symIntegerVar.size());
+    assertTrue(pb1.solve());
+    assertTrue(pb2 == null || !pb2.solve());
+  }
+
+  @Test
+  public void testConcurrentSolving() throws InterruptedException {
+    setUp();
+    final AtomicInteger failures = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int id = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 50; i++) {
+            SymbolicConstraintsGeneral scg = new SymbolicConstraintsGeneral();
+            boolean sat = (id % 2 == 0);
+            PathCondition pc = sat ? satPC("x" + id + "_" + i, "y" + id + "_" + i) : unsatPC("z" + id + "_" + i);
+            if (scg.isSatisfiable(pc) != sat) {
+              failures.incrementAndGet();
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, failures.get());
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.symbc.arrays.ArrayExpression;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+public class TestPathConditionCopy extends TestJPF {
+
+  @Test
+  public void testCopiesShareConstraints() {
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, 0);
+    PathCondition copy = pc.make_copy();
+    assertSame(pc.header, copy.header);
+
+    copy._addDet(Comparator.LT, x, 10);
+    assertEquals(1, pc.count());
+    assertEquals(2, copy.count());
+    assertSame(pc.header, copy.header.and());
+    assertSame(copy, copy.spc.getNpc());
+  }
+
+  @Test
+  public void testArrayExpressionsAreCopiedOnWrite() {
+    ArrayExpression a = new ArrayExpression("a", 3);
+    ArrayExpression b = new ArrayExpression("b", 3);
+    PathCondition pc = new PathCondition();
+    pc.arrayExpressions.put("a", a);
+
+    PathCondition copy = pc.make_copy();
+    assertSame(a, copy.arrayExpressions.get("a"));
+    copy.arrayExpressions.put("b", b);
+    pc.arrayExpressions.put("a", b);
+
+    assertSame(b, pc.arrayExpressions.get("a"));
+    assertFalse(pc.arrayExpressions.containsKey("b"));
+    assertSame(a, copy.arrayExpressions.get("a"));
+    assertSame(b, copy.arrayExpressions.get("b"));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TestQueryLog extends TestJPF {
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    File file = File.createTempFile("queries", ".log");
+    file.deleteOnExit();
+    file.delete();
+
+    SymbolicInteger x = new SymbolicInteger("x", -10, 10);
+    SymbolicReal r = new SymbolicReal("r", -1.5, 2.5);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x._plus(3), 0);
+    pc._addDet(Comparator.LT, x._mul(x), 50);
+    pc._addDet(Comparator.LE, new MathRealExpression(MathFunction.SIN, r), 0.5);
+    pc._addDet(Comparator.EQ, r, x);
+    x.solution = 4;
+    r.solution = 4.0;
+
+    // a small buffer, so that the records do not all fit
+    QueryLog.open(file.getPath(), 64);
+    QueryLog.record("z3", pc, 1234, Boolean.TRUE, true);
+    QueryLog.record("choco", pc, 99, null, false);
+    QueryLog.recordString("string:z3str2", "a.equals(b)", 5, Boolean.FALSE);
+    QueryLog.close();
+
+    QueryLog.Reader reader = new QueryLog.Reader(file);
+    try {
+      QueryLog.Record first = reader.next();
+      assertEquals(QueryLog.NUMERIC, first.kind);
+      assertEquals("z3", first.dp);
+      assertEquals(Boolean.TRUE, first.result);
+      assertEquals(1234, first.nanos);
+      assertEquals(pc.stringPC(), first.getPathCondition().stringPC());
+      assertEquals(4L, first.getModel().get("x"));
+      assertEquals(4.0, first.getModel().get("r"));
+
+      QueryLog.Record second = reader.next();
+      assertNull(second.result);
+      assertNull(second.getModel());
+      assertEquals(pc.stringPC(), second.getPathCondition().stringPC());
+
+      QueryLog.Record third = reader.next();
+      assertEquals(QueryLog.STRING, third.kind);
+      assertEquals(Boolean.FALSE, third.result);
+      assertEquals("a.equals(b)", third.getText());
+
+      assertNull(reader.next());
+    } finally {
+      reader.close();
+    }
+  }
+}
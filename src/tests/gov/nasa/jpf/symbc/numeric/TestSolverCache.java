@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TestSolverCache extends TestJPF {
+
+  private static void setUp(String... extra) {
+    String[] options = new String[extra.length + 2];
+    options[0] = "+symbolic.dp=choco";
+    options[1] = "+symbolic.solver_cache=true";
+    System.arraycopy(extra, 0, options, 2, extra.length);
+    new SymbolicInstructionFactory(new Config(options));
+  }
+
+  // x > 5 && x < 10 && y == x + 1
+  private static PathCondition satPC(SymbolicInteger x, SymbolicInteger y) {
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x, 5);
+    pc._addDet(Comparator.LT, x, 10);
+    pc._addDet(Comparator.EQ, y, x._plus(1));
+    return pc;
+  }
+
+  @Test
+  public void testRenamedVariables() {
+    setUp();
+    PathCondition pc1 = satPC(new SymbolicInteger("a", -100, 100), new SymbolicInteger("b", -100, 100));
+    PathCondition pc2 = satPC(new SymbolicInteger("c", -100, 100), new SymbolicInteger("d", -100, 100));
+    PathCondition pc3 = satPC(new SymbolicInteger("a", -100, 100), new SymbolicInteger("b", -100, 101));
+
+    assertEquals(CanonicalPC.create(pc1).getForm(), CanonicalPC.create(pc2).getForm());
+    assertFalse(CanonicalPC.create(pc1).getForm().equals(CanonicalPC.create(pc3).getForm()));
+  }
+
+  @Test
+  public void testModelFromCache() {
+    setUp();
+    SymbolicInteger a = new SymbolicInteger("a", -100, 100);
+    SymbolicInteger b = new SymbolicInteger("b", -100, 100);
+    assertTrue(satPC(a, b).solve());
+
+    SymbolicInteger c = new SymbolicInteger("c", -100, 100);
+    SymbolicInteger d = new SymbolicInteger("d", -100, 100);
+    assertTrue(satPC(c, d).solve());
+    assertEquals(a.solution, c.solution);
+    assertEquals(b.solution, d.solution);
+    assertEquals(c.solution + 1, d.solution);
+  }
+
+  @Test
+  public void testPersistentCache() throws IOException {
+    File file = File.createTempFile("solver", ".cache");
+    file.delete();
+    try {
+      setUp("+symbolic.solver_cache.file=" + file.getPath());
+      SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+      PathCondition unsat = new PathCondition();
+      unsat._addDet(Comparator.GT, x, 5);
+      unsat._addDet(Comparator.LT, x, 3);
+      assertFalse(unsat.simplify());
+      assertTrue(satPC(new SymbolicInteger("a", -100, 100), new SymbolicInteger("b", -100, 100)).solve());
+
+      // a new run reads the results back from the file
+      setUp("+symbolic.solver_cache.file=" + file.getPath());
+      SolverCache cache = SolverCache.getInstance();
+      assertEquals(0, cache.size());
+      SolverCache.Entry entry = cache.get(CanonicalPC.create(unsat));
+      assertNotNull(entry);
+      assertFalse(entry.sat);
+      entry = cache.get(CanonicalPC.create(satPC(new SymbolicInteger("u", -100, 100),
+          new SymbolicInteger("v", -100, 100))));
+      assertNotNull(entry);
+      assertTrue(entry.sat);
+      assertEquals(2, entry.model.length);
+    } finally {
+      SolverCache.close();
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric;
+
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class TestSolverStatistics extends TestJPF {
+
+  @Test
+  public void testBuckets() {
+    assertEquals(0, SolverStatistics.bucket(999));
+    assertEquals(1, SolverStatistics.bucket(1000));
+    assertEquals(2, SolverStatistics.bucket(3999));
+    assertEquals(3, SolverStatistics.bucket(4000));
+    assertEquals(SolverStatistics.BUCKETS - 1, SolverStatistics.bucket(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testRecordsOnlyWhenEnabled() {
+    SolverStatistics.reset();
+    SolverStatistics.recordQuery("choco", 3, 2, 1000, 5000, Boolean.TRUE);
+    StringWriter csv = new StringWriter();
+    SolverStatistics.writeCSV(new PrintWriter(csv), 0);
+    assertEquals("", csv.toString());
+
+    SolverStatistics.setEnabled(true);
+    try {
+      SolverStatistics.recordQuery("choco", 3, 2, 1000, 5000, Boolean.TRUE);
+      SolverStatistics.recordQuery("choco", 5, 4, 1000, 5000, null);
+      SolverStatistics.recordCacheHit();
+
+      csv = new StringWriter();
+      SolverStatistics.writeCSV(new PrintWriter(csv), 42);
+      assertTrue(csv.toString().startsWith("42,choco,2,1,0,1,"));
+
+      StringWriter json = new StringWriter();
+      SolverStatistics.writeJSON(new PrintWriter(json), 42);
+      assertTrue(json.toString().contains("\"cache_hits\":1"));
+      assertTrue(json.toString().contains("\"choco\":{\"queries\":2"));
+      assertTrue(json.toString().contains("\"avg_pc_length\":4"));
+    } finally {
+      SolverStatistics.setEnabled(false);
+      SolverStatistics.reset();
+    }
+  }
+}
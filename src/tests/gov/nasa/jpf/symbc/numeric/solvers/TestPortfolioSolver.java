@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric.solvers;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.Comparator;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.SymbolicConstraintsGeneral;
+import gov.nasa.jpf.symbc.numeric.SymbolicInteger;
+import gov.nasa.jpf.symbc.numeric.SymbolicReal;
+import gov.nasa.jpf.symbc.numeric.solvers.PortfolioSolver.Shape;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+public class TestPortfolioSolver extends TestJPF {
+
+  @Test
+  public void testShapes() {
+    SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+    SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+    SymbolicReal r = new SymbolicReal("r", -100, 100);
+
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, x._plus(y), 0);
+    assertEquals(Shape.LINEAR, PortfolioSolver.classify(pc));
+
+    pc._addDet(Comparator.LT, r, 0.5);
+    assertEquals(Shape.REAL, PortfolioSolver.classify(pc));
+
+    pc._addDet(Comparator.NE, x._mul(y), 3);
+    assertEquals(Shape.NON_LINEAR, PortfolioSolver.classify(pc));
+
+    pc._addDet(Comparator.EQ, x._and(7), 1);
+    assertEquals(Shape.BITWISE, PortfolioSolver.classify(pc));
+  }
+
+  @Test
+  public void testRace() {
+    String[] options = { "+symbolic.dp=portfolio", "+symbolic.portfolio=choco,choco" };
+    new SymbolicInstructionFactory(new Config(options));
+    try {
+      SymbolicInteger x = new SymbolicInteger("x", -100, 100);
+      SymbolicInteger y = new SymbolicInteger("y", -100, 100);
+      PathCondition sat = new PathCondition();
+      sat._addDet(Comparator.GT, x, 5);
+      sat._addDet(Comparator.LT, x, 10);
+      sat._addDet(Comparator.EQ, y, x._plus(1));
+
+      SymbolicInteger z = new SymbolicInteger("z", -100, 100);
+      PathCondition unsat = new PathCondition();
+      unsat._addDet(Comparator.GT, z, 5);
+      unsat._addDet(Comparator.LT, z, 3);
+
+      assertTrue(new SymbolicConstraintsGeneral().isSatisfiable(sat));
+      assertFalse(new SymbolicConstraintsGeneral().isSatisfiable(unsat));
+
+      // the model of the winner ends up in the variables
+      assertTrue(new SymbolicConstraintsGeneral().solve(sat));
+      assertTrue(x.solution > 5 && x.solution < 10);
+      assertEquals(x.solution + 1, y.solution);
+
+      String statistics = PortfolioSolver.getInstance().getStatistics();
+      assertTrue(statistics, statistics.contains("3 races"));
+      assertTrue(statistics, statistics.contains("0 undecided"));
+    } finally {
+      PortfolioSolver.shutdown();
+    }
+  }
+}
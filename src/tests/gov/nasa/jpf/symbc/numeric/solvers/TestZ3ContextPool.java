@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.numeric.solvers;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.bytecode.optimization.util.ParallelPCSolver;
+import gov.nasa.jpf.symbc.numeric.Comparator;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.numeric.SymbolicInteger;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class TestZ3ContextPool extends TestJPF {
+
+  // stands in for a Z3 context, so that the pool can be tested without Z3
+  static class Context {
+    final int id;
+    int resets = 0;
+
+    Context(int id) {
+      this.id = id;
+    }
+  }
+
+  private static Z3ContextPool<Context> pool(String... options) {
+    Z3ContextPool.configure(new Config(options));
+    final AtomicInteger created = new AtomicInteger();
+    return new Z3ContextPool<Context>("test", () -> new Context(created.getAndIncrement()), c -> c.resets++);
+  }
+
+  @Test
+  public void testSharedContext() {
+    Z3ContextPool<Context> pool = pool();
+    Context main = pool.get();
+    final AtomicReference<Context> other = new AtomicReference<Context>();
+    Thread t = new Thread(() -> other.set(pool.get()));
+    t.start();
+    join(t);
+    assertSame(main, other.get());
+  }
+
+  @Test
+  public void testContextPerThread() throws InterruptedException {
+    final Z3ContextPool<Context> pool = pool("+symbolic.z3.contexts=2");
+    final CountDownLatch bothHaveOne = new CountDownLatch(2);
+    final Context[] contexts = new Context[2];
+    final boolean[] kept = new boolean[2];
+    Thread[] threads = new Thread[2];
+    for (int i = 0; i < threads.length; i++) {
+      final int id = i;
+      threads[i] = new Thread(() -> {
+        contexts[id] = pool.get();
+        bothHaveOne.countDown();
+        try {
+          bothHaveOne.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        kept[id] = (pool.get() == contexts[id]);
+      });
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      join(t);
+    }
+    assertNotSame(contexts[0], contexts[1]);
+    assertTrue(kept[0] && kept[1]);
+    assertEquals(0, contexts[0].resets + contexts[1].resets);
+  }
+
+  @Test
+  public void testContextsOfDeadThreads() {
+    final Z3ContextPool<Context> pool = pool("+symbolic.z3.contexts=1");
+    final AtomicReference<Context> first = new AtomicReference<Context>();
+    Thread t = new Thread(() -> first.set(pool.get()));
+    t.start();
+    join(t);
+
+    // the only context belonged to a thread that is gone: no waiting for it
+    Context context = pool.get();
+    assertSame(first.get(), context);
+    assertEquals(1, context.resets);
+
+    pool.release();
+    Thread u = new Thread(() -> first.set(pool.get()));
+    u.start();
+    join(u);
+    assertSame(context, first.get());
+    assertEquals(2, context.resets);
+  }
+
+  // x > 5 && x < 10, the other way round for the unsatisfiable one
+  private static PathCondition pc(String x, boolean sat) {
+    SymbolicInteger vx = new SymbolicInteger(x, -100, 100);
+    PathCondition pc = new PathCondition();
+    pc._addDet(Comparator.GT, vx, sat ? 5 : 10);
+    pc._addDet(Comparator.LT, vx, sat ? 10 : 5);
+    return pc;
+  }
+
+  @Test
+  public void testParallelBranchesWithZ3() {
+    String[] options = { "+symbolic.dp=z3", "+symbolic.z3.contexts=3", "+symbolic.parallel_branches=true",
+        "+symbolic.parallel_branches.threads=2" };
+    new SymbolicInstructionFactory(new Config(options));
+    try {
+      assertTrue(ParallelPCSolver.isThreadSafe("z3"));
+      for (int i = 0; i < 20; i++) {
+        boolean[] results = ParallelPCSolver.simplify(pc("a" + i, true), pc("b" + i, false), pc("c" + i, true));
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertTrue(results[2]);
+      }
+      assertEquals(20, ParallelPCSolver.getParallelBranches());
+    } finally {
+      ParallelPCSolver.shutdown();
+      Z3ContextPool.configure(new Config(new String[0]));
+    }
+  }
+
+  private static void join(Thread t) {
+    try {
+      t.join();
+    } catch (InterruptedException e) {
+      fail("interrupted");
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014, United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ *
+ * Symbolic Pathfinder (jpf-symbc) is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gov.nasa.jpf.symbc.string.translate;
+
+import gov.nasa.jpf.Config;
+import gov.nasa.jpf.symbc.SymbolicInstructionFactory;
+import gov.nasa.jpf.symbc.numeric.Comparator;
+import gov.nasa.jpf.symbc.numeric.IntegerConstant;
+import gov.nasa.jpf.symbc.numeric.PathCondition;
+import gov.nasa.jpf.symbc.string.StringComparator;
+import gov.nasa.jpf.symbc.string.StringConstant;
+import gov.nasa.jpf.symbc.string.StringPathCondition;
+import gov.nasa.jpf.symbc.string.StringSymbolic;
+import gov.nasa.jpf.util.test.TestJPF;
+
+import org.junit.Test;
+
+public class TestAutomataMemo extends TestJPF {
+
+	@Test
+	public void testSiblingPaths () {
+		String[] options = {"+symbolic.dp=choco",
+				"+symbolic.string_dp=automata",
+				"+symbolic.string_dp_timeout_ms=0"};
+		new SymbolicInstructionFactory(new Config(options));
+		AutomataMemo.clear();
+
+		StringSymbolic var1 = new StringSymbolic("var1");
+		StringSymbolic var2 = new StringSymbolic("var2");
+		PathCondition pc = new PathCondition();
+		pc._addDet(Comparator.EQ, var1._length(), new IntegerConstant(4));
+		pc._addDet(Comparator.EQ, var2._length(), new IntegerConstant(2));
+		StringPathCondition stringPC = new StringPathCondition(pc);
+		stringPC._addDet(StringComparator.CONTAINS, var2, var1);
+		stringPC._addDet(StringComparator.NOTSTARTSWITH, var2, var1);
+		assertTrue(stringPC.simplify());
+		assertEquals(0, AutomataMemo.hits);
+		String solution1 = var1.solution();
+		String solution2 = var2.solution();
+
+		// a sibling path: the same constraints on var1 and var2, and one more on var3
+		StringSymbolic var3 = new StringSymbolic("var3");
+		pc = new PathCondition();
+		pc._addDet(Comparator.EQ, var1._length(), new IntegerConstant(4));
+		pc._addDet(Comparator.EQ, var2._length(), new IntegerConstant(2));
+		stringPC = new StringPathCondition(pc);
+		stringPC._addDet(StringComparator.CONTAINS, var2, var1);
+		stringPC._addDet(StringComparator.NOTSTARTSWITH, var2, var1);
+		stringPC._addDet(StringComparator.STARTSWITH, new StringConstant("b"), var3);
+		assertTrue(stringPC.simplify());
+		assertTrue(AutomataMemo.hits > 0);
+		assertEquals(solution1, var1.solution());
+		assertEquals(solution2, var2.solution());
+		assertTrue(var1.solution().contains(var2.solution()));
+		assertFalse(var1.solution().startsWith(var2.solution()));
+		assertTrue(var3.solution().startsWith("b"));
+	}
+}
@@ -114,6 +114,40 @@ public class TestNewAutomata extends TestJPF {
 		}
 	}
 	
+	@Test
+	public void Test1_4 () {
+		//a budget of 1 gives up on the search right away, which is reported as a timeout
+		for (String budget: new String[]{"1", "100000"}) {
+			String[] options = {"+symbolic.dp=choco",
+					"+symbolic.string_dp=automata",
+					"+symbolic.string_dp_timeout_ms=0",
+					"+symbolic.string_nots_budget=" + budget};
+			Config cfg = new Config(options);
+			new SymbolicInstructionFactory(cfg);
+			StringPathCondition stringCurrentPC = new StringPathCondition(new PathCondition());
+			StringSymbolic var[] = new StringSymbolic[4];
+			for (int i = 0; i < var.length; i++) {
+				var[i] = new StringSymbolic("var" + i);
+			}
+			for (int i = 0; i < var.length-1; i++) {
+				for (int j = i+1; j < var.length; j++) {
+					stringCurrentPC._addDet(StringComparator.NOTEQUALS, var[i], var[j]);
+				}
+			}
+			boolean result = stringCurrentPC.simplify();
+			if (budget.equals("1")) {
+				assertFalse(result);
+				continue;
+			}
+			assertTrue(result);
+			for (int i = 0; i < var.length-1; i++) {
+				for (int j = i+1; j < var.length; j++) {
+					assertTrue(!var[i].solution().equals(var[j].solution()));
+				}
+			}
+		}
+	}
+	
 	//NOTSTARTSWITH
 	@Test
 	public void Test2_1 () {
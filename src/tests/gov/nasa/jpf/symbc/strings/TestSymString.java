@@ -4440,6 +4440,40 @@ public class TestSymString extends TestJPF {
 		}
 	}
 	
-	
-
+	@Test
+	public void TestSatIncremental () {
+		String[] options = {"+symbolic.dp=choco",
+				"+symbolic.string_dp=sat",
+				"+symbolic.string_sat.incremental=true",
+				"+symbolic.string_dp_timeout_ms=0"};
+		Config cfg = new Config(options);
+		new SymbolicInstructionFactory(cfg);
+		StringPathCondition stringCurrentPC = new StringPathCondition(new PathCondition());
+		StringSymbolic var1 = new StringSymbolic("var1");
+		stringCurrentPC._addDet(StringComparator.STARTSWITH, new StringConstant("ab"), var1);
+		stringCurrentPC._addDet(StringComparator.NOTEQUALS, new StringConstant("abc"), var1);
+		assertTrue(stringCurrentPC.simplify());
+		assertTrue(var1.solution().startsWith("ab"));
+		assertTrue(!var1.solution().equals("abc"));
+		
+		/* the child reuses the solver of the parent */
+		stringCurrentPC._addDet(StringComparator.ENDSWITH, new StringConstant("c"), var1);
+		assertTrue(stringCurrentPC.simplify());
+		assertTrue(var1.solution().startsWith("ab"));
+		assertTrue(var1.solution().endsWith("c"));
+		assertTrue(!var1.solution().equals("abc"));
+		
+		/* the sibling path: var1 == "abc" contradicts the NOTEQUALS of the
+		 * first path, whose clauses must not hold here */
+		StringPathCondition otherPC = new StringPathCondition(new PathCondition());
+		otherPC._addDet(StringComparator.STARTSWITH, new StringConstant("ab"), var1);
+		otherPC._addDet(StringComparator.EQUALS, new StringConstant("abc"), var1);
+		assertTrue(otherPC.simplify());
+		assertTrue(var1.solution().equals("abc"));
+		
+		/* and back on the first path they hold again */
+		assertTrue(stringCurrentPC.simplify());
+		assertTrue(var1.solution().endsWith("c"));
+		assertTrue(!var1.solution().equals("abc"));
+	}
 }